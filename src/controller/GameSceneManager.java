@@ -1,24 +1,31 @@
 package controller;
 
+import view.GameLoop;
 import view.GameScene;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 
 /**
  * GameSceneManager.java
  *
  * Purpose: Provides an interface to manage game scenes.
- *      The scenes are managed in a Stack structure.
+ *      The scenes are managed as a stack, with the active scene on top.
+ *      Opening a scene suspends the one below it, and closing a scene
+ *      disposes it and resumes the one below it.
+ *
+ *      Must only be used from the JavaFX application thread.
  */
 public final class GameSceneManager
 {
-    private static Stack<GameScene> scenes = new Stack<>();
+    private static Deque<GameScene> scenes = new ArrayDeque<>();
 
 
     /**
      * getActiveScene()
      *
-     * Purpose: Returns the active scene.
+     * Purpose: Returns the active scene, or null if there is none.
      */
     public static GameScene getActiveScene ()
     {
@@ -26,6 +33,17 @@ public final class GameSceneManager
     } // getActiveScene()
 
 
+    /**
+     * getSceneCount()
+     *
+     * Purpose: Returns the number of scenes in the stack.
+     */
+    public static int getSceneCount ()
+    {
+        return scenes.size();
+    } // getSceneCount()
+
+
     /**
      * getPreviousScene()
      *
@@ -34,31 +52,45 @@ public final class GameSceneManager
      */
     public static GameScene getPreviousScene ()
     {
-        return scenes.size() > 1 ? scenes.get(scenes.size()-2) : null;
+        if (scenes.size() < 2)
+            return null;
+        final Iterator<GameScene> fromTop = scenes.iterator();
+        fromTop.next();
+        return fromTop.next();
     } // getPreviousScene()
 
 
     /**
      * addScene()
      *
-     * Purpose: Pushes a new GameScene to the stack of scenes.
+     * Purpose: Pushes a new GameScene to the stack of scenes and makes it
+     *      active. The scene below is suspended, and hidden unless the new
+     *      scene opens over it.
      */
-    public static void addScene (GameScene newScene)
+    public static void addScene (final GameScene newScene)
     {
-        newScene.setWidth(PokemonSafari.getWindowWidth());
-        newScene.setHeight(PokemonSafari.getWindowHeight());
-        scenes.add(newScene);
+        newScene.setSize(PokemonSafari.getWindowWidth(), PokemonSafari.getWindowHeight());
+        final GameScene previousScene = scenes.peek();
+        if (previousScene != null)
+            previousScene.suspend(!newScene.isOverlay());
+        scenes.push(newScene);
+        GameLoop.getInstance().setActiveScene(newScene);
     } // addScene()
 
 
     /**
      * removeScene()
      *
-     * Purpose: Removes the active scene from the stack of scenes.
+     * Purpose: Removes the active scene from the stack of scenes, disposes
+     *      it and returns it. The scene below becomes active, and must be
+     *      resumed by the caller.
      */
-    public static void removeScene ()
+    public static GameScene removeScene ()
     {
-        scenes.pop();
+        final GameScene removedScene = scenes.pop();
+        removedScene.dispose();
+        GameLoop.getInstance().setActiveScene(scenes.peek());
+        return removedScene;
     } // removeScene()
 
 } // final class GameSceneManager
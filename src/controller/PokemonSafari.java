@@ -1,21 +1,47 @@
 package controller;
 
+import controller.audio.AudioCommandQueue;
 import controller.audio.CryPlayer;
 import controller.audio.MusicPlayer;
 import controller.audio.SfxPlayer;
+import controller.input.InputQueue;
+import controller.metrics.GameMetrics;
+import controller.metrics.SceneTransitionEvent;
+import controller.session.SessionLog;
+import controller.session.SessionRecorder;
+import controller.session.SessionReplayer;
+import controller.telemetry.Telemetry;
+import controller.telemetry.TelemetryEvent;
 import javafx.application.Application;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.event.EventHandler;
 import javafx.scene.Scene;
-import javafx.scene.image.Image;
+import javafx.scene.control.Alert;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import model.player.Player;
+import model.player.PlayerJournal;
+import view.GameAnimation;
+import view.GameLoop;
 import view.GameScene;
 import view.NameEntryScene;
 import view.OverworldScene;
+import view.perf.DrawCallBudget;
+import view.perf.FrameStats;
+import view.perf.PerformanceHud;
+import view.render.ImageLoader;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * PokemonSafari.java
@@ -26,24 +52,122 @@ public final class PokemonSafari extends Application
 {
     private static final String ICON_FILENAME = "images/icons/safari_ball.png";
     private static final String WINDOW_TITLE = "Pokemon Safari";
+    private static final Path SAVE_FILE = Paths.get("saves/safari.sav");
+    private static final Path JOURNAL_FILE = Paths.get("saves/safari.journal");
+    private static final String SESSION_FOLDER_PREFIX = "safari-session";
+    private static final String TELEMETRY_FOLDER = "telemetry";
+    private static final String DAMAGED_SUFFIX = ".damaged-";
+
+    private static final String RECORD_OPTION = "record";    // --record=<file>
+    private static final String REPLAY_OPTION = "replay";    // --replay=<file>
+    private static final String SPEED_OPTION = "speed";      // --speed=max
+    private static final String MAX_SPEED = "max";
+    private static final String TURBO_OPTION = "turbo";      // --turbo=1x|2x|4x|instant
+    private static final String HEADLESS_OPTION = "headless"; // --headless, with --replay=<file>
+    private static final String BUDGET_OPTION = "budget";    // --budget=<file>, with --headless
+    private static final KeyCode HUD_KEY = KeyCode.F3;         // shows the performance overlay
+    private static final KeyCode TURBO_KEY = KeyCode.F4;       // cycles the time scale
+    private static final KeyFilter KEY_FILTER = new KeyFilter();
 
     private static final double WINDOW_WIDTH = 352 * 2.5;
     private static final double WINDOW_HEIGHT = 288 * 2.5;
 
     private static Pane root;
+    private static PerformanceHud hud;
+    private static PlayerJournal journal;
+    private static SessionReplayer replayer;
+    private static boolean headless;
+    private static boolean gameEnded;
 
 
     /**
      * main()
      *
-     * Purpose: Launches the application.
+     * Purpose: Launches the application. A session can be recorded with
+     *      --record=<file> and replayed with --replay=<file>, adding
+     *      --speed=max to replay it as fast as possible, or --headless to
+     *      replay it without a window, adding --budget=<file> to check its
+     *      draw calls against a DrawCallBudget. The game can be played
+     *      faster with --turbo=2x, 4x or instant.
      */
     public static void main (final String[] args)
     {
-        Application.launch();
+        final Map<String, String> options = parseOptions(args);
+        if (options.containsKey(HEADLESS_OPTION))
+            runHeadless(options);
+        else
+            Application.launch(args);
     } // main()
 
 
+    /**
+     * parseOptions()
+     *
+     * Purpose: Returns the --name=value options of the command line, like
+     *      the named parameters of the application, with an empty value for
+     *      options given as --name alone.
+     */
+    private static Map<String, String> parseOptions (final String[] args)
+    {
+        final Map<String, String> options = new HashMap<>();
+        for (String arg : args)
+        {
+            if (!arg.startsWith("--"))
+                continue;
+            final int equals = arg.indexOf('=');
+            if (equals < 0)
+                options.put(arg.substring(2), "");
+            else
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    } // parseOptions()
+
+
+    /**
+     * runHeadless()
+     *
+     * Purpose: Replays the session given with --replay=<file> without a
+     *      window, sound or the JavaFX toolkit. Scenes are drawn with the
+     *      headless backend and the GameLoop is pulsed by hand, one frame
+     *      per pulse so that FrameStats measures every frame, as fast as
+     *      the machine allows. Once the session or the game ends, the draw
+     *      calls of every scene are checked against the budget given with
+     *      --budget=<file>, if any, and the process exits with a failure
+     *      status if a scene went over its budget.
+     */
+    private static void runHeadless (final Map<String, String> options)
+    {
+        if (!options.containsKey(REPLAY_OPTION))
+            throw new IllegalArgumentException("--" + HEADLESS_OPTION + " needs a session: --" + REPLAY_OPTION + "=<file>");
+        headless = true;
+        GameScene.setBackend(GameScene.Backend.Headless);
+        GameLoop.getInstance().setManualPulse(true);
+        AudioCommandQueue.setEnabled(false);
+        options.remove(SPEED_OPTION);
+        try {
+            startSession(options);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        while (replayer.isRunning() && !gameEnded)
+            GameLoop.getInstance().runPulse();
+        boolean withinBudget = true;
+        if (options.containsKey(BUDGET_OPTION))
+        {
+            try {
+                withinBudget = DrawCallBudget.load(options.get(BUDGET_OPTION)).check(FrameStats.getInstance(), System.out);
+            } catch (IOException e) {
+                e.printStackTrace();
+                withinBudget = false;
+            }
+        }
+        journal.close();
+        System.exit(withinBudget ? 0 : 1);
+    } // runHeadless()
+
+
     /**
      * start()
      *
@@ -52,13 +176,80 @@ public final class PokemonSafari extends Application
     @Override
     public void start (final Stage window) throws Exception
     {
+        GameMetrics.getInstance().register();
         initWindow(window);
         initMediaPlayers();
         window.show();
-        PokemonSafari.goToNextScene(new OverworldScene(new Player("you")));
+
+        final Map<String, String> options = this.getParameters().getNamed();
+        if (options.containsKey(TURBO_OPTION))
+            GameLoop.getInstance().setTimeScale(GameLoop.TimeScale.fromLabel(options.get(TURBO_OPTION)));
+        if (options.containsKey(RECORD_OPTION) || options.containsKey(REPLAY_OPTION))
+        {
+            startSession(options);
+            return;
+        }
+        Player loadedPlayer;
+        Path saveFolder = SAVE_FILE.getParent();
+        try {
+            loadedPlayer = loadGame();
+        } catch (IOException e) {
+            e.printStackTrace();
+            loadedPlayer = null;
+            if (!setAsideDamagedSave(window, e))
+                saveFolder = Files.createTempDirectory(SESSION_FOLDER_PREFIX);
+        }
+        final Player savedPlayer = loadedPlayer;
+        final Player player = savedPlayer == null ? new Player("you") : savedPlayer;
+        final Path snapshotFile = saveFolder.resolve(SAVE_FILE.getFileName());
+        final Path journalFile = saveFolder.resolve(JOURNAL_FILE.getFileName());
+        final SceneLoader<OverworldScene.Assets> overworld = SceneLoader.start(new SceneLoader.Builder<OverworldScene.Assets>() {
+            @Override
+            public OverworldScene.Assets load() {
+                return new OverworldScene.Assets();
+            }
+
+            @Override
+            public GameScene build(final OverworldScene.Assets assets) {
+                final OverworldScene scene = new OverworldScene(player, savedPlayer == null, assets);
+                // Journaled from where the scene placed the player
+                journal = new PlayerJournal(player, snapshotFile, journalFile);
+                return scene;
+            }
+        });
+        PokemonSafari.goToNextScene(overworld);
     } // start()
 
 
+    /**
+     * startSession()
+     *
+     * Purpose: Starts a new game that is recorded or replayed. Sessions
+     *      always start from a new game and save and log their telemetry
+     *      into a temporary folder, so they are repeatable and leave the real
+     *      save and the gameplay analytics alone.
+     */
+    private static void startSession (final Map<String, String> options) throws IOException
+    {
+        final Path sessionFolder = Files.createTempDirectory(SESSION_FOLDER_PREFIX);
+        Telemetry.setFolder(sessionFolder.resolve(TELEMETRY_FOLDER));
+        if (options.containsKey(REPLAY_OPTION))
+        {
+            replayer = new SessionReplayer(SessionLog.read(Paths.get(options.get(REPLAY_OPTION))), KEY_FILTER,
+                    MAX_SPEED.equals(options.get(SPEED_OPTION)));
+            replayer.start();
+        }
+        else
+            SessionRecorder.getInstance().start(Paths.get(options.get(RECORD_OPTION)));
+
+        final Player player = new Player("you");
+        final OverworldScene overworld = new OverworldScene(player);
+        journal = new PlayerJournal(player, sessionFolder.resolve(SAVE_FILE.getFileName()),
+                sessionFolder.resolve(JOURNAL_FILE.getFileName()));
+        PokemonSafari.goToNextScene(overworld);
+    } // startSession()
+
+
     /**
      * initWindow()
      *
@@ -67,8 +258,27 @@ public final class PokemonSafari extends Application
     private static void initWindow (final Stage window)
     {
         root = new Pane();
+        hud = new PerformanceHud();
+        root.getChildren().add(hud);
         final Scene scene = new Scene(root);
-        try { window.getIcons().add(new Image(new FileInputStream(ICON_FILENAME))); }
+        scene.addEventFilter(KeyEvent.ANY, KEY_FILTER);
+        window.focusedProperty().addListener(new ChangeListener<Boolean>() {
+            @Override
+            public void changed (final ObservableValue<? extends Boolean> focused, final Boolean wasFocused,
+                                 final Boolean isFocused)
+            {
+                // Parking and keys released while unfocused depend on the focus, but sessions must
+                // replay as recorded
+                if (replayer != null || SessionRecorder.getInstance().isRecording())
+                    return;
+                GameScene.setWindowFocused(isFocused);
+                if (!isFocused)
+                    InputQueue.getInstance().releaseAll();
+                else if (GameSceneManager.getActiveScene() != null)
+                    GameSceneManager.getActiveScene().unpark();
+            }
+        });
+        try { window.getIcons().add(ImageLoader.load(ICON_FILENAME)); }
         catch (IOException e) { e.printStackTrace(); }
         window.setTitle(WINDOW_TITLE);
         window.setWidth(WINDOW_WIDTH);
@@ -81,16 +291,108 @@ public final class PokemonSafari extends Application
     /**
      * initMediaPlayers()
      *
-     * Purpose: Calls getInstance on all media players to initialize them.
+     * Purpose: Calls getInstance on all media players to initialize them,
+     *      and preloads the sound effects.
      */
     private void initMediaPlayers ()
     {
         CryPlayer.getInstance();
         MusicPlayer.getInstance();
-        SfxPlayer.getInstance();
+        SfxPlayer.getInstance().preloadLibrary();
     } // initMediaPlayers()
 
 
+    /**
+     * loadGame()
+     *
+     * Purpose: Loads the saved Player with the progress journaled since the
+     *      last save, or returns null if there is no save. A save of a game
+     *      that already ended, left by a crash before it was deleted, is
+     *      deleted and not loaded.
+     */
+    private static Player loadGame () throws IOException
+    {
+        final Player player = PlayerJournal.recover(SAVE_FILE, JOURNAL_FILE);
+        if (player == null || player.getStepsRemaining() > 0)
+            return player;
+        PlayerJournal.discard(SAVE_FILE, JOURNAL_FILE);
+        return null;
+    } // loadGame()
+
+
+    /**
+     * setAsideDamagedSave()
+     *
+     * Purpose: Renames a save that cannot be read, so that the new game does
+     *      not save over it, and tells the player where it went. Returns
+     *      false if it could not be renamed, in which case the player is told
+     *      that this game will not be saved.
+     */
+    private static boolean setAsideDamagedSave (final Stage window, final IOException error)
+    {
+        final String suffix = DAMAGED_SUFFIX + System.currentTimeMillis();
+        final Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.initOwner(window);
+        alert.setTitle(WINDOW_TITLE);
+        alert.setHeaderText("Your saved game could not be loaded.");
+        boolean renamed;
+        try {
+            for (Path file : new Path[] { JOURNAL_FILE, SAVE_FILE })
+                if (Files.exists(file))
+                    Files.move(file, file.resolveSibling(file.getFileName() + suffix),
+                            StandardCopyOption.ATOMIC_MOVE);
+            alert.setContentText(error.getMessage() + "\n\nIt was kept in " + SAVE_FILE.getParent()
+                    + " as files ending in " + suffix + ". A new game will be started.");
+            renamed = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            alert.setContentText(error.getMessage() + "\n\nIt could not be moved aside, so it is left as "
+                    + SAVE_FILE + " and this new game will not be saved.");
+            renamed = false;
+        }
+        alert.showAndWait();
+        return renamed;
+    } // setAsideDamagedSave()
+
+
+    /**
+     * exitGame()
+     *
+     * Purpose: Closes the game once it is over. A headless replay is only
+     *      stopped, so that it can report on the session before it exits.
+     */
+    public static void exitGame ()
+    {
+        if (headless)
+            gameEnded = true;
+        else
+            System.exit(0);  // Exit with SUCCESS
+    } // exitGame()
+
+
+    /**
+     * saveGame()
+     *
+     * Purpose: Saves the game in the background. Progress is journaled as it
+     *      happens, so this only folds the journal into a full save.
+     */
+    public static void saveGame ()
+    {
+        journal.compact();
+    } // saveGame()
+
+
+    /**
+     * getJournal()
+     *
+     * Purpose: Returns the journal that autosaves the progress of the Player.
+     */
+    public static PlayerJournal getJournal ()
+    {
+        return journal;
+    } // getJournal()
+
+
     /**
      * getWindowWidth()
      *
@@ -120,12 +422,48 @@ public final class PokemonSafari extends Application
      */
     public static void goToNextScene (final GameScene nextScene)
     {
+        final SceneTransitionEvent transition = new SceneTransitionEvent();
+        transition.begin();
+        final GameScene previousScene = GameSceneManager.getActiveScene();
+        InputQueue.getInstance().clear();
         GameSceneManager.addScene(nextScene);
-        root.getChildren().add(nextScene);
+        if (root != null)
+            root.getChildren().add(root.getChildren().indexOf(hud), nextScene);
+        FrameStats.getInstance().setScene(nextScene);
         GameSceneManager.getActiveScene().start();
+        endTransition(transition, previousScene, false);
     } // goToNextScene()
 
 
+    /**
+     * goToNextScene (SceneLoader)
+     *
+     * Purpose: Builds and starts the scene of the given loader as soon as its
+     *      data is loaded. Until then the current scene stays as its
+     *      transition left it, while the game keeps running. When a session
+     *      is recorded or replayed, the data is waited for instead, so that
+     *      the scene starts on the same frame every time.
+     */
+    public static void goToNextScene (final SceneLoader<?> loader)
+    {
+        if (loader.isDone() || replayer != null || SessionRecorder.getInstance().isRecording())
+        {
+            PokemonSafari.goToNextScene(loader.get());
+            return;
+        }
+        new GameAnimation() {
+            @Override
+            public void handle (final long now)
+            {
+                if (!loader.isDone())
+                    return;
+                this.stop();
+                PokemonSafari.goToNextScene(loader.get());
+            }
+        }.start();
+    } // goToNextScene (SceneLoader)
+
+
     /**
      * goToPreviousScene()
      *
@@ -133,9 +471,80 @@ public final class PokemonSafari extends Application
      */
     public static void goToPreviousScene ()
     {
-        GameSceneManager.removeScene();
-        root.getChildren().remove(root.getChildren().size()-1);
-        GameSceneManager.getActiveScene().restart();
+        final SceneTransitionEvent transition = new SceneTransitionEvent();
+        transition.begin();
+        InputQueue.getInstance().clear();
+        final GameScene previousScene = GameSceneManager.removeScene();
+        if (root != null)
+            root.getChildren().remove(previousScene);
+        FrameStats.getInstance().setScene(GameSceneManager.getActiveScene());
+        GameSceneManager.getActiveScene().resume();
+        endTransition(transition, previousScene, true);
     } // goToPreviousScene()
 
+
+    /**
+     * endTransition()
+     *
+     * Purpose: Reports a change from the given scene to the active scene to
+     *      the telemetry, the metrics and the flight recorder.
+     */
+    private static void endTransition (final SceneTransitionEvent transition, final GameScene from, final boolean returning)
+    {
+        final String to = GameSceneManager.getActiveScene().getClass().getSimpleName();
+        Telemetry.getInstance().emit(TelemetryEvent.SceneEnter, to, 0, 0, 0);
+        GameMetrics.getInstance().countSceneTransition();
+        if (transition.shouldCommit())
+        {
+            transition.from = from == null ? null : from.getClass().getSimpleName();
+            transition.to = to;
+            transition.returning = returning;
+            transition.depth = GameSceneManager.getSceneCount();
+            transition.commit();
+        }
+    } // endTransition()
+
+
+    /**
+     * KeyFilter
+     *
+     * Purpose: Sees every key event of the window before the scenes do. The
+     *      overlay and turbo keys are handled here, and every other key is
+     *      recorded, queued for the scenes and wakes the active scene. A
+     *      replay hands its key events straight to it, so the game can be
+     *      replayed without a window.
+     */
+    private static final class KeyFilter implements EventHandler<KeyEvent>
+    {
+        @Override
+        public void handle (final KeyEvent event)
+        {
+            if (event.getCode() == HUD_KEY)
+            {
+                if (event.getEventType() == KeyEvent.KEY_PRESSED)
+                    hud.toggle();
+                event.consume();
+                return;
+            }
+            if (event.getCode() == TURBO_KEY)
+            {
+                if (event.getEventType() == KeyEvent.KEY_PRESSED && replayer == null)
+                    GameLoop.getInstance().setTimeScale(GameLoop.getInstance().getTimeScale().next());
+                event.consume();
+                return;
+            }
+            if (replayer != null && replayer.isBlocking())
+            {
+                event.consume();
+                return;
+            }
+            if (event.getEventType() == KeyEvent.KEY_TYPED)
+                return;
+            SessionRecorder.getInstance().record(event);
+            InputQueue.getInstance().record(event);
+            if (event.getEventType() == KeyEvent.KEY_PRESSED && GameSceneManager.getActiveScene() != null)
+                GameSceneManager.getActiveScene().wake();
+        }
+    } // final class KeyFilter
+
 } // final class PokemonSafari
@@ -0,0 +1,130 @@
+package controller;
+
+import view.GameScene;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * SceneLoader.java
+ *
+ * Purpose: Loads what a GameScene needs on a worker thread, so that reading
+ *      its map and decoding its images does not hold up the JavaFX
+ *      application thread.
+ *
+ *      Only data is loaded off that thread: files, images and the like, but
+ *      no scene graph nodes and nothing shared with the running game. The
+ *      scene itself is built from that data on the JavaFX application thread
+ *      when it is asked for.
+ *
+ *      The data is meant to be loaded while the outgoing scene plays its
+ *      transition, and the loader handed to PokemonSafari.goToNextScene()
+ *      once the transition is over.
+ */
+public final class SceneLoader<T>
+{
+    private final Builder<T> builder;
+    private final FutureTask<T> task;
+
+
+    /**
+     * Builder
+     *
+     * Purpose: Loads the data of a scene, then builds the scene from it.
+     */
+    public interface Builder<T>
+    {
+        /**
+         * load()
+         *
+         * Purpose: Loads the data of the scene. Called on the worker thread,
+         *      so it must not create nodes or touch the running game.
+         */
+        T load () throws Exception;
+
+
+        /**
+         * build()
+         *
+         * Purpose: Builds the scene from the loaded data. Called on the JavaFX
+         *      application thread.
+         */
+        GameScene build (T data);
+    }
+
+
+    /**
+     * SceneLoader (Builder)
+     *
+     * Purpose: Creates a loader that builds a scene with the given builder.
+     */
+    private SceneLoader (final Builder<T> builder)
+    {
+        this.builder = builder;
+        this.task = new FutureTask<>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return builder.load();
+            }
+        });
+    } // SceneLoader (Builder)
+
+
+    /**
+     * start()
+     *
+     * Purpose: Starts loading the data of a scene with the given builder on a
+     *      worker thread. Must be called on the JavaFX application thread.
+     */
+    public static <T> SceneLoader<T> start (final Builder<T> builder)
+    {
+        final SceneLoader<T> loader = new SceneLoader<>(builder);
+        final Thread loaderThread = new Thread(loader.task, "scene-loader");
+        loaderThread.setDaemon(true);
+        loaderThread.start();
+        return loader;
+    } // start()
+
+
+    /**
+     * isDone()
+     *
+     * Purpose: Returns whether the data of the scene has been loaded.
+     */
+    public boolean isDone ()
+    {
+        return this.task.isDone();
+    } // isDone()
+
+
+    /**
+     * get()
+     *
+     * Purpose: Builds the scene, waiting for its data to be loaded if it is
+     *      not yet. Must be called on the JavaFX application thread. An
+     *      exception thrown while loading is thrown again here.
+     */
+    public GameScene get ()
+    {
+        boolean interrupted = false;
+        try {
+            while (true)
+            {
+                try {
+                    return this.builder.build(this.task.get());
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            throw new IllegalStateException("Could not load the scene", e.getCause());
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    } // get()
+
+} // final class SceneLoader
@@ -1,32 +1,32 @@
 package controller.audio;
 
-import javafx.scene.media.AudioClip;
-
-import java.nio.file.Paths;
-
 /**
  * AbstractMediaPlayer.java
  *
  * Purpose: Represents an media player that can play and loop audio files.
+ *      Requests are posted to the AudioCommandQueue and return immediately,
+ *      and are dropped while audio is turned off there.
  *      Subclasses: CryPlayer, MusicPlayer, SfxPlayer.
  */
 public abstract class AbstractMediaPlayer
 {
     private static final String FILE_FORMAT = ".wav";
 
-    private AudioClip audioClip = null;
     private String filepath;
+    private AudioBus bus;
 
 
     /**
      * AbstractMediaPlayer (String)
      *
      * Purpose: Super-constructor that creates and initializes a media player with the
-     *      given filepath to a folder of audio files.
+     *      given filepath to a folder of audio files, played on the given bus
+     *      of the AudioMixer.
      */
-    protected AbstractMediaPlayer (final String filepath)
+    protected AbstractMediaPlayer (final String filepath, final AudioBus bus)
     {
         this.filepath = filepath;
+        this.bus = bus;
     }
 
 
@@ -37,9 +37,7 @@ public abstract class AbstractMediaPlayer
      */
     public void play (final String audioFilename)
     {
-        audioClip = new AudioClip(Paths.get(this.filepath + audioFilename + FILE_FORMAT).toUri().toString());
-        audioClip.setCycleCount(1);
-        audioClip.play();
+        AudioCommandQueue.getInstance().play(this.filepath, this.getFilename(audioFilename), this.bus, false);
     } // play()
 
 
@@ -50,21 +48,53 @@ public abstract class AbstractMediaPlayer
      */
     public void loop (final String audioFilename)
     {
-        audioClip = new AudioClip(Paths.get(this.filepath + audioFilename + FILE_FORMAT).toUri().toString());
-        audioClip.setCycleCount(AudioClip.INDEFINITE);
-        audioClip.play();
+        AudioCommandQueue.getInstance().play(this.filepath, this.getFilename(audioFilename), this.bus, true);
     } // loop()
 
 
+    /**
+     * prefetch()
+     *
+     * Purpose: Loads the given audio file into the clip cache ahead of its
+     *      first use, for example when a Pokemon is encountered.
+     */
+    public void prefetch (final String audioFilename)
+    {
+        AudioCommandQueue.getInstance().preload(this.filepath, this.getFilename(audioFilename), false);
+    } // prefetch()
+
+
+    /**
+     * getFilepath()
+     *
+     * Purpose: Returns the folder of audio files of this media player.
+     */
+    protected String getFilepath ()
+    {
+        return this.filepath;
+    } // getFilepath()
+
+
+    /**
+     * getFilename()
+     *
+     * Purpose: Returns the name of the file, in the folder of this media
+     *      player, that holds the given audio.
+     */
+    protected String getFilename (final String audioFilename)
+    {
+        return audioFilename + FILE_FORMAT;
+    } // getFilename()
+
+
     /**
      * stop()
      *
-     * Purpose: Stops the audio if it is running.
+     * Purpose: Stops every sound of this media player that is running.
      */
     public void stop ()
     {
-        if (audioClip != null)
-            audioClip.stop();
+        AudioCommandQueue.getInstance().stop(this.bus);
     } // stop()
 
 } // abstract class AbstractMediaPlayer
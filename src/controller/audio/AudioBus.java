@@ -0,0 +1,50 @@
+package controller.audio;
+
+/**
+ * AudioBus.java
+ *
+ * Purpose: The groups of sounds that the AudioMixer mixes, each with its own
+ *      volume, polyphony limit and priority. When the mixer runs out of
+ *      voices, a sound may take the voice of a sound with a lower or equal
+ *      priority, so cries cut off menu blips but never the other way round.
+ */
+public enum AudioBus
+{
+    Music (1, 2),
+    Cry (2, 1),
+    Sfx (4, 0);
+
+
+    private int maxVoices;
+    private int priority;
+
+    AudioBus (int maxVoices, int priority)
+    {
+        this.maxVoices = maxVoices;
+        this.priority = priority;
+    }
+
+
+    /**
+     * getMaxVoices()
+     *
+     * Purpose: Returns the number of sounds of this bus that can play at once.
+     */
+    public int getMaxVoices ()
+    {
+        return this.maxVoices;
+    } // getMaxVoices()
+
+
+    /**
+     * getPriority()
+     *
+     * Purpose: Returns the priority of sounds of this bus when voices are
+     *      stolen. Higher priorities win.
+     */
+    public int getPriority ()
+    {
+        return this.priority;
+    } // getPriority()
+
+}
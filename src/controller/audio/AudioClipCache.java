@@ -0,0 +1,287 @@
+package controller.audio;
+
+import controller.metrics.AssetLoadEvent;
+import controller.metrics.GameMetrics;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AudioClipCache.java
+ *
+ * Purpose: Process-wide cache of decoded audio clips, so that playing a sound
+ *      is a map lookup instead of reading and decoding a file. Clips are
+ *      kept as PCM samples ready for the AudioMixer.
+ *
+ *      Clips are keyed by the folder of their library and their file name.
+ *      Pinned clips, such as the sound effects preloaded at startup, stay
+ *      loaded for the whole run. Other clips, such as Pokemon cries, are
+ *      loaded on first use or when prefetched, and the least recently played
+ *      ones are dropped when their decoded size goes over the memory budget.
+ *
+ *      Must only be used from the audio thread of the AudioCommandQueue.
+ */
+public final class AudioClipCache
+{
+    private static final long DEFAULT_MEMORY_BUDGET = 8L * 1024 * 1024;  // decoded bytes of evictable clips
+
+    private static AudioClipCache instance = null;
+
+    private final Map<String, PcmClip> pinned;
+    private final LinkedHashMap<String, Entry> evictable;
+
+    private long memoryBudget;
+    private long memoryUsed;
+
+    private int hits;
+    private int misses;
+    private int evictions;
+    private long decodeNanos;
+
+
+    /**
+     * AudioClipCache ()
+     *
+     * Purpose: Creates an empty cache with the default memory budget.
+     */
+    private AudioClipCache ()
+    {
+        this.pinned = new HashMap<>();
+        this.evictable = new LinkedHashMap<>(16, 0.75f, true);
+        this.memoryBudget = DEFAULT_MEMORY_BUDGET;
+    } // AudioClipCache ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of AudioClipCache.
+     */
+    public static AudioClipCache getInstance ()
+    {
+        if (instance == null)
+            instance = new AudioClipCache();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * getClip()
+     *
+     * Purpose: Returns the clip for the given file, loading it as an
+     *      evictable clip if it is not cached yet. Returns null if the file
+     *      cannot be decoded.
+     */
+    public PcmClip getClip (final String filepath, final String filename)
+    {
+        final String key = filepath + filename;
+        PcmClip clip = this.pinned.get(key);
+        if (clip == null)
+        {
+            final Entry entry = this.evictable.get(key);
+            clip = entry == null ? null : entry.clip;
+        }
+
+        if (clip != null)
+        {
+            this.hits++;
+            GameMetrics.getInstance().countAudioCacheHit();
+            return clip;
+        }
+        this.misses++;
+        return this.load(key, false);
+    } // getClip()
+
+
+    /**
+     * preload()
+     *
+     * Purpose: Loads the clip for the given file ahead of its first use. A
+     *      pinned clip is never evicted.
+     */
+    public void preload (final String filepath, final String filename, final boolean pin)
+    {
+        final String key = filepath + filename;
+        if (this.pinned.containsKey(key))
+            return;
+
+        final Entry entry = this.evictable.get(key);
+        if (entry == null)
+            this.load(key, pin);
+        else if (pin)
+        {
+            this.evictable.remove(key);
+            this.memoryUsed -= entry.size;
+            this.pinned.put(key, entry.clip);
+        }
+    } // preload()
+
+
+    /**
+     * setMemoryBudget()
+     *
+     * Purpose: Sets the memory, in bytes, that decoded evictable clips may
+     *      use, and evicts clips until they fit.
+     */
+    public void setMemoryBudget (final long bytes)
+    {
+        if (bytes < 0)
+            throw new IllegalArgumentException("The audio memory budget cannot be negative.");
+        this.memoryBudget = bytes;
+        this.evict(null);
+    } // setMemoryBudget()
+
+
+    /**
+     * getMemoryBudget()
+     *
+     * Purpose: Returns the memory, in bytes, that decoded evictable clips may
+     *      use.
+     */
+    public long getMemoryBudget ()
+    {
+        return this.memoryBudget;
+    } // getMemoryBudget()
+
+
+    /**
+     * getMemoryUsed()
+     *
+     * Purpose: Returns the memory, in bytes, used by the decoded evictable
+     *      clips that are loaded.
+     */
+    public long getMemoryUsed ()
+    {
+        return this.memoryUsed;
+    } // getMemoryUsed()
+
+
+    /**
+     * getHitCount()
+     *
+     * Purpose: Returns how many clips were played from the cache.
+     */
+    public int getHitCount ()
+    {
+        return this.hits;
+    } // getHitCount()
+
+
+    /**
+     * getMissCount()
+     *
+     * Purpose: Returns how many clips had to be loaded when they were played.
+     */
+    public int getMissCount ()
+    {
+        return this.misses;
+    } // getMissCount()
+
+
+    /**
+     * getEvictionCount()
+     *
+     * Purpose: Returns how many clips were dropped to stay within the budget.
+     */
+    public int getEvictionCount ()
+    {
+        return this.evictions;
+    } // getEvictionCount()
+
+
+    /**
+     * getDecodeNanos()
+     *
+     * Purpose: Returns the total time, in nanoseconds, spent loading clips,
+     *      including preloads.
+     */
+    public long getDecodeNanos ()
+    {
+        return this.decodeNanos;
+    } // getDecodeNanos()
+
+
+    /**
+     * load()
+     *
+     * Purpose: Reads and decodes the clip for the given key and caches it.
+     */
+    private PcmClip load (final String key, final boolean pin)
+    {
+        final long start = System.nanoTime();
+        final AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        final PcmClip clip;
+        try {
+            clip = PcmClip.decode(Paths.get(key));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            this.decodeNanos += System.nanoTime() - start;
+        }
+        GameMetrics.getInstance().countAudioClip(clip.getSizeInBytes());
+        if (event.shouldCommit())
+        {
+            event.kind = AssetLoadEvent.AUDIO;
+            event.file = key;
+            event.bytes = clip.getSizeInBytes();
+            event.commit();
+        }
+
+        if (pin)
+            this.pinned.put(key, clip);
+        else {
+            this.evictable.put(key, new Entry(clip, clip.getSizeInBytes()));
+            this.memoryUsed += clip.getSizeInBytes();
+            this.evict(key);
+        }
+        return clip;
+    } // load()
+
+
+    /**
+     * evict()
+     *
+     * Purpose: Drops the least recently played evictable clips until they fit
+     *      in the budget. The clip with the given key is kept, so that a clip
+     *      larger than the budget can still be played.
+     */
+    private void evict (final String keep)
+    {
+        final Iterator<Map.Entry<String, Entry>> iterator = this.evictable.entrySet().iterator();
+        while (this.memoryUsed > this.memoryBudget && iterator.hasNext())
+        {
+            final Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(keep))
+                continue;
+            iterator.remove();
+            this.memoryUsed -= eldest.getValue().size;
+            this.evictions++;
+        }
+    } // evict()
+
+
+    /**
+     * Entry
+     *
+     * Purpose: An evictable clip and its decoded size.
+     */
+    private static final class Entry
+    {
+        private final PcmClip clip;
+        private final long size;
+
+        private Entry (final PcmClip clip, final long size)
+        {
+            this.clip = clip;
+            this.size = size;
+        }
+
+    } // final class Entry
+
+} // final class AudioClipCache
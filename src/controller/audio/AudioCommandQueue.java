@@ -0,0 +1,427 @@
+package controller.audio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AudioCommandQueue.java
+ *
+ * Purpose: Moves all audio work off the JavaFX application thread.
+ *
+ *      Media players post fire-and-forget commands to a lock-free queue that
+ *      a dedicated audio thread drains. That thread owns the AudioClipCache,
+ *      so decoding a file never stalls a frame, and it is the only caller
+ *      of the AudioMixer.
+ *
+ *      A play command that is the same as one already posted in the same
+ *      frame is dropped, so five Select blips posted in one frame play once,
+ *      however quickly the audio thread runs the first. The GameLoop ends the
+ *      frame with endFrame() after every pulse. While no pulse runs, a play
+ *      is only dropped if the same one was posted less than a frame before.
+ *      A stop on a bus ends this coalescing for plays on that bus, so a
+ *      sound that is posted again after a stop still plays.
+ *
+ *      Music is not cached: a music command opens the track as a stream and
+ *      hands it to the AudioMixer to crossfade in.
+ *
+ *      The queue reports its depth and the latency from posting a command to
+ *      running it.
+ *
+ *      Audio can be turned off with setEnabled() before the queue is first
+ *      used, such as to replay a session headless. Every command is then
+ *      dropped, no audio thread is started and neither the AudioClipCache nor
+ *      the AudioMixer is ever created, so no sound device is needed and the
+ *      media players do nothing.
+ */
+public final class AudioCommandQueue
+{
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    private static AudioCommandQueue instance = null;
+    private static boolean enabled = true;
+
+    private final Queue<Command> commands;
+    private final Map<String, Long> framePlays;         // play key -> time first posted this frame
+    private final AtomicIntegerArray stopEpochs;
+    private final Thread audioThread;
+
+    private final AtomicLong posted;
+    private final AtomicLong coalesced;
+    private final AtomicLong dispatched;
+    private final AtomicLong totalLatencyNanos;
+    private final AtomicLong maxLatencyNanos;
+    private final AtomicLong depth;
+    private final AtomicLong maxDepth;
+
+
+    /**
+     * AudioCommandQueue ()
+     *
+     * Purpose: Creates the queue and starts the audio thread, unless audio
+     *      is turned off.
+     */
+    private AudioCommandQueue ()
+    {
+        this.commands = new ConcurrentLinkedQueue<>();
+        this.framePlays = new ConcurrentHashMap<>();
+        this.stopEpochs = new AtomicIntegerArray(AudioBus.values().length);
+
+        this.posted = new AtomicLong();
+        this.coalesced = new AtomicLong();
+        this.dispatched = new AtomicLong();
+        this.totalLatencyNanos = new AtomicLong();
+        this.maxLatencyNanos = new AtomicLong();
+        this.depth = new AtomicLong();
+        this.maxDepth = new AtomicLong();
+
+        if (!enabled)
+        {
+            this.audioThread = null;
+            return;
+        }
+        this.audioThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "audio-commands");
+        this.audioThread.setDaemon(true);
+        this.audioThread.start();
+    } // AudioCommandQueue ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of AudioCommandQueue.
+     */
+    public static synchronized AudioCommandQueue getInstance ()
+    {
+        if (instance == null)
+            instance = new AudioCommandQueue();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * setEnabled()
+     *
+     * Purpose: Turns all audio on or off. Must be called before the queue is
+     *      first used.
+     */
+    public static synchronized void setEnabled (final boolean on)
+    {
+        if (instance != null)
+            throw new IllegalStateException("Audio is already in use");
+        enabled = on;
+    } // setEnabled()
+
+
+    /**
+     * play()
+     *
+     * Purpose: Posts a request to play the given file on the given bus, once
+     *      or in a loop.
+     */
+    public void play (final String filepath, final String filename, final AudioBus bus, final boolean loop)
+    {
+        if (this.audioThread == null)
+            return;
+        final String key = bus.name() + '|' + this.stopEpochs.get(bus.ordinal()) + '|' + loop + '|' + filepath + filename;
+        final long now = System.nanoTime();
+        final Long firstPosted = this.framePlays.putIfAbsent(key, now);
+        if (firstPosted != null)
+        {
+            if (now - firstPosted < FRAME_NANOS)
+            {
+                this.coalesced.incrementAndGet();
+                return;
+            }
+            this.framePlays.put(key, now);
+        }
+        this.post(new Command(Command.PLAY, filepath, filename, bus, loop));
+    } // play()
+
+
+    /**
+     * endFrame()
+     *
+     * Purpose: Ends the frame in which identical plays are coalesced. Called
+     *      by the GameLoop after every pulse.
+     */
+    public void endFrame ()
+    {
+        if (!this.framePlays.isEmpty())
+            this.framePlays.clear();
+    } // endFrame()
+
+
+    /**
+     * playMusic()
+     *
+     * Purpose: Posts a request to stream the given music file, once or
+     *      looping between the given loop points, crossfading from the music
+     *      that is playing over the given number of seconds. A null file name
+     *      only fades the music out.
+     */
+    public void playMusic (final String filepath, final String filename, final boolean loop,
+                           final double loopStart, final double loopEnd, final double fadeSeconds)
+    {
+        if (fadeSeconds < 0.0)
+            throw new IllegalArgumentException("Fade time cannot be negative: " + fadeSeconds);
+        this.post(new Command(Command.MUSIC, filepath, filename, AudioBus.Music, loop,
+                loopStart, loopEnd, fadeSeconds));
+    } // playMusic()
+
+
+    /**
+     * stop()
+     *
+     * Purpose: Posts a request to stop every sound on the given bus.
+     */
+    public void stop (final AudioBus bus)
+    {
+        this.stopEpochs.incrementAndGet(bus.ordinal());
+        this.post(new Command(Command.STOP, null, null, bus, false));
+    } // stop()
+
+
+    /**
+     * preload()
+     *
+     * Purpose: Posts a request to load the given file into the clip cache,
+     *      pinned or evictable.
+     */
+    public void preload (final String filepath, final String filename, final boolean pin)
+    {
+        this.post(new Command(Command.PRELOAD, filepath, filename, null, pin));
+    } // preload()
+
+
+    /**
+     * getDepth()
+     *
+     * Purpose: Returns the number of commands waiting to run.
+     */
+    public long getDepth ()
+    {
+        return this.depth.get();
+    } // getDepth()
+
+
+    /**
+     * getMaxDepth()
+     *
+     * Purpose: Returns the largest number of commands that were waiting at once.
+     */
+    public long getMaxDepth ()
+    {
+        return this.maxDepth.get();
+    } // getMaxDepth()
+
+
+    /**
+     * getPostedCount()
+     *
+     * Purpose: Returns how many commands were queued.
+     */
+    public long getPostedCount ()
+    {
+        return this.posted.get();
+    } // getPostedCount()
+
+
+    /**
+     * getCoalescedCount()
+     *
+     * Purpose: Returns how many play requests were dropped because the same
+     *      request was already posted in the same frame.
+     */
+    public long getCoalescedCount ()
+    {
+        return this.coalesced.get();
+    } // getCoalescedCount()
+
+
+    /**
+     * getAverageLatencyNanos()
+     *
+     * Purpose: Returns the average time, in nanoseconds, from posting a
+     *      command to running it.
+     */
+    public long getAverageLatencyNanos ()
+    {
+        final long count = this.dispatched.get();
+        return count == 0 ? 0 : this.totalLatencyNanos.get() / count;
+    } // getAverageLatencyNanos()
+
+
+    /**
+     * getMaxLatencyNanos()
+     *
+     * Purpose: Returns the longest time, in nanoseconds, from posting a
+     *      command to running it.
+     */
+    public long getMaxLatencyNanos ()
+    {
+        return this.maxLatencyNanos.get();
+    } // getMaxLatencyNanos()
+
+
+    /**
+     * post()
+     *
+     * Purpose: Adds a command to the queue and wakes the audio thread, or
+     *      drops it if audio is turned off.
+     */
+    private void post (final Command command)
+    {
+        if (this.audioThread == null)
+            return;
+        this.commands.add(command);
+        this.posted.incrementAndGet();
+        final long newDepth = this.depth.incrementAndGet();
+        this.maxDepth.accumulateAndGet(newDepth, Math::max);
+        LockSupport.unpark(this.audioThread);
+    } // post()
+
+
+    /**
+     * drain()
+     *
+     * Purpose: Body of the audio thread. Runs commands in the order they were
+     *      posted and parks while the queue is empty.
+     */
+    private void drain ()
+    {
+        while (true)
+        {
+            final Command command = this.commands.poll();
+            if (command == null)
+            {
+                LockSupport.park(this);
+                continue;
+            }
+            this.depth.decrementAndGet();
+
+            final long latency = System.nanoTime() - command.postTime;
+            this.dispatched.incrementAndGet();
+            this.totalLatencyNanos.addAndGet(latency);
+            this.maxLatencyNanos.accumulateAndGet(latency, Math::max);
+
+            try {
+                this.run(command);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    } // drain()
+
+
+    /**
+     * run()
+     *
+     * Purpose: Carries out a single command on the audio thread.
+     */
+    private void run (final Command command)
+    {
+        switch (command.type)
+        {
+            case Command.PLAY:
+                AudioMixer.getInstance().play(AudioClipCache.getInstance().getClip(command.filepath, command.filename),
+                        command.bus, command.flag);
+                break;
+            case Command.STOP:
+                AudioMixer.getInstance().stop(command.bus);
+                break;
+            case Command.PRELOAD:
+                AudioClipCache.getInstance().preload(command.filepath, command.filename, command.flag);
+                break;
+            case Command.MUSIC:
+                AudioMixer.getInstance().crossfadeMusic(openMusic(command), command.fadeSeconds);
+                break;
+        }
+    } // run()
+
+
+    /**
+     * openMusic()
+     *
+     * Purpose: Opens the track of a music command and decodes its first
+     *      samples. Returns null if the track is missing or cannot be read,
+     *      so that the music that is playing fades out.
+     */
+    private static MusicStream openMusic (final Command command)
+    {
+        if (command.filename == null)
+            return null;
+        final Path path = Paths.get(command.filepath + command.filename);
+        if (!Files.isRegularFile(path))
+            return null;
+        try {
+            final MusicStream stream = new MusicStream(path, command.flag, command.loopStart, command.loopEnd);
+            stream.fill();
+            return stream;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    } // openMusic()
+
+
+    /**
+     * Command
+     *
+     * Purpose: A single audio request. The flag means looping for a play or
+     *      music and pinning for a preload. The times are only used by music.
+     */
+    private static final class Command
+    {
+        private static final int PLAY = 0;
+        private static final int STOP = 1;
+        private static final int PRELOAD = 2;
+        private static final int MUSIC = 3;
+
+        private final int type;
+        private final String filepath;
+        private final String filename;
+        private final AudioBus bus;
+        private final boolean flag;
+        private final double loopStart;
+        private final double loopEnd;
+        private final double fadeSeconds;
+        private final long postTime;
+
+        private Command (final int type, final String filepath, final String filename, final AudioBus bus,
+                         final boolean flag)
+        {
+            this(type, filepath, filename, bus, flag, 0.0, 0.0, 0.0);
+        }
+
+        private Command (final int type, final String filepath, final String filename, final AudioBus bus,
+                         final boolean flag, final double loopStart, final double loopEnd,
+                         final double fadeSeconds)
+        {
+            this.type = type;
+            this.filepath = filepath;
+            this.filename = filename;
+            this.bus = bus;
+            this.flag = flag;
+            this.loopStart = loopStart;
+            this.loopEnd = loopEnd;
+            this.fadeSeconds = fadeSeconds;
+            this.postTime = System.nanoTime();
+        }
+
+    } // final class Command
+
+} // final class AudioCommandQueue
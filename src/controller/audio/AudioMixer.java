@@ -0,0 +1,414 @@
+package controller.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.Arrays;
+
+/**
+ * AudioMixer.java
+ *
+ * Purpose: Singleton that owns the audio output line and mixes every sound of
+ *      the game into it.
+ *
+ *      Sounds are decoded PcmClips held in memory, so starting one only takes
+ *      a free voice from a fixed pool. Each AudioBus has its own volume and
+ *      polyphony limit. When a bus is at its limit, its oldest sound is cut
+ *      off; when the pool is full, the oldest sound with the lowest priority
+ *      not above the new one is cut off, and if there is none the new sound
+ *      is dropped. Restarting a sound that has only just started reuses its
+ *      voice, so fast key repeats cannot pile up copies of the same blip.
+ *
+ *      Music is not held in memory but streamed through a MusicDeck, which
+ *      crossfades between tracks on the Music bus.
+ *
+ *      A daemon thread mixes short chunks into a small line buffer to keep
+ *      latency low. If no audio device is available, sounds are ignored.
+ */
+public final class AudioMixer
+{
+    static final float SAMPLE_RATE = 44100f;
+    static final int CHANNELS = 2;
+
+    private static final int VOICES = 8;
+    private static final int CHUNK_FRAMES = 256;            // about 6 ms
+    private static final int LINE_BUFFER_FRAMES = 2048;     // about 46 ms
+    private static final long RETRIGGER_NANOS = 50_000_000L;
+
+    private static AudioMixer instance = null;
+
+    private final Voice[] voices;
+    private final MusicDeck music;
+    private final double[] busVolumes;
+    private final SourceDataLine line;
+
+    private volatile boolean running;
+    private int stolenVoices;
+    private int droppedSounds;
+
+
+    /**
+     * AudioMixer ()
+     *
+     * Purpose: Opens the output line and starts the mixing thread.
+     */
+    private AudioMixer ()
+    {
+        this.voices = new Voice[VOICES];
+        for (int i = 0; i < VOICES; i++)
+            this.voices[i] = new Voice();
+        this.busVolumes = new double[AudioBus.values().length];
+        for (int i = 0; i < this.busVolumes.length; i++)
+            this.busVolumes[i] = 1.0;
+
+        this.line = openLine();
+        this.music = this.line == null ? null : new MusicDeck();
+        if (this.line != null)
+        {
+            this.running = true;
+            final Thread mixThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    mix();
+                }
+            }, "audio-mixer");
+            mixThread.setDaemon(true);
+            mixThread.start();
+        }
+    } // AudioMixer ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of AudioMixer.
+     */
+    public static synchronized AudioMixer getInstance ()
+    {
+        if (instance == null)
+            instance = new AudioMixer();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * play()
+     *
+     * Purpose: Starts the given clip on the given bus, once or in a loop.
+     */
+    public void play (final PcmClip clip, final AudioBus bus, final boolean loop)
+    {
+        if (clip == null || this.line == null)
+            return;
+
+        final long now = System.nanoTime();
+        synchronized (this.voices)
+        {
+            Voice voice = null;
+            Voice oldestOnBus = null;
+            int voicesOnBus = 0;
+            for (Voice v : this.voices)
+            {
+                if (!v.active || v.bus != bus)
+                    continue;
+                if (v.clip == clip && now - v.startTime < RETRIGGER_NANOS)
+                {
+                    v.start(clip, bus, loop, now);
+                    return;
+                }
+                voicesOnBus++;
+                if (oldestOnBus == null || v.startTime < oldestOnBus.startTime)
+                    oldestOnBus = v;
+            }
+
+            if (voicesOnBus >= bus.getMaxVoices())
+                voice = oldestOnBus;
+            else
+                voice = this.findFreeVoice();
+
+            if (voice == null)
+            {
+                voice = this.findVoiceToSteal(bus);
+                if (voice == null)
+                {
+                    this.droppedSounds++;
+                    return;
+                }
+            }
+            if (voice.active)
+                this.stolenVoices++;
+            voice.start(clip, bus, loop, now);
+        }
+    } // play()
+
+
+    /**
+     * crossfadeMusic()
+     *
+     * Purpose: Fades the music that is playing out and the given stream in
+     *      over the given number of seconds. A null stream fades the music
+     *      out.
+     */
+    void crossfadeMusic (final MusicStream stream, final double seconds)
+    {
+        if (this.music == null)
+        {
+            if (stream != null)
+                stream.close();
+            return;
+        }
+        this.music.crossfade(stream, seconds);
+    } // crossfadeMusic()
+
+
+    /**
+     * stop()
+     *
+     * Purpose: Stops every sound playing on the given bus.
+     */
+    public void stop (final AudioBus bus)
+    {
+        if (bus == AudioBus.Music)
+            this.crossfadeMusic(null, 0.0);
+        synchronized (this.voices)
+        {
+            for (Voice voice : this.voices)
+                if (voice.active && voice.bus == bus)
+                    voice.active = false;
+        }
+    } // stop()
+
+
+    /**
+     * setBusVolume()
+     *
+     * Purpose: Sets the volume of the given bus, from 0.0 (silent) to 1.0.
+     */
+    public void setBusVolume (final AudioBus bus, final double volume)
+    {
+        if (volume < 0.0 || volume > 1.0)
+            throw new IllegalArgumentException("Bus volume must be between 0.0 and 1.0: " + volume);
+        synchronized (this.voices)
+        {
+            this.busVolumes[bus.ordinal()] = volume;
+        }
+    } // setBusVolume()
+
+
+    /**
+     * getBusVolume()
+     *
+     * Purpose: Returns the volume of the given bus.
+     */
+    public double getBusVolume (final AudioBus bus)
+    {
+        synchronized (this.voices)
+        {
+            return this.busVolumes[bus.ordinal()];
+        }
+    } // getBusVolume()
+
+
+    /**
+     * getActiveVoiceCount()
+     *
+     * Purpose: Returns the number of sounds playing.
+     */
+    public int getActiveVoiceCount ()
+    {
+        int count = 0;
+        synchronized (this.voices)
+        {
+            for (Voice voice : this.voices)
+                if (voice.active)
+                    count++;
+        }
+        return count;
+    } // getActiveVoiceCount()
+
+
+    /**
+     * getStolenVoiceCount()
+     *
+     * Purpose: Returns how many sounds were cut off to play another one.
+     */
+    public int getStolenVoiceCount ()
+    {
+        synchronized (this.voices)
+        {
+            return this.stolenVoices;
+        }
+    } // getStolenVoiceCount()
+
+
+    /**
+     * getDroppedSoundCount()
+     *
+     * Purpose: Returns how many sounds were not played because every voice
+     *      was busy with a sound of higher priority.
+     */
+    public int getDroppedSoundCount ()
+    {
+        synchronized (this.voices)
+        {
+            return this.droppedSounds;
+        }
+    } // getDroppedSoundCount()
+
+
+    /**
+     * isAvailable()
+     *
+     * Purpose: Returns whether an audio device was opened.
+     */
+    public boolean isAvailable ()
+    {
+        return this.line != null;
+    } // isAvailable()
+
+
+    /**
+     * shutdown()
+     *
+     * Purpose: Stops the mixing thread and releases the audio device.
+     */
+    public void shutdown ()
+    {
+        this.running = false;
+    } // shutdown()
+
+
+    /**
+     * openLine()
+     *
+     * Purpose: Opens the output line, or returns null if there is no device.
+     */
+    private static SourceDataLine openLine ()
+    {
+        final AudioFormat format = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+        try {
+            final SourceDataLine line = AudioSystem.getSourceDataLine(format);
+            line.open(format, LINE_BUFFER_FRAMES * CHANNELS * 2);
+            line.start();
+            return line;
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    } // openLine()
+
+
+    private Voice findFreeVoice ()
+    {
+        for (Voice voice : this.voices)
+            if (!voice.active)
+                return voice;
+        return null;
+    }
+
+
+    /**
+     * findVoiceToSteal()
+     *
+     * Purpose: Returns the oldest voice with the lowest priority that is not
+     *      above the priority of the given bus, or null if every voice has a
+     *      higher priority.
+     */
+    private Voice findVoiceToSteal (final AudioBus bus)
+    {
+        Voice candidate = null;
+        for (Voice voice : this.voices)
+        {
+            if (!voice.active || voice.bus.getPriority() > bus.getPriority())
+                continue;
+            if (candidate == null || voice.bus.getPriority() < candidate.bus.getPriority()
+                    || (voice.bus.getPriority() == candidate.bus.getPriority() && voice.startTime < candidate.startTime))
+                candidate = voice;
+        }
+        return candidate;
+    } // findVoiceToSteal()
+
+
+    /**
+     * mix()
+     *
+     * Purpose: Body of the mixing thread. Adds up one chunk of every playing
+     *      voice at a time and writes it to the line, which blocks while the
+     *      line buffer is full.
+     */
+    private void mix ()
+    {
+        final int[] mixed = new int[CHUNK_FRAMES * CHANNELS];
+        final byte[] output = new byte[mixed.length * 2];
+
+        while (this.running)
+        {
+            Arrays.fill(mixed, 0);
+            synchronized (this.voices)
+            {
+                for (Voice voice : this.voices)
+                    if (voice.active)
+                        voice.mixInto(mixed, this.busVolumes[voice.bus.ordinal()]);
+                this.music.mixInto(mixed, this.busVolumes[AudioBus.Music.ordinal()]);
+            }
+
+            for (int i = 0; i < mixed.length; i++)
+            {
+                final int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixed[i]));
+                output[2*i] = (byte)sample;
+                output[2*i+1] = (byte)(sample >> 8);
+            }
+            this.line.write(output, 0, output.length);
+        }
+
+        this.line.drain();
+        this.line.close();
+    } // mix()
+
+
+    /**
+     * Voice
+     *
+     * Purpose: One slot of the mixer that plays a clip from a position.
+     */
+    private static final class Voice
+    {
+        private PcmClip clip;
+        private AudioBus bus;
+        private int position;
+        private boolean loop;
+        private boolean active;
+        private long startTime;
+
+        private void start (final PcmClip clip, final AudioBus bus, final boolean loop, final long now)
+        {
+            this.clip = clip;
+            this.bus = bus;
+            this.loop = loop;
+            this.position = 0;
+            this.startTime = now;
+            this.active = true;
+        }
+
+        private void mixInto (final int[] mixed, final double volume)
+        {
+            final short[] samples = this.clip.getSamples();
+            for (int i = 0; i < mixed.length && this.active; i++)
+            {
+                if (this.position >= samples.length)
+                {
+                    if (!this.loop || samples.length == 0)
+                    {
+                        this.active = false;
+                        break;
+                    }
+                    this.position = 0;
+                }
+                mixed[i] += (int)(samples[this.position++] * volume);
+            }
+        }
+
+    } // final class Voice
+
+} // final class AudioMixer
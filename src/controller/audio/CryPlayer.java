@@ -17,7 +17,7 @@ public final class CryPlayer extends AbstractMediaPlayer
      */
     private CryPlayer ()
     {
-        super("audio/cries/");
+        super("audio/cries/", AudioBus.Cry);
     } // CryPlayer ()
 
 
@@ -28,7 +28,9 @@ public final class CryPlayer extends AbstractMediaPlayer
      */
     public static CryPlayer getInstance ()
     {
-        return instance != null ? instance : new CryPlayer();
+        if (instance == null)
+            instance = new CryPlayer();
+        return instance;
     } // getInstance()
 
 } // final class CryPlayer
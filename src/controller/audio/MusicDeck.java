@@ -0,0 +1,159 @@
+package controller.audio;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MusicDeck.java
+ *
+ * Purpose: Plays streamed music for the AudioMixer.
+ *
+ *      The deck holds the track that is playing and the track that is fading
+ *      out, so that switching tracks is a crossfade instead of a cut. A daemon
+ *      thread keeps the ring buffers of both tracks full; the mixing thread
+ *      only copies decoded samples, and the thread that starts a track only
+ *      opens its file.
+ */
+final class MusicDeck
+{
+    private static final long DECODE_INTERVAL_NANOS = 20_000_000L;
+
+    private final Queue<MusicStream> retired;
+
+    private MusicStream current;
+    private MusicStream previous;
+    private double currentGain;
+    private double currentRate;                 // gain change per frame
+    private double previousGain;
+    private double previousRate;
+
+
+    /**
+     * MusicDeck ()
+     *
+     * Purpose: Creates an empty deck and starts its decoder thread.
+     */
+    MusicDeck ()
+    {
+        this.retired = new ConcurrentLinkedQueue<>();
+
+        final Thread decodeThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                decode();
+            }
+        }, "music-decoder");
+        decodeThread.setDaemon(true);
+        decodeThread.start();
+    } // MusicDeck ()
+
+
+    /**
+     * crossfade()
+     *
+     * Purpose: Fades the playing track out and the given track in over the
+     *      given number of seconds. A null track only fades out. A track that
+     *      is still fading out from an earlier crossfade is stopped.
+     */
+    synchronized void crossfade (final MusicStream stream, final double seconds)
+    {
+        final double frames = Math.max(1.0, seconds * AudioMixer.SAMPLE_RATE);
+
+        if (this.previous != null)
+            this.retired.add(this.previous);
+        this.previous = this.current;
+        this.previousGain = this.currentGain;
+        this.previousRate = -1.0 / frames;
+
+        this.current = stream;
+        this.currentGain = seconds > 0 ? 0.0 : 1.0;
+        this.currentRate = 1.0 / frames;
+    } // crossfade()
+
+
+    /**
+     * mixInto()
+     *
+     * Purpose: Adds the next chunk of music to the mix at the given volume.
+     *      Called by the mixing thread.
+     */
+    synchronized void mixInto (final int[] mixed, final double volume)
+    {
+        final int frames = mixed.length / AudioMixer.CHANNELS;
+
+        if (this.previous != null)
+        {
+            final double to = Math.max(0.0, this.previousGain + this.previousRate * frames);
+            this.previous.mixInto(mixed, this.previousGain * volume, to * volume);
+            this.previousGain = to;
+            if (to == 0.0 || this.previous.isDone())
+            {
+                this.retired.add(this.previous);
+                this.previous = null;
+            }
+        }
+
+        if (this.current != null)
+        {
+            final double to = Math.min(1.0, this.currentGain + this.currentRate * frames);
+            this.current.mixInto(mixed, this.currentGain * volume, to * volume);
+            this.currentGain = to;
+            if (this.current.isDone())
+            {
+                this.retired.add(this.current);
+                this.current = null;
+            }
+        }
+    } // mixInto()
+
+
+    /**
+     * decode()
+     *
+     * Purpose: Body of the decoder thread. Tops up the ring buffers of the
+     *      playing tracks and closes the files of retired ones.
+     */
+    private void decode ()
+    {
+        while (true)
+        {
+            MusicStream stream;
+            while ((stream = this.retired.poll()) != null)
+                stream.close();
+
+            final MusicStream playing;
+            final MusicStream fading;
+            synchronized (this)
+            {
+                playing = this.current;
+                fading = this.previous;
+            }
+            this.fill(fading);
+            this.fill(playing);
+            LockSupport.parkNanos(DECODE_INTERVAL_NANOS);
+        }
+    } // decode()
+
+
+    private void fill (final MusicStream stream)
+    {
+        if (stream == null)
+            return;
+        try {
+            stream.fill();
+        } catch (IOException e) {
+            e.printStackTrace();
+            synchronized (this)
+            {
+                if (this.current == stream)
+                    this.current = null;
+                if (this.previous == stream)
+                    this.previous = null;
+            }
+            stream.close();
+        }
+    }
+
+} // final class MusicDeck
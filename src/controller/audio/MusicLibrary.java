@@ -3,7 +3,7 @@ package controller.audio;
 /**
  * MusicLibrary.java
  *
- * Purpose: Contains music file names.
+ * Purpose: Contains music file names and the loop points of each track.
  */
 public enum MusicLibrary {
 
@@ -13,10 +13,54 @@ public enum MusicLibrary {
 
 
     private String filename;
+    private double loopStart;
+    private double loopEnd;
 
     MusicLibrary (String filename)
+    {
+        this(filename, 0.0, 0.0);
+    }
+
+    MusicLibrary (String filename, double loopStart, double loopEnd)
     {
         this.filename = filename;
+        this.loopStart = loopStart;
+        this.loopEnd = loopEnd;
     }
 
+
+    /**
+     * getFilename()
+     *
+     * Purpose: Returns the name of the music file, without extension.
+     */
+    public String getFilename ()
+    {
+        return this.filename;
+    } // getFilename()
+
+
+    /**
+     * getLoopStart()
+     *
+     * Purpose: Returns the time, in seconds, that the track continues from
+     *      when it loops. Any intro before it plays only once.
+     */
+    public double getLoopStart ()
+    {
+        return this.loopStart;
+    } // getLoopStart()
+
+
+    /**
+     * getLoopEnd()
+     *
+     * Purpose: Returns the time, in seconds, at which the track loops, or 0
+     *      to loop at the end of the file.
+     */
+    public double getLoopEnd ()
+    {
+        return this.loopEnd;
+    } // getLoopEnd()
+
 }
@@ -3,12 +3,13 @@ package controller.audio;
 /**
  * MusicPlayer.java
  *
- * Purpose: Media player singleton to play background music.
+ * Purpose: Media player singleton to play background music. Music is
+ *      streamed from disk instead of cached, and changing tracks crossfades
+ *      from the track that is playing.
  */
 public final class MusicPlayer extends AbstractMediaPlayer
 {
 
-
     private static MusicPlayer instance = null;
 
 
@@ -19,7 +20,7 @@ public final class MusicPlayer extends AbstractMediaPlayer
      */
     private MusicPlayer ()
     {
-        super("audio/music/");
+        super("audio/music/", AudioBus.Music);
     } // MusicPlayer ()
 
 
@@ -30,7 +31,97 @@ public final class MusicPlayer extends AbstractMediaPlayer
      */
     public static MusicPlayer getInstance ()
     {
-        return instance != null ? instance : new MusicPlayer();
+        if (instance == null)
+            instance = new MusicPlayer();
+        return instance;
     } // getInstance()
 
+
+    /**
+     * play()
+     *
+     * Purpose: Plays the given track one time, cutting off the music that is
+     *      playing.
+     */
+    @Override
+    public void play (final String audioFilename)
+    {
+        AudioCommandQueue.getInstance().playMusic(this.getFilepath(), this.getFilename(audioFilename), false,
+                0.0, 0.0, 0.0);
+    } // play()
+
+
+    /**
+     * loop()
+     *
+     * Purpose: Plays the given track in a loop, cutting off the music that is
+     *      playing.
+     */
+    @Override
+    public void loop (final String audioFilename)
+    {
+        final MusicLibrary track = findTrack(audioFilename);
+        AudioCommandQueue.getInstance().playMusic(this.getFilepath(), this.getFilename(audioFilename), true,
+                track == null ? 0.0 : track.getLoopStart(), track == null ? 0.0 : track.getLoopEnd(), 0.0);
+    } // loop()
+
+
+    /**
+     * crossfadeTo()
+     *
+     * Purpose: Loops the given track, fading it in while the music that is
+     *      playing fades out over the given number of seconds.
+     */
+    public void crossfadeTo (final MusicLibrary track, final double seconds)
+    {
+        AudioCommandQueue.getInstance().playMusic(this.getFilepath(), this.getFilename(track.name()), true,
+                track.getLoopStart(), track.getLoopEnd(), seconds);
+    } // crossfadeTo()
+
+
+    /**
+     * fadeOut()
+     *
+     * Purpose: Fades the music that is playing out over the given number of
+     *      seconds.
+     */
+    public void fadeOut (final double seconds)
+    {
+        AudioCommandQueue.getInstance().playMusic(this.getFilepath(), null, false, 0.0, 0.0, seconds);
+    } // fadeOut()
+
+
+    /**
+     * prefetch()
+     *
+     * Purpose: Does nothing, since music is streamed and never cached.
+     */
+    @Override
+    public void prefetch (final String audioFilename)
+    {
+    } // prefetch()
+
+
+    /**
+     * getFilename()
+     *
+     * Purpose: Returns the file of the given track. Tracks are played by
+     *      their MusicLibrary name, which differs from the file name.
+     */
+    @Override
+    protected String getFilename (final String audioFilename)
+    {
+        final MusicLibrary track = findTrack(audioFilename);
+        return super.getFilename(track == null ? audioFilename : track.getFilename());
+    } // getFilename()
+
+
+    private static MusicLibrary findTrack (final String audioFilename)
+    {
+        for (MusicLibrary track : MusicLibrary.values())
+            if (track.name().equals(audioFilename))
+                return track;
+        return null;
+    }
+
 } // final class MusicPlayer
@@ -0,0 +1,262 @@
+package controller.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * MusicStream.java
+ *
+ * Purpose: A music track decoded from disk a little at a time.
+ *
+ *      The decoder thread of the MusicDeck converts the track to the mixer
+ *      format into a small ring buffer, and the mixing thread reads from it.
+ *      Memory use is the same for any length of track. When the track
+ *      reaches its loop end it continues from its loop start; the seam is
+ *      interpolated like any other pair of frames, so the loop is gapless.
+ */
+final class MusicStream
+{
+    private static final int RING_FRAMES = 16384;           // about 0.37 s
+    private static final int READ_BUFFER_FRAMES = 1024;
+
+    private final Path path;
+    private final boolean loop;
+    private final long loopStartFrame;
+    private final long loopEndFrame;                         // -1 for the end of the track
+
+    private final short[] ring;
+    private volatile long writtenFrames;
+    private volatile long readFrames;
+    private volatile boolean finished;
+
+    private AudioInputStream input;
+    private int sourceChannels;
+    private double step;
+    private byte[] readBuffer;
+    private int readBufferFrames;
+    private int readBufferPosition;
+    private long sourceFrame;
+
+    private final int[] frameA;
+    private final int[] frameB;
+    private double fraction;
+    private boolean ended;
+
+
+    /**
+     * MusicStream (Path, boolean, double, double)
+     *
+     * Purpose: Opens the given track. Loop points are in seconds; a loop end
+     *      of 0 or less loops at the end of the track.
+     */
+    MusicStream (final Path path, final boolean loop, final double loopStartSeconds, final double loopEndSeconds) throws IOException
+    {
+        this.path = path;
+        this.loop = loop;
+        this.ring = new short[RING_FRAMES * AudioMixer.CHANNELS];
+        this.frameA = new int[AudioMixer.CHANNELS];
+        this.frameB = new int[AudioMixer.CHANNELS];
+
+        this.open();
+        final float sampleRate = this.input.getFormat().getSampleRate();
+        this.loopStartFrame = (long)(loopStartSeconds * sampleRate);
+        this.loopEndFrame = loopEndSeconds > 0 ? (long)(loopEndSeconds * sampleRate) : -1;
+
+        this.readSourceFrame(this.frameA);
+        this.readSourceFrame(this.frameB);
+        this.fraction = 0.0;
+    } // MusicStream (Path, boolean, double, double)
+
+
+    /**
+     * fill()
+     *
+     * Purpose: Decodes into the free part of the ring buffer. Called by the
+     *      decoder thread only.
+     */
+    void fill () throws IOException
+    {
+        final int channels = AudioMixer.CHANNELS;
+        long written = this.writtenFrames;
+        final long free = RING_FRAMES - (written - this.readFrames);
+        for (long n = 0; n < free && !this.ended; n++)
+        {
+            while (this.fraction >= 1.0 && !this.ended)
+            {
+                System.arraycopy(this.frameB, 0, this.frameA, 0, channels);
+                this.ended = !this.readSourceFrame(this.frameB);
+                this.fraction -= 1.0;
+            }
+            final int at = (int)(written % RING_FRAMES) * channels;
+            for (int channel = 0; channel < channels; channel++)
+                this.ring[at + channel] = (short)(this.frameA[channel] + (this.frameB[channel] - this.frameA[channel]) * this.fraction);
+            this.fraction += this.step;
+            written++;
+        }
+        this.writtenFrames = written;
+        if (this.ended)
+        {
+            this.finished = true;
+            this.close();
+        }
+    } // fill()
+
+
+    /**
+     * mixInto()
+     *
+     * Purpose: Adds the next frames of the track to the mix, with a gain that
+     *      moves linearly from the first to the second value over the chunk.
+     *      Frames that are not decoded yet are left silent. Called by the
+     *      mixing thread only.
+     */
+    void mixInto (final int[] mixed, final double fromGain, final double toGain)
+    {
+        final int channels = AudioMixer.CHANNELS;
+        final int frames = mixed.length / channels;
+        long read = this.readFrames;
+        final long available = Math.min(frames, this.writtenFrames - read);
+        for (int frame = 0; frame < available; frame++)
+        {
+            final double gain = fromGain + (toGain - fromGain) * frame / frames;
+            final int at = (int)(read % RING_FRAMES) * channels;
+            for (int channel = 0; channel < channels; channel++)
+                mixed[frame * channels + channel] += (int)(this.ring[at + channel] * gain);
+            read++;
+        }
+        this.readFrames = read;
+    } // mixInto()
+
+
+    /**
+     * isDone()
+     *
+     * Purpose: Returns whether a track that does not loop has been played to
+     *      its end.
+     */
+    boolean isDone ()
+    {
+        return this.finished && this.readFrames >= this.writtenFrames;
+    } // isDone()
+
+
+    /**
+     * close()
+     *
+     * Purpose: Closes the file of the track.
+     */
+    void close ()
+    {
+        if (this.input == null)
+            return;
+        try {
+            this.input.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.input = null;
+    } // close()
+
+
+    /**
+     * open()
+     *
+     * Purpose: Opens the track from its start as 16-bit signed samples.
+     */
+    private void open () throws IOException
+    {
+        try {
+            final AudioInputStream source = AudioSystem.getAudioInputStream(this.path.toFile());
+            final AudioFormat format = source.getFormat();
+            final AudioFormat decodedFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(),
+                    16, format.getChannels(), 2 * format.getChannels(), format.getSampleRate(), false);
+            this.input = AudioSystem.getAudioInputStream(decodedFormat, source);
+            this.sourceChannels = format.getChannels();
+            this.step = format.getSampleRate() / AudioMixer.SAMPLE_RATE;
+            this.readBuffer = new byte[READ_BUFFER_FRAMES * 2 * this.sourceChannels];
+            this.readBufferFrames = 0;
+            this.readBufferPosition = 0;
+            this.sourceFrame = 0;
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("Unsupported audio file: " + this.path, e);
+        }
+    } // open()
+
+
+    /**
+     * readSourceFrame()
+     *
+     * Purpose: Reads the next frame of the track, in mixer channels, jumping
+     *      back to the loop start at the loop end. Returns false at the end
+     *      of a track that does not loop.
+     */
+    private boolean readSourceFrame (final int[] frame) throws IOException
+    {
+        if (this.readBufferPosition == this.readBufferFrames || this.sourceFrame == this.loopEndFrame)
+        {
+            if (this.sourceFrame == this.loopEndFrame || !this.refill())
+            {
+                if (!this.loop || this.sourceFrame == 0)
+                    return false;
+                this.rewindToLoopStart();
+                if (!this.refill())
+                    return false;
+            }
+        }
+
+        final int at = this.readBufferPosition * 2 * this.sourceChannels;
+        for (int channel = 0; channel < AudioMixer.CHANNELS; channel++)
+        {
+            final int i = at + 2 * Math.min(channel, this.sourceChannels - 1);
+            frame[channel] = (this.readBuffer[i] & 0xff) | (this.readBuffer[i+1] << 8);
+        }
+        this.readBufferPosition++;
+        this.sourceFrame++;
+        return true;
+    } // readSourceFrame()
+
+
+    private boolean refill () throws IOException
+    {
+        final int frameSize = 2 * this.sourceChannels;
+        int bytes = 0;
+        while (bytes < frameSize)
+        {
+            final int read = this.input.read(this.readBuffer, bytes, this.readBuffer.length - bytes);
+            if (read < 0)
+                break;
+            bytes += read;
+        }
+        this.readBufferFrames = bytes / frameSize;
+        this.readBufferPosition = 0;
+        if (this.loopEndFrame >= 0)
+            this.readBufferFrames = (int)Math.min(this.readBufferFrames, this.loopEndFrame - this.sourceFrame);
+        return this.readBufferFrames > 0;
+    }
+
+
+    /**
+     * rewindToLoopStart()
+     *
+     * Purpose: Reopens the track and skips to the loop start.
+     */
+    private void rewindToLoopStart () throws IOException
+    {
+        this.close();
+        this.open();
+        long toSkip = this.loopStartFrame * 2 * this.sourceChannels;
+        while (toSkip > 0)
+        {
+            final long skipped = this.input.skip(toSkip);
+            if (skipped <= 0)
+                break;
+            toSkip -= skipped;
+        }
+        this.sourceFrame = this.loopStartFrame;
+    } // rewindToLoopStart()
+
+} // final class MusicStream
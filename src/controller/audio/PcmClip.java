@@ -0,0 +1,133 @@
+package controller.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * PcmClip.java
+ *
+ * Purpose: A sound fully decoded into memory in the output format of the
+ *      AudioMixer: 16-bit signed stereo samples at the mixer's sample rate,
+ *      interleaved left and right.
+ */
+public final class PcmClip
+{
+    private final String name;
+    private final short[] samples;
+
+
+    /**
+     * PcmClip (String, short[])
+     *
+     * Purpose: Creates a clip from interleaved stereo samples in the mixer
+     *      format.
+     */
+    PcmClip (final String name, final short[] samples)
+    {
+        this.name = name;
+        this.samples = samples;
+    } // PcmClip (String, short[])
+
+
+    /**
+     * decode()
+     *
+     * Purpose: Reads the given audio file and converts it to the mixer
+     *      format. Mono files are copied to both channels and other sample
+     *      rates are resampled linearly.
+     */
+    static PcmClip decode (final Path path) throws IOException
+    {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(path.toFile()))
+        {
+            final AudioFormat sourceFormat = source.getFormat();
+            final int channels = Math.min(sourceFormat.getChannels(), AudioMixer.CHANNELS);
+            final AudioFormat decodedFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                    sourceFormat.getSampleRate(), 16, sourceFormat.getChannels(), 2 * sourceFormat.getChannels(),
+                    sourceFormat.getSampleRate(), false);
+
+            final byte[] bytes;
+            try (AudioInputStream decoded = AudioSystem.getAudioInputStream(decodedFormat, source))
+            {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = decoded.read(buffer)) > 0)
+                    out.write(buffer, 0, read);
+                bytes = out.toByteArray();
+            }
+
+            final int sourceChannels = sourceFormat.getChannels();
+            final int sourceFrames = bytes.length / (2 * sourceChannels);
+            final double step = sourceFormat.getSampleRate() / AudioMixer.SAMPLE_RATE;
+            final int frames = (int)(sourceFrames / step);
+            final short[] samples = new short[frames * AudioMixer.CHANNELS];
+
+            for (int frame = 0; frame < frames; frame++)
+            {
+                final double position = frame * step;
+                final int first = (int)position;
+                final int second = Math.min(first + 1, sourceFrames - 1);
+                final double weight = position - first;
+                for (int channel = 0; channel < AudioMixer.CHANNELS; channel++)
+                {
+                    final int sourceChannel = Math.min(channel, channels - 1);
+                    final double a = sampleAt(bytes, first, sourceChannel, sourceChannels);
+                    final double b = sampleAt(bytes, second, sourceChannel, sourceChannels);
+                    samples[frame * AudioMixer.CHANNELS + channel] = (short)Math.round(a + (b - a) * weight);
+                }
+            }
+            return new PcmClip(path.getFileName().toString(), samples);
+        }
+        catch (UnsupportedAudioFileException e) {
+            throw new IOException("Unsupported audio file: " + path, e);
+        }
+    } // decode()
+
+
+    private static int sampleAt (final byte[] bytes, final int frame, final int channel, final int channels)
+    {
+        final int i = (frame * channels + channel) * 2;
+        return (bytes[i] & 0xff) | (bytes[i+1] << 8);
+    }
+
+
+    /**
+     * getName()
+     *
+     * Purpose: Returns the file name the clip was decoded from.
+     */
+    public String getName ()
+    {
+        return this.name;
+    } // getName()
+
+
+    /**
+     * getSizeInBytes()
+     *
+     * Purpose: Returns the memory used by the decoded samples.
+     */
+    public long getSizeInBytes ()
+    {
+        return this.samples.length * 2L;
+    } // getSizeInBytes()
+
+
+    /**
+     * getSamples()
+     *
+     * Purpose: Returns the interleaved samples. The array is shared and must
+     *      not be changed.
+     */
+    short[] getSamples ()
+    {
+        return this.samples;
+    } // getSamples()
+
+} // final class PcmClip
@@ -24,4 +24,15 @@ public enum SfxLibrary
         this.filename = filename;
     }
 
+
+    /**
+     * getFilename()
+     *
+     * Purpose: Returns the name of the sound effect file, without extension.
+     */
+    public String getFilename ()
+    {
+        return this.filename;
+    } // getFilename()
+
 }
@@ -17,7 +17,7 @@ public final class SfxPlayer extends AbstractMediaPlayer
      */
     private SfxPlayer ()
     {
-        super("audio/sfx/");
+        super("audio/sfx/", AudioBus.Sfx);
     } // SfxPlayer ()
 
 
@@ -28,7 +28,38 @@ public final class SfxPlayer extends AbstractMediaPlayer
      */
     public static SfxPlayer getInstance ()
     {
-        return instance != null ? instance : new SfxPlayer();
+        if (instance == null)
+            instance = new SfxPlayer();
+        return instance;
     } // getInstance()
 
+
+    /**
+     * preloadLibrary()
+     *
+     * Purpose: Loads every sound effect into the clip cache and pins it, so
+     *      that sound effects never wait for a file.
+     */
+    public void preloadLibrary ()
+    {
+        for (SfxLibrary sfx : SfxLibrary.values())
+            AudioCommandQueue.getInstance().preload(this.getFilepath(), this.getFilename(sfx.name()), true);
+    } // preloadLibrary()
+
+
+    /**
+     * getFilename()
+     *
+     * Purpose: Returns the file of the given sound effect. Sound effects are
+     *      played by their SfxLibrary name, which differs from the file name.
+     */
+    @Override
+    protected String getFilename (final String audioFilename)
+    {
+        for (SfxLibrary sfx : SfxLibrary.values())
+            if (sfx.name().equals(audioFilename))
+                return super.getFilename(sfx.getFilename());
+        return super.getFilename(audioFilename);
+    } // getFilename()
+
 } // final class SfxPlayer
@@ -0,0 +1,134 @@
+package controller.input;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+
+/**
+ * InputQueue.java
+ *
+ * Purpose: Singleton that keeps the keyboard state for scenes to poll while
+ *      they update, instead of each scene installing key handlers.
+ *
+ *      It knows which keys are held down, and keeps the keys pressed since
+ *      they were last polled in a small ring buffer, so that a key tapped
+ *      while a scene is busy, such as during a walk step, is handled once the
+ *      scene is ready. A key held down is only buffered once, whatever the
+ *      key repeat of the system, and the oldest press is dropped when the
+ *      buffer is full.
+ *
+ *      All key events of the window are given to it by PokemonSafari, on the
+ *      JavaFX application thread, which is also where it is polled.
+ */
+public final class InputQueue
+{
+    private static final int CAPACITY = 16;     // a power of two
+
+    private static InputQueue instance = null;
+
+    private final boolean[] down;
+    private final KeyCode[] presses;
+    private int head;                           // next press to poll
+    private int tail;                           // next free slot
+
+
+    /**
+     * InputQueue ()
+     *
+     * Purpose: Creates an empty queue with no keys down.
+     */
+    private InputQueue ()
+    {
+        this.down = new boolean[KeyCode.values().length];
+        this.presses = new KeyCode[CAPACITY];
+        this.head = 0;
+        this.tail = 0;
+    } // InputQueue ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of InputQueue.
+     */
+    public static InputQueue getInstance ()
+    {
+        if (instance == null)
+            instance = new InputQueue();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * record()
+     *
+     * Purpose: Updates the state with the given key event of the window.
+     */
+    public void record (final KeyEvent event)
+    {
+        final KeyCode code = event.getCode();
+        if (code == null)
+            return;
+        if (event.getEventType() == KeyEvent.KEY_PRESSED)
+        {
+            if (this.down[code.ordinal()])
+                return;
+            this.down[code.ordinal()] = true;
+            if (this.tail - this.head == CAPACITY)
+                this.head++;
+            this.presses[this.tail++ & (CAPACITY - 1)] = code;
+        }
+        else if (event.getEventType() == KeyEvent.KEY_RELEASED)
+            this.down[code.ordinal()] = false;
+    } // record()
+
+
+    /**
+     * isDown()
+     *
+     * Purpose: Returns whether the given key is held down.
+     */
+    public boolean isDown (final KeyCode code)
+    {
+        return this.down[code.ordinal()];
+    } // isDown()
+
+
+    /**
+     * poll()
+     *
+     * Purpose: Removes and returns the oldest key pressed since the last
+     *      poll, or returns null if no key was pressed.
+     */
+    public KeyCode poll ()
+    {
+        if (this.head == this.tail)
+            return null;
+        return this.presses[this.head++ & (CAPACITY - 1)];
+    } // poll()
+
+
+    /**
+     * clear()
+     *
+     * Purpose: Drops the keys pressed and not yet polled, for when they were
+     *      meant for another scene.
+     */
+    public void clear ()
+    {
+        this.head = this.tail;
+    } // clear()
+
+
+    /**
+     * releaseAll()
+     *
+     * Purpose: Marks every key as released, for when the window loses the
+     *      focus and their release would never be seen.
+     */
+    public void releaseAll ()
+    {
+        for (int i = 0; i < this.down.length; i++)
+            this.down[i] = false;
+    } // releaseAll()
+
+} // final class InputQueue
@@ -0,0 +1,36 @@
+package controller.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * AssetLoadEvent.java
+ *
+ * Purpose: Flight recorder event for an image, audio clip or map being read
+ *      and decoded. Its duration is the time taken to load it.
+ */
+@Name("pokemonsafari.AssetLoad")
+@Label("Asset Load")
+@Category({ "Pokemon Safari", "Assets" })
+@Description("An asset was read and decoded")
+public final class AssetLoadEvent extends Event
+{
+    public static final String IMAGE = "image";
+    public static final String AUDIO = "audio";
+    public static final String MAP = "map";
+
+    @Label("Kind")
+    public String kind;
+
+    @Label("File")
+    public String file;
+
+    @Label("Decoded Size")
+    @DataAmount
+    public long bytes;
+
+} // final class AssetLoadEvent
@@ -0,0 +1,54 @@
+package controller.metrics;
+
+/**
+ * AssetMetricsMXBean.java
+ *
+ * Purpose: Management interface that counts the assets the game loads.
+ */
+public interface AssetMetricsMXBean
+{
+    /**
+     * getImagesDecoded()
+     *
+     * Purpose: Returns how many images were decoded.
+     */
+    long getImagesDecoded ();
+
+    /**
+     * getImageBytesDecoded()
+     *
+     * Purpose: Returns the memory, in bytes, taken by the pixels of every
+     *      image decoded.
+     */
+    long getImageBytesDecoded ();
+
+    /**
+     * getAudioClipsDecoded()
+     *
+     * Purpose: Returns how many audio clips were decoded into the clip cache.
+     */
+    long getAudioClipsDecoded ();
+
+    /**
+     * getAudioBytesDecoded()
+     *
+     * Purpose: Returns the memory, in bytes, taken by every audio clip
+     *      decoded.
+     */
+    long getAudioBytesDecoded ();
+
+    /**
+     * getAudioCacheHits()
+     *
+     * Purpose: Returns how many clips were played from the clip cache.
+     */
+    long getAudioCacheHits ();
+
+    /**
+     * getMapLoads()
+     *
+     * Purpose: Returns how many times the map was loaded.
+     */
+    long getMapLoads ();
+
+} // interface AssetMetricsMXBean
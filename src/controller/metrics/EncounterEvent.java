@@ -0,0 +1,33 @@
+package controller.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * EncounterEvent.java
+ *
+ * Purpose: Flight recorder event for a wild Pokemon being generated. Its
+ *      duration is the time taken to roll its rarity and create it.
+ */
+@Name("pokemonsafari.Encounter")
+@Label("Wild Encounter")
+@Category({ "Pokemon Safari", "Gameplay" })
+@Description("A wild Pokemon was generated")
+public final class EncounterEvent extends Event
+{
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Species")
+    public int species;
+
+    @Label("Rarity")
+    public String rarity;
+
+} // final class EncounterEvent
@@ -0,0 +1,252 @@
+package controller.metrics;
+
+import controller.GameSceneManager;
+import view.GameScene;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameMetrics.java
+ *
+ * Purpose: Singleton that keeps live counters of the game and publishes them
+ *      as MXBeans, so they can be read with JConsole or JDK Mission Control
+ *      without attaching a profiler:
+ *
+ *          PokemonSafari:type=Scenes      active scene and scene stack depth
+ *          PokemonSafari:type=Gameplay    encounters, catches, flees, balls
+ *          PokemonSafari:type=Assets      images, audio clips and map loads
+ *
+ *      Counters are updated from the JavaFX application thread and the audio
+ *      thread, and read from the JMX threads, so they are atomic. Counting is
+ *      a single atomic increment. The scenes are read without locking, so
+ *      they may be a moment out of date.
+ *
+ *      The instance must be created on the JavaFX application thread before
+ *      the audio thread starts, which register() at startup takes care of.
+ */
+public final class GameMetrics
+{
+    private static final String DOMAIN = "PokemonSafari";
+    private static final int WINDOW_SECONDS = 60;
+
+    private static GameMetrics instance = null;
+
+    private final AtomicLong sceneTransitions;
+    private final AtomicLong encounters;
+    private final AtomicLong catches;
+    private final AtomicLong flees;
+    private final AtomicLong ballsThrown;
+    private final AtomicLong imagesDecoded;
+    private final AtomicLong imageBytes;
+    private final AtomicLong audioClipsDecoded;
+    private final AtomicLong audioBytes;
+    private final AtomicLong audioCacheHits;
+    private final AtomicLong mapLoads;
+
+    private final long[] encounterSeconds;      // the second each slot counts
+    private final int[] encounterCounts;        // encounters in that second
+
+
+    /**
+     * GameMetrics ()
+     *
+     * Purpose: Creates the counters, all at zero.
+     */
+    private GameMetrics ()
+    {
+        this.sceneTransitions = new AtomicLong();
+        this.encounters = new AtomicLong();
+        this.catches = new AtomicLong();
+        this.flees = new AtomicLong();
+        this.ballsThrown = new AtomicLong();
+        this.imagesDecoded = new AtomicLong();
+        this.imageBytes = new AtomicLong();
+        this.audioClipsDecoded = new AtomicLong();
+        this.audioBytes = new AtomicLong();
+        this.audioCacheHits = new AtomicLong();
+        this.mapLoads = new AtomicLong();
+        this.encounterSeconds = new long[WINDOW_SECONDS];
+        this.encounterCounts = new int[WINDOW_SECONDS];
+    } // GameMetrics ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of GameMetrics.
+     */
+    public static GameMetrics getInstance ()
+    {
+        if (instance == null)
+            instance = new GameMetrics();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * register()
+     *
+     * Purpose: Publishes the counters to the platform MBean server.
+     */
+    public void register ()
+    {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new SceneMetrics(), new ObjectName(DOMAIN + ":type=Scenes"));
+            server.registerMBean(new GameplayMetrics(), new ObjectName(DOMAIN + ":type=Gameplay"));
+            server.registerMBean(new AssetMetrics(), new ObjectName(DOMAIN + ":type=Assets"));
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    } // register()
+
+
+    public void countSceneTransition () { this.sceneTransitions.incrementAndGet(); }
+    public void countCatch () { this.catches.incrementAndGet(); }
+    public void countFlee () { this.flees.incrementAndGet(); }
+    public void countBallThrown () { this.ballsThrown.incrementAndGet(); }
+    public void countAudioCacheHit () { this.audioCacheHits.incrementAndGet(); }
+    public void countMapLoad () { this.mapLoads.incrementAndGet(); }
+
+
+    /**
+     * countEncounter()
+     *
+     * Purpose: Counts a wild encounter, in the total and in the second it
+     *      happened.
+     */
+    public synchronized void countEncounter ()
+    {
+        this.encounters.incrementAndGet();
+        final long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        final int slot = (int)(second % WINDOW_SECONDS);
+        if (this.encounterSeconds[slot] != second)
+        {
+            this.encounterSeconds[slot] = second;
+            this.encounterCounts[slot] = 0;
+        }
+        this.encounterCounts[slot]++;
+    } // countEncounter()
+
+
+    /**
+     * countImage()
+     *
+     * Purpose: Counts a decoded image of the given size in pixels.
+     */
+    public void countImage (final long pixels)
+    {
+        this.imagesDecoded.incrementAndGet();
+        this.imageBytes.addAndGet(pixels * 4);
+    } // countImage()
+
+
+    /**
+     * countAudioClip()
+     *
+     * Purpose: Counts a decoded audio clip of the given size in bytes.
+     */
+    public void countAudioClip (final long bytes)
+    {
+        this.audioClipsDecoded.incrementAndGet();
+        this.audioBytes.addAndGet(bytes);
+    } // countAudioClip()
+
+
+    /**
+     * getEncountersInLastMinute()
+     *
+     * Purpose: Returns how many encounters happened in the last minute.
+     */
+    private synchronized long getEncountersInLastMinute ()
+    {
+        final long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long count = 0;
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++)
+            if (now - this.encounterSeconds[slot] < WINDOW_SECONDS)
+                count += this.encounterCounts[slot];
+        return count;
+    } // getEncountersInLastMinute()
+
+
+    /**
+     * SceneMetrics
+     *
+     * Purpose: Publishes the scenes of the GameSceneManager.
+     */
+    private final class SceneMetrics implements SceneMetricsMXBean
+    {
+        @Override
+        public String getActiveScene ()
+        {
+            final GameScene scene = GameSceneManager.getActiveScene();
+            return scene == null ? "" : scene.getClass().getSimpleName();
+        }
+
+        @Override
+        public int getSceneStackDepth () { return GameSceneManager.getSceneCount(); }
+
+        @Override
+        public long getSceneTransitions () { return sceneTransitions.get(); }
+
+    } // final class SceneMetrics
+
+
+    /**
+     * GameplayMetrics
+     *
+     * Purpose: Publishes the gameplay counters.
+     */
+    private final class GameplayMetrics implements GameplayMetricsMXBean
+    {
+        @Override
+        public long getEncounters () { return encounters.get(); }
+
+        @Override
+        public long getEncountersPerMinute () { return getEncountersInLastMinute(); }
+
+        @Override
+        public long getCatches () { return catches.get(); }
+
+        @Override
+        public long getFlees () { return flees.get(); }
+
+        @Override
+        public long getBallsThrown () { return ballsThrown.get(); }
+
+    } // final class GameplayMetrics
+
+
+    /**
+     * AssetMetrics
+     *
+     * Purpose: Publishes the asset counters.
+     */
+    private final class AssetMetrics implements AssetMetricsMXBean
+    {
+        @Override
+        public long getImagesDecoded () { return imagesDecoded.get(); }
+
+        @Override
+        public long getImageBytesDecoded () { return imageBytes.get(); }
+
+        @Override
+        public long getAudioClipsDecoded () { return audioClipsDecoded.get(); }
+
+        @Override
+        public long getAudioBytesDecoded () { return audioBytes.get(); }
+
+        @Override
+        public long getAudioCacheHits () { return audioCacheHits.get(); }
+
+        @Override
+        public long getMapLoads () { return mapLoads.get(); }
+
+    } // final class AssetMetrics
+
+} // final class GameMetrics
@@ -0,0 +1,46 @@
+package controller.metrics;
+
+/**
+ * GameplayMetricsMXBean.java
+ *
+ * Purpose: Management interface that counts what happens in the safari.
+ */
+public interface GameplayMetricsMXBean
+{
+    /**
+     * getEncounters()
+     *
+     * Purpose: Returns how many wild Pokemon were encountered.
+     */
+    long getEncounters ();
+
+    /**
+     * getEncountersPerMinute()
+     *
+     * Purpose: Returns how many wild Pokemon were encountered in the last
+     *      minute.
+     */
+    long getEncountersPerMinute ();
+
+    /**
+     * getCatches()
+     *
+     * Purpose: Returns how many Pokemon were caught.
+     */
+    long getCatches ();
+
+    /**
+     * getFlees()
+     *
+     * Purpose: Returns how many Pokemon ran away.
+     */
+    long getFlees ();
+
+    /**
+     * getBallsThrown()
+     *
+     * Purpose: Returns how many safari balls were thrown.
+     */
+    long getBallsThrown ();
+
+} // interface GameplayMetricsMXBean
@@ -0,0 +1,32 @@
+package controller.metrics;
+
+/**
+ * SceneMetricsMXBean.java
+ *
+ * Purpose: Management interface that shows which scenes are open.
+ */
+public interface SceneMetricsMXBean
+{
+    /**
+     * getActiveScene()
+     *
+     * Purpose: Returns the kind of scene being shown, or an empty string
+     *      before the first scene.
+     */
+    String getActiveScene ();
+
+    /**
+     * getSceneStackDepth()
+     *
+     * Purpose: Returns the number of scenes open, including the one shown.
+     */
+    int getSceneStackDepth ();
+
+    /**
+     * getSceneTransitions()
+     *
+     * Purpose: Returns how many times a scene was entered or returned to.
+     */
+    long getSceneTransitions ();
+
+} // interface SceneMetricsMXBean
@@ -0,0 +1,34 @@
+package controller.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SceneTransitionEvent.java
+ *
+ * Purpose: Flight recorder event for a change of scene. Its duration is the
+ *      time taken to start the new scene.
+ */
+@Name("pokemonsafari.SceneTransition")
+@Label("Scene Transition")
+@Category({ "Pokemon Safari", "Scenes" })
+@Description("A scene was entered or returned to")
+public final class SceneTransitionEvent extends Event
+{
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Returning")
+    @Description("Whether the scene was returned to rather than entered")
+    public boolean returning;
+
+    @Label("Stack Depth")
+    public int depth;
+
+} // final class SceneTransitionEvent
@@ -0,0 +1,93 @@
+package controller.session;
+
+import javafx.scene.input.KeyCode;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * BenchmarkSession.java
+ *
+ * Purpose: Offline tool that writes data/perf/benchmark.session, the session
+ *      replayed headless to check the draw call budgets.
+ *
+ *      The session is scripted rather than recorded, so it can be written
+ *      again without a display and gives the same file every time. Keys are
+ *      picked at random from a fixed seed and each is held, then released,
+ *      for a few frames. The keys cover every scene:
+ *          W, A, S, D: walk, move the menu arrow and browse the collection.
+ *                      D is picked more often so the player leaves the
+ *                      start and walks into the grass.
+ *          SPACE:      confirm the menu and every battle choice, and throw.
+ *          ENTER:      open the overworld menu.
+ *          Z:          leave the collection.
+ *          E, Q, F:    sort the collection and filter it by rarity and
+ *                      species.
+ *      With enough presses the player runs out of steps and the game ends.
+ *
+ *      Usage: java controller.session.BenchmarkSession [file] [presses]
+ */
+public final class BenchmarkSession
+{
+    private static final String DEFAULT_FILE = "data/perf/benchmark.session";
+    private static final int DEFAULT_PRESSES = 6000;
+    private static final long GAME_SEED = 42;       // seed of the GameRandom
+    private static final long KEY_SEED = 7;         // seed of the keys picked
+    private static final KeyCode[] KEYS = {
+        KeyCode.W, KeyCode.A, KeyCode.S, KeyCode.D, KeyCode.D, KeyCode.D,
+        KeyCode.SPACE, KeyCode.SPACE, KeyCode.SPACE, KeyCode.ENTER,
+        KeyCode.Z, KeyCode.E, KeyCode.Q, KeyCode.F
+    };
+    private static final long FIRST_FRAME = 10;
+    private static final int MIN_HOLD_FRAMES = 5;
+    private static final int HOLD_FRAME_RANGE = 30;
+    private static final int MIN_GAP_FRAMES = 5;
+    private static final int GAP_FRAME_RANGE = 20;
+    private static final long END_FRAMES = 120;     // after the last release
+
+
+    private BenchmarkSession () { /* Not instantiable */ }
+
+
+    /**
+     * main()
+     *
+     * Purpose: Writes the session to the given file, with the given number
+     *      of key presses.
+     */
+    public static void main (final String[] args) throws IOException
+    {
+        final String file = args.length > 0 ? args[0] : DEFAULT_FILE;
+        final int presses = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PRESSES;
+        final SessionLog log = script(presses);
+        log.write(Paths.get(file));
+        System.out.println(log.size() + " key events over " + log.getEndFrame() + " frames in " + file);
+    } // main()
+
+
+    /**
+     * script()
+     *
+     * Purpose: Returns a session of the given number of key presses.
+     */
+    static SessionLog script (final int presses)
+    {
+        if (presses < 0)
+            throw new IllegalArgumentException("The number of key presses cannot be negative: " + presses);
+        final SessionLog log = new SessionLog(GAME_SEED);
+        final Random random = new Random(KEY_SEED);
+        long frame = FIRST_FRAME;
+        for (int i = 0; i < presses; i++)
+        {
+            final KeyCode key = KEYS[random.nextInt(KEYS.length)];
+            log.add(frame, key, true);
+            frame += MIN_HOLD_FRAMES + random.nextInt(HOLD_FRAME_RANGE);
+            log.add(frame, key, false);
+            frame += MIN_GAP_FRAMES + random.nextInt(GAP_FRAME_RANGE);
+        }
+        log.setEndFrame(frame + END_FRAMES);
+        return log;
+    } // script()
+
+} // final class BenchmarkSession
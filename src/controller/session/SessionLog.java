@@ -0,0 +1,239 @@
+package controller.session;
+
+import javafx.scene.input.KeyCode;
+import model.misc.Varint;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SessionLog.java
+ *
+ * Purpose: A recorded play session: the seed of the GameRandom and every key
+ *      press and release, stamped with the frame of the GameLoop it arrived
+ *      before. Frames are counted from the start of the session.
+ *
+ *      The file is compact: after a header with the seed, the keys used are
+ *      listed once by name, and each event is a varint frame delta and a
+ *      varint key index, so an event usually takes two bytes.
+ */
+public final class SessionLog
+{
+    private static final int MAGIC = 0x50535252;   // "PSRR"
+    private static final int VERSION = 1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final long seed;
+    private long[] frames;
+    private KeyCode[] codes;
+    private boolean[] pressed;
+    private int size;
+    private long endFrame;
+
+
+    /**
+     * SessionLog (long)
+     *
+     * Purpose: Creates an empty log of a session started from the given seed.
+     */
+    public SessionLog (final long seed)
+    {
+        this.seed = seed;
+        this.frames = new long[INITIAL_CAPACITY];
+        this.codes = new KeyCode[INITIAL_CAPACITY];
+        this.pressed = new boolean[INITIAL_CAPACITY];
+    } // SessionLog (long)
+
+
+    /**
+     * add()
+     *
+     * Purpose: Adds a key event at the given frame. Frames cannot go back.
+     */
+    public void add (final long frame, final KeyCode code, final boolean isPress)
+    {
+        if (frame < this.endFrame)
+            throw new IllegalArgumentException("Session event at frame " + frame + " is before frame " + this.endFrame);
+        if (this.size == this.frames.length)
+        {
+            this.frames = Arrays.copyOf(this.frames, this.size * 2);
+            this.codes = Arrays.copyOf(this.codes, this.size * 2);
+            this.pressed = Arrays.copyOf(this.pressed, this.size * 2);
+        }
+        this.frames[this.size] = frame;
+        this.codes[this.size] = code;
+        this.pressed[this.size] = isPress;
+        this.size++;
+        this.endFrame = frame;
+    } // add()
+
+
+    /**
+     * setEndFrame()
+     *
+     * Purpose: Sets the frame the session ended at, which is never before its
+     *      last event.
+     */
+    public void setEndFrame (final long frame)
+    {
+        this.endFrame = Math.max(frame, this.endFrame);
+    } // setEndFrame()
+
+
+    /**
+     * getEndFrame()
+     *
+     * Purpose: Returns the frame the session ended at.
+     */
+    public long getEndFrame ()
+    {
+        return this.endFrame;
+    } // getEndFrame()
+
+
+    /**
+     * getSeed()
+     *
+     * Purpose: Returns the seed the session was started from.
+     */
+    public long getSeed ()
+    {
+        return this.seed;
+    } // getSeed()
+
+
+    /**
+     * size()
+     *
+     * Purpose: Returns the number of key events.
+     */
+    public int size ()
+    {
+        return this.size;
+    } // size()
+
+
+    /**
+     * getFrame()
+     *
+     * Purpose: Returns the frame of the given event.
+     */
+    public long getFrame (final int event)
+    {
+        return this.frames[event];
+    } // getFrame()
+
+
+    /**
+     * getCode()
+     *
+     * Purpose: Returns the key of the given event.
+     */
+    public KeyCode getCode (final int event)
+    {
+        return this.codes[event];
+    } // getCode()
+
+
+    /**
+     * isPress()
+     *
+     * Purpose: Returns whether the given event is a key press rather than a
+     *      release.
+     */
+    public boolean isPress (final int event)
+    {
+        return this.pressed[event];
+    } // isPress()
+
+
+    /**
+     * write()
+     *
+     * Purpose: Writes the log to the given file.
+     */
+    public void write (final Path file) throws IOException
+    {
+        final List<KeyCode> keys = new ArrayList<>();
+        int namesLength = 0;
+        for (int i = 0; i < this.size; i++)
+            if (!keys.contains(this.codes[i]))
+            {
+                keys.add(this.codes[i]);
+                namesLength += this.codes[i].name().length();
+            }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(13 + (keys.size() + 3) * Varint.MAX_BYTES + namesLength
+                + this.size * 2 * Varint.MAX_BYTES);
+        buffer.putInt(MAGIC).put((byte)VERSION).putLong(this.seed);
+
+        Varint.put(buffer, keys.size());
+        for (KeyCode key : keys)
+        {
+            final byte[] name = key.name().getBytes(StandardCharsets.US_ASCII);
+            Varint.put(buffer, name.length);
+            buffer.put(name);
+        }
+
+        Varint.put(buffer, this.size);
+        long lastFrame = 0;
+        for (int i = 0; i < this.size; i++)
+        {
+            Varint.put(buffer, (int)(this.frames[i] - lastFrame));
+            Varint.put(buffer, keys.indexOf(this.codes[i]) << 1 | (this.pressed[i] ? 1 : 0));
+            lastFrame = this.frames[i];
+        }
+        Varint.put(buffer, (int)(this.getEndFrame() - lastFrame));
+
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.copyOf(buffer.array(), buffer.position()));
+    } // write()
+
+
+    /**
+     * read()
+     *
+     * Purpose: Reads a log from the given file. Throws an IOException if the
+     *      file is not a session or is damaged.
+     */
+    public static SessionLog read (final Path file) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION)
+                throw new IOException("Not a session file: " + file);
+            final SessionLog log = new SessionLog(buffer.getLong());
+
+            final KeyCode[] keys = new KeyCode[Varint.get(buffer)];
+            for (int i = 0; i < keys.length; i++)
+            {
+                final byte[] name = new byte[Varint.get(buffer)];
+                buffer.get(name);
+                keys[i] = KeyCode.valueOf(new String(name, StandardCharsets.US_ASCII));
+            }
+
+            final int size = Varint.get(buffer);
+            long frame = 0;
+            for (int i = 0; i < size; i++)
+            {
+                frame += Varint.get(buffer);
+                final int keyAndPress = Varint.get(buffer);
+                log.add(frame, keys[keyAndPress >>> 1], (keyAndPress & 1) == 1);
+            }
+            log.setEndFrame(frame + Varint.get(buffer));
+            return log;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException
+                | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Session file is damaged: " + file, e);
+        }
+    } // read()
+
+} // final class SessionLog
@@ -0,0 +1,114 @@
+package controller.session;
+
+import javafx.scene.input.KeyEvent;
+import model.misc.GameRandom;
+import view.GameLoop;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * SessionRecorder.java
+ *
+ * Purpose: Singleton that records a play session into a SessionLog, so that
+ *      the SessionReplayer can play it back exactly.
+ *
+ *      Starting a recording reseeds the GameRandom with a fresh seed and
+ *      remembers it. From then on, every key event that reaches the window is
+ *      stamped with the GameLoop frame it arrived before. The log is written
+ *      when the game exits.
+ */
+public final class SessionRecorder
+{
+    private static SessionRecorder instance = null;
+
+    private SessionLog log;
+    private long startFrame;
+    private Path file;
+
+
+    private SessionRecorder () { }
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of SessionRecorder.
+     */
+    public static SessionRecorder getInstance ()
+    {
+        if (instance == null)
+            instance = new SessionRecorder();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * start()
+     *
+     * Purpose: Starts recording a session that is written to the given file
+     *      when the game exits.
+     */
+    public void start (final Path file)
+    {
+        final long seed = System.nanoTime();
+        GameRandom.setSeed(seed);
+        this.log = new SessionLog(seed);
+        this.startFrame = GameLoop.getInstance().getFrame();
+        this.file = file;
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                stop();
+            }
+        }, "session-recorder-shutdown"));
+    } // start()
+
+
+    /**
+     * record()
+     *
+     * Purpose: Adds the given key event to the session, if one is being
+     *      recorded.
+     */
+    public synchronized void record (final KeyEvent event)
+    {
+        if (this.log == null)
+            return;
+        this.log.add(GameLoop.getInstance().getFrame() - this.startFrame, event.getCode(),
+                event.getEventType() == KeyEvent.KEY_PRESSED);
+    } // record()
+
+
+    /**
+     * isRecording()
+     *
+     * Purpose: Returns whether a session is being recorded.
+     */
+    public boolean isRecording ()
+    {
+        return this.log != null;
+    } // isRecording()
+
+
+    /**
+     * stop()
+     *
+     * Purpose: Stops recording and writes the session to its file.
+     */
+    public synchronized void stop ()
+    {
+        if (this.log == null)
+            return;
+        final SessionLog finished = this.log;
+        this.log = null;
+        finished.setEndFrame(GameLoop.getInstance().getFrame() - this.startFrame);
+        try {
+            finished.write(this.file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    } // stop()
+
+} // final class SessionRecorder
@@ -0,0 +1,134 @@
+package controller.session;
+
+import javafx.event.EventHandler;
+import javafx.scene.input.KeyEvent;
+import model.misc.GameRandom;
+import view.GameLoop;
+
+/**
+ * SessionReplayer.java
+ *
+ * Purpose: Plays a SessionLog back into the game.
+ *
+ *      The GameRandom is reseeded with the seed of the session and every key
+ *      event is handed to the key handler of the game just before the same
+ *      GameLoop frame it was recorded at, so the game goes through exactly
+ *      the same states. No window is needed, so a session can also be
+ *      replayed headless.
+ *      A replay runs at normal speed, to watch it, or many frames per pulse,
+ *      to use it as a repeatable workload or to check that a change did not
+ *      alter the game.
+ */
+public final class SessionReplayer implements GameLoop.FrameListener
+{
+    private static final int FAST_FRAMES_PER_PULSE = 600;   // ten seconds of game per pulse
+
+    private final SessionLog log;
+    private final EventHandler<KeyEvent> keyHandler;
+    private final boolean fast;
+
+    private long startFrame;
+    private long startTime;
+    private int nextEvent;
+    private boolean running;
+    private boolean firing;
+
+
+    /**
+     * SessionReplayer (SessionLog, EventHandler, boolean)
+     *
+     * Purpose: Creates a replay of the given session into the given key
+     *      handler, at normal speed or as fast as possible.
+     */
+    public SessionReplayer (final SessionLog log, final EventHandler<KeyEvent> keyHandler, final boolean fast)
+    {
+        this.log = log;
+        this.keyHandler = keyHandler;
+        this.fast = fast;
+    } // SessionReplayer (SessionLog, EventHandler, boolean)
+
+
+    /**
+     * start()
+     *
+     * Purpose: Starts the replay. Must be called at the same point in the
+     *      start-up of the game as the recording was started.
+     */
+    public void start ()
+    {
+        GameRandom.setSeed(this.log.getSeed());
+        this.startFrame = GameLoop.getInstance().getFrame();
+        this.startTime = System.nanoTime();
+        this.nextEvent = 0;
+        this.running = true;
+        GameLoop.getInstance().setFrameListener(this);
+        if (this.fast)
+            GameLoop.getInstance().setFramesPerPulse(FAST_FRAMES_PER_PULSE);
+    } // start()
+
+
+    /**
+     * beforeFrame()
+     *
+     * Purpose: Fires the events recorded before the given frame, and ends
+     *      the replay at the end of the session.
+     */
+    @Override
+    public void beforeFrame (final long frame)
+    {
+        final long sessionFrame = frame - this.startFrame;
+        while (this.nextEvent < this.log.size() && this.log.getFrame(this.nextEvent) <= sessionFrame)
+        {
+            final int event = this.nextEvent++;
+            this.firing = true;
+            this.keyHandler.handle(new KeyEvent(this.log.isPress(event) ? KeyEvent.KEY_PRESSED : KeyEvent.KEY_RELEASED,
+                    KeyEvent.CHAR_UNDEFINED, "", this.log.getCode(event), false, false, false, false));
+            this.firing = false;
+        }
+        if (sessionFrame >= this.log.getEndFrame())
+            this.finish(sessionFrame);
+    } // beforeFrame()
+
+
+    /**
+     * isBlocking()
+     *
+     * Purpose: Returns whether key events from the keyboard must be ignored,
+     *      which they are while the replay runs so they cannot change it.
+     */
+    public boolean isBlocking ()
+    {
+        return this.running && !this.firing;
+    } // isBlocking()
+
+
+    /**
+     * isRunning()
+     *
+     * Purpose: Returns whether the replay has not reached the end of the
+     *      session yet.
+     */
+    public boolean isRunning ()
+    {
+        return this.running;
+    } // isRunning()
+
+
+    /**
+     * finish()
+     *
+     * Purpose: Returns the game to normal speed and reports how long the
+     *      replay took.
+     */
+    private void finish (final long frames)
+    {
+        this.running = false;
+        GameLoop.getInstance().setFrameListener(null);
+        GameLoop.getInstance().setFramesPerPulse(1);
+        final double seconds = (System.nanoTime() - this.startTime) / 1e9;
+        final double gameSeconds = frames * GameLoop.FRAME_NANOS / 1e9;
+        System.out.printf("Replayed %d events over %d frames (%.1f s of play) in %.2f s, %.1fx real time%n",
+                this.log.size(), frames, gameSeconds, seconds, gameSeconds / Math.max(seconds, 1e-9));
+    } // finish()
+
+} // final class SessionReplayer
@@ -0,0 +1,269 @@
+package controller.telemetry;
+
+import view.GameLoop;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Telemetry.java
+ *
+ * Purpose: Singleton that logs structured gameplay events for later analysis
+ *      by TelemetryReport.
+ *
+ *      Events are written into a ring buffer of preallocated columns, so
+ *      emitting one allocates nothing and takes no lock. A background thread
+ *      drains the buffer a few times a second into NDJSON files, one event
+ *      per line, starting a new file when the current one reaches its size
+ *      limit. If the buffer is full the event is dropped and counted rather
+ *      than blocking the game.
+ *
+ *      Events are stamped with the game time of the GameLoop in milliseconds,
+ *      not the wall clock, so a game played at a faster TimeScale or
+ *      replayed faster than real time reports the time the player would
+ *      have spent. The files go to the telemetry folder unless another is
+ *      chosen with setFolder() before the first event, such as to keep the
+ *      events of a recorded or replayed session out of the analytics.
+ *
+ *      Events must be emitted from the JavaFX application thread only.
+ */
+public final class Telemetry
+{
+    private static final int CAPACITY = 4096;               // a power of two
+    private static final int MAX_FIELDS = 3;
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MAX_FILE_BYTES = 4L * 1024 * 1024;
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static Telemetry instance = null;
+    private static Path folder = Paths.get("telemetry");
+
+    private final long[] times;
+    private final TelemetryEvent[] events;
+    private final String[] labels;
+    private final int[] fields;
+
+    private final AtomicLong head;                           // next slot to write, owned by the game
+    private final AtomicLong tail;                           // next slot to read, owned by the writer
+    private final AtomicLong dropped;
+    private final Thread writerThread;
+
+    private final StringBuilder line;
+    private Writer file;
+    private long fileBytes;
+    private int fileNumber;
+    private final long sessionId;
+
+
+    /**
+     * Telemetry ()
+     *
+     * Purpose: Allocates the ring buffer and starts the writer thread.
+     */
+    private Telemetry ()
+    {
+        this.times = new long[CAPACITY];
+        this.events = new TelemetryEvent[CAPACITY];
+        this.labels = new String[CAPACITY];
+        this.fields = new int[CAPACITY * MAX_FIELDS];
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.line = new StringBuilder(128);
+        this.sessionId = System.currentTimeMillis();
+
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "telemetry-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, "telemetry-shutdown"));
+    } // Telemetry ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of Telemetry.
+     */
+    public static Telemetry getInstance ()
+    {
+        if (instance == null)
+            instance = new Telemetry();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * setFolder()
+     *
+     * Purpose: Sets the folder the log files are written to. Must be called
+     *      before the first event is emitted.
+     */
+    public static void setFolder (final Path logFolder)
+    {
+        if (instance != null)
+            throw new IllegalStateException("Telemetry is already in use");
+        folder = logFolder;
+    } // setFolder()
+
+
+    /**
+     * emit()
+     *
+     * Purpose: Logs an event with a label and up to three numbers. Unused
+     *      numbers are ignored.
+     */
+    public void emit (final TelemetryEvent event, final String label, final int a, final int b, final int c)
+    {
+        final long slot = this.head.get();
+        if (slot - this.tail.get() >= CAPACITY)
+        {
+            this.dropped.incrementAndGet();
+            return;
+        }
+        final int i = (int)(slot & (CAPACITY - 1));
+        this.times[i] = GameLoop.getInstance().now() / NANOS_PER_MILLI;
+        this.events[i] = event;
+        this.labels[i] = label;
+        this.fields[i * MAX_FIELDS] = a;
+        this.fields[i * MAX_FIELDS + 1] = b;
+        this.fields[i * MAX_FIELDS + 2] = c;
+        this.head.lazySet(slot + 1);
+    } // emit()
+
+
+    /**
+     * emit()
+     *
+     * Purpose: Logs an event with up to three numbers and no label.
+     */
+    public void emit (final TelemetryEvent event, final int a, final int b, final int c)
+    {
+        this.emit(event, null, a, b, c);
+    } // emit()
+
+
+    /**
+     * getDroppedCount()
+     *
+     * Purpose: Returns how many events were dropped because the buffer was
+     *      full.
+     */
+    public long getDroppedCount ()
+    {
+        return this.dropped.get();
+    } // getDroppedCount()
+
+
+    /**
+     * write()
+     *
+     * Purpose: Body of the writer thread. Drains the buffer every interval.
+     */
+    private void write ()
+    {
+        while (true)
+        {
+            LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+            this.flush();
+        }
+    } // write()
+
+
+    /**
+     * flush()
+     *
+     * Purpose: Writes every event in the buffer to the current log file.
+     */
+    private synchronized void flush ()
+    {
+        final long end = this.head.get();
+        long slot = this.tail.get();
+        if (slot == end)
+            return;
+        try {
+            for (; slot < end; slot++)
+            {
+                this.format((int)(slot & (CAPACITY - 1)));
+                this.openFile().append(this.line);
+                this.fileBytes += this.line.length();
+                this.labels[(int)(slot & (CAPACITY - 1))] = null;
+                this.tail.lazySet(slot + 1);
+            }
+            this.file.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+            this.tail.set(end);          // drop what could not be written
+            this.closeFile();
+        }
+    } // flush()
+
+
+    /**
+     * format()
+     *
+     * Purpose: Formats the event in the given slot as one NDJSON line.
+     */
+    private void format (final int i)
+    {
+        final TelemetryEvent event = this.events[i];
+        final StringBuilder out = this.line;
+        out.setLength(0);
+        out.append("{\"time\":").append(this.times[i]).append(",\"event\":\"").append(event.name()).append('"');
+        if (event.getLabelName() != null && this.labels[i] != null)
+            out.append(",\"").append(event.getLabelName()).append("\":\"").append(this.labels[i]).append('"');
+        for (int field = 0; field < event.getFieldCount(); field++)
+            out.append(",\"").append(event.getFieldName(field)).append("\":").append(this.fields[i * MAX_FIELDS + field]);
+        out.append("}\n");
+    } // format()
+
+
+    /**
+     * openFile()
+     *
+     * Purpose: Returns the current log file, starting a new one if there is
+     *      none yet or the current one is full.
+     */
+    private Writer openFile () throws IOException
+    {
+        if (this.file != null && this.fileBytes < MAX_FILE_BYTES)
+            return this.file;
+        this.closeFile();
+        Files.createDirectories(folder);
+        final Path path = folder.resolve("telemetry-" + this.sessionId + "-" + this.fileNumber++ + ".ndjson");
+        this.file = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        this.fileBytes = 0;
+        return this.file;
+    } // openFile()
+
+
+    private void closeFile ()
+    {
+        if (this.file == null)
+            return;
+        try {
+            this.file.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.file = null;
+    }
+
+} // final class Telemetry
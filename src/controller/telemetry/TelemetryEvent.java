@@ -0,0 +1,66 @@
+package controller.telemetry;
+
+/**
+ * TelemetryEvent.java
+ *
+ * Purpose: The kinds of events the game reports to Telemetry, with the names
+ *      of their label and number fields as they appear in the log files.
+ *      Fields without a name are not written.
+ */
+public enum TelemetryEvent
+{
+    SceneEnter ("scene"),
+    EncounterCheck (null, "x", "y", "species"),
+    BallThrown (null, "species", "ballsLeft"),
+    BallShake (null, "species", "shake", "brokeOut"),
+    Caught (null, "species", "level"),
+    Bait (null, "species", "catchRate", "runRate"),
+    Rock (null, "species", "catchRate", "runRate"),
+    TurnResult (null, "species", "fled", "turnsLeft"),
+    PlayerRun (null, "species", "turnsLeft");
+
+
+    private String labelName;
+    private String[] fieldNames;
+
+    TelemetryEvent (String labelName, String... fieldNames)
+    {
+        this.labelName = labelName;
+        this.fieldNames = fieldNames;
+    }
+
+
+    /**
+     * getLabelName()
+     *
+     * Purpose: Returns the name of the label field, or null if the event has
+     *      no label.
+     */
+    public String getLabelName ()
+    {
+        return this.labelName;
+    } // getLabelName()
+
+
+    /**
+     * getFieldCount()
+     *
+     * Purpose: Returns the number of number fields of the event.
+     */
+    public int getFieldCount ()
+    {
+        return this.fieldNames.length;
+    } // getFieldCount()
+
+
+    /**
+     * getFieldName()
+     *
+     * Purpose: Returns the name of the given number field.
+     */
+    public String getFieldName (final int field)
+    {
+        return this.fieldNames[field];
+    } // getFieldName()
+
+}
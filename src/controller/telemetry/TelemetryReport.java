@@ -0,0 +1,285 @@
+package controller.telemetry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * TelemetryReport.java
+ *
+ * Purpose: Offline tool that reads the log files written by Telemetry and
+ *      prints encounter rates per tile, flee rates per species, balls thrown
+ *      per catch and time spent per scene.
+ *
+ *      Files are parsed in parallel and events are grouped with concurrent
+ *      collectors. Scene times are measured between consecutive SceneEnter
+ *      events of the same game session, so they are worked out per session,
+ *      and are in game time.
+ *
+ *      Usage: java controller.telemetry.TelemetryReport [folder]
+ */
+public final class TelemetryReport
+{
+    private static final String DEFAULT_FOLDER = "telemetry";
+    private static final String FILE_SUFFIX = ".ndjson";
+
+
+    private TelemetryReport () { /* Not instantiable */ }
+
+
+    /**
+     * main()
+     *
+     * Purpose: Prints the report for the log files in the given folder.
+     */
+    public static void main (final String[] args) throws IOException
+    {
+        final Path folder = Paths.get(args.length > 0 ? args[0] : DEFAULT_FOLDER);
+        final List<Row> rows;
+        try (Stream<Path> files = Files.list(folder))
+        {
+            rows = files.filter(file -> file.toString().endsWith(FILE_SUFFIX))
+                    .collect(Collectors.toList())
+                    .parallelStream()
+                    .flatMap(TelemetryReport::readRows)
+                    .collect(Collectors.toList());
+        }
+        System.out.println(rows.size() + " events in " + folder);
+
+        printEncounterRates(rows);
+        printFleeRates(rows);
+        printBallsPerCatch(rows);
+        printSceneTimes(rows);
+    } // main()
+
+
+    /**
+     * printEncounterRates()
+     *
+     * Purpose: Prints, for every tile that was checked for an encounter, how
+     *      often an encounter happened.
+     */
+    private static void printEncounterRates (final List<Row> rows)
+    {
+        final ConcurrentMap<String, long[]> tiles = rows.parallelStream()
+                .filter(row -> row.event == TelemetryEvent.EncounterCheck)
+                .collect(Collectors.groupingByConcurrent(row -> "(" + row.get("x") + ", " + row.get("y") + ")",
+                        Collectors.reducing(new long[2], row -> new long[] { 1, row.get("species") >= 0 ? 1 : 0 },
+                                TelemetryReport::sum)));
+
+        System.out.println();
+        System.out.println("Encounter rate per tile");
+        tiles.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(tile -> System.out.printf("  %-10s %6d steps  %5.1f%%%n", tile.getKey(), tile.getValue()[0],
+                        percent(tile.getValue()[1], tile.getValue()[0])));
+    } // printEncounterRates()
+
+
+    /**
+     * printFleeRates()
+     *
+     * Purpose: Prints, for every species, how often it fled at the end of a
+     *      turn.
+     */
+    private static void printFleeRates (final List<Row> rows)
+    {
+        final ConcurrentMap<Long, long[]> species = rows.parallelStream()
+                .filter(row -> row.event == TelemetryEvent.TurnResult)
+                .collect(Collectors.groupingByConcurrent(row -> row.get("species"),
+                        Collectors.reducing(new long[2], row -> new long[] { 1, row.get("fled") }, TelemetryReport::sum)));
+
+        System.out.println();
+        System.out.println("Flee rate per species");
+        new TreeMap<>(species).forEach((id, counts) ->
+                System.out.printf("  #%-4d %6d turns  %5.1f%%%n", id, counts[0], percent(counts[1], counts[0])));
+    } // printFleeRates()
+
+
+    /**
+     * printBallsPerCatch()
+     *
+     * Purpose: Prints how many safari balls were thrown for every catch.
+     */
+    private static void printBallsPerCatch (final List<Row> rows)
+    {
+        final Map<TelemetryEvent, Long> counts = rows.parallelStream()
+                .filter(row -> row.event == TelemetryEvent.BallThrown || row.event == TelemetryEvent.Caught)
+                .collect(Collectors.groupingByConcurrent(row -> row.event, Collectors.counting()));
+        final long thrown = counts.getOrDefault(TelemetryEvent.BallThrown, 0L);
+        final long caught = counts.getOrDefault(TelemetryEvent.Caught, 0L);
+
+        System.out.println();
+        System.out.printf("Balls per catch: %d thrown, %d caught, %.2f per catch%n", thrown, caught,
+                caught == 0 ? 0.0 : (double)thrown / caught);
+    } // printBallsPerCatch()
+
+
+    /**
+     * printSceneTimes()
+     *
+     * Purpose: Prints the total time spent in each scene.
+     */
+    private static void printSceneTimes (final List<Row> rows)
+    {
+        final Map<Long, List<Row>> sessions = rows.parallelStream()
+                .filter(row -> row.event == TelemetryEvent.SceneEnter)
+                .collect(Collectors.groupingByConcurrent(row -> row.session));
+
+        final Map<String, Long> millis = sessions.values().parallelStream()
+                .flatMap(TelemetryReport::sceneDurations)
+                .collect(Collectors.groupingByConcurrent(duration -> duration.scene,
+                        Collectors.summingLong(duration -> duration.millis)));
+
+        System.out.println();
+        System.out.println("Time per scene");
+        new TreeMap<>(millis).forEach((scene, time) -> System.out.printf("  %-16s %10.1f s%n", scene, time / 1000.0));
+    } // printSceneTimes()
+
+
+    /**
+     * sceneDurations()
+     *
+     * Purpose: Returns how long each scene of a session lasted, from its
+     *      SceneEnter to the next one. The last scene has no end and is left
+     *      out.
+     */
+    private static Stream<SceneDuration> sceneDurations (final List<Row> enters)
+    {
+        final List<Row> sorted = new ArrayList<>(enters);
+        sorted.sort(Comparator.comparingLong(row -> row.time));
+        final List<SceneDuration> durations = new ArrayList<>();
+        for (int i = 0; i + 1 < sorted.size(); i++)
+            durations.add(new SceneDuration(sorted.get(i).label, sorted.get(i + 1).time - sorted.get(i).time));
+        return durations.stream();
+    } // sceneDurations()
+
+
+    /**
+     * readRows()
+     *
+     * Purpose: Parses every event of a log file. Lines that cannot be parsed,
+     *      such as one cut short by a crash, are skipped.
+     */
+    private static Stream<Row> readRows (final Path file)
+    {
+        final String name = file.getFileName().toString();
+        final long session = Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('-')));
+        try {
+            return Files.readAllLines(file).stream()
+                    .map(line -> Row.parse(line, session))
+                    .filter(row -> row != null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    } // readRows()
+
+
+    private static long[] sum (final long[] a, final long[] b)
+    {
+        return new long[] { a[0] + b[0], a[1] + b[1] };
+    }
+
+
+    private static double percent (final long part, final long whole)
+    {
+        return whole == 0 ? 0.0 : 100.0 * part / whole;
+    }
+
+
+    /**
+     * Row
+     *
+     * Purpose: One parsed event.
+     */
+    private static final class Row
+    {
+        private final long session;
+        private final long time;
+        private final TelemetryEvent event;
+        private final String label;
+        private final Map<String, Long> numbers;
+
+        private Row (final long session, final long time, final TelemetryEvent event, final String label,
+                     final Map<String, Long> numbers)
+        {
+            this.session = session;
+            this.time = time;
+            this.event = event;
+            this.label = label;
+            this.numbers = numbers;
+        }
+
+        private long get (final String field)
+        {
+            return this.numbers.getOrDefault(field, 0L);
+        }
+
+        /**
+         * parse()
+         *
+         * Purpose: Parses a line written by Telemetry, which is a flat JSON
+         *      object of numbers and simple strings, or returns null.
+         */
+        private static Row parse (final String line, final long session)
+        {
+            if (!line.startsWith("{") || !line.endsWith("}"))
+                return null;
+            final Map<String, Long> numbers = new HashMap<>();
+            String event = null;
+            String label = null;
+            try {
+                for (String pair : line.substring(1, line.length() - 1).split(","))
+                {
+                    final int colon = pair.indexOf(':');
+                    final String key = pair.substring(1, colon - 1);
+                    final String value = pair.substring(colon + 1);
+                    if (value.startsWith("\""))
+                    {
+                        if (key.equals("event"))
+                            event = value.substring(1, value.length() - 1);
+                        else
+                            label = value.substring(1, value.length() - 1);
+                    }
+                    else
+                        numbers.put(key, Long.parseLong(value));
+                }
+                return new Row(session, numbers.getOrDefault("time", 0L), TelemetryEvent.valueOf(event), label, numbers);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+    } // final class Row
+
+
+    /**
+     * SceneDuration
+     *
+     * Purpose: The time spent in one visit to a scene.
+     */
+    private static final class SceneDuration
+    {
+        private final String scene;
+        private final long millis;
+
+        private SceneDuration (final String scene, final long millis)
+        {
+            this.scene = scene;
+            this.millis = millis;
+        }
+
+    } // final class SceneDuration
+
+} // final class TelemetryReport
@@ -1,9 +1,12 @@
 package model.map;
 
+import controller.metrics.AssetLoadEvent;
+import controller.metrics.GameMetrics;
 import model.map.tile.AbstractTile;
 import model.map.tile.TileFactory;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +26,8 @@ public final class MapBuilder
     public static Map createMap ()
     {
         final String filename = "data/map/map1.txt";
+        final AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
         List<List<AbstractTile>> tiles = new ArrayList<>();
 
         String line;
@@ -44,6 +49,14 @@ public final class MapBuilder
         } catch (Exception e) {
             e.printStackTrace();
         }
+        GameMetrics.getInstance().countMapLoad();
+        if (event.shouldCommit())
+        {
+            event.kind = AssetLoadEvent.MAP;
+            event.file = filename;
+            event.bytes = new File(filename).length();
+            event.commit();
+        }
         return new Map(tiles);
     } // createMap()
 
@@ -0,0 +1,60 @@
+package model.misc;
+
+import java.util.Random;
+
+/**
+ * GameRandom.java
+ *
+ * Purpose: The single source of random numbers for the game, such as wild
+ *      encounters, which Pokemon appears and whether it is caught. Since
+ *      every roll comes from one generator, a session is repeated exactly by
+ *      seeding it with the same seed and feeding it the same input.
+ */
+public final class GameRandom
+{
+    private static final Random random = new Random();
+    private static long seed = System.nanoTime();
+
+    static
+    {
+        random.setSeed(seed);
+    }
+
+
+    private GameRandom () { /* Not instantiable */ }
+
+
+    /**
+     * get()
+     *
+     * Purpose: Returns the random number generator of the game.
+     */
+    public static Random get ()
+    {
+        return random;
+    } // get()
+
+
+    /**
+     * setSeed()
+     *
+     * Purpose: Restarts the random numbers of the game from the given seed.
+     */
+    public static void setSeed (final long newSeed)
+    {
+        seed = newSeed;
+        random.setSeed(newSeed);
+    } // setSeed()
+
+
+    /**
+     * getSeed()
+     *
+     * Purpose: Returns the seed the random numbers were last started from.
+     */
+    public static long getSeed ()
+    {
+        return seed;
+    } // getSeed()
+
+} // final class GameRandom
@@ -0,0 +1,80 @@
+package model.misc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Varint.java
+ *
+ * Purpose: Reads and writes ints in the compact variable-length format used
+ *      by the save and session files: seven bits per byte, lowest first, with
+ *      the high bit set on every byte but the last. Small numbers take one
+ *      byte. Signed numbers are zigzag-encoded first so that small negative
+ *      numbers stay small.
+ */
+public final class Varint
+{
+    public static final int MAX_BYTES = 5;
+
+
+    private Varint () { /* Not instantiable */ }
+
+
+    /**
+     * put()
+     *
+     * Purpose: Writes the given int to the buffer as a varint.
+     */
+    public static void put (final ByteBuffer buffer, int value)
+    {
+        while ((value & ~0x7f) != 0)
+        {
+            buffer.put((byte)((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    } // put()
+
+
+    /**
+     * get()
+     *
+     * Purpose: Reads a varint from the buffer. Throws an
+     *      IllegalArgumentException if it is longer than an int allows.
+     */
+    public static int get (final ByteBuffer buffer)
+    {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_BYTES; shift += 7)
+        {
+            final byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("Varint is too long.");
+    } // get()
+
+
+    /**
+     * putSigned()
+     *
+     * Purpose: Writes the given signed int to the buffer as a zigzag varint.
+     */
+    public static void putSigned (final ByteBuffer buffer, final int value)
+    {
+        put(buffer, (value << 1) ^ (value >> 31));
+    } // putSigned()
+
+
+    /**
+     * getSigned()
+     *
+     * Purpose: Reads a zigzag varint from the buffer.
+     */
+    public static int getSigned (final ByteBuffer buffer)
+    {
+        final int value = get(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    } // getSigned()
+
+} // final class Varint
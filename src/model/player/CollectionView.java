@@ -0,0 +1,325 @@
+package model.player;
+
+import model.pokemon.Pokemon;
+import model.pokemon.Rarity;
+
+/**
+ * CollectionView.java
+ *
+ * Purpose: A filtered and sorted view of a PokemonCollection.
+ *
+ *      A filtered view is built once from the smallest of the collection's
+ *      indexes that covers its filters. After that it follows the collection
+ *      incrementally: Pokemon caught since the view was last read are placed
+ *      in O(log n) each the next time it is read. An unfiltered view reads
+ *      the collection's own index.
+ *      Views are immutable in their filters; the filter and sort methods
+ *      return a new view.
+ */
+public final class CollectionView
+{
+    public static final int ANY_SPECIES = -1;
+
+    private static final int RESORT_THRESHOLD = 256;  // new catches placed one by one at most
+
+    private final PokemonCollection collection;
+    private final SortOrder order;
+    private final Rarity rarity;
+    private final int speciesID;
+    private final String namePrefix;
+    private final IndexList entries;
+
+    private int syncedSize;
+
+
+    /**
+     * CollectionView (PokemonCollection, SortOrder, Rarity, int, String)
+     *
+     * Purpose: Creates a view of the collection in the given order that only
+     *      shows Pokemon of the given rarity, species and name prefix. A null
+     *      rarity or prefix, or ANY_SPECIES, does not filter.
+     */
+    CollectionView (final PokemonCollection collection, final SortOrder order, final Rarity rarity,
+                    final int speciesID, final String namePrefix)
+    {
+        if (order == null)
+            throw new IllegalArgumentException("A collection view needs a sort order.");
+
+        this.collection = collection;
+        this.order = order;
+        this.rarity = rarity;
+        this.speciesID = speciesID;
+        this.namePrefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+        this.entries = this.build();
+        this.syncedSize = collection.size();
+    } // CollectionView (PokemonCollection, SortOrder, Rarity, int, String)
+
+
+    /**
+     * size()
+     *
+     * Purpose: Returns the number of Pokemon in the view.
+     */
+    public int size ()
+    {
+        this.sync();
+        return this.entries == null ? this.collection.size() : this.entries.size();
+    } // size()
+
+
+    /**
+     * isEmpty()
+     *
+     * Purpose: Returns whether the view shows no Pokemon.
+     */
+    public boolean isEmpty ()
+    {
+        return this.size() == 0;
+    } // isEmpty()
+
+
+    /**
+     * get()
+     *
+     * Purpose: Creates the Pokemon at the given position of the view.
+     */
+    public Pokemon get (final int position)
+    {
+        return this.collection.get(this.getEntry(position));
+    } // get()
+
+
+    /**
+     * getEntry()
+     *
+     * Purpose: Returns the collection entry at the given position of the view,
+     *      for reading its columns without creating a Pokemon.
+     */
+    public int getEntry (final int position)
+    {
+        this.sync();
+        if (this.entries == null)
+        {
+            if (position < 0 || position >= this.collection.size())
+                throw new IndexOutOfBoundsException("Position " + position + " of " + this.collection.size());
+            return position;
+        }
+        return this.entries.get(position);
+    } // getEntry()
+
+
+    /**
+     * indexOfEntry()
+     *
+     * Purpose: Returns the position of the given collection entry in the view,
+     *      or -1 if the view does not show it. Found with a binary search.
+     */
+    public int indexOfEntry (final int entry)
+    {
+        this.sync();
+        if (entry < 0 || entry >= this.collection.size() || !this.matches(entry))
+            return -1;
+        if (this.entries == null)
+            return entry;
+        final int position = this.entries.insertionPoint(this.collection, this.order, entry);
+        return position < this.entries.size() && this.entries.get(position) == entry ? position : -1;
+    } // indexOfEntry()
+
+
+    /**
+     * getSortOrder()
+     *
+     * Purpose: Returns the order of the view.
+     */
+    public SortOrder getSortOrder ()
+    {
+        return this.order;
+    } // getSortOrder()
+
+
+    /**
+     * getRarity()
+     *
+     * Purpose: Returns the rarity shown by the view, or null for all.
+     */
+    public Rarity getRarity ()
+    {
+        return this.rarity;
+    } // getRarity()
+
+
+    /**
+     * getSpeciesID()
+     *
+     * Purpose: Returns the species shown by the view, or ANY_SPECIES.
+     */
+    public int getSpeciesID ()
+    {
+        return this.speciesID;
+    } // getSpeciesID()
+
+
+    /**
+     * getNamePrefix()
+     *
+     * Purpose: Returns the name prefix shown by the view, or null for all.
+     */
+    public String getNamePrefix ()
+    {
+        return this.namePrefix;
+    } // getNamePrefix()
+
+
+    /**
+     * sortedBy()
+     *
+     * Purpose: Returns a view with the same filters in the given order.
+     */
+    public CollectionView sortedBy (final SortOrder newOrder)
+    {
+        return new CollectionView(this.collection, newOrder, this.rarity, this.speciesID, this.namePrefix);
+    } // sortedBy()
+
+
+    /**
+     * withRarity()
+     *
+     * Purpose: Returns a view that only shows the given rarity, or every
+     *      rarity for null.
+     */
+    public CollectionView withRarity (final Rarity newRarity)
+    {
+        return new CollectionView(this.collection, this.order, newRarity, this.speciesID, this.namePrefix);
+    } // withRarity()
+
+
+    /**
+     * withSpecies()
+     *
+     * Purpose: Returns a view that only shows the given species, or every
+     *      species for ANY_SPECIES.
+     */
+    public CollectionView withSpecies (final int newSpeciesID)
+    {
+        return new CollectionView(this.collection, this.order, this.rarity, newSpeciesID, this.namePrefix);
+    } // withSpecies()
+
+
+    /**
+     * withNamePrefix()
+     *
+     * Purpose: Returns a view that only shows Pokemon whose names start with
+     *      the given prefix, ignoring case, or every name for null.
+     */
+    public CollectionView withNamePrefix (final String newNamePrefix)
+    {
+        return new CollectionView(this.collection, this.order, this.rarity, this.speciesID, newNamePrefix);
+    } // withNamePrefix()
+
+
+    /**
+     * build()
+     *
+     * Purpose: Returns the sorted entries of the view. Without filters this
+     *      is the collection's own sorted index, which the collection keeps up
+     *      to date, or null in catch order. Otherwise the matching entries are
+     *      collected from the smallest of the species range of the Species
+     *      index, the prefix range of the Name index and the list of the
+     *      rarity, or from every entry, and sorted once.
+     */
+    private IndexList build ()
+    {
+        if (this.isUnfiltered())
+            return this.collection.getSortedIndex(this.order);
+
+        IndexList source = null;                        // null for every entry
+        int from = 0, to = this.collection.size();
+        if (this.speciesID != ANY_SPECIES)
+        {
+            final int[] range = this.collection.findSpecies(this.speciesID);
+            source = this.collection.getSortedIndex(SortOrder.Species);
+            from = range[0];
+            to = range[1];
+        }
+        if (this.namePrefix != null)
+        {
+            final int[] range = this.collection.findNamePrefix(this.namePrefix);
+            if (range[1] - range[0] < to - from)
+            {
+                source = this.collection.getSortedIndex(SortOrder.Name);
+                from = range[0];
+                to = range[1];
+            }
+        }
+        if (this.rarity != null)
+        {
+            final IndexList rarityIndex = this.collection.getRarityIndex(this.rarity);
+            if (rarityIndex.size() < to - from)
+            {
+                source = rarityIndex;
+                from = 0;
+                to = rarityIndex.size();
+            }
+        }
+
+        final IndexList matches = new IndexList();
+        for (int i = from; i < to; i++)
+        {
+            final int entry = source == null ? i : source.get(i);
+            if (this.matches(entry))
+                matches.add(entry);
+        }
+        matches.sort(this.collection, this.order);
+        return matches;
+    } // build()
+
+
+    /**
+     * sync()
+     *
+     * Purpose: Places the Pokemon caught since the view was last read. A
+     *      large backlog is appended and sorted in one pass instead. An
+     *      unfiltered view is kept up to date by the collection itself.
+     */
+    private void sync ()
+    {
+        if (this.isUnfiltered())
+            return;
+        if (this.collection.size() - this.syncedSize > RESORT_THRESHOLD)
+        {
+            for (; this.syncedSize < this.collection.size(); this.syncedSize++)
+                if (this.matches(this.syncedSize))
+                    this.entries.add(this.syncedSize);
+            this.entries.sort(this.collection, this.order);
+        }
+        while (this.syncedSize < this.collection.size())
+            this.place(this.entries, this.syncedSize++);
+    } // sync()
+
+
+    private void place (final IndexList list, final int entry)
+    {
+        if (this.matches(entry))
+            list.insertSorted(this.collection, this.order, entry);
+    }
+
+
+    private boolean isUnfiltered ()
+    {
+        return this.rarity == null && this.speciesID == ANY_SPECIES && this.namePrefix == null;
+    }
+
+
+    /**
+     * matches()
+     *
+     * Purpose: Returns whether the given entry passes every filter of the view.
+     */
+    private boolean matches (final int entry)
+    {
+        return (this.speciesID == ANY_SPECIES || this.collection.getSpeciesID(entry) == this.speciesID)
+                && (this.rarity == null || this.collection.getRarity(entry) == this.rarity)
+                && (this.namePrefix == null || PokemonCollection.startsWith(this.collection.getName(entry), this.namePrefix));
+    } // matches()
+
+} // final class CollectionView
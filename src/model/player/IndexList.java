@@ -0,0 +1,302 @@
+package model.player;
+
+import java.util.Arrays;
+
+/**
+ * IndexList.java
+ *
+ * Purpose: A list of entry indexes into a PokemonCollection, kept as an AVL
+ *      tree in which every node knows the size of its subtree. Reading the
+ *      index at a position, appending, placing an entry in a sort order and
+ *      finding where an entry belongs all take O(log n).
+ *
+ *      The nodes are kept in plain int arrays rather than as objects, with
+ *      node 0 standing for the empty subtree. That costs 17 bytes per index
+ *      instead of the 4 of a flat array, in exchange for not shifting the
+ *      whole list on every insert. Indexes are never removed.
+ */
+final class IndexList
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NIL = 0;
+
+    private int[] values;
+    private int[] lefts;
+    private int[] rights;
+    private int[] sizes;        // nodes in the subtree
+    private byte[] heights;     // of the subtree, 0 for NIL
+    private int root;
+    private int nodes;          // nodes used, including NIL
+
+
+    /**
+     * IndexList ()
+     *
+     * Purpose: Creates an empty list.
+     */
+    IndexList ()
+    {
+        this.values = new int[INITIAL_CAPACITY];
+        this.lefts = new int[INITIAL_CAPACITY];
+        this.rights = new int[INITIAL_CAPACITY];
+        this.sizes = new int[INITIAL_CAPACITY];
+        this.heights = new byte[INITIAL_CAPACITY];
+        this.root = NIL;
+        this.nodes = 1;
+    } // IndexList ()
+
+
+    /**
+     * size()
+     *
+     * Purpose: Returns the number of indexes in the list.
+     */
+    int size ()
+    {
+        return this.sizes[this.root];
+    } // size()
+
+
+    /**
+     * get()
+     *
+     * Purpose: Returns the index at the given position.
+     */
+    int get (int position)
+    {
+        if (position < 0 || position >= this.size())
+            throw new IndexOutOfBoundsException("Position " + position + " of " + this.size());
+        int node = this.root;
+        while (true)
+        {
+            final int leftSize = this.sizes[this.lefts[node]];
+            if (position < leftSize)
+                node = this.lefts[node];
+            else if (position == leftSize)
+                return this.values[node];
+            else {
+                position -= leftSize + 1;
+                node = this.rights[node];
+            }
+        }
+    } // get()
+
+
+    /**
+     * add()
+     *
+     * Purpose: Appends an index to the end of the list.
+     */
+    void add (final int index)
+    {
+        this.root = this.append(this.root, this.newNode(index));
+    } // add()
+
+
+    /**
+     * insertSorted()
+     *
+     * Purpose: Places an entry in a list sorted in the given order of the
+     *      collection, keeping it sorted.
+     */
+    void insertSorted (final PokemonCollection collection, final SortOrder order, final int entry)
+    {
+        this.root = this.insertSorted(this.root, this.newNode(entry), collection, order);
+    } // insertSorted()
+
+
+    /**
+     * insertionPoint()
+     *
+     * Purpose: Returns the position at which the given entry belongs in a
+     *      list sorted in the given order of the collection.
+     */
+    int insertionPoint (final PokemonCollection collection, final SortOrder order, final int entry)
+    {
+        int position = 0;
+        int node = this.root;
+        while (node != NIL)
+        {
+            if (collection.compare(order, this.values[node], entry) < 0)
+            {
+                position += this.sizes[this.lefts[node]] + 1;
+                node = this.rights[node];
+            }
+            else
+                node = this.lefts[node];
+        }
+        return position;
+    } // insertionPoint()
+
+
+    /**
+     * sort()
+     *
+     * Purpose: Sorts the indexes in the given order of the collection with a
+     *      merge sort and rebuilds a balanced tree from them, for building a
+     *      large index in one pass instead of by repeated insertion.
+     */
+    void sort (final PokemonCollection collection, final SortOrder order)
+    {
+        final int size = this.size();
+        int[] from = new int[size];
+        this.collect(this.root, from, 0);
+        int[] to = new int[size];
+        for (int width = 1; width < size; width *= 2)
+        {
+            for (int low = 0; low < size; low += 2*width)
+            {
+                final int middle = Math.min(low + width, size);
+                final int high = Math.min(low + 2*width, size);
+                int left = low, right = middle, out = low;
+                while (left < middle && right < high)
+                    to[out++] = collection.compare(order, from[left], from[right]) <= 0 ? from[left++] : from[right++];
+                while (left < middle)
+                    to[out++] = from[left++];
+                while (right < high)
+                    to[out++] = from[right++];
+            }
+            final int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        this.nodes = 1;
+        this.root = this.build(from, 0, size);
+    } // sort()
+
+
+    private int append (final int node, final int added)
+    {
+        if (node == NIL)
+            return added;
+        this.rights[node] = this.append(this.rights[node], added);
+        return this.rebalance(node);
+    }
+
+
+    private int insertSorted (final int node, final int added, final PokemonCollection collection, final SortOrder order)
+    {
+        if (node == NIL)
+            return added;
+        if (collection.compare(order, this.values[node], this.values[added]) < 0)
+            this.rights[node] = this.insertSorted(this.rights[node], added, collection, order);
+        else
+            this.lefts[node] = this.insertSorted(this.lefts[node], added, collection, order);
+        return this.rebalance(node);
+    }
+
+
+    /**
+     * collect()
+     *
+     * Purpose: Copies the indexes of the given subtree in order into the
+     *      array from the given position, and returns the next position.
+     */
+    private int collect (final int node, final int[] into, int position)
+    {
+        if (node == NIL)
+            return position;
+        position = this.collect(this.lefts[node], into, position);
+        into[position++] = this.values[node];
+        return this.collect(this.rights[node], into, position);
+    }
+
+
+    /**
+     * build()
+     *
+     * Purpose: Returns a balanced subtree of the given range of indexes.
+     */
+    private int build (final int[] indexes, final int from, final int to)
+    {
+        if (from >= to)
+            return NIL;
+        final int middle = (from + to) >>> 1;
+        final int node = this.newNode(indexes[middle]);
+        this.lefts[node] = this.build(indexes, from, middle);
+        this.rights[node] = this.build(indexes, middle + 1, to);
+        this.update(node);
+        return node;
+    }
+
+
+    private int newNode (final int index)
+    {
+        if (this.nodes == this.values.length)
+        {
+            final int capacity = this.values.length * 2;
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.lefts = Arrays.copyOf(this.lefts, capacity);
+            this.rights = Arrays.copyOf(this.rights, capacity);
+            this.sizes = Arrays.copyOf(this.sizes, capacity);
+            this.heights = Arrays.copyOf(this.heights, capacity);
+        }
+        final int node = this.nodes++;
+        this.values[node] = index;
+        this.lefts[node] = NIL;
+        this.rights[node] = NIL;
+        this.sizes[node] = 1;
+        this.heights[node] = 1;
+        return node;
+    }
+
+
+    private void update (final int node)
+    {
+        final int left = this.lefts[node], right = this.rights[node];
+        this.sizes[node] = this.sizes[left] + this.sizes[right] + 1;
+        this.heights[node] = (byte)(Math.max(this.heights[left], this.heights[right]) + 1);
+    }
+
+
+    /**
+     * rebalance()
+     *
+     * Purpose: Updates the given node after one of its subtrees grew, rotating
+     *      it if its subtrees now differ in height by more than one, and
+     *      returns the root of the subtree.
+     */
+    private int rebalance (final int node)
+    {
+        this.update(node);
+        final int balance = this.heights[this.lefts[node]] - this.heights[this.rights[node]];
+        if (balance > 1)
+        {
+            final int left = this.lefts[node];
+            if (this.heights[this.lefts[left]] < this.heights[this.rights[left]])
+                this.lefts[node] = this.rotateLeft(left);
+            return this.rotateRight(node);
+        }
+        if (balance < -1)
+        {
+            final int right = this.rights[node];
+            if (this.heights[this.rights[right]] < this.heights[this.lefts[right]])
+                this.rights[node] = this.rotateRight(right);
+            return this.rotateLeft(node);
+        }
+        return node;
+    } // rebalance()
+
+
+    private int rotateLeft (final int node)
+    {
+        final int right = this.rights[node];
+        this.rights[node] = this.lefts[right];
+        this.lefts[right] = node;
+        this.update(node);
+        this.update(right);
+        return right;
+    }
+
+
+    private int rotateRight (final int node)
+    {
+        final int left = this.lefts[node];
+        this.lefts[node] = this.rights[left];
+        this.rights[left] = node;
+        this.update(node);
+        this.update(left);
+        return left;
+    }
+
+} // final class IndexList
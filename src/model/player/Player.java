@@ -1,10 +1,6 @@
 package model.player;
 
 import model.misc.Position2D;
-import model.pokemon.Pokemon;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Player.java
@@ -21,7 +17,7 @@ public final class Player
     private int numSafariBalls;
     private int stepsRemaining;
     private Position2D position;
-    private List<Pokemon> pokemonCaught;
+    private PokemonCollection pokemonCaught;
 
 
     /**
@@ -37,7 +33,7 @@ public final class Player
         this.numSafariBalls = INITIAL_NUM_SAFARI_BALLS;
         this.stepsRemaining = INITIAL_STEPS_REMAINING;
         this.position = new Position2D();
-        this.pokemonCaught = new ArrayList<>();
+        this.pokemonCaught = new PokemonCollection();
     } // Player ()
 
 
@@ -112,9 +108,9 @@ public final class Player
     /**
      * getPokemonCaught()
      *
-     * Purpose: Returns the list of Pokemon that the player has caught.
+     * Purpose: Returns the collection of Pokemon that the player has caught.
      */
-    public List<Pokemon> getPokemonCaught ()
+    public PokemonCollection getPokemonCaught ()
     {
         return this.pokemonCaught;
     } // getPokemonCaught()
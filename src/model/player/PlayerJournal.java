@@ -0,0 +1,443 @@
+package model.player;
+
+import model.pokemon.Gender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * PlayerJournal.java
+ *
+ * Purpose: Autosaves the progress of a Player without blocking the game.
+ *
+ *      Every catch, step and thrown ball is posted as a small record to a
+ *      queue and returns at once. A background thread appends the records to
+ *      a journal file in fixed-size slots and forces them to disk every few
+ *      hundred milliseconds, so a crash loses at most that much progress.
+ *
+ *      The thread keeps its own copy of the Player up to date with the
+ *      records it writes. When the journal grows long, or when a save is
+ *      asked for, it writes that copy as a PlayerSave snapshot and empties
+ *      the journal. Every record is journaled before the snapshot that holds
+ *      it is written, even while a snapshot is pending, so the journal always
+ *      ends with the latest record of each kind. Records hold absolute values
+ *      and catches are skipped if the snapshot already has them, so
+ *      replaying a journal over a newer snapshot after a crash, between
+ *      writing the snapshot and emptying the journal, gives the same Player.
+ */
+public final class PlayerJournal
+{
+    private static final int MAGIC = 0x50534A4E;   // "PSJN"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_BYTES = 16;
+
+    private static final byte CATCH = 1;
+    private static final byte STEP = 2;
+    private static final byte BALLS = 3;
+
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final int COMPACT_RECORDS = 8192;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Player shadow;
+    private final Queue<Record> records;
+    private final AtomicBoolean compactRequested;
+    private final Thread writerThread;
+
+    private volatile boolean running;
+    private volatile boolean finished;
+    private FileChannel channel;
+    private int recordsSinceCompaction;
+
+
+    /**
+     * PlayerJournal (Player, Path, Path)
+     *
+     * Purpose: Starts journaling the given Player into the given journal
+     *      file, compacting into the given snapshot file. The Player is first
+     *      written as a snapshot, so the journal starts empty.
+     */
+    public PlayerJournal (final Player player, final Path snapshotFile, final Path journalFile)
+    {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.shadow = PlayerSave.copy(player);
+        this.records = new ConcurrentLinkedQueue<>();
+        this.compactRequested = new AtomicBoolean(true);
+        this.running = true;
+
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "save-journal");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                close();
+            }
+        }, "save-journal-shutdown"));
+    } // PlayerJournal (Player, Path, Path)
+
+
+    /**
+     * recover()
+     *
+     * Purpose: Loads the Player from the given snapshot and replays the given
+     *      journal over it. Returns null if there is neither. A damaged record
+     *      at the end of the journal, left by a crash during a write, ends the
+     *      replay.
+     */
+    public static Player recover (final Path snapshotFile, final Path journalFile) throws IOException
+    {
+        final boolean hasSnapshot = Files.exists(snapshotFile);
+        final boolean hasJournal = Files.exists(journalFile);
+        if (!hasSnapshot && !hasJournal)
+            return null;
+
+        final Player player = hasSnapshot ? PlayerSave.read(snapshotFile) : null;
+        if (!hasJournal)
+            return player;
+        if (player == null)
+            throw new IOException("Journal has no snapshot: " + journalFile);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            throw new IOException("Not a journal file: " + journalFile);
+
+        final CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_BYTES)
+        {
+            final int at = buffer.position();
+            crc.reset();
+            crc.update(buffer.array(), at, RECORD_BYTES - 4);
+            if ((int)crc.getValue() != buffer.getInt(at + RECORD_BYTES - 4))
+                break;
+            apply(player, new Record(buffer.get(), buffer.get(), buffer.getShort(), buffer.getInt(), buffer.getInt()));
+            buffer.getInt();
+        }
+        return player;
+    } // recover()
+
+
+    /**
+     * recordCatch()
+     *
+     * Purpose: Journals the latest catch of the given Player.
+     */
+    public void recordCatch (final Player player)
+    {
+        final PokemonCollection caught = player.getPokemonCaught();
+        final int entry = caught.size() - 1;
+        this.post(new Record(CATCH, (byte)caught.getGender(entry).ordinal(), (short)caught.getSpeciesID(entry),
+                caught.getLevel(entry) << 16 | caught.getHp(entry), caught.getCatchSequence(entry)));
+    } // recordCatch()
+
+
+    /**
+     * recordStep()
+     *
+     * Purpose: Journals the steps remaining and the position of the given
+     *      Player after a step.
+     */
+    public void recordStep (final Player player)
+    {
+        this.post(new Record(STEP, (byte)0, (short)player.getPosition().getX(), player.getStepsRemaining(),
+                player.getPosition().getY()));
+    } // recordStep()
+
+
+    /**
+     * recordBalls()
+     *
+     * Purpose: Journals the safari balls of the given Player after a throw.
+     */
+    public void recordBalls (final Player player)
+    {
+        this.post(new Record(BALLS, (byte)0, (short)0, player.getNumSafariBalls(), 0));
+    } // recordBalls()
+
+
+    /**
+     * compact()
+     *
+     * Purpose: Asks the background thread to write a snapshot and empty the
+     *      journal as soon as the records posted so far are written.
+     */
+    public void compact ()
+    {
+        this.compactRequested.set(true);
+        LockSupport.unpark(this.writerThread);
+    } // compact()
+
+
+    /**
+     * finish()
+     *
+     * Purpose: Stops journaling a game that has ended. The background thread
+     *      then deletes the snapshot and the journal, so the next launch
+     *      starts a new game instead of the finished one.
+     */
+    public void finish ()
+    {
+        this.finished = true;
+        this.running = false;
+        LockSupport.unpark(this.writerThread);
+    } // finish()
+
+
+    /**
+     * discard()
+     *
+     * Purpose: Deletes the given snapshot and journal, the journal first so
+     *      that it is never left without its snapshot.
+     */
+    public static void discard (final Path snapshotFile, final Path journalFile) throws IOException
+    {
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(snapshotFile);
+    } // discard()
+
+
+    /**
+     * close()
+     *
+     * Purpose: Writes the records that are still queued and stops the
+     *      background thread, waiting for it briefly.
+     */
+    public void close ()
+    {
+        this.running = false;
+        LockSupport.unpark(this.writerThread);
+        try {
+            this.writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    } // close()
+
+
+    private void post (final Record record)
+    {
+        this.records.add(record);
+    }
+
+
+    /**
+     * write()
+     *
+     * Purpose: Body of the background thread. Appends queued records every
+     *      flush interval, and compacts when the journal is long or a save
+     *      was asked for. Deletes the save on the way out if the game has
+     *      finished.
+     */
+    private void write ()
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * 256);
+        final CRC32 crc = new CRC32();
+
+        boolean open = true;
+        while (open)
+        {
+            open = this.running;
+            try {
+                Record record;
+                while ((record = this.records.poll()) != null)
+                {
+                    apply(this.shadow, record);
+                    if (!buffer.hasRemaining())
+                        this.flush(buffer, false);
+                    record.encode(buffer, crc);
+                    this.recordsSinceCompaction++;
+                }
+                this.flush(buffer, true);
+
+                if (this.finished)
+                    break;
+                if (this.compactRequested.getAndSet(false) || this.recordsSinceCompaction >= COMPACT_RECORDS)
+                    this.writeSnapshot();
+            } catch (IOException e) {
+                e.printStackTrace();
+                buffer.clear();
+                this.closeChannel();
+                this.compactRequested.set(true);    // the next snapshot holds what was lost
+            }
+            if (open)
+                LockSupport.parkNanos(FLUSH_INTERVAL_NANOS);
+        }
+        this.closeChannel();
+        if (this.finished)
+        {
+            try {
+                discard(this.snapshotFile, this.journalFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    } // write()
+
+
+    /**
+     * flush()
+     *
+     * Purpose: Appends the encoded records to the journal, forcing them to
+     *      disk if asked.
+     */
+    private void flush (final ByteBuffer buffer, final boolean force) throws IOException
+    {
+        buffer.flip();
+        if (buffer.hasRemaining())
+        {
+            final FileChannel journal = this.openChannel();
+            while (buffer.hasRemaining())
+                journal.write(buffer);
+            if (force)
+                journal.force(false);
+        }
+        buffer.clear();
+    } // flush()
+
+
+    /**
+     * writeSnapshot()
+     *
+     * Purpose: Saves the copy of the Player as a snapshot and empties the
+     *      journal.
+     */
+    private void writeSnapshot () throws IOException
+    {
+        PlayerSave.write(this.shadow, this.snapshotFile);
+        final FileChannel journal = this.openChannel();
+        journal.truncate(HEADER_BYTES);
+        journal.position(HEADER_BYTES);
+        journal.force(false);
+        this.recordsSinceCompaction = 0;
+    } // writeSnapshot()
+
+
+    /**
+     * openChannel()
+     *
+     * Purpose: Opens the journal for appending, writing its header if it is
+     *      new and dropping a damaged record left at its end.
+     */
+    private FileChannel openChannel () throws IOException
+    {
+        if (this.channel != null)
+            return this.channel;
+
+        if (this.journalFile.getParent() != null)
+            Files.createDirectories(this.journalFile.getParent());
+        final FileChannel journal = FileChannel.open(this.journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (journal.size() < HEADER_BYTES)
+        {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            journal.truncate(0);
+            while (header.hasRemaining())
+                journal.write(header, header.position());
+        }
+        final long records = (journal.size() - HEADER_BYTES) / RECORD_BYTES;
+        journal.truncate(HEADER_BYTES + records * RECORD_BYTES);
+        journal.position(HEADER_BYTES + records * RECORD_BYTES);
+        this.channel = journal;
+        return journal;
+    } // openChannel()
+
+
+    private void closeChannel ()
+    {
+        if (this.channel == null)
+            return;
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.channel = null;
+    }
+
+
+    /**
+     * apply()
+     *
+     * Purpose: Applies a record to the given Player. A catch that the Player
+     *      already has is skipped.
+     */
+    private static void apply (final Player player, final Record record)
+    {
+        switch (record.type)
+        {
+            case CATCH:
+                final PokemonCollection caught = player.getPokemonCaught();
+                if (!caught.isEmpty() && record.c <= caught.getCatchSequence(caught.size() - 1))
+                    return;
+                caught.add(record.a, record.b >>> 16, record.b & 0xffff, Gender.values()[record.flags], record.c);
+                break;
+            case STEP:
+                player.setStepsRemaining(record.b);
+                player.getPosition().setX(record.a);
+                player.getPosition().setY(record.c);
+                break;
+            case BALLS:
+                player.setNumSafariBalls(record.b);
+                break;
+        }
+    } // apply()
+
+
+    /**
+     * Record
+     *
+     * Purpose: A single journal record. It is written as a type, a flag byte,
+     *      a short and two ints, followed by a CRC32 of those twelve bytes.
+     */
+    private static final class Record
+    {
+        private final byte type;
+        private final byte flags;
+        private final short a;
+        private final int b;
+        private final int c;
+
+        private Record (final byte type, final byte flags, final short a, final int b, final int c)
+        {
+            this.type = type;
+            this.flags = flags;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+        }
+
+        private void encode (final ByteBuffer buffer, final CRC32 crc)
+        {
+            final int start = buffer.position();
+            buffer.put(this.type).put(this.flags).putShort(this.a).putInt(this.b).putInt(this.c);
+            final ByteBuffer fields = buffer.duplicate();
+            fields.position(start).limit(start + RECORD_BYTES - 4);
+            crc.reset();
+            crc.update(fields);
+            buffer.putInt((int)crc.getValue());
+        }
+
+    } // final class Record
+
+} // final class PlayerJournal
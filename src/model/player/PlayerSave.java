@@ -0,0 +1,215 @@
+package model.player;
+
+import model.misc.Varint;
+import model.pokemon.Gender;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * PlayerSave.java
+ *
+ * Purpose: Saves a Player to a file and loads it back.
+ *
+ *      The file is a compact binary format. A header holds a magic number,
+ *      the format version and the length of the body; the body holds the
+ *      Player and the catches of their collection; a CRC32 of the body ends
+ *      the file. Numbers are written as varints, and a catch is stored by
+ *      species id rather than name, so most catches take four or five bytes.
+ *
+ *      A save is written to a temporary file next to the save, forced to
+ *      disk and then renamed over the save in one step, so a crash while
+ *      saving leaves the previous save intact.
+ */
+public final class PlayerSave
+{
+    private static final int MAGIC = 0x50534146;   // "PSAF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 9;     // magic, version, body length
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MIN_CATCH_BYTES = 4;  // one varint byte per field
+
+
+    private PlayerSave () { /* Not instantiable */ }
+
+
+    /**
+     * write()
+     *
+     * Purpose: Saves the given Player to the given file, replacing any
+     *      previous save only once the new one is safely on disk.
+     */
+    public static void write (final Player player, final Path file) throws IOException
+    {
+        final ByteBuffer buffer = encode(player);
+        final Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    } // write()
+
+
+    /**
+     * read()
+     *
+     * Purpose: Loads a Player from the given file. Throws an IOException if
+     *      the file is not a save, is from an unknown version or is damaged.
+     */
+    public static Player read (final Path file) throws IOException
+    {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            final long size = channel.size();
+            if (size < HEADER_BYTES + 4 || size > Integer.MAX_VALUE)
+                throw new IOException("Not a save file: " + file);
+            buffer = ByteBuffer.allocate((int)size);
+            while (buffer.hasRemaining())
+                if (channel.read(buffer) < 0)
+                    throw new IOException("Save file ended early: " + file);
+            buffer.flip();
+        }
+
+        if (buffer.getInt() != MAGIC)
+            throw new IOException("Not a save file: " + file);
+        final int version = buffer.get();
+        if (version != VERSION)
+            throw new IOException("Unknown save version " + version + ": " + file);
+        final int bodyLength = buffer.getInt();
+        if (bodyLength < 0 || bodyLength != buffer.remaining() - 4)
+            throw new IOException("Save file has the wrong length: " + file);
+
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, bodyLength);
+        if ((int)crc.getValue() != buffer.getInt(HEADER_BYTES + bodyLength))
+            throw new IOException("Save file is damaged: " + file);
+
+        buffer.limit(HEADER_BYTES + bodyLength);
+        try {
+            return decode(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Save file is damaged: " + file, e);
+        }
+    } // read()
+
+
+    /**
+     * copy()
+     *
+     * Purpose: Returns a copy of the given Player that shares nothing with
+     *      it, made by encoding and decoding a save in memory.
+     */
+    static Player copy (final Player player)
+    {
+        final ByteBuffer buffer = encode(player);
+        buffer.position(HEADER_BYTES);
+        buffer.limit(buffer.limit() - 4);
+        return decode(buffer);
+    } // copy()
+
+
+    /**
+     * encode()
+     *
+     * Purpose: Writes the header, body and checksum of a save into a buffer
+     *      ready to be written out.
+     */
+    private static ByteBuffer encode (final Player player)
+    {
+        final byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+        final PokemonCollection caught = player.getPokemonCaught();
+        final int size = caught.size();
+
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + (6 + name.length) * Varint.MAX_BYTES
+                + size * 4 * Varint.MAX_BYTES + 4);
+        buffer.putInt(MAGIC).put((byte)VERSION).putInt(0);
+
+        Varint.put(buffer, name.length);
+        buffer.put(name);
+        Varint.put(buffer, player.getNumSafariBalls());
+        Varint.put(buffer, player.getStepsRemaining());
+        Varint.putSigned(buffer, player.getPosition().getX());
+        Varint.putSigned(buffer, player.getPosition().getY());
+
+        Varint.put(buffer, size);
+        int nextCatchSequence = 0;
+        for (int entry = 0; entry < size; entry++)
+        {
+            Varint.put(buffer, caught.getSpeciesID(entry));
+            Varint.put(buffer, caught.getLevel(entry) << 1 | caught.getGender(entry).ordinal());
+            Varint.put(buffer, caught.getHp(entry));
+            Varint.put(buffer, caught.getCatchSequence(entry) - nextCatchSequence);
+            nextCatchSequence = caught.getCatchSequence(entry) + 1;
+        }
+
+        final int bodyLength = buffer.position() - HEADER_BYTES;
+        buffer.putInt(HEADER_BYTES - 4, bodyLength);
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, bodyLength);
+        buffer.putInt((int)crc.getValue());
+        buffer.flip();
+        return buffer;
+    } // encode()
+
+
+    /**
+     * decode()
+     *
+     * Purpose: Rebuilds a Player from the body of a save.
+     */
+    private static Player decode (final ByteBuffer buffer)
+    {
+        final int nameLength = Varint.get(buffer);
+        if (nameLength < 0 || nameLength > buffer.remaining())
+            throw new IllegalArgumentException("Player name length is out of range: " + nameLength);
+        final byte[] name = new byte[nameLength];
+        buffer.get(name);
+        final Player player = new Player(new String(name, StandardCharsets.UTF_8));
+        player.setNumSafariBalls(Varint.get(buffer));
+        player.setStepsRemaining(Varint.get(buffer));
+        player.getPosition().setX(Varint.getSigned(buffer));
+        player.getPosition().setY(Varint.getSigned(buffer));
+
+        final Gender[] genders = Gender.values();
+        final PokemonCollection caught = player.getPokemonCaught();
+        final int size = Varint.get(buffer);
+        if (size < 0 || size > buffer.remaining() / MIN_CATCH_BYTES)
+            throw new IllegalArgumentException("Collection size is out of range: " + size);
+        caught.ensureCapacity(size);
+        int nextCatchSequence = 0;
+        for (int i = 0; i < size; i++)
+        {
+            final int speciesID = Varint.get(buffer);
+            final int levelAndGender = Varint.get(buffer);
+            final int hp = Varint.get(buffer);
+            final int catchSequence = nextCatchSequence + Varint.get(buffer);
+            caught.add(speciesID, levelAndGender >>> 1, hp, genders[levelAndGender & 1], catchSequence);
+            nextCatchSequence = catchSequence + 1;
+        }
+        caught.trimToSize();
+        return player;
+    } // decode()
+
+} // final class PlayerSave
@@ -0,0 +1,554 @@
+package model.player;
+
+import model.pokemon.Gender;
+import model.pokemon.Pokemon;
+import model.pokemon.PokemonFactory;
+import model.pokemon.Rarity;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PokemonCollection.java
+ *
+ * Purpose: Holds the Pokemon that a player has caught, in the order they were
+ *      caught.
+ *
+ *      Catches are stored column by column in primitive arrays rather than
+ *      as one Pokemon object each: a short species ID, a byte level, a byte
+ *      gender, a short HP and an int catch sequence, or 10 bytes per catch.
+ *      Everything else about a caught Pokemon is the same for its whole
+ *      species and is looked up from the species data. Pokemon objects are
+ *      only created when an entry is read with get().
+ *      The columns grow by half as catches are added; ensureCapacity() and
+ *      trimToSize() size them exactly when the number of catches is known,
+ *      such as when a save is loaded.
+ *
+ *      One sorted index per SortOrder is created the first time a view in
+ *      that order is asked for, and is kept up to date from then on: each
+ *      new catch is placed in O(log n), so adding a Pokemon never re-sorts
+ *      the collection. The Name index doubles as a sorted name table for
+ *      prefix search, and the Species index gives the catches of a species.
+ *      Catch order needs no index. The catches of each rarity are also
+ *      listed in catch order once a view filters by rarity. Each index
+ *      built adds about 17 bytes per catch on top of the columns.
+ *
+ *      Filtered and sorted views of the collection are created with view().
+ */
+public final class PokemonCollection
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private short[] species;
+    private byte[] levels;
+    private byte[] genders;
+    private short[] hps;
+    private int[] catchSequences;
+    private int size;
+    private int nextCatchSequence;
+
+    private final Map<SortOrder, IndexList> sorted;
+    private final List<Pokemon> pokemonList;
+    private Map<Rarity, IndexList> rarities;
+
+
+    /**
+     * PokemonCollection ()
+     *
+     * Purpose: Creates an empty collection.
+     */
+    public PokemonCollection ()
+    {
+        this.species = new short[INITIAL_CAPACITY];
+        this.levels = new byte[INITIAL_CAPACITY];
+        this.genders = new byte[INITIAL_CAPACITY];
+        this.hps = new short[INITIAL_CAPACITY];
+        this.catchSequences = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.nextCatchSequence = 0;
+        this.sorted = new EnumMap<>(SortOrder.class);
+        this.pokemonList = new PokemonList();
+    } // PokemonCollection ()
+
+
+    /**
+     * add()
+     *
+     * Purpose: Adds a caught Pokemon to the collection as its next catch.
+     */
+    public void add (final Pokemon caught)
+    {
+        if (caught == null)
+            throw new IllegalArgumentException("Cannot add a null Pokemon to the collection.");
+        this.add(caught.getID(), caught.getLevel(), caught.getHp(), caught.getGender(), this.nextCatchSequence);
+    } // add()
+
+
+    /**
+     * add()
+     *
+     * Purpose: Adds a catch from its stored values, for example when loading
+     *      a saved collection. Catch sequences must increase from one catch
+     *      to the next.
+     */
+    public void add (final int speciesID, final int level, final int hp, final Gender gender, final int catchSequence)
+    {
+        if (speciesID < 0 || speciesID > Short.MAX_VALUE || level < 0 || level > Byte.MAX_VALUE || hp < 0 || hp > Short.MAX_VALUE)
+            throw new IllegalArgumentException("Caught Pokemon is out of range: species " + speciesID + ", level " + level + ", HP " + hp);
+        if (catchSequence < this.nextCatchSequence)
+            throw new IllegalArgumentException("Catch sequence " + catchSequence + " is before " + this.nextCatchSequence);
+
+        this.ensureCapacity(this.size + 1);
+        final int entry = this.size++;
+        this.species[entry] = (short)speciesID;
+        this.levels[entry] = (byte)level;
+        this.genders[entry] = (byte)gender.ordinal();
+        this.hps[entry] = (short)hp;
+        this.catchSequences[entry] = catchSequence;
+        this.nextCatchSequence = catchSequence + 1;
+
+        for (Map.Entry<SortOrder, IndexList> index : this.sorted.entrySet())
+            index.getValue().insertSorted(this, index.getKey(), entry);
+        if (this.rarities != null)
+            this.rarities.get(this.getRarity(entry)).add(entry);
+    } // add()
+
+
+    /**
+     * size()
+     *
+     * Purpose: Returns the number of Pokemon caught.
+     */
+    public int size ()
+    {
+        return this.size;
+    } // size()
+
+
+    /**
+     * isEmpty()
+     *
+     * Purpose: Returns whether no Pokemon have been caught.
+     */
+    public boolean isEmpty ()
+    {
+        return this.size == 0;
+    } // isEmpty()
+
+
+    /**
+     * get()
+     *
+     * Purpose: Creates the Pokemon stored at the given entry. A new object is
+     *      returned on every call.
+     */
+    public Pokemon get (final int entry)
+    {
+        this.checkEntry(entry);
+        return PokemonFactory.getPokemon(this.species[entry], this.levels[entry], this.hps[entry], this.getGender(entry));
+    } // get()
+
+
+    /**
+     * asList()
+     *
+     * Purpose: Returns a read-only list of the caught Pokemon in catch order.
+     *      Pokemon are created as they are read.
+     */
+    public List<Pokemon> asList ()
+    {
+        return this.pokemonList;
+    } // asList()
+
+
+    /**
+     * getSpeciesID()
+     *
+     * Purpose: Returns the species of the Pokemon at the given entry.
+     */
+    public int getSpeciesID (final int entry)
+    {
+        this.checkEntry(entry);
+        return this.species[entry];
+    } // getSpeciesID()
+
+
+    /**
+     * getName()
+     *
+     * Purpose: Returns the name of the Pokemon at the given entry.
+     */
+    public String getName (final int entry)
+    {
+        return PokemonFactory.getSpeciesName(this.getSpeciesID(entry));
+    } // getName()
+
+
+    /**
+     * getRarity()
+     *
+     * Purpose: Returns the rarity of the Pokemon at the given entry.
+     */
+    public Rarity getRarity (final int entry)
+    {
+        return PokemonFactory.getSpeciesRarity(this.getSpeciesID(entry));
+    } // getRarity()
+
+
+    /**
+     * getLevel()
+     *
+     * Purpose: Returns the level of the Pokemon at the given entry.
+     */
+    public int getLevel (final int entry)
+    {
+        this.checkEntry(entry);
+        return this.levels[entry];
+    } // getLevel()
+
+
+    /**
+     * getHp()
+     *
+     * Purpose: Returns the HP of the Pokemon at the given entry.
+     */
+    public int getHp (final int entry)
+    {
+        this.checkEntry(entry);
+        return this.hps[entry];
+    } // getHp()
+
+
+    /**
+     * getGender()
+     *
+     * Purpose: Returns the gender of the Pokemon at the given entry.
+     */
+    public Gender getGender (final int entry)
+    {
+        this.checkEntry(entry);
+        return Gender.values()[this.genders[entry]];
+    } // getGender()
+
+
+    /**
+     * getCatchSequence()
+     *
+     * Purpose: Returns the catch sequence number of the Pokemon at the given
+     *      entry. Later catches have higher numbers.
+     */
+    public int getCatchSequence (final int entry)
+    {
+        this.checkEntry(entry);
+        return this.catchSequences[entry];
+    } // getCatchSequence()
+
+
+    /**
+     * countSpecies()
+     *
+     * Purpose: Returns how many Pokemon of the given species were caught.
+     */
+    public int countSpecies (final int speciesID)
+    {
+        int count = 0;
+        for (int entry = 0; entry < this.size; entry++)
+            if (this.species[entry] == speciesID)
+                count++;
+        return count;
+    } // countSpecies()
+
+
+    /**
+     * countRarity()
+     *
+     * Purpose: Returns how many Pokemon of the given rarity were caught.
+     */
+    public int countRarity (final Rarity rarity)
+    {
+        int count = 0;
+        for (int entry = 0; entry < this.size; entry++)
+            if (PokemonFactory.getSpeciesRarity(this.species[entry]) == rarity)
+                count++;
+        return count;
+    } // countRarity()
+
+
+    /**
+     * getHighestLevel()
+     *
+     * Purpose: Returns the highest level caught, or 0 if nothing was caught.
+     */
+    public int getHighestLevel ()
+    {
+        int highest = 0;
+        for (int entry = 0; entry < this.size; entry++)
+            if (this.levels[entry] > highest)
+                highest = this.levels[entry];
+        return highest;
+    } // getHighestLevel()
+
+
+    /**
+     * getAverageLevel()
+     *
+     * Purpose: Returns the average level caught, or 0 if nothing was caught.
+     */
+    public double getAverageLevel ()
+    {
+        long total = 0;
+        for (int entry = 0; entry < this.size; entry++)
+            total += this.levels[entry];
+        return this.size == 0 ? 0 : (double)total / this.size;
+    } // getAverageLevel()
+
+
+    /**
+     * view()
+     *
+     * Purpose: Returns an unfiltered view of the collection in the given order.
+     */
+    public CollectionView view (final SortOrder order)
+    {
+        return new CollectionView(this, order, null, CollectionView.ANY_SPECIES, null);
+    } // view()
+
+
+    /**
+     * toString()
+     *
+     * Purpose: Returns the String representation of the collection, in catch
+     *      order.
+     */
+    public String toString ()
+    {
+        return this.pokemonList.toString();
+    } // toString()
+
+
+    /**
+     * compare()
+     *
+     * Purpose: Compares two entries in the given order. Entries that are equal
+     *      in that order are compared by catch order, so no two entries are
+     *      ever equal.
+     */
+    int compare (final SortOrder order, final int a, final int b)
+    {
+        int result = 0;
+        switch (order)
+        {
+            case Species:
+                result = Integer.compare(this.species[a], this.species[b]);
+                break;
+            case Level:
+                result = Integer.compare(this.levels[b], this.levels[a]);
+                break;
+            case Hp:
+                result = Integer.compare(this.hps[b], this.hps[a]);
+                break;
+            case Name:
+                result = this.species[a] == this.species[b] ? 0
+                        : String.CASE_INSENSITIVE_ORDER.compare(this.getName(a), this.getName(b));
+                break;
+            case CatchTime:
+                break;
+        }
+        return result != 0 ? result : Integer.compare(a, b);
+    } // compare()
+
+
+    /**
+     * getSortedIndex()
+     *
+     * Purpose: Returns the index of all entries sorted in the given order,
+     *      creating it on first use. Returns null for catch order, where the
+     *      position of an entry is the entry itself.
+     */
+    IndexList getSortedIndex (final SortOrder order)
+    {
+        if (order == SortOrder.CatchTime)
+            return null;
+
+        IndexList index = this.sorted.get(order);
+        if (index == null)
+        {
+            index = new IndexList();
+            for (int entry = 0; entry < this.size; entry++)
+                index.add(entry);
+            index.sort(this, order);
+            this.sorted.put(order, index);
+        }
+        return index;
+    } // getSortedIndex()
+
+
+    /**
+     * getRarityIndex()
+     *
+     * Purpose: Returns the entries of the given rarity in catch order,
+     *      creating the lists of every rarity on first use.
+     */
+    IndexList getRarityIndex (final Rarity rarity)
+    {
+        if (this.rarities == null)
+        {
+            this.rarities = new EnumMap<>(Rarity.class);
+            for (Rarity each : Rarity.values())
+                this.rarities.put(each, new IndexList());
+            for (int entry = 0; entry < this.size; entry++)
+                this.rarities.get(this.getRarity(entry)).add(entry);
+        }
+        return this.rarities.get(rarity);
+    } // getRarityIndex()
+
+
+    /**
+     * findSpecies()
+     *
+     * Purpose: Returns the first and one-past-last positions in the Species
+     *      index of the entries of the given species, found with a binary
+     *      search.
+     */
+    int[] findSpecies (final int speciesID)
+    {
+        final IndexList index = this.getSortedIndex(SortOrder.Species);
+        return new int[] { this.firstSpeciesAtLeast(index, speciesID), this.firstSpeciesAtLeast(index, speciesID + 1) };
+    } // findSpecies()
+
+
+    private int firstSpeciesAtLeast (final IndexList index, final int speciesID)
+    {
+        int low = 0, high = index.size();
+        while (low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if (this.species[index.get(middle)] < speciesID)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+
+    /**
+     * findNamePrefix()
+     *
+     * Purpose: Returns the first and one-past-last positions in the Name
+     *      index of the entries whose names start with the given prefix,
+     *      ignoring case. Both are found with a binary search.
+     */
+    int[] findNamePrefix (final String prefix)
+    {
+        final IndexList names = this.getSortedIndex(SortOrder.Name);
+        int low = 0, high = names.size();
+        while (low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(this.getName(names.get(middle)), prefix) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        final int first = low;
+
+        high = names.size();
+        while (low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if (startsWith(this.getName(names.get(middle)), prefix))
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return new int[] { first, low };
+    } // findNamePrefix()
+
+
+    /**
+     * startsWith()
+     *
+     * Purpose: Returns whether the name starts with the prefix, ignoring case.
+     */
+    static boolean startsWith (final String name, final String prefix)
+    {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    } // startsWith()
+
+
+    private void checkEntry (final int entry)
+    {
+        if (entry < 0 || entry >= this.size)
+            throw new IndexOutOfBoundsException("Entry " + entry + " of " + this.size);
+    }
+
+
+    /**
+     * ensureCapacity()
+     *
+     * Purpose: Makes room for at least the given number of catches, so that
+     *      adding them does not grow the columns again. Columns that must grow
+     *      grow by at least half of their size.
+     */
+    public void ensureCapacity (final int minCapacity)
+    {
+        final int capacity = this.species.length;
+        if (minCapacity > capacity)
+            this.resize(Math.max(minCapacity, capacity + (capacity >> 1)));
+    } // ensureCapacity()
+
+
+    /**
+     * trimToSize()
+     *
+     * Purpose: Shrinks every column to the number of catches, dropping the
+     *      room left for growth.
+     */
+    public void trimToSize ()
+    {
+        if (this.size < this.species.length)
+            this.resize(this.size);
+    } // trimToSize()
+
+
+    /**
+     * resize()
+     *
+     * Purpose: Copies every column into arrays of the given capacity.
+     */
+    private void resize (final int capacity)
+    {
+        this.species = Arrays.copyOf(this.species, capacity);
+        this.levels = Arrays.copyOf(this.levels, capacity);
+        this.genders = Arrays.copyOf(this.genders, capacity);
+        this.hps = Arrays.copyOf(this.hps, capacity);
+        this.catchSequences = Arrays.copyOf(this.catchSequences, capacity);
+    } // resize()
+
+
+    /**
+     * PokemonList
+     *
+     * Purpose: A read-only List view of the collection in catch order.
+     */
+    private final class PokemonList extends AbstractList<Pokemon>
+    {
+        @Override
+        public Pokemon get (final int entry)
+        {
+            return PokemonCollection.this.get(entry);
+        }
+
+        @Override
+        public int size ()
+        {
+            return PokemonCollection.this.size;
+        }
+
+    } // final class PokemonList
+
+} // final class PokemonCollection
@@ -0,0 +1,18 @@
+package model.player;
+
+/**
+ * SortOrder.java
+ *
+ * Purpose: The orders in which the caught Pokemon of a player can be listed.
+ *      Pokemon that are equal in an order are listed in the order they were
+ *      caught.
+ */
+public enum SortOrder
+{
+    CatchTime,  // oldest first
+    Species,    // lowest Pokedex ID first
+    Level,      // highest first
+    Hp,         // highest first
+    Name;       // alphabetical, ignoring case
+
+} // enum SortOrder
@@ -0,0 +1,48 @@
+package model.pokemon;
+
+import java.util.Random;
+
+/**
+ * CatchRoll.java
+ *
+ * Purpose: Decides the outcome of a Safari Ball throw up front, so that it
+ *      can be logged, played back by an animation, or resolved without one.
+ *
+ *      A ball is checked CHECKS times while it shakes, and the Pokemon breaks
+ *      out on the first check whose roll from 1 to 100 is above its catch
+ *      likelihood. The four rolls are taken from a single random number
+ *      below 100^4, one base-100 digit each, which gives exactly the same
+ *      outcomes with the same probabilities as rolling them one by one.
+ */
+public final class CatchRoll
+{
+    public static final int CHECKS = 4;
+    public static final int CAUGHT = CHECKS;    // every check was passed
+
+    private static final int ROLL_SIDES = 100;
+    private static final int ALL_ROLLS = ROLL_SIDES * ROLL_SIDES * ROLL_SIDES * ROLL_SIDES;
+
+
+    private CatchRoll () { /* Not instantiable */ }
+
+
+    /**
+     * roll()
+     *
+     * Purpose: Returns how many checks the ball passes before the Pokemon
+     *      with the given catch likelihood breaks out, or CAUGHT if it
+     *      passes every check.
+     */
+    public static int roll (final Random random, final int catchLikelihood)
+    {
+        int rolls = random.nextInt(ALL_ROLLS);
+        for (int check = 0; check < CHECKS; check++)
+        {
+            if (rolls % ROLL_SIDES + 1 > catchLikelihood)
+                return check;
+            rolls /= ROLL_SIDES;
+        }
+        return CAUGHT;
+    } // roll()
+
+} // final class CatchRoll
@@ -1,7 +1,11 @@
 package model.pokemon;
 
+import model.misc.GameRandom;
+
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -18,6 +22,9 @@ public final class PokemonFactory
     private static final int MIN_LEVEL = 25;
     private static final int MAX_LEVEL = 30;
 
+    private static String[][] speciesInfo;     // indexed by species ID
+    private static Rarity[] speciesRarity;     // indexed by species ID
+
 
     /**
      * getPokemon()
@@ -33,6 +40,103 @@ public final class PokemonFactory
     } // getPokemon
 
 
+    /**
+     * getPokemon()
+     *
+     * Purpose: Recreates a caught Pokemon of the given species from the
+     *      values that differ between individuals. Everything else comes from
+     *      the species data.
+     */
+    public static Pokemon getPokemon (final int speciesID, final int level, final int hp, final Gender gender)
+    {
+        final String[] pokemonInfo = getSpeciesInfo(speciesID);
+        return new Pokemon(speciesID, pokemonInfo[1], hp, level, gender, Integer.parseInt(pokemonInfo[3]),
+                Integer.parseInt(pokemonInfo[4]), Integer.parseInt(pokemonInfo[5]), speciesRarity[speciesID]);
+    } // getPokemon()
+
+
+    /**
+     * getSpeciesName()
+     *
+     * Purpose: Returns the name of the given species.
+     */
+    public static String getSpeciesName (final int speciesID)
+    {
+        return getSpeciesInfo(speciesID)[1];
+    } // getSpeciesName()
+
+
+    /**
+     * getSpeciesRarity()
+     *
+     * Purpose: Returns the rarity of the given species.
+     */
+    public static Rarity getSpeciesRarity (final int speciesID)
+    {
+        getSpeciesInfo(speciesID);
+        return speciesRarity[speciesID];
+    } // getSpeciesRarity()
+
+
+    /**
+     * getSpeciesInfo()
+     *
+     * Purpose: Returns the data of the given species. The data files are read
+     *      once, the first time any species is looked up.
+     */
+    private static String[] getSpeciesInfo (final int speciesID)
+    {
+        if (speciesInfo == null)
+            loadSpecies();
+        if (speciesID < 0 || speciesID >= speciesInfo.length || speciesInfo[speciesID] == null)
+            throw new IllegalArgumentException("Unknown Pokemon species: " + speciesID);
+        return speciesInfo[speciesID];
+    } // getSpeciesInfo()
+
+
+    /**
+     * loadSpecies()
+     *
+     * Purpose: Reads the data of every species from the data files.
+     */
+    private static void loadSpecies ()
+    {
+        final List<String[]> infos = new ArrayList<>();
+        final List<Rarity> rarities = new ArrayList<>();
+        int maxID = -1;
+        for (Rarity rarity : Rarity.values())
+        {
+            try {
+                BufferedReader bf = new BufferedReader(new FileReader("data/pokemon/" + rarity.name() + ".txt"));
+                String line;
+                while ((line = bf.readLine()) != null)
+                {
+                    if (line.trim().isEmpty())
+                        continue;
+                    final String[] pokemonInfo = line.split(", ");
+                    infos.add(pokemonInfo);
+                    rarities.add(rarity);
+                    maxID = Math.max(maxID, Integer.parseInt(pokemonInfo[0]));
+                }
+                bf.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        final String[][] loadedInfo = new String[maxID+1][];
+        final Rarity[] loadedRarity = new Rarity[maxID+1];
+        for (int i = 0; i < infos.size(); i++)
+        {
+            final int id = Integer.parseInt(infos.get(i)[0]);
+            loadedInfo[id] = infos.get(i);
+            loadedRarity[id] = rarities.get(i);
+        }
+        speciesRarity = loadedRarity;
+        speciesInfo = loadedInfo;
+    } // loadSpecies()
+
+
     /**
      * getPokemonLine()
      *
@@ -41,7 +145,7 @@ public final class PokemonFactory
      */
     private static String getPokemonLine (final String filename, final int maxLines)
     {
-        final Random r = new Random();
+        final Random r = GameRandom.get();
         final int selectedPokemonID = r.nextInt(maxLines);
         //System.out.print(selectedPokemonID);
         String selectedPokemonLine = "";
@@ -65,7 +169,7 @@ public final class PokemonFactory
      */
     private static Pokemon createPokemon (final String[] pokemonInfo, final Rarity rarity)
     {
-        final Random r = new Random();
+        final Random r = GameRandom.get();
         final int id = Integer.parseInt(pokemonInfo[0]);
         final String name = pokemonInfo[1];
         final int level = r.nextInt(MAX_LEVEL-MIN_LEVEL+1)+MIN_LEVEL;
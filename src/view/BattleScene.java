@@ -3,21 +3,30 @@ package view;
 import controller.GameSceneManager;
 import controller.PokemonSafari;
 import controller.audio.*;
-import javafx.animation.AnimationTimer;
-import javafx.event.EventHandler;
+import controller.input.InputQueue;
+import controller.metrics.GameMetrics;
+import controller.telemetry.Telemetry;
+import controller.telemetry.TelemetryEvent;
 import javafx.scene.effect.ColorAdjust;
 import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
-import javafx.scene.input.KeyEvent;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.ArcType;
 import javafx.scene.text.Font;
+import model.misc.GameRandom;
 import model.player.Player;
+import model.pokemon.CatchRoll;
 import model.pokemon.Gender;
 import model.pokemon.Pokemon;
+import view.render.DrawCommandBuffer;
+import view.render.ImageLoader;
+import view.timeline.Timeline;
+import view.timeline.TimelineLoader;
+import view.timeline.TimelinePlayer;
+import view.timeline.TimelineStage;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -25,6 +34,11 @@ import java.util.Random;
  *
  * Purpose: Displays and operates the Battle Scene when a Pokemon
  *      is encountered in the Safari Zone.
+ *
+ *      Building a BattleScene loads its images and creates its layers, key
+ *      handlers and animations, so a single one is kept and reset for every
+ *      encounter through obtain(). Animations reset their own state when
+ *      they are started.
  */
 public final class BattleScene extends GameScene
 {
@@ -33,11 +47,24 @@ public final class BattleScene extends GameScene
     private static final String POKEMON_IMAGE_FILENAME      = "images/battle/pokemon_sprites.png";
     private static final String PLAYER_IMAGE_FILENAME       = "images/battle/trainer_battle_sprites.png";
     private static final String BATTLE_ITEMS_IMAGE_FILENAME = "images/battle/battle_items.png";
+    private static final String TIMELINES_FILENAME          = "data/timelines/battle.txt";
+
+    private static final String[] TIMELINE_SHEETS = { "player", "pokemon", "items", "boxes", "thrown" };
+    private static final int PLAYER_SHEET = 0;
+    private static final int POKEMON_SHEET = 1;
+    private static final int ITEMS_SHEET = 2;
+    private static final int BOXES_SHEET = 3;
+    private static final int THROWN_SHEET = 4;
+
+    private static final double BAIT_ITEM_Y = 0.0;          // rows of the items sheet
+    private static final double SAFARI_BALL_ITEM_Y = 20.0;
+    private static final double ROCK_ITEM_Y = 40.0;
 
     private static final double SRC_WILD_POKEMON_IMAGE_SIZE = 100.0;
     private static final double DEST_WILD_POKEMON_IMAGE_SIZE = SRC_WILD_POKEMON_IMAGE_SIZE * 3;
     private static final double WILD_POKEMON_X = 490.0;
     private static final double WILD_POKEMON_Y = 20.0;
+    private static final double MUSIC_FADE_SECONDS = 2.0;  // the length of the wipe into the battle
 
     private static final int CATCH_LIKELIHOOD_CHANGE = 10;
     private static final int RUN_LIKELIHOOD_CHANGE = 10;
@@ -56,21 +83,23 @@ public final class BattleScene extends GameScene
 
     private static final Font BIG_FONT = Font.font("Verdana", 32);
     private static final Font SMALL_FONT = Font.font("Verdana", 25);
-
-    private static double wildPokemonSourceX;
-    private static double wildPokemonSourceY;
-
-    private static double genderSourceX;
-    private static double genderSourceY;
-    private static double genderDestX;
+    private static final double GENDER_ICON_GAP = 10;
 
     private static final double ARROW_TOP = 566.0;
     private static final double ARROW_BOTTOM = 636.0;
     private static final double ARROW_LEFT = 475.0;
     private static final double ARROW_RIGHT = 665.0;
-    private double currArrowX = ARROW_LEFT;
 
-    private double startNanoTime;
+    private static BattleScene pooled = null;
+
+    private double wildPokemonSourceX;
+    private double wildPokemonSourceY;
+
+    private double genderSourceX;
+    private double genderSourceY;
+    private double genderDestX;
+
+    private double currArrowX;
 
     private Image backgroundImage;
     private Image battleBoxImage;
@@ -78,6 +107,8 @@ public final class BattleScene extends GameScene
     private Image playerImage;
     private Image battleItemImage;
 
+    private DrawCommandBuffer hudCommands;
+
     private Player player;
     private Pokemon wildPokemon;
     private int remainingTurns;
@@ -87,43 +118,118 @@ public final class BattleScene extends GameScene
     private int menuRow;
     private int menuCol;
 
+    private final TransitionAnimation transitionAnimation;
+    private final StandbyAnimation standbyAnimation;
+    private final EnterBattlePhaseAnimation enterBattlePhaseAnimation;
+    private final BattlePhaseAnimation battlePhaseAnimation;
+    private final PokemonRunAnimation pokemonRunAnimation;
+    private final PrepareToExitSuccessAnimation prepareToExitSuccessAnimation;
+    private final ExitSuccessAnimation exitSuccessAnimation;
+    private final RunAnimation runAnimation;
+    private final TimelinePlayer timelinePlayer;
+
+    private Map<String, Timeline> timelines;
+    private double thrownItemY;
+    private int checksPassed;
+    private int shakes;
+    private String breakoutMessage;
 
 
     /**
-     * BattleScene (Pokemon)
+     * BattleScene ()
      *
-     * Purpose: Creates and initializes the BattleScene for the given Pokemon.
+     * Purpose: Creates the BattleScene with its images and animations. It is
+     *      armed for an encounter by reset().
      */
-    public BattleScene (final Player player, final Pokemon wildPokemon)
+    private BattleScene ()
     {
         super();
 
+        this.hudCommands = new DrawCommandBuffer(getTextCache());
+
+        this.transitionAnimation = new TransitionAnimation();
+        this.standbyAnimation = new StandbyAnimation();
+        this.enterBattlePhaseAnimation = new EnterBattlePhaseAnimation();
+        this.battlePhaseAnimation = new BattlePhaseAnimation();
+        this.pokemonRunAnimation = new PokemonRunAnimation();
+        this.prepareToExitSuccessAnimation = new PrepareToExitSuccessAnimation();
+        this.exitSuccessAnimation = new ExitSuccessAnimation();
+        this.runAnimation = new RunAnimation();
+        this.timelinePlayer = new TimelinePlayer(new BattleStage(), getSpriteBrush());
+
+        try {
+            this.backgroundImage = ImageLoader.load(BACKGROUND_IMAGE_FILENAME);
+            this.battleBoxImage = ImageLoader.load(BATTLE_BOXES_IMAGE_FILENAME);
+            this.pokemonImage = ImageLoader.load(POKEMON_IMAGE_FILENAME);
+            this.playerImage = ImageLoader.load(PLAYER_IMAGE_FILENAME);
+            this.battleItemImage = ImageLoader.load(BATTLE_ITEMS_IMAGE_FILENAME);
+            this.timelines = TimelineLoader.load(TIMELINES_FILENAME, TIMELINE_SHEETS);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    } // BattleScene ()
+
+
+    /**
+     * prepare()
+     *
+     * Purpose: Builds the BattleScene ahead of the first encounter, so that
+     *      encounters never have to wait for it.
+     */
+    public static void prepare ()
+    {
+        if (pooled == null)
+            pooled = new BattleScene();
+    } // prepare()
+
+
+    /**
+     * obtain()
+     *
+     * Purpose: Returns the BattleScene reset for an encounter between the
+     *      given player and wild Pokemon. The scene returns itself for reuse
+     *      when it is closed.
+     */
+    public static BattleScene obtain (final Player player, final Pokemon wildPokemon)
+    {
+        final BattleScene scene = pooled == null ? new BattleScene() : pooled;
+        pooled = null;
+        scene.reset(player, wildPokemon);
+        return scene;
+    } // obtain()
+
+
+    /**
+     * reset()
+     *
+     * Purpose: Clears what the last battle left on screen and sets up the
+     *      battle between the given player and wild Pokemon.
+     */
+    private void reset (final Player player, final Pokemon wildPokemon)
+    {
         this.player = player;
         this.wildPokemon = wildPokemon;
         this.remainingTurns = this.wildPokemon.getMaxDuration();
 
-        this.actionArrowX = 475.0;
-        this.actionArrowY = 566.0;
+        this.actionArrowX = ARROW_LEFT;
+        this.actionArrowY = ARROW_TOP;
+        this.currArrowX = ARROW_LEFT;
         this.menuRow = 0;
         this.menuCol = 0;
+        CryPlayer.getInstance().prefetch(this.wildPokemon.getName());
 
-        wildPokemonSourceX = (int)((wildPokemon.getID() % 5) * SRC_WILD_POKEMON_IMAGE_SIZE);
-        wildPokemonSourceY = (int)((wildPokemon.getID() / 5) * SRC_WILD_POKEMON_IMAGE_SIZE);
-        genderSourceX = 0;
-        genderSourceY = this.wildPokemon.getGender() == Gender.Male ? MALE_GENDER_Y : FEMALE_GENDER_Y;
-        genderDestX = (wildPokemon.getName().length()*20)+60;
-        this.getPaintBrush().setFont(BIG_FONT);
+        this.wildPokemonSourceX = (int)((wildPokemon.getID() % 5) * SRC_WILD_POKEMON_IMAGE_SIZE);
+        this.wildPokemonSourceY = (int)((wildPokemon.getID() / 5) * SRC_WILD_POKEMON_IMAGE_SIZE);
+        this.genderSourceX = 0;
+        this.genderSourceY = this.wildPokemon.getGender() == Gender.Male ? MALE_GENDER_Y : FEMALE_GENDER_Y;
+        this.genderDestX = 60 + this.hudCommands.measure(wildPokemon.getName(), SMALL_FONT) + GENDER_ICON_GAP;
 
-        try {
-            this.backgroundImage = new Image(new FileInputStream(BACKGROUND_IMAGE_FILENAME));
-            this.battleBoxImage = new Image(new FileInputStream(BATTLE_BOXES_IMAGE_FILENAME));
-            this.pokemonImage = new Image(new FileInputStream(POKEMON_IMAGE_FILENAME));
-            this.playerImage = new Image(new FileInputStream(PLAYER_IMAGE_FILENAME));
-            this.battleItemImage = new Image(new FileInputStream(BATTLE_ITEMS_IMAGE_FILENAME));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    } // BattleScene (Pokemon)
+        this.setScreenBrightness(DEFAULT_BRIGHTNESS);
+        clearLayer(getPaintBrush());
+        clearLayer(getSpriteBrush());
+        clearLayer(getHudBrush());
+        this.getHudBrush().setFont(BIG_FONT);
+    } // reset()
 
 
     /**
@@ -139,31 +245,136 @@ public final class BattleScene extends GameScene
 
 
     /**
-     * restart()
+     * isOverlay()
+     *
+     * Purpose: The BattleScene opens by drawing over the OverworldScene, and
+     *      hides it once the battle background covers it.
+     */
+    @Override
+    public boolean isOverlay ()
+    {
+        return true;
+    } // isOverlay()
+
+
+    /**
+     * isReusable()
+     *
+     * Purpose: The BattleScene is reused for every encounter, so it keeps its
+     *      layers when it is closed.
+     */
+    @Override
+    public boolean isReusable ()
+    {
+        return true;
+    } // isReusable()
+
+
+    /**
+     * onDispose()
      *
-     * Purpose: Not used.
+     * Purpose: Drops the player and the wild Pokemon, keeping the images and
+     *      animations, and puts the scene back for the next encounter.
      */
     @Override
-    public void restart () { /* Nothing */ };
+    protected void onDispose ()
+    {
+        this.player = null;
+        this.wildPokemon = null;
+        pooled = this;
+    } // onDispose()
 
     /**
      * transition()
      *
-     * Purpose: Runs the transition animation when a battle starts.
+     * Purpose: Runs the transition animation when a battle starts, while the
+     *      overworld music crossfades into the battle music.
      */
     private void transition ()
     {
-        this.getPaintBrush().setFill(Color.BLACK);
-        new TransitionAnimation().start();
+        MusicPlayer.getInstance().crossfadeTo(MusicLibrary.Battle, MUSIC_FADE_SECONDS);
+        getHudBrush().setFill(Color.BLACK);
+        this.transitionAnimation.start();
     } // transition()
 
 
+    /**
+     * drawBackground()
+     *
+     * Purpose: Draws the battle background onto the ground layer. The ground
+     *      does not change during a battle, so this is done once.
+     */
+    private void drawBackground ()
+    {
+        getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
+    } // drawBackground()
+
+
+    /**
+     * drawPlayer()
+     *
+     * Purpose: Draws the player in its standing pose onto the sprite layer.
+     */
+    private void drawPlayer ()
+    {
+        getSpriteBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
+    } // drawPlayer()
+
+
+    /**
+     * drawWildPokemon()
+     *
+     * Purpose: Draws the wild Pokemon at its usual place onto the sprite layer.
+     */
+    private void drawWildPokemon ()
+    {
+        getSpriteBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
+    } // drawWildPokemon()
+
+
+    /**
+     * drawBattleBoxes()
+     *
+     * Purpose: Records the player and Pokemon battle boxes for the HUD layer
+     *      at the given positions. The caller flushes the HUD commands.
+     */
+    private void drawBattleBoxes (final double playerBattleBoxX, final double pokemonBattleBoxX, final double genderX)
+    {
+        hudCommands.setFont(SMALL_FONT);
+        hudCommands.setFill(Color.BLACK);
+        hudCommands.drawImage(battleBoxImage, 0, 0, 103, 36, playerBattleBoxX, 360, 412, 144);
+        hudCommands.fillText("Safari Balls", playerBattleBoxX+80, 410);
+        hudCommands.fillText("Left: " + player.getNumSafariBalls(), playerBattleBoxX+120, 460);
+        hudCommands.drawImage(battleBoxImage, 0, 175, 18, 18, playerBattleBoxX+280, 410, 36, 36);
+
+        hudCommands.drawImage(battleBoxImage, 0, 40, 100, 28, pokemonBattleBoxX, 60, 400, 112);
+        hudCommands.fillText(wildPokemon.getName(), pokemonBattleBoxX+20, 105);
+        hudCommands.drawImage(battleBoxImage, genderSourceX, genderSourceY, 32, 32, genderX, 78, 32, 32);
+        hudCommands.fillText("Lv" + wildPokemon.getLevel(), pokemonBattleBoxX+280, 105);
+    } // drawBattleBoxes()
+
+
+    /**
+     * drawMessage()
+     *
+     * Purpose: Replaces the HUD layer with the given message in the text box.
+     */
+    private void drawMessage (final String message)
+    {
+        clearLayer(getHudBrush());
+        hudCommands.setFont(BIG_FONT);
+        hudCommands.setFill(Color.WHITE);
+        hudCommands.fillText(message, 40, 600);
+        hudCommands.flush(getHudBrush());
+    } // drawMessage()
+
+
     /**
      * TransitionAnimationTimer
      *
      * Purpose: Defines and handles the transition animation that plays when a battle starts.
      */
-    private final class TransitionAnimation extends AnimationTimer
+    private final class TransitionAnimation extends GameAnimation
     {
         private final ColorAdjust colorAdjust = new ColorAdjust();
 
@@ -172,8 +383,19 @@ public final class BattleScene extends GameScene
         private static final double ANIMATION_SPEED = 3;
         private static final double POKEMON_APPEAR_SPEED = 0.05;
 
-        private double arcExtent = -1.0;
-        private double pokemonBrightness = -1.0;
+        private double arcExtent;
+        private double pokemonBrightness;
+        private boolean revealing;
+
+
+        @Override
+        public void start ()
+        {
+            this.arcExtent = -1.0;
+            this.pokemonBrightness = -1.0;
+            this.revealing = false;
+            super.start();
+        }
 
 
         /**
@@ -189,87 +411,110 @@ public final class BattleScene extends GameScene
                 if (pokemonBrightness >= 0.0)
                 {
                     colorAdjust.setBrightness(DEFAULT_BRIGHTNESS);
-                    getPaintBrush().setEffect(colorAdjust);
+                    getSpriteBrush().setEffect(null);
                     CryPlayer.getInstance().play(wildPokemon.getName());
-                    getPaintBrush().setFill(Color.WHITE);
-                    GameSceneManager.getPreviousScene().getPaintBrush().setFill(Color.BLACK);
-                    GameSceneManager.getPreviousScene().getPaintBrush().fillRect(0,0,getWidth(),getHeight());
+                    getHudBrush().setFont(BIG_FONT);
+                    getHudBrush().setFill(Color.WHITE);
+                    GameSceneManager.getPreviousScene().setVisible(false);
                     this.stop();
                     standby();
                     return;
                 }
                 pokemonBrightness += POKEMON_APPEAR_SPEED;
                 colorAdjust.setBrightness(pokemonBrightness);
-                getPaintBrush().setEffect(colorAdjust);
-                getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
+                clearLayer(getSpriteBrush());
+                drawPlayer();
+                getSpriteBrush().setEffect(colorAdjust);
+                drawWildPokemon();
+                getSpriteBrush().setEffect(null);
                 return;
             }
             else if (arcExtent < MIN_ANGLE)
                 arcExtent = MAX_ANGLE;
             if (arcExtent > 0.0)
             {
-                getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-                getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-                colorAdjust.setBrightness(-1.0);
-                getPaintBrush().setEffect(colorAdjust);
-                getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-                colorAdjust.setBrightness(0.0);
-                getPaintBrush().setEffect(colorAdjust);
+                if (!this.revealing)
+                {
+                    this.revealing = true;
+                    drawBackground();
+                    drawPlayer();
+                    colorAdjust.setBrightness(-1.0);
+                    getSpriteBrush().setEffect(colorAdjust);
+                    drawWildPokemon();
+                    getSpriteBrush().setEffect(null);
+                }
+                clearLayer(getHudBrush());
             }
             arcExtent -= ANIMATION_SPEED;
-            getPaintBrush().fillArc(-180,-180,getWidth()+360,getHeight()+360,90, arcExtent, ArcType.ROUND);
+            getHudBrush().fillArc(-180,-180,getWidth()+360,getHeight()+360,90, arcExtent, ArcType.ROUND);
         } // handle()
 
     } // final class TransitionAnimation
 
 
     /**
+     * standby()
      *
+     * Purpose: Waits for the player to continue after the encounter message.
+     *      Keys pressed before now are dropped, as they were meant for the
+     *      transition.
      */
     private void standby ()
     {
-        final AnimationTimer standby = new StandbyAnimation();
-        this.getScene().setOnKeyPressed(new EventHandler<KeyEvent>() {
-            @Override
-            public void handle(final KeyEvent event)
-            {
-                if (event.getCode() == KeyCode.SPACE)
-                {
-                    standby.stop();
-                    getPaintBrush().setFill(Color.BLACK);
-                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                    enterBattlePhase();
-                }
-            }
-        });
-        standby.start();
+        InputQueue.getInstance().clear();
+        this.standbyAnimation.start();
     } // standby()
 
 
     /**
+     * pressStandbyKey()
+     *
+     * Purpose: Continues to the battle when the player presses space.
+     */
+    private void pressStandbyKey (final KeyCode key)
+    {
+        if (key == KeyCode.SPACE)
+        {
+            standbyAnimation.stop();
+            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+            enterBattlePhase();
+        }
+    } // pressStandbyKey()
+
+
+    /**
+     * StandbyAnimation
      *
+     * Purpose: Shows the encounter message with a bobbing arrow until the player continues.
      */
-    private final class StandbyAnimation extends AnimationTimer
+    private final class StandbyAnimation extends IdleAnimation
     {
         private static final double MIN_ARROW_HEIGHT = 650.0;
         private static final double MAX_ARROW_HEIGHT = 655.0;
         private static final double ARROW_SPEED = 0.2;
 
-        private double arrowHeight = MIN_ARROW_HEIGHT;
-        private boolean arrowGoingUp = false;
+        private double arrowHeight;
+        private boolean arrowGoingUp;
+
+
+        private StandbyAnimation ()
+        {
+            super(BattleScene.this, 32);
+        }
 
 
-        /**
-         *
-         */
         @Override
-        public void handle (final long now)
+        public void start ()
+        {
+            this.arrowHeight = MIN_ARROW_HEIGHT;
+            this.arrowGoingUp = false;
+            super.start();
+        }
+
+
+        @Override
+        protected void update ()
         {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-            getPaintBrush().fillText("A wild "+wildPokemon.getName()+" appeared!", 40, 600);
-            getPaintBrush().drawImage(battleBoxImage, 120, 0, 32, 32, 800, this.arrowHeight, 32, 32);
             if (this.arrowHeight > MAX_ARROW_HEIGHT)
                 this.arrowGoingUp = true;
             else if (this.arrowHeight < MIN_ARROW_HEIGHT)
@@ -278,9 +523,49 @@ public final class BattleScene extends GameScene
                 this.arrowHeight -= ARROW_SPEED;
             else
                 this.arrowHeight += ARROW_SPEED;
-        } // handle()
+        }
+
+
+        @Override
+        protected void pollInput ()
+        {
+            KeyCode key;
+            while (this.isRunning() && (key = InputQueue.getInstance().poll()) != null)
+                pressStandbyKey(key);
+        }
+
+
+        @Override
+        protected void drawStill ()
+        {
+            clearLayer(getSpriteBrush());
+            drawPlayer();
+            drawWildPokemon();
+            drawMessage("A wild "+wildPokemon.getName()+" appeared!");
+        }
+
+
+        @Override
+        protected double getSpriteX ()
+        {
+            return 800;
+        }
+
+
+        @Override
+        protected double getSpriteY ()
+        {
+            return this.arrowHeight;
+        }
+
 
-    } //
+        @Override
+        protected void drawSprite (final double x, final double y)
+        {
+            getHudBrush().drawImage(battleBoxImage, 120, 0, 32, 32, x, y, 32, 32);
+        }
+
+    } // final class StandbyAnimation
 
 
     /**
@@ -288,43 +573,40 @@ public final class BattleScene extends GameScene
      */
     private void enterBattlePhase ()
     {
-        getPaintBrush().setFont(SMALL_FONT);
-        final AnimationTimer enterBattlePhase = new EnterBattlePhaseAnimation();
-        this.getScene().setOnKeyPressed(null);
-        enterBattlePhase.start();
+        this.enterBattlePhaseAnimation.start();
     }
 
 
     /**
      *
      */
-    private final class EnterBattlePhaseAnimation extends AnimationTimer
+    private final class EnterBattlePhaseAnimation extends GameAnimation
     {
         private static final double PLAYER_BATTLE_BOX_FINAL_X = 440;
         private static final double POKEMON_BATTLE_BOX_FINAL_X = 40;
         private static final double ANIMATION_SPEED = 20;
 
-        private double playerBattleBoxX = 880;
-        private double pokemonBattleBoxX = -400;
-        private double genderX = genderDestX - 440;
+        private double playerBattleBoxX;
+        private double pokemonBattleBoxX;
+        private double genderX;
 
 
         @Override
-        public void handle (final long now)
+        public void start ()
         {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
+            this.playerBattleBoxX = 880;
+            this.pokemonBattleBoxX = -400;
+            this.genderX = genderDestX - 440;
+            super.start();
+        }
 
-            getPaintBrush().drawImage(battleBoxImage, 0, 0, 103, 36, this.playerBattleBoxX, 360, 412, 144);
-            getPaintBrush().fillText("Safari Balls", this.playerBattleBoxX+80, 410);
-            getPaintBrush().fillText("Left: " + player.getNumSafariBalls(), this.playerBattleBoxX+120, 460);
-            getPaintBrush().drawImage(battleBoxImage, 0, 175, 18, 18, this.playerBattleBoxX+280, 410, 36, 36);
 
-            getPaintBrush().drawImage(battleBoxImage, 0, 40, 100, 28, this.pokemonBattleBoxX, 60, 400, 112);
-            getPaintBrush().fillText(wildPokemon.getName(), this.pokemonBattleBoxX+20, 105);
-            getPaintBrush().drawImage(battleBoxImage, genderSourceX, genderSourceY, 32, 32, genderX, 78, 32, 32);
-            getPaintBrush().fillText("Lv" + wildPokemon.getLevel(), this.pokemonBattleBoxX+280, 105);
+        @Override
+        public void handle (final long now)
+        {
+            clearLayer(getHudBrush());
+            drawBattleBoxes(this.playerBattleBoxX, this.pokemonBattleBoxX, this.genderX);
+            hudCommands.flush(getHudBrush());
 
             if (this.playerBattleBoxX > PLAYER_BATTLE_BOX_FINAL_X)
                 this.playerBattleBoxX -= ANIMATION_SPEED;
@@ -346,128 +628,153 @@ public final class BattleScene extends GameScene
 
 
     /**
+     * battlePhase()
      *
+     * Purpose: Lets the player choose an action. Keys pressed during the
+     *      previous turn are dropped.
      */
     private void battlePhase ()
     {
-        final AnimationTimer battlePhase = new BattlePhaseAnimation();
-        this.getScene().setOnKeyPressed(new EventHandler<KeyEvent>() {
-            @Override
-            public void handle(final KeyEvent event)
-            {
-                switch (event.getCode())
-                {
-                    case W:
-                        if (menuRow != 0) {
-                            menuRow = 0;
-                            actionArrowY = ARROW_TOP;
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                        }
-                        break;
-                    case A:
-                        if (menuCol != 0) {
-                            menuCol = 0;
-                            actionArrowX = ARROW_LEFT;
-                            currArrowX = ARROW_LEFT;
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                        }
-                        break;
-                    case S:
-                        if (menuRow != 1) {
-                            menuRow = 1;
-                            actionArrowY = ARROW_BOTTOM;
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+        InputQueue.getInstance().clear();
+        this.battlePhaseAnimation.start();
+    } // battlePhase()
+
+
+    /**
+     * pressBattleKey()
+     *
+     * Purpose: Moves the arrow of the action menu and carries out the chosen
+     *      action.
+     */
+    private void pressBattleKey (final KeyCode key)
+    {
+        switch (key)
+        {
+            case W:
+                if (menuRow != 0) {
+                    menuRow = 0;
+                    actionArrowY = ARROW_TOP;
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                }
+                break;
+            case A:
+                if (menuCol != 0) {
+                    menuCol = 0;
+                    actionArrowX = ARROW_LEFT;
+                    currArrowX = ARROW_LEFT;
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                }
+                break;
+            case S:
+                if (menuRow != 1) {
+                    menuRow = 1;
+                    actionArrowY = ARROW_BOTTOM;
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                }
+                break;
+            case D:
+                if (menuCol != 1) {
+                    menuCol = 1;
+                    actionArrowX = ARROW_RIGHT;
+                    currArrowX = ARROW_RIGHT;
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                }
+                break;
+            case SPACE:
+                battlePhaseAnimation.stop();
+                if (menuRow == 0)
+                    if (menuCol == 0) {
+                        if (player.getNumSafariBalls() != 0) {
+                            player.setNumSafariBalls(player.getNumSafariBalls() - 1);
+                            PokemonSafari.getJournal().recordBalls(player);
+                            GameMetrics.getInstance().countBallThrown();
+                            Telemetry.getInstance().emit(TelemetryEvent.BallThrown, wildPokemon.getID(),
+                                    player.getNumSafariBalls(), 0);
+                            throwItem(SAFARI_BALL_ITEM_Y);
                         }
-                        break;
-                    case D:
-                        if (menuCol != 1) {
-                            menuCol = 1;
-                            actionArrowX = ARROW_RIGHT;
-                            currArrowX = ARROW_RIGHT;
+                        else {
                             SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                            timelinePlayer.start(timelines.get("out_of_balls"));
                         }
-                        break;
-                    case SPACE:
-                        battlePhase.stop();
-                        getScene().setOnKeyPressed(null);
-                        startNanoTime = System.nanoTime();
-                        if (menuRow == 0)
-                            if (menuCol == 0) {
-                                if (player.getNumSafariBalls() != 0) {
-                                    player.setNumSafariBalls(player.getNumSafariBalls() - 1);
-                                    new ThrowSafariBallAnimation().start();
-                                }
-                                else {
-                                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                                    new OutOfSafariBallsAnimation().start();
-                                }
-                            }
-                            else new ThrowBaitAnimation().start();
-                        else
-                            if (menuCol == 0)
-                                new ThrowRockAnimation().start();
-                            else {
-                                battlePhase.stop();
-                                SfxPlayer.getInstance().play(SfxLibrary.Run.name());
-                                new RunAnimation().start();
-                            }
-                        break;
-                }
-            }
-        });
-        battlePhase.start();
-    }
-
+                    }
+                    else {
+                        Telemetry.getInstance().emit(TelemetryEvent.Bait, wildPokemon.getID(),
+                                wildPokemon.getCatchLikelihood(), wildPokemon.getRunLikelihood());
+                        throwItem(BAIT_ITEM_Y);
+                    }
+                else
+                    if (menuCol == 0) {
+                        Telemetry.getInstance().emit(TelemetryEvent.Rock, wildPokemon.getID(),
+                                wildPokemon.getCatchLikelihood(), wildPokemon.getRunLikelihood());
+                        throwItem(ROCK_ITEM_Y);
+                    }
+                    else {
+                        battlePhaseAnimation.stop();
+                        Telemetry.getInstance().emit(TelemetryEvent.PlayerRun, wildPokemon.getID(),
+                                remainingTurns, 0);
+                        SfxPlayer.getInstance().play(SfxLibrary.Run.name());
+                        runAnimation.start();
+                    }
+                break;
+        }
+    } // pressBattleKey()
 
 
     private void determineTurnResult ()
     {
         this.remainingTurns--;
         if (this.remainingTurns == 0) {
+            Telemetry.getInstance().emit(TelemetryEvent.TurnResult, wildPokemon.getID(), 1, 0);
+            GameMetrics.getInstance().countFlee();
             SfxPlayer.getInstance().play(SfxLibrary.Run.name());
-            new PokemonRunAnimation().start();
+            this.pokemonRunAnimation.start();
             return;
         }
-        final Random random = new Random();
-        if (random.nextInt(ONE_HUNDRED_PERCENT)+1 < wildPokemon.getRunLikelihood()) {
+        final Random random = GameRandom.get();
+        final boolean fled = random.nextInt(ONE_HUNDRED_PERCENT)+1 < wildPokemon.getRunLikelihood();
+        Telemetry.getInstance().emit(TelemetryEvent.TurnResult, wildPokemon.getID(), fled ? 1 : 0, this.remainingTurns);
+        if (fled) {
+            GameMetrics.getInstance().countFlee();
             SfxPlayer.getInstance().play(SfxLibrary.Run.name());
-            new PokemonRunAnimation().start();
+            this.pokemonRunAnimation.start();
         }
         else
             battlePhase();
     }
 
 
-
-
-    private final class PokemonRunAnimation extends AnimationTimer
+    private final class PokemonRunAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
+        private int frame;
+        private double pokemonX;
+        private double screenBrightness;
 
-        private int frame = 0;
-        private double pokemonX = WILD_POKEMON_X;
-        private double screenBrightness = DEFAULT_BRIGHTNESS;
+        @Override
+        public void start ()
+        {
+            this.frame = 0;
+            this.pokemonX = WILD_POKEMON_X;
+            this.screenBrightness = DEFAULT_BRIGHTNESS;
+            super.start();
+        }
 
         @Override
         public void handle (final long now)
         {
             frame++;
-            getPaintBrush().setEffect(this.colorAdjust);
+            if (frame == 1)
+                drawMessage(wildPokemon.getName()+" ran away!");
 
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
+            clearLayer(getSpriteBrush());
+            drawPlayer();
 
             if (this.pokemonX < 1000.0)
                 this.pokemonX += 10;
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, this.pokemonX, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-
-            getPaintBrush().setFont(BIG_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText(wildPokemon.getName()+" ran away!", 40, 600);
+            getSpriteBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, this.pokemonX, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
 
             if (this.frame > 100) {
                 this.screenBrightness -= 0.02;
-                this.colorAdjust.setBrightness(this.screenBrightness);
+                setScreenBrightness(Math.max(this.screenBrightness, -1.0));
 
             }
             if (this.screenBrightness < -1.5) {
@@ -481,87 +788,43 @@ public final class BattleScene extends GameScene
     }
 
 
-
     /**
+     * BattlePhaseAnimation
      *
+     * Purpose: Shows the action menu with a bobbing arrow while the player chooses.
      */
-    private final class OutOfSafariBallsAnimation extends AnimationTimer
+    private final class BattlePhaseAnimation extends IdleAnimation
     {
-        private int frame = 0;
+        private static final double ARROW_SPEED = 0.2;
+        private boolean arrowGoingLeft;
 
-        @Override
-        public void handle (final long now)
+
+        private BattlePhaseAnimation ()
         {
-            this.frame++;
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-
-            getPaintBrush().setFont(SMALL_FONT);
-            getPaintBrush().setFill(Color.BLACK);
-            getPaintBrush().drawImage(battleBoxImage, 0, 0, 103, 36, 440, 360, 412, 144);
-            getPaintBrush().fillText("Safari Balls", 520, 410);
-            getPaintBrush().fillText("Left: " + player.getNumSafariBalls(), 560, 460);
-            getPaintBrush().drawImage(battleBoxImage, 0, 175, 18, 18, 720, 410, 36, 36);
-
-            getPaintBrush().drawImage(battleBoxImage, 0, 40, 100, 28, 40, 60, 400, 112);
-            getPaintBrush().fillText(wildPokemon.getName(), 60, 105);
-            getPaintBrush().drawImage(battleBoxImage, genderSourceX, genderSourceY, 32, 32, genderDestX, 78, 32, 32);
-            getPaintBrush().fillText("Lv" + wildPokemon.getLevel(), 320, 105);
-
-            getPaintBrush().setFont(BIG_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText("Out of Safari Balls!", 40, 600);
-
-            if (this.frame == 80) {
-                this.stop();
-                battlePhase();
-            }
+            super(BattleScene.this, 32);
         }
 
-    }
 
+        @Override
+        public void start ()
+        {
+            this.arrowGoingLeft = false;
+            super.start();
+        }
 
-    /**
-     *
-     */
-    private final class BattlePhaseAnimation extends AnimationTimer
-    {
-        private static final double ARROW_SPEED = 0.2;
-        private boolean arrowGoingLeft = false;
 
         @Override
-        public void handle (final long now)
+        protected void pollInput ()
         {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-
-            getPaintBrush().setFont(SMALL_FONT);
-            getPaintBrush().setFill(Color.BLACK);
-            getPaintBrush().drawImage(battleBoxImage, 0, 0, 103, 36, 440, 360, 412, 144);
-            getPaintBrush().fillText("Safari Balls", 520, 410);
-            getPaintBrush().fillText("Left: " + player.getNumSafariBalls(), 560, 460);
-            getPaintBrush().drawImage(battleBoxImage, 0, 175, 18, 18, 720, 410, 36, 36);
-
-            getPaintBrush().drawImage(battleBoxImage, 0, 40, 100, 28, 40, 60, 400, 112);
-            getPaintBrush().fillText(wildPokemon.getName(), 60, 105);
-            getPaintBrush().drawImage(battleBoxImage, genderSourceX, genderSourceY, 32, 32, genderDestX, 78, 32, 32);
-            getPaintBrush().fillText("Lv" + wildPokemon.getLevel(), 320, 105);
-
-            getPaintBrush().setFont(BIG_FONT);
-            getPaintBrush().drawImage(battleBoxImage, 0, 200, 176, 78, 440, 523, 440, 195);
-            getPaintBrush().fillText("Ball", 520, 595);
-            getPaintBrush().fillText("Rock", 520, 665);
-            getPaintBrush().fillText("Bait", 710, 595);
-            getPaintBrush().fillText("Run", 710, 665);
-
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText("What will", 40, 600);
-            getPaintBrush().fillText(player.getName()+" throw?", 40, 650);
-
-            getPaintBrush().drawImage(battleBoxImage, 50, 120, 32, 32, actionArrowX, actionArrowY, 32, 32);
+            KeyCode key;
+            while (this.isRunning() && (key = InputQueue.getInstance().poll()) != null)
+                pressBattleKey(key);
+        }
 
+
+        @Override
+        protected void update ()
+        {
             if (actionArrowX > currArrowX+5)
                 arrowGoingLeft = true;
             else if (actionArrowX < currArrowX)
@@ -572,421 +835,277 @@ public final class BattleScene extends GameScene
                 actionArrowX += ARROW_SPEED;
         }
 
-    }
-
 
-    /**
-     *
-     */
-    private class ThrowAnimation extends AnimationTimer
-    {
-        private static final double ITEM_START_X = 450;
-        private static final double ITEM_START_Y = 350;
-        private static final double START_ANGLE = 135.3;
-        private static final double FINAL_ANGLE = 137.65;
-        private static final double ITEM_SPEED = 0.05;
-
-        private double itemX = ITEM_START_X;
-        private double itemY = ITEM_START_Y;
-        private double angle = START_ANGLE;
-        private int rotate = 0;
-
-        private double itemSrcY;
-        protected boolean throwComplete = false;
-
-
-        private ThrowAnimation (final double itemSrcY)
+        @Override
+        protected void drawStill ()
         {
-            this.itemSrcY = itemSrcY;
+            clearLayer(getSpriteBrush());
+            drawPlayer();
+            drawWildPokemon();
+
+            clearLayer(getHudBrush());
+            drawBattleBoxes(440, 40, genderDestX);
+
+            hudCommands.setFont(BIG_FONT);
+            hudCommands.drawImage(battleBoxImage, 0, 200, 176, 78, 440, 523, 440, 195);
+            hudCommands.fillText("Ball", 520, 595);
+            hudCommands.fillText("Rock", 520, 665);
+            hudCommands.fillText("Bait", 710, 595);
+            hudCommands.fillText("Run", 710, 665);
+
+            hudCommands.setFill(Color.WHITE);
+            hudCommands.fillText("What will", 40, 600);
+            hudCommands.fillText(player.getName()+" throw?", 40, 650);
+            hudCommands.flush(getHudBrush());
         }
 
 
-        /**
-         *
-         */
         @Override
-        public void handle (final long now)
+        protected double getSpriteX ()
         {
-            int currTime = (int)((now-startNanoTime)/100_000_000);
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-            if (currTime > 4) {
-                if (this.angle < FINAL_ANGLE) {
-                    itemX = (200 * Math.cos(this.angle)) + ITEM_START_X;
-                    itemY = (200 * Math.sin(this.angle)) + ITEM_START_Y;
-                    this.angle += ITEM_SPEED;
-                    this.rotate = (this.rotate + 1) % 8;
-                    getPaintBrush().drawImage(battleItemImage, this.rotate*16, itemSrcY, 16, 16, itemX, itemY, 40, 40);
-                    getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-                }
-                else {
-                    getPaintBrush().drawImage(battleItemImage, 0, itemSrcY, 16, 16, itemX, itemY, 40, 40);
-                    getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-                    this.throwComplete = true;
-                    this.stop();
-                }
-            }
-            else if (currTime < 2) {
-                getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            }
-            else if (currTime == 2) {
-                getPaintBrush().drawImage(battleItemImage, 0, itemSrcY, 16, 16, 115, 415, 40, 40);
-                getPaintBrush().drawImage(playerImage, 70, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            }
-            else if (currTime == 3) {
-                SfxPlayer.getInstance().play(SfxLibrary.Throw.name());
-                getPaintBrush().drawImage(battleItemImage, 0, itemSrcY, 16, 16, 115, 355, 40, 40);
-                getPaintBrush().drawImage(playerImage, 140, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            }
-            else { /* currTime == 4 */
-                itemX = (200 * Math.cos(this.angle)) + ITEM_START_X;
-                itemY = (200 * Math.sin(this.angle)) + ITEM_START_Y;
-                this.angle += ITEM_SPEED;
-                this.rotate = (this.rotate + 1) % 8;
-                getPaintBrush().drawImage(battleItemImage, this.rotate*16, itemSrcY, 16, 16, itemX, itemY, 40, 40);
-                getPaintBrush().drawImage(playerImage, 210, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X + 40, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            }
-        } // handle()
-    }
+            return actionArrowX;
+        }
 
 
-    /**
-     *
-     */
-    private final class ThrowSafariBallAnimation extends ThrowAnimation
-    {
-        private ThrowSafariBallAnimation ()
+        @Override
+        protected double getSpriteY ()
         {
-            super(20);
+            return actionArrowY;
         }
 
+
         @Override
-        public void handle (final long now)
+        protected void drawSprite (final double x, final double y)
         {
-            super.handle(now);
-            if (this.throwComplete) {
-                SfxPlayer.getInstance().play(SfxLibrary.Pokeball_Contact.name());
-                new CatchPokemonAnimationA(super.itemX, super.itemY).start();
-            }
+            getHudBrush().drawImage(battleBoxImage, 50, 120, 32, 32, x, y, 32, 32);
         }
 
-    } // final class ThrowSafariBallAnimation
+    } // final class BattlePhaseAnimation
 
 
     /**
+     * throwItem()
      *
+     * Purpose: Plays the throw of the item in the given row of the items
+     *      sheet. The timeline of the item follows once it lands.
      */
-    private final class CatchPokemonAnimationA extends AnimationTimer
+    private void throwItem (final double itemY)
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
-        private double itemX;
-        private double itemY;
-        private double pokemonBrightness = 0.0;
-        private double pokemonSizeShrink = 0.0;
-        private double pokemonXPush = 0.0;
-        private double pokemonYPush = 0.0;
-        private int pokeballOpen;
+        this.thrownItemY = itemY;
+        clearLayer(getHudBrush());
+        this.timelinePlayer.start(this.timelines.get("throw"));
+    } // throwItem()
 
 
-        private CatchPokemonAnimationA (final double itemX, final double itemY)
+    /**
+     * itemThrown()
+     *
+     * Purpose: Plays what the thrown item does once it reaches the Pokemon.
+     */
+    private void itemThrown ()
+    {
+        if (this.thrownItemY == SAFARI_BALL_ITEM_Y)
         {
-            this.itemX = itemX;
-            this.itemY = itemY;
-            this.pokeballOpen = 0;
+            SfxPlayer.getInstance().play(SfxLibrary.Pokeball_Contact.name());
+            this.timelinePlayer.start(this.timelines.get("catch"));
         }
-
-
-        @Override
-        public void handle (final long now)
-        {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            if (this.itemY > 110) {
-                this.itemY -= 5;
-                getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-                getPaintBrush().drawImage(battleItemImage, 0, 20, 16, 16, this.itemX, this.itemY, 40, 40);
-            }
-            else {
-                if (this.pokemonBrightness < 1.0)
-                    this.pokemonBrightness += 0.1;
-                else if (this.pokemonSizeShrink != 260.0) {
-                    this.pokemonSizeShrink += 5;
-                    this.pokemonXPush += 2.3;
-                    this.pokemonYPush += 1.3;
-                }
-                else
-                {
-                    getPaintBrush().drawImage(battleItemImage, 0, 20, 16, 16, this.itemX, this.itemY, 40, 40);
-                    this.stop();
-                    new CatchPokemonAnimationB(this.itemX, this.itemY).start();
-                    return;
-                }
-                this.pokeballOpen++;
-                if (this.pokeballOpen == 1)
-                    SfxPlayer.getInstance().play(SfxLibrary.Pokeball_Open.name());
-                getPaintBrush().drawImage(battleItemImage, 128, 20, 12, 16, this.itemX, this.itemY, 40, 40);
-                this.colorAdjust.setBrightness(this.pokemonBrightness);
-                getPaintBrush().setEffect(this.colorAdjust);
-                getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X+this.pokemonXPush, WILD_POKEMON_Y+this.pokemonYPush, DEST_WILD_POKEMON_IMAGE_SIZE-this.pokemonSizeShrink, DEST_WILD_POKEMON_IMAGE_SIZE-this.pokemonSizeShrink);
-                this.colorAdjust.setBrightness(DEFAULT_BRIGHTNESS);
-                getPaintBrush().setEffect(this.colorAdjust);
-            }
+        else if (this.thrownItemY == BAIT_ITEM_Y)
+            this.timelinePlayer.start(this.timelines.get("bait_eaten"));
+        else {
+            SfxPlayer.getInstance().play(SfxLibrary.Rock.name());
+            this.timelinePlayer.start(this.timelines.get("rock_hit"));
         }
-
-    }
-
+    } // itemThrown()
 
 
-
-    private final class CatchPokemonAnimationB extends AnimationTimer
+    /**
+     * startShakes()
+     *
+     * Purpose: Rolls the outcome of the throw, then shakes the ball where it
+     *      landed until the Pokemon breaks out or is caught.
+     */
+    private void startShakes ()
     {
-        private static final double GROUND_Y = 260.0;
-        private static final double DOUBLE_GRAVITY_ACCELERATION = 0.098*2;
-
-        private double fallingVelocity = 0;
-        private double itemX;
-        private double itemY;
-
-
-        private CatchPokemonAnimationB (final double itemX, final double itemY)
-        {
-            this.itemX = itemX;
-            this.itemY = itemY;
-        }
+        this.checksPassed = CatchRoll.roll(GameRandom.get(), wildPokemon.getCatchLikelihood());
+        this.shakes = 0;
+        this.timelinePlayer.start(this.timelines.get("ball_shakes"));
+    } // startShakes()
 
 
-        @Override
-        public void handle (final long now)
+    /**
+     * checkShake()
+     *
+     * Purpose: Breaks the Pokemon out of the ball if the roll said it fails
+     *      the current check.
+     */
+    private void checkShake ()
+    {
+        final boolean brokeOut = this.shakes == this.checksPassed;
+        Telemetry.getInstance().emit(TelemetryEvent.BallShake, wildPokemon.getID(), this.shakes, brokeOut ? 1 : 0);
+        if (brokeOut)
         {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(battleItemImage, 0, 20, 16, 16, this.itemX, this.itemY, 40, 40);
-
-            if (this.itemY < GROUND_Y)
-            {
-                this.fallingVelocity += DOUBLE_GRAVITY_ACCELERATION;
-                this.itemY += this.fallingVelocity;
-            }
-            else {
-                this.stop();
-                SfxPlayer.getInstance().play(SfxLibrary.Pokeball_Contact.name());
-                new CatchPokemonAnimationC(this.itemX, this.itemY).start();
-            }
+            this.breakoutMessage = this.shakes == 0 ? "Oh no! "+wildPokemon.getName()+" broke out!"
+                    : this.shakes == 1 ? wildPokemon.getName()+" broke free!"
+                    : this.shakes == 2 ? "Almost there!" : "So close!";
+            this.timelinePlayer.start(this.timelines.get("break_out"));
         }
-
-    }
+        this.shakes++;
+    } // checkShake()
 
 
-    private final class CatchPokemonAnimationC extends AnimationTimer
+    /**
+     * pokemonCaught()
+     *
+     * Purpose: Adds the wild Pokemon to the player's collection.
+     */
+    private void pokemonCaught ()
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
-        private double itemX;
-        private double itemY;
-        private int frame = 0;
-        private Random random;
-
-
-        private CatchPokemonAnimationC (final double itemX, final double itemY)
-        {
-            this.itemX = itemX;
-            this.itemY = itemY;
-            this.random = new Random();
-        }
+        player.getPokemonCaught().add(wildPokemon);
+        PokemonSafari.getJournal().recordCatch(player);
+        GameMetrics.getInstance().countCatch();
+        Telemetry.getInstance().emit(TelemetryEvent.Caught, wildPokemon.getID(), wildPokemon.getLevel(), 0);
+        prepareToExitSuccess();
+    } // pokemonCaught()
 
 
+    /**
+     * BattleStage
+     *
+     * Purpose: Provides the battle images to the timelines of the battle,
+     *      and carries out their cues.
+     */
+    private final class BattleStage implements TimelineStage
+    {
         @Override
-        public void handle (final long now)
-        {
-            this.frame++;
-            if (this.frame == 50 || this.frame == 170)
-                this.pokeballRollRight();
-            if (this.frame == 110)
-                this.pokeballRollLeft();
-            if (this.frame == 49)
-                this.pokeballReset("Oh no! "+wildPokemon.getName()+" broke out!");
-            if (this.frame == 60)
-                this.pokeballReset(wildPokemon.getName()+" broke free!");
-            if (this.frame == 120)
-                this.pokeballReset("Almost there!");
-            if (this.frame == 180)
-                this.pokeballReset("So close!");
-            if (this.frame == 220)
-                this.pokemonCaught();
-        }
-
-
-        private void pokeballRollRight ()
-        {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(battleItemImage, 16, 20, 16, 16, this.itemX+10, this.itemY, 40, 40);
-        }
-
-
-        private void pokeballRollLeft ()
-        {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(battleItemImage, 112, 20, 16, 16, this.itemX-10, this.itemY, 40, 40);
-        }
-
-
-        private void pokeballReset (final String breakoutMessage)
+        public Image getSheet (final int sheet)
         {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(battleItemImage, 0, 20, 16, 16, this.itemX, this.itemY, 40, 40);
-            if (random.nextInt(ONE_HUNDRED_PERCENT)+1 > wildPokemon.getCatchLikelihood()) {
-                this.stop();
-                new PokemonBreakOutAnimation(this.itemX, this.itemY, breakoutMessage).start();
+            switch (sheet)
+            {
+                case PLAYER_SHEET:  return playerImage;
+                case POKEMON_SHEET: return pokemonImage;
+                case ITEMS_SHEET:
+                case THROWN_SHEET:  return battleItemImage;
+                case BOXES_SHEET:   return battleBoxImage;
+                default: throw new IllegalArgumentException("Unknown sheet: " + sheet);
             }
         }
 
-        private void pokemonCaught ()
+        @Override
+        public double getSheetX (final int sheet)
         {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            this.colorAdjust.setBrightness(-0.5);
-            getPaintBrush().setEffect(this.colorAdjust);
-            getPaintBrush().drawImage(battleItemImage, 0, 20, 16, 16, this.itemX, this.itemY, 40, 40);
-            this.colorAdjust.setBrightness(DEFAULT_BRIGHTNESS);
-            getPaintBrush().setEffect(this.colorAdjust);
-            this.stop();
-            player.getPokemonCaught().add(wildPokemon);
-            prepareToExitSuccess(this.itemX, this.itemY);
+            return sheet == POKEMON_SHEET ? wildPokemonSourceX : 0.0;
         }
 
-    }
-
-
-
-
-    private final class PokemonBreakOutAnimation extends AnimationTimer
-    {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
-        private int frame;
-        private double itemX;
-        private double itemY;
-        private double pokemonBrightness = 1.0;
-        private String message;
-        private int pokeballOpen;
-
-        private PokemonBreakOutAnimation (final double itemX, final double itemY, final String message)
+        @Override
+        public double getSheetY (final int sheet)
         {
-            this.message = message;
-            this.frame = 0;
-            this.itemX = itemX;
-            this.itemY = itemY;
-            this.pokeballOpen = 0;
+            if (sheet == THROWN_SHEET)
+                return thrownItemY;
+            return sheet == POKEMON_SHEET ? wildPokemonSourceY : 0.0;
         }
 
         @Override
-        public void handle (long now)
+        public void onCue (final String cue)
         {
-            this.frame++;
-            if (this.frame < 20)
-                return;
-            this.pokeballOpen++;
-            if (this.pokeballOpen == 1)
-                SfxPlayer.getInstance().play(SfxLibrary.Pokeball_Open.name());
-
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-
-            getPaintBrush().drawImage(battleItemImage, 128, 20, 12, 16, this.itemX, this.itemY, 40, 40);
-
-            if (this.pokemonBrightness > DEFAULT_BRIGHTNESS)
-                this.pokemonBrightness -= 0.02;
-            else
+            switch (cue)
             {
-                getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-                getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-                getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-
-                getPaintBrush().setFont(BIG_FONT);
-                getPaintBrush().setFill(Color.WHITE);
-                getPaintBrush().fillText(this.message, 40, 600);
-
-                if (this.frame == 160) {
-                    this.stop();
+                case "out_of_balls":
+                    drawMessage("Out of Safari Balls!");
+                    drawBattleBoxes(440, 40, genderDestX);
+                    hudCommands.flush(getHudBrush());
+                    break;
+                case "thrown":
+                    itemThrown();
+                    break;
+                case "ball_landed":
+                    startShakes();
+                    break;
+                case "out_of_balls_done":
+                    battlePhase();
+                    break;
+                case "shake_check":
+                    checkShake();
+                    break;
+                case "caught":
+                    pokemonCaught();
+                    break;
+                case "broke_out":
+                    drawMessage(breakoutMessage);
+                    break;
+                case "ate_bait":
+                    drawMessage(wildPokemon.getName()+" ate the bait");
+                    break;
+                case "angry":
+                    drawMessage(wildPokemon.getName()+" is angry");
+                    break;
+                case "rock_hit_done":
+                    wildPokemon.setCatchLikelihood(wildPokemon.getCatchLikelihood()+CATCH_LIKELIHOOD_CHANGE);
+                    wildPokemon.setRunLikelihood(wildPokemon.getRunLikelihood()+RUN_LIKELIHOOD_CHANGE);
                     determineTurnResult();
-                }
+                    break;
+                case "bait_eaten_done":
+                    wildPokemon.setRunLikelihood(wildPokemon.getRunLikelihood() - RUN_LIKELIHOOD_CHANGE);
+                    determineTurnResult();
+                    break;
+                case "break_out_done":
+                    determineTurnResult();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown cue: " + cue);
             }
-            this.colorAdjust.setBrightness(this.pokemonBrightness);
-            getPaintBrush().setEffect(this.colorAdjust);
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-            this.colorAdjust.setBrightness(DEFAULT_BRIGHTNESS);
-            getPaintBrush().setEffect(this.colorAdjust);
         }
-    }
 
+    } // final class BattleStage
 
 
+    private void prepareToExitSuccess ()
+    {
+        InputQueue.getInstance().clear();
+        this.prepareToExitSuccessAnimation.start();
+    }
 
 
-    private void prepareToExitSuccess (final double itemX, final double itemY)
+    /**
+     * pressExitKey()
+     *
+     * Purpose: Leaves the battle when the player presses space after a catch.
+     */
+    private void pressExitKey (final KeyCode key)
     {
-        final PrepareToExitSuccessAnimation prepareToExitAnimation = new PrepareToExitSuccessAnimation(itemX, itemY);
-        prepareToExitAnimation.start();
-        this.getScene().setOnKeyPressed(new EventHandler<KeyEvent>() {
-            @Override
-            public void handle(final KeyEvent event)
-            {
-                if (event.getCode() == KeyCode.SPACE)
-                {
-                    getScene().setOnKeyPressed(null);
-                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                    prepareToExitAnimation.stop();
-                    new ExitSuccessAnimation(itemX, itemY).start();
-                }
-            }
-        });
-
-    }
+        if (key == KeyCode.SPACE)
+        {
+            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+            prepareToExitSuccessAnimation.stop();
+            exitSuccessAnimation.start();
+        }
+    } // pressExitKey()
 
 
-    private final class PrepareToExitSuccessAnimation extends AnimationTimer
+    private final class PrepareToExitSuccessAnimation extends IdleAnimation
     {
         private static final double MIN_ARROW_HEIGHT = 650.0;
         private static final double MAX_ARROW_HEIGHT = 655.0;
         private static final double ARROW_SPEED = 0.2;
 
-        private double itemX;
-        private double itemY;
-
-        private double arrowHeight = MIN_ARROW_HEIGHT;
-        private boolean arrowGoingUp = false;
+        private double arrowHeight;
+        private boolean arrowGoingUp;
 
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
-        private PrepareToExitSuccessAnimation (final double itemX, final double itemY)
+        private PrepareToExitSuccessAnimation ()
         {
-            this.itemX = itemX;
-            this.itemY = itemY;
+            super(BattleScene.this, 32);
         }
 
         @Override
-        public void handle (final long now)
+        public void start ()
         {
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(battleBoxImage, 120, 0, 32, 32, 800, this.arrowHeight, 32, 32);
-
-            this.colorAdjust.setBrightness(-0.5);
-            getPaintBrush().setEffect(this.colorAdjust);
-            getPaintBrush().drawImage(battleItemImage, 0, 20, 16, 16, this.itemX, this.itemY, 40, 40);
-            this.colorAdjust.setBrightness(DEFAULT_BRIGHTNESS);
-            getPaintBrush().setEffect(this.colorAdjust);
-
-            getPaintBrush().setFont(BIG_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            this.colorAdjust.setBrightness(DEFAULT_BRIGHTNESS);
-            getPaintBrush().setEffect(this.colorAdjust);
-            getPaintBrush().fillText(wildPokemon.getName()+" was caught!", 40, 600);
+            this.arrowHeight = MIN_ARROW_HEIGHT;
+            this.arrowGoingUp = false;
+            super.start();
+        }
 
+        @Override
+        protected void update ()
+        {
             if (this.arrowHeight > MAX_ARROW_HEIGHT)
                 this.arrowGoingUp = true;
             else if (this.arrowHeight < MIN_ARROW_HEIGHT)
@@ -996,198 +1115,67 @@ public final class BattleScene extends GameScene
             else
                 this.arrowHeight += ARROW_SPEED;
         }
-    }
-
-
-
-    private final class ExitSuccessAnimation extends AnimationTimer
-    {
-        private final ColorAdjust colorAdjustSafariBall = new ColorAdjust();
-        private final ColorAdjust colorAdjustScreen = new ColorAdjust();
-
-        private double screenBrightness = 0.0;
-        private double safariBallBrightness = -0.5;
-        private double itemX;
-        private double itemY;
-
-        private ExitSuccessAnimation (final double itemX, final double itemY)
-        {
-            this.itemX = itemX;
-            this.itemY = itemY;
-            this.colorAdjustSafariBall.setBrightness(-0.5);
-        }
 
         @Override
-        public void handle (final long now)
+        protected void pollInput ()
         {
-            if (this.screenBrightness > -1.0)
-            {
-                this.screenBrightness -= 0.02;
-                this.colorAdjustScreen.setBrightness(screenBrightness);
-                this.safariBallBrightness -= 0.02;
-                this.colorAdjustSafariBall.setBrightness(safariBallBrightness);
-            }
-            else {
-                ////////////////////////////////////////////////////////////////////////////////////////////////
-                // EXIT BATTLE HERE AFTER CATCHING
-                ////////////////////////////////////////////////////////////////////////////////////////////////
-                this.stop();
-                PokemonSafari.goToPreviousScene();
-            }
-
-            getPaintBrush().setEffect(this.colorAdjustScreen);
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-
-            getPaintBrush().setFont(BIG_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText(wildPokemon.getName()+" was caught!", 40, 600);
-
-            getPaintBrush().setEffect(this.colorAdjustSafariBall);
-            getPaintBrush().drawImage(battleItemImage, 0, 20, 16, 16, this.itemX, this.itemY, 40, 40);
+            KeyCode key;
+            while (this.isRunning() && (key = InputQueue.getInstance().poll()) != null)
+                pressExitKey(key);
         }
-    }
-
 
-    /**
-     *
-     */
-    private final class ThrowBaitAnimation extends ThrowAnimation
-    {
-        private ThrowBaitAnimation ()
+        @Override
+        protected void drawStill ()
         {
-            super(0);
+            drawMessage(wildPokemon.getName()+" was caught!");
         }
 
         @Override
-        public void handle (final long now)
+        protected double getSpriteX ()
         {
-            super.handle(now);
-            if (this.throwComplete)
-                new PokemonEatBaitAnimationA().start();
+            return 800;
         }
 
-    } // final class ThrowBaitAnimation
-
-
-
-    private final class PokemonEatBaitAnimationA extends AnimationTimer
-    {
-        private static final double POKEMON_JUMP_Y = 0.0;
-        private static final int MAX_JUMPS = 6;
-        private static final double JUMP_SPEED = 2.5;
-
-        private double pokemonY = WILD_POKEMON_Y;
-        private boolean jumpingUp = false;
-        private int jumps = 0;
-
         @Override
-        public void handle (long now)
+        protected double getSpriteY ()
         {
-
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, this.pokemonY, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-
-            if (this.pokemonY == WILD_POKEMON_Y)
-                this.jumps++;
-            if (this.pokemonY > WILD_POKEMON_Y)
-                this.jumpingUp = true;
-            else if (this.pokemonY < POKEMON_JUMP_Y)
-                this.jumpingUp = false;
-            if (this.jumpingUp)
-                this.pokemonY -= JUMP_SPEED;
-            else
-                this.pokemonY += JUMP_SPEED;
-
-            if (this.jumps == MAX_JUMPS) {
-                this.stop();
-                new PokemonEatBaitAnimationB().start();
-            }
+            return this.arrowHeight;
         }
-    }
-
-
-    private final class PokemonEatBaitAnimationB extends AnimationTimer
-    {
-        private int frames = 0;
 
         @Override
-        public void handle (long now)
+        protected void drawSprite (final double x, final double y)
         {
-            this.frames++;
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-
-            getPaintBrush().setFont(BIG_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText(wildPokemon.getName()+" ate the bait", 40, 600);
-
-            if (this.frames == 100) {
-                wildPokemon.setRunLikelihood(wildPokemon.getRunLikelihood() - RUN_LIKELIHOOD_CHANGE);
-                this.stop();
-                determineTurnResult();
-            }
+            getHudBrush().drawImage(battleBoxImage, 120, 0, 32, 32, x, y, 32, 32);
         }
     }
 
 
-    /**
-     *
-     */
-    private final class ThrowRockAnimation extends ThrowAnimation
+    private final class ExitSuccessAnimation extends GameAnimation
     {
-        private ThrowRockAnimation ()
-        {
-            super(40);
-        }
+        private double screenBrightness;
 
         @Override
-        public void handle (final long now)
+        public void start ()
         {
-            super.handle(now);
-            if (this.throwComplete) {
-                SfxPlayer.getInstance().play(SfxLibrary.Rock.name());
-                new PokemonHitByRockAnimation().start();
-            }
+            this.screenBrightness = 0.0;
+            drawMessage(wildPokemon.getName()+" was caught!");
+            super.start();
         }
 
-    } // final class ThrowRockAnimation
-
-
-
-    private final class PokemonHitByRockAnimation extends AnimationTimer
-    {
-        private int frames = 0;
-
-
         @Override
-        public void handle (long now)
+        public void handle (final long now)
         {
-            this.frames++;
-
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, PLAYER_X, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
-
-            if (this.frames >= 10 && this.frames < 30)
-                getPaintBrush().drawImage(battleBoxImage, 200, 0, 32, 32, 550, 150, 32*2, 32*2);
-            else if (this.frames >= 30 && this.frames < 50)
-                getPaintBrush().drawImage(battleBoxImage, 200, 0, 32, 32, 700, 150, 32*2, 32*2);
-            else if (this.frames >= 50 && this.frames < 150)
+            if (this.screenBrightness > -1.0)
             {
-                getPaintBrush().setFont(BIG_FONT);
-                getPaintBrush().setFill(Color.WHITE);
-                getPaintBrush().fillText(wildPokemon.getName()+" is angry", 40, 600);
+                this.screenBrightness -= 0.02;
+                setScreenBrightness(Math.max(this.screenBrightness, -1.0));
             }
-            else if (this.frames == 150)
-            {
-                wildPokemon.setCatchLikelihood(wildPokemon.getCatchLikelihood()+CATCH_LIKELIHOOD_CHANGE);
-                wildPokemon.setRunLikelihood(wildPokemon.getRunLikelihood()+RUN_LIKELIHOOD_CHANGE);
+            else {
+                ////////////////////////////////////////////////////////////////////////////////////////////////
+                // EXIT BATTLE HERE AFTER CATCHING
+                ////////////////////////////////////////////////////////////////////////////////////////////////
                 this.stop();
-                determineTurnResult();
+                PokemonSafari.goToPreviousScene();
             }
         }
     }
@@ -1196,34 +1184,38 @@ public final class BattleScene extends GameScene
     /**
      *
      */
-    private final class RunAnimation extends AnimationTimer
+    private final class RunAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
+        private int frame;
+        private double playerX;
+        private double screenBrightness;
 
-        private int frame = 0;
-        private double playerX = PLAYER_X;
-        private double screenBrightness = DEFAULT_BRIGHTNESS;
+        @Override
+        public void start ()
+        {
+            this.frame = 0;
+            this.playerX = PLAYER_X;
+            this.screenBrightness = DEFAULT_BRIGHTNESS;
+            super.start();
+        }
 
         @Override
         public void handle (final long now)
         {
             frame++;
-            getPaintBrush().setEffect(this.colorAdjust);
+            if (frame == 1)
+                drawMessage("Got away safely!");
 
-            getPaintBrush().drawImage(backgroundImage, 0, 0, getWidth(), getHeight());
-            getPaintBrush().drawImage(pokemonImage, wildPokemonSourceX, wildPokemonSourceY, SRC_WILD_POKEMON_IMAGE_SIZE, SRC_WILD_POKEMON_IMAGE_SIZE, WILD_POKEMON_X, WILD_POKEMON_Y, DEST_WILD_POKEMON_IMAGE_SIZE, DEST_WILD_POKEMON_IMAGE_SIZE);
+            clearLayer(getSpriteBrush());
+            drawWildPokemon();
 
             if (this.playerX > -220.0)
                 this.playerX -= 10;
-            getPaintBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, this.playerX, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
-
-            getPaintBrush().setFont(BIG_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText("Got away safely!", 40, 600);
+            getSpriteBrush().drawImage(playerImage, 0, 0, SRC_PLAYER_IMAGE_SIZE, SRC_PLAYER_IMAGE_SIZE, this.playerX, PLAYER_Y, DEST_PLAYER_IMAGE_SIZE, DEST_PLAYER_IMAGE_SIZE);
 
             if (this.frame > 100) {
                 this.screenBrightness -= 0.02;
-                this.colorAdjust.setBrightness(this.screenBrightness);
+                setScreenBrightness(Math.max(this.screenBrightness, -1.0));
 
             }
             if (this.screenBrightness < -1.5) {
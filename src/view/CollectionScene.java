@@ -4,21 +4,30 @@ import controller.PokemonSafari;
 import controller.audio.CryPlayer;
 import controller.audio.SfxLibrary;
 import controller.audio.SfxPlayer;
-import javafx.animation.AnimationTimer;
-import javafx.event.EventHandler;
-import javafx.scene.effect.ColorAdjust;
+import controller.input.InputQueue;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.image.Image;
-import javafx.scene.input.KeyEvent;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
+import model.player.CollectionView;
+import model.player.PokemonCollection;
+import model.player.SortOrder;
 import model.pokemon.Pokemon;
 import model.pokemon.PokemonFactory;
 import model.pokemon.Rarity;
+import view.render.CanvasRenderer;
+import view.render.DrawCommandBuffer;
+import view.render.HeadlessRenderer;
+import view.render.ImageLoader;
+import view.render.Renderer;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * CollectionScene.java
@@ -40,47 +49,114 @@ public class CollectionScene extends GameScene
     private static final double BLACK_SCREEN_BRIGHTNESS = -1.0;
 
     private static final double MAX_BAR_HEIGHT = 416.0;
+    private static final double MIN_BAR_HEIGHT = 24.0;
+    private static final double BAR_Y = 182.0;
+
+    private static final double LIST_X = 80.0;
+    private static final double LIST_Y = 140.0;
+    private static final double LIST_WIDTH = 250.0;
+    private static final double LIST_HEIGHT = 500.0;
+    private static final double ROW_HEIGHT = 100.0;
+    private static final int VISIBLE_ROWS = 5;
+    private static final int ROW_MARGIN = 2;                       // room for the row border outside the row
+    private static final int MAX_CACHED_ROWS = VISIBLE_ROWS * 6;
+
+    private static final double SCROLL_EASING = 0.3;               // fraction of the distance covered per frame
+    private static final double SCROLL_SNAP_DISTANCE = 0.5;
+    private static final int KEY_REPEAT_DELAY = 30;                // frames a direction key is held before it repeats
+    private static final int KEY_REPEAT_INTERVAL = 4;              // frames between repeats
 
     private Image pokemonImage;
     private Image collectionImage;
     private Image smallPokemonImage;
 
-    private List<Pokemon> caughtList;
+    private DrawCommandBuffer commands;
+    private RowCache rowCache;
+    private ScrollAnimation scrollAnimation;
+    private ControlsAnimation controlsAnimation;
+    private boolean controlsEnabled;
+
+    private PokemonCollection pokemonCaught;
+    private CollectionView caughtList;
     private int selectedPokemon;
+    private int drawnDetailEntry;
 
-    private double barHeightPercent;
     private double barHeight;
 
     private int topPokemon;
-    private int cursorPosition;
+    private double scrollOffset;
 
 
     /**
+     * CollectionScene (PokemonCollection)
      *
+     * Purpose: Initializes the CollectionScene showing the given collection.
      */
-    public CollectionScene (final List<Pokemon> caughtList)
+    public CollectionScene (final PokemonCollection pokemonCaught)
     {
-        super();
-        this.caughtList = caughtList;
+        this(pokemonCaught, new Assets());
+    } // CollectionScene (PokemonCollection)
 
-        this.barHeightPercent = this.caughtList.size() <= 5 ? 1.0 : 5.0 / this.caughtList.size();
-        this.barHeight = MAX_BAR_HEIGHT * this.barHeightPercent;
+
+    /**
+     * CollectionScene (PokemonCollection, Assets)
+     *
+     * Purpose: Initializes the CollectionScene with images that were already
+     *      loaded. The collection is indexed here, so this must be called on
+     *      the JavaFX application thread.
+     */
+    public CollectionScene (final PokemonCollection pokemonCaught, final Assets assets)
+    {
+        super();
+        this.pokemonCaught = pokemonCaught;
+        this.caughtList = pokemonCaught.view(SortOrder.CatchTime);
+        this.updateBarHeight();
 
         this.selectedPokemon = 0;
+        this.drawnDetailEntry = -1;
         this.topPokemon = 0;
-        this.cursorPosition = 0;
+        this.scrollOffset = 0.0;
+        this.commands = new DrawCommandBuffer(getTextCache());
+        this.rowCache = new RowCache();
+        this.scrollAnimation = new ScrollAnimation();
+        this.controlsAnimation = new ControlsAnimation();
 
-        getPaintBrush().setLineWidth(3);
-        getPaintBrush().setStroke(Color.BLACK);
+        this.pokemonImage = assets.pokemonImage;
+        this.collectionImage = assets.collectionImage;
+        this.smallPokemonImage = assets.smallPokemonImage;
+    } // CollectionScene (PokemonCollection, Assets)
 
-        try {
-            this.pokemonImage = new Image(new FileInputStream(POKEMON_IMAGE_FILENAME));
-            this.collectionImage = new Image(new FileInputStream(COLLECTION_IMAGE_FILENAME));
-            this.smallPokemonImage = new Image(new FileInputStream(SMALL_POKEMON_IMAGE_FILENAME));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
+
+    /**
+     * Assets
+     *
+     * Purpose: The images of a CollectionScene. They are not nodes, so a
+     *      SceneLoader can load them off the JavaFX application thread.
+     */
+    public static final class Assets
+    {
+        private Image pokemonImage;
+        private Image collectionImage;
+        private Image smallPokemonImage;
+
+
+        /**
+         * Assets ()
+         *
+         * Purpose: Decodes the images.
+         */
+        public Assets ()
+        {
+            try {
+                this.pokemonImage = ImageLoader.load(POKEMON_IMAGE_FILENAME);
+                this.collectionImage = ImageLoader.load(COLLECTION_IMAGE_FILENAME);
+                this.smallPokemonImage = ImageLoader.load(SMALL_POKEMON_IMAGE_FILENAME);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } // Assets ()
+
+    } // final class Assets
 
 
     /**
@@ -89,26 +165,40 @@ public class CollectionScene extends GameScene
     @Override
     public void start()
     {
+        drawFrame();
         new TransitionInAnimation().start();
     }
 
 
     /**
+     * onDispose()
      *
+     * Purpose: Drops the images, cached rows and the collection.
      */
     @Override
-    public void restart () { /* Nothing */ }
-
-
-    private final class TransitionInAnimation extends AnimationTimer
+    protected void onDispose ()
+    {
+        this.pokemonImage = null;
+        this.collectionImage = null;
+        this.smallPokemonImage = null;
+        this.commands = null;
+        this.rowCache = null;
+        this.scrollAnimation = null;
+        this.controlsAnimation = null;
+        this.controlsEnabled = false;
+        this.pokemonCaught = null;
+        this.caughtList = null;
+    } // onDispose()
+
+
+    private final class TransitionInAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
         private double screenBrightness;
 
         private TransitionInAnimation ()
         {
             this.screenBrightness = BLACK_SCREEN_BRIGHTNESS;
+            setScreenBrightness(this.screenBrightness);
         }
 
 
@@ -117,166 +207,481 @@ public class CollectionScene extends GameScene
         {
             if (this.screenBrightness < DEFAULT_BRIGHTNESS)
             {
-                this.screenBrightness += 0.04;
-                this.colorAdjust.setBrightness(this.screenBrightness);
-                getPaintBrush().setEffect(this.colorAdjust);
+                this.screenBrightness = Math.min(this.screenBrightness + 0.04, DEFAULT_BRIGHTNESS);
+                setScreenBrightness(this.screenBrightness);
             }
             else {
                 this.stop();
                 setupControls();
             }
-
-            drawFrame();
         }
     }
 
 
 
+    /**
+     * setupControls()
+     *
+     * Purpose: Lets the player browse the collection once it has faded in.
+     *      Keys pressed during the fade are dropped.
+     */
     private void setupControls ()
     {
-        this.getScene().setOnKeyPressed(new EventHandler<KeyEvent>() {
-            @Override
-            public void handle(final KeyEvent event) {
-                switch (event.getCode()) {
-                    case W:
-                        if (selectedPokemon != 0) {
-                            if (cursorPosition > 0)
-                                cursorPosition--;
-                            selectedPokemon--;
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                            drawFrame();
-                        }
-                        break;
-                    case S:
-                        if (selectedPokemon < caughtList.size()-1) {
-                            if (cursorPosition < 5)
-                                cursorPosition++;
-                            System.out.println(cursorPosition);
-                            selectedPokemon++;
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                            drawFrame();
-                        }
-                        break;
-                    case SPACE:
-                        if (!caughtList.isEmpty())
-                            CryPlayer.getInstance().play(caughtList.get(selectedPokemon).getName());
-                        break;
-                    case Z:
-                        getScene().setOnKeyPressed(null);
-                        SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                        new TransitionOutAnimation().start();
-                        break;
-                }
+        InputQueue.getInstance().clear();
+        this.controlsEnabled = true;
+    } // setupControls()
+
+
+    /**
+     * onWake()
+     *
+     * Purpose: Polls the keyboard on the next frame when a key is pressed
+     *      while the player browses the collection.
+     */
+    @Override
+    protected void onWake ()
+    {
+        if (this.controlsEnabled)
+            this.controlsAnimation.start();
+    } // onWake()
+
+
+    /**
+     * ControlsAnimation
+     *
+     * Purpose: Handles the keys pressed since the last frame, in order. While
+     *      the last direction key pressed is held down it is repeated, so the
+     *      list keeps moving. Otherwise it stops until the next key press.
+     */
+    private final class ControlsAnimation extends GameAnimation
+    {
+        private KeyCode heldKey;
+        private int heldFrames;
+
+        @Override
+        public void handle (final long now)
+        {
+            final InputQueue input = InputQueue.getInstance();
+            KeyCode key;
+            while (controlsEnabled && (key = input.poll()) != null)
+            {
+                pressKey(key);
+                this.heldKey = key;
+                this.heldFrames = 0;
             }
-        });
+            if (!controlsEnabled || this.heldKey == null || !isDirectionKey(this.heldKey) || !input.isDown(this.heldKey))
+            {
+                this.heldKey = null;
+                this.stop();
+                return;
+            }
+            this.heldFrames++;
+            if (this.heldFrames >= KEY_REPEAT_DELAY && (this.heldFrames - KEY_REPEAT_DELAY) % KEY_REPEAT_INTERVAL == 0)
+                pressKey(this.heldKey);
+        }
+
+        @Override
+        protected boolean isWaiting ()
+        {
+            return true;
+        }
+    } // final class ControlsAnimation
+
+
+    private static boolean isDirectionKey (final KeyCode key)
+    {
+        return key == KeyCode.W || key == KeyCode.A || key == KeyCode.S || key == KeyCode.D;
     }
 
 
+    /**
+     * pressKey()
+     *
+     * Purpose: Handles a key pressed while the player browses the collection.
+     */
+    private void pressKey (final KeyCode key)
+    {
+        switch (key) {
+            case W:
+                select(selectedPokemon - 1);
+                break;
+            case S:
+                select(selectedPokemon + 1);
+                break;
+            case A:
+                select(selectedPokemon - VISIBLE_ROWS);
+                break;
+            case D:
+                select(selectedPokemon + VISIBLE_ROWS);
+                break;
+            case E:
+                setView(caughtList.sortedBy(nextSortOrder(caughtList.getSortOrder())));
+                break;
+            case Q:
+                setView(caughtList.withRarity(nextRarity(caughtList.getRarity())));
+                break;
+            case F:
+                if (caughtList.getSpeciesID() != CollectionView.ANY_SPECIES)
+                    setView(caughtList.withSpecies(CollectionView.ANY_SPECIES));
+                else if (!caughtList.isEmpty())
+                    setView(caughtList.withSpecies(pokemonCaught.getSpeciesID(caughtList.getEntry(selectedPokemon))));
+                break;
+            case SPACE:
+                if (!caughtList.isEmpty())
+                    CryPlayer.getInstance().play(pokemonCaught.getName(caughtList.getEntry(selectedPokemon)));
+                break;
+            case Z:
+                controlsEnabled = false;
+                SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                new TransitionOutAnimation().start();
+                break;
+        }
+    } // pressKey()
 
 
+    /**
+     * select()
+     *
+     * Purpose: Moves the selection to the given Pokemon, clamped to the list,
+     *      and scrolls just far enough to keep it in view.
+     */
+    private void select (final int pokemon)
+    {
+        final int selection = Math.max(0, Math.min(pokemon, caughtList.size()-1));
+        if (caughtList.isEmpty() || selection == selectedPokemon)
+            return;
 
-    private void drawFrame ()
+        selectedPokemon = selection;
+        if (selectedPokemon < topPokemon)
+            topPokemon = selectedPokemon;
+        else if (selectedPokemon >= topPokemon + VISIBLE_ROWS)
+            topPokemon = selectedPokemon - VISIBLE_ROWS + 1;
+
+        SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+        if (scrollOffset != topPokemon * ROW_HEIGHT)
+            scrollAnimation.start();
+        drawList();
+        drawDetail();
+    } // select()
+
+
+    /**
+     * setView()
+     *
+     * Purpose: Shows a differently filtered or sorted view of the collection.
+     *      The selected Pokemon stays selected if the new view shows it.
+     */
+    private void setView (final CollectionView view)
+    {
+        final int selected = caughtList.isEmpty() ? -1 : caughtList.getEntry(selectedPokemon);
+        caughtList = view;
+        updateBarHeight();
+
+        final int position = caughtList.indexOfEntry(selected);
+        selectedPokemon = Math.max(position, 0);
+        topPokemon = Math.max(0, Math.min(selectedPokemon - VISIBLE_ROWS/2, caughtList.size() - VISIBLE_ROWS));
+        scrollOffset = topPokemon * ROW_HEIGHT;
+        scrollAnimation.stop();
+
+        SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+        drawFrame();
+    } // setView()
+
+
+    private void updateBarHeight ()
     {
-        getPaintBrush().setFill(Color.DARKBLUE);
-        getPaintBrush().fillRect(0,0, PokemonSafari.getWindowWidth(), PokemonSafari.getWindowHeight());
-
-        getPaintBrush().setFill(Color.WHITE);
-        getPaintBrush().setFont(BIG_FONT);
-        getPaintBrush().setTextAlign(TextAlignment.CENTER);
-        getPaintBrush().fillText("Collection", PokemonSafari.getWindowWidth()/2, 80);
-        getPaintBrush().setTextAlign(TextAlignment.LEFT);
-
-        getPaintBrush().strokeRect(80,140, 250, 500);
-        getPaintBrush().setStroke(Color.GRAY);
-        getPaintBrush().strokeRect(333,140, 40, 500);
-        getPaintBrush().setStroke(Color.BLACK);
-        getPaintBrush().setFill(Color.BLACK);
-        getPaintBrush().fillRect(335, 141, 36, 40);
-        getPaintBrush().fillRect(335, 599, 36, 40);
-        getPaintBrush().setFill(Color.SILVER);
-        getPaintBrush().drawImage(collectionImage, 0, 64, 32, 32, 337, 143, 32, 32);
-        getPaintBrush().drawImage(collectionImage, 0, 32, 32, 32, 337, 604, 32, 32);
-
-        getPaintBrush().strokeRect(400, 140, 400, 500);
+        this.barHeight = this.caughtList.size() <= VISIBLE_ROWS ? MAX_BAR_HEIGHT
+                : Math.max(MIN_BAR_HEIGHT, MAX_BAR_HEIGHT * VISIBLE_ROWS / this.caughtList.size());
+    }
+
 
+    private static SortOrder nextSortOrder (final SortOrder order)
+    {
+        return SortOrder.values()[(order.ordinal()+1) % SortOrder.values().length];
+    }
+
+
+    /**
+     * nextRarity()
+     *
+     * Purpose: Cycles the rarity filter through all Pokemon, then each rarity.
+     */
+    private static Rarity nextRarity (final Rarity rarity)
+    {
+        if (rarity == null)
+            return Rarity.values()[0];
+        return rarity.ordinal() == Rarity.values().length-1 ? null : Rarity.values()[rarity.ordinal()+1];
+    } // nextRarity()
+
+
+    /**
+     * drawFrame()
+     *
+     * Purpose: Draws the whole scene. The frame around the list and the detail
+     *      panel is drawn once on the ground layer; after that only the list
+     *      and the detail panel are redrawn, each on its own layer.
+     */
+    private void drawFrame ()
+    {
+        commands.setStroke(Color.BLACK);
+        commands.setLineWidth(3);
+        commands.setFill(Color.DARKBLUE);
+        commands.fillRect(0,0, PokemonSafari.getWindowWidth(), PokemonSafari.getWindowHeight());
+
+        commands.setFill(Color.WHITE);
+        commands.setFont(BIG_FONT);
+        commands.setTextAlign(TextAlignment.CENTER);
+        commands.fillText("Collection", PokemonSafari.getWindowWidth()/2, 80);
+        commands.setTextAlign(TextAlignment.LEFT);
+
+        commands.setFont(SMALL_FONT);
+        commands.fillText("Sort: " + caughtList.getSortOrder()
+                + "   Show: " + (caughtList.getRarity() == null ? "All" : caughtList.getRarity().name())
+                + (caughtList.getSpeciesID() == CollectionView.ANY_SPECIES ? "" : " (species)"), 80, 125);
+        commands.fillText("E/Q/F", 720, 125);
+
+        commands.setStroke(Color.GRAY);
+        commands.strokeRect(333,140, 40, 500);
+        commands.setStroke(Color.BLACK);
+        commands.setFill(Color.BLACK);
+        commands.fillRect(335, 141, 36, 40);
+        commands.fillRect(335, 599, 36, 40);
+        commands.drawImage(collectionImage, 0, 64, 32, 32, 337, 143, 32, 32);
+        commands.drawImage(collectionImage, 0, 32, 32, 32, 337, 604, 32, 32);
+
+        commands.strokeRect(400, 140, 400, 500);
+
+        commands.setFill(Color.SILVER);
         if (caughtList.isEmpty())
         {
-            getPaintBrush().setFont(MEDIUM_FONT);
-            getPaintBrush().setTextAlign(TextAlignment.CENTER);
-            getPaintBrush().fillText("None", 210, 350);
-            getPaintBrush().fillText("Catch Pokemon", 600, 325);
-            getPaintBrush().fillText("to view them here!", 600, 375);
-            getPaintBrush().setTextAlign(TextAlignment.LEFT);
+            commands.setFont(MEDIUM_FONT);
+            commands.setTextAlign(TextAlignment.CENTER);
+            commands.fillText("None", 210, 350);
+            commands.fillText("Catch Pokemon", 600, 325);
+            commands.fillText("to view them here!", 600, 375);
+            commands.setTextAlign(TextAlignment.LEFT);
         }
         else {
-            if (caughtList.size() <= 5)
-                for (int i = 0; i < caughtList.size(); i++)
-                    drawPokemonInfo(i);
-            else
-            {
-                for (int i = 0; i < 5; i++)
-                    drawPokemonInfo(i+topPokemon);
-            }
+            commands.setFill(Color.BLACK);
+            commands.fillRect(635, 660, 100, 40);
+            commands.setFont(SMALL_FONT);
+            commands.setFill(Color.WHITE);
+            commands.fillText("Play Cry", 535, 685);
+            commands.fillText("SPACE", 650, 685);
+        }
 
+        commands.flush(getPaintBrush());
 
-            getPaintBrush().fillRect(335, 182, 36, barHeight);
-
-            getPaintBrush().setFont(MEDIUM_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText(caughtList.get(selectedPokemon).getName(), 470, 190);
-            getPaintBrush().fillText("Lv:", 470, 510);
-            getPaintBrush().fillText(""+caughtList.get(selectedPokemon).getLevel(), 520, 510);
-            getPaintBrush().fillText("HP:", 470, 550);
-            getPaintBrush().fillText(""+caughtList.get(selectedPokemon).getHp(), 530, 550);
-            getPaintBrush().fillText("Rarity:", 470, 590);
-
-            getPaintBrush().setFill(Color.SKYBLUE);
-            getPaintBrush().fillRect(470, 220, 250, 180);
-            getPaintBrush().setFill(Color.GREEN);
-            getPaintBrush().fillRect(470, 400, 250, 70);
-
-            getPaintBrush().strokeRect(470, 220, 250, 250);
-            getPaintBrush().drawImage(pokemonImage, (caughtList.get(selectedPokemon).getID() % 5) * 100, (caughtList.get(selectedPokemon).getID() / 5) * 100,
-                    100, 100, 460, 200, 250, 250);
-
-            final int numStars = caughtList.get(selectedPokemon).getRarity() == Rarity.Common ? 1 : caughtList.get(selectedPokemon).getRarity() == Rarity.Uncommon ? 3 : 5;
-            for (int i = 0; i < numStars; i++)
-                getPaintBrush().drawImage(collectionImage, 0, 0, 32, 32, 580+(40*i), 562, 32, 32);
-
-            getPaintBrush().setStroke(Color.YELLOW);
-            getPaintBrush().strokeRect(80, 140 + (100 * selectedPokemon), 250, 100);
-            getPaintBrush().setStroke(Color.BLACK);
-
-            getPaintBrush().setFill(Color.BLACK);
-            getPaintBrush().fillRect(635, 660, 100, 40);
-            getPaintBrush().setFont(SMALL_FONT);
-            getPaintBrush().setFill(Color.WHITE);
-            getPaintBrush().fillText("Play Cry", 535, 685);
-            getPaintBrush().fillText("SPACE", 650, 685);
-        }
+        drawList();
+        drawDetail();
     }
 
 
+    /**
+     * drawList()
+     *
+     * Purpose: Draws the rows that are visible at the current scroll offset,
+     *      the selection and the scroll bar onto the sprite layer. Rows are
+     *      blitted from the row cache, so the cost does not depend on the
+     *      size of the collection.
+     */
+    private void drawList ()
+    {
+        final Renderer brush = getSpriteBrush();
+        clearLayer(brush);
+
+        brush.save();
+        brush.clipRect(LIST_X - ROW_MARGIN, LIST_Y - ROW_MARGIN, LIST_WIDTH + 2*ROW_MARGIN, LIST_HEIGHT + 2*ROW_MARGIN);
+
+        final int firstRow = (int)(scrollOffset / ROW_HEIGHT);
+        final int lastRow = Math.min(caughtList.size()-1, (int)Math.ceil((scrollOffset + LIST_HEIGHT) / ROW_HEIGHT));
+        for (int row = firstRow; row <= lastRow; row++)
+            brush.drawImage(rowCache.getRow(caughtList.getEntry(row)), LIST_X - ROW_MARGIN, rowY(row) - ROW_MARGIN);
+
+        if (!caughtList.isEmpty())
+        {
+            brush.setLineWidth(3);
+            brush.setStroke(Color.YELLOW);
+            brush.strokeRect(LIST_X, rowY(selectedPokemon), LIST_WIDTH, ROW_HEIGHT);
+        }
+        brush.restore();
+
+        brush.setLineWidth(3);
+        brush.setStroke(Color.BLACK);
+        brush.strokeRect(LIST_X, LIST_Y, LIST_WIDTH, LIST_HEIGHT);
+
+        final double maxOffset = Math.max(0, caughtList.size() - VISIBLE_ROWS) * ROW_HEIGHT;
+        final double barY = maxOffset == 0 ? BAR_Y : BAR_Y + (MAX_BAR_HEIGHT - barHeight) * scrollOffset / maxOffset;
+        if (!caughtList.isEmpty())
+        {
+            brush.setFill(Color.SILVER);
+            brush.fillRect(335, barY, 36, barHeight);
+        }
+    } // drawList()
 
-    private void drawPokemonInfo (final int id)
+
+    private double rowY (final int row)
     {
-        getPaintBrush().strokeRect(80, 140 + (100 * id), 250, 100);
-        getPaintBrush().setFont(MEDIUM_FONT);
-        getPaintBrush().fillText(caughtList.get(id).getName(), 100, 175 + (100 * id));
-        getPaintBrush().setFont(SMALL_FONT);
-        getPaintBrush().fillText("Lv:", 100, 210 + (100 * id));
-        getPaintBrush().fillText("" + caughtList.get(id).getLevel(), 140, 210 + (100 * id));
-        getPaintBrush().drawImage(smallPokemonImage,
-                (caughtList.get(id).getID()%5)*50, (caughtList.get(id).getID()/5)*50, 50, 50,
-                250, 160 + (100 * id), 80, 80);
+        return LIST_Y + row * ROW_HEIGHT - scrollOffset;
     }
 
 
+    /**
+     * drawDetail()
+     *
+     * Purpose: Draws the detail panel of the selected Pokemon onto the HUD
+     *      layer. Nothing is drawn if the selection has not changed since the
+     *      panel was last drawn.
+     */
+    private void drawDetail ()
+    {
+        if (caughtList.isEmpty())
+        {
+            drawnDetailEntry = -1;
+            clearLayer(getHudBrush());
+            return;
+        }
+        final int entry = caughtList.getEntry(selectedPokemon);
+        if (drawnDetailEntry == entry)
+            return;
+        drawnDetailEntry = entry;
+        final Pokemon pokemon = pokemonCaught.get(entry);
+
+        clearLayer(getHudBrush());
+        commands.setStroke(Color.BLACK);
+        commands.setLineWidth(3);
+        commands.setFont(MEDIUM_FONT);
+        commands.setFill(Color.WHITE);
+        commands.fillText(pokemon.getName(), 470, 190);
+        commands.fillText("Lv:", 470, 510);
+        commands.fillText(""+pokemon.getLevel(), 520, 510);
+        commands.fillText("HP:", 470, 550);
+        commands.fillText(""+pokemon.getHp(), 530, 550);
+        commands.fillText("Rarity:", 470, 590);
+
+        commands.setFill(Color.SKYBLUE);
+        commands.fillRect(470, 220, 250, 180);
+        commands.setFill(Color.GREEN);
+        commands.fillRect(470, 400, 250, 70);
+
+        commands.strokeRect(470, 220, 250, 250);
+        commands.drawImage(pokemonImage, (pokemon.getID() % 5) * 100, (pokemon.getID() / 5) * 100,
+                100, 100, 460, 200, 250, 250);
+
+        final int numStars = pokemon.getRarity() == Rarity.Common ? 1 : pokemon.getRarity() == Rarity.Uncommon ? 3 : 5;
+        for (int i = 0; i < numStars; i++)
+            commands.drawImage(collectionImage, 0, 0, 32, 32, 580+(40*i), 562, 32, 32);
+
+        commands.flush(getHudBrush());
+    } // drawDetail()
+
+
 
-    private final class TransitionOutAnimation extends AnimationTimer
+    /**
+     * ScrollAnimation
+     *
+     * Purpose: Eases the list from its current scroll offset to the offset of
+     *      the top row, redrawing only the list while it moves.
+     */
+    private final class ScrollAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
+        @Override
+        public void handle (final long now)
+        {
+            final double target = topPokemon * ROW_HEIGHT;
+            final double distance = target - scrollOffset;
+            if (Math.abs(distance) <= SCROLL_SNAP_DISTANCE)
+            {
+                scrollOffset = target;
+                this.stop();
+            }
+            else
+                scrollOffset += distance * SCROLL_EASING;
 
+            drawList();
+        }
+
+    } // final class ScrollAnimation
+
+
+
+    /**
+     * RowCache
+     *
+     * Purpose: Keeps the rendered image of recently shown list rows. A row is
+     *      drawn on an off-screen canvas and snapshotted the first time it
+     *      scrolls into view; the least recently shown rows are dropped once
+     *      the cache is full. A headless scene draws rows without a canvas
+     *      and keeps no image of them, so only their draw calls are counted.
+     */
+    private final class RowCache
+    {
+        private final Canvas rowCanvas;
+        private final Renderer rowBrush;
+        private final SnapshotParameters snapshotParameters;
+        private final LinkedHashMap<Integer, WritableImage> rows;
+
+        private RowCache ()
+        {
+            if (isHeadless())
+            {
+                this.rowCanvas = null;
+                this.rowBrush = new HeadlessRenderer((int)LIST_WIDTH + 2*ROW_MARGIN, (int)ROW_HEIGHT + 2*ROW_MARGIN, false);
+            }
+            else {
+                this.rowCanvas = new Canvas(LIST_WIDTH + 2*ROW_MARGIN, ROW_HEIGHT + 2*ROW_MARGIN);
+                this.rowBrush = new CanvasRenderer(this.rowCanvas);
+            }
+            this.snapshotParameters = new SnapshotParameters();
+            this.snapshotParameters.setFill(Color.TRANSPARENT);
+            this.rows = new LinkedHashMap<Integer, WritableImage>(MAX_CACHED_ROWS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry (final Map.Entry<Integer, WritableImage> eldest)
+                {
+                    return this.size() > MAX_CACHED_ROWS;
+                }
+            };
+        }
+
+
+        private WritableImage getRow (final int entry)
+        {
+            if (this.rows.containsKey(entry))
+                return this.rows.get(entry);
+            final WritableImage row = this.render(entry);
+            this.rows.put(entry, row);
+            return row;
+        }
+
+
+        private WritableImage render (final int entry)
+        {
+            final int speciesID = pokemonCaught.getSpeciesID(entry);
+            final Renderer brush = this.rowBrush;
+            brush.clearRect(0, 0, brush.getWidth(), brush.getHeight());
+            brush.setLineWidth(3);
+            brush.setStroke(Color.BLACK);
+            brush.strokeRect(ROW_MARGIN, ROW_MARGIN, LIST_WIDTH, ROW_HEIGHT);
+            brush.setFill(Color.SILVER);
+            brush.setTextAlign(TextAlignment.LEFT);
+            brush.setFont(MEDIUM_FONT);
+            brush.fillText(pokemonCaught.getName(entry), ROW_MARGIN + 20, ROW_MARGIN + 35);
+            brush.setFont(SMALL_FONT);
+            brush.fillText("Lv:", ROW_MARGIN + 20, ROW_MARGIN + 70);
+            brush.fillText("" + pokemonCaught.getLevel(entry), ROW_MARGIN + 60, ROW_MARGIN + 70);
+            brush.drawImage(smallPokemonImage,
+                    (speciesID%5)*50, (speciesID/5)*50, 50, 50,
+                    ROW_MARGIN + 170, ROW_MARGIN + 20, 80, 80);
+
+            return this.rowCanvas == null ? null : this.rowCanvas.snapshot(this.snapshotParameters, null);
+        }
+
+    } // final class RowCache
+
+
+
+    private final class TransitionOutAnimation extends GameAnimation
+    {
         private double screenBrightness;
 
         private TransitionOutAnimation ()
@@ -290,18 +695,16 @@ public class CollectionScene extends GameScene
         {
             if (this.screenBrightness > BLACK_SCREEN_BRIGHTNESS)
             {
-                this.screenBrightness -= 0.04;
-                this.colorAdjust.setBrightness(this.screenBrightness);
-                getPaintBrush().setEffect(this.colorAdjust);
+                this.screenBrightness = Math.max(this.screenBrightness - 0.04, BLACK_SCREEN_BRIGHTNESS);
+                setScreenBrightness(this.screenBrightness);
             }
             else {
                 this.stop();
+                scrollAnimation.stop();
                 PokemonSafari.goToPreviousScene();
             }
-
-            drawFrame();
         }
     }
 
 
-}
+}
\ No newline at end of file
@@ -1,6 +1,6 @@
 package view;
 
-import javafx.animation.AnimationTimer;
+import controller.PokemonSafari;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
@@ -29,16 +29,12 @@ public final class EndGameScene extends GameScene
     } // start()
 
 
-    @Override
-    public void restart() { /* Nothing */ }
-
-
     /**
      * EndGameCloseTimer
      *
      * Purpose: Animation timer to close the game.
      */
-    private final class EndGameCloseTimer extends AnimationTimer
+    private final class EndGameCloseTimer extends GameAnimation
     {
         private int frames;
 
@@ -53,10 +49,11 @@ public final class EndGameScene extends GameScene
         public void handle (final long now)
         {
             this.frames++;
-            drawFrame();
+            if (this.frames == 1)
+                drawFrame();  // The message never changes, so it is only drawn once
             if (this.frames == 300) {
                 this.stop();
-                System.exit(0);  // Exit with SUCCESS
+                PokemonSafari.exitGame();
             }
         }
     } // final class EndGameCloseTimer
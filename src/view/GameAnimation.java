@@ -0,0 +1,89 @@
+package view;
+
+/**
+ * GameAnimation.java
+ *
+ * Purpose: An animation of a scene that is advanced once per frame by the
+ *      GameLoop. It is used like a JavaFX AnimationTimer, but the time given
+ *      to handle() is game time, which advances by exactly one frame per
+ *      call, so animations play the same whether the game runs in real time
+ *      or is replayed faster.
+ */
+public abstract class GameAnimation
+{
+    private boolean running;
+    private GameScene scene;
+
+
+    /**
+     * start()
+     *
+     * Purpose: Starts the animation. It is first handled on the next frame.
+     *      The animation belongs to the scene that is active when it is first
+     *      started, and is stopped when that scene is suspended or disposed.
+     */
+    public void start ()
+    {
+        if (this.scene == null)
+            this.scene = GameLoop.getInstance().getActiveScene();
+        this.running = true;
+        GameLoop.getInstance().add(this);
+    } // start()
+
+
+    /**
+     * stop()
+     *
+     * Purpose: Stops the animation. It is not handled again until restarted.
+     */
+    public void stop ()
+    {
+        this.running = false;
+    } // stop()
+
+
+    /**
+     * isRunning()
+     *
+     * Purpose: Returns whether the animation is started.
+     */
+    public boolean isRunning ()
+    {
+        return this.running;
+    } // isRunning()
+
+
+    /**
+     * isWaiting()
+     *
+     * Purpose: Returns whether the animation only waits for the player, such
+     *      as a bobbing arrow, so that the game stops skipping ahead at the
+     *      Instant time scale.
+     */
+    protected boolean isWaiting ()
+    {
+        return false;
+    } // isWaiting()
+
+
+    /**
+     * getGameScene()
+     *
+     * Purpose: Returns the scene the animation belongs to, or null if it was
+     *      started before the first scene.
+     */
+    GameScene getGameScene ()
+    {
+        return this.scene;
+    } // getGameScene()
+
+
+    /**
+     * handle()
+     *
+     * Purpose: Advances the animation by one frame. The given time is the
+     *      game time of the frame, in nanoseconds.
+     */
+    public abstract void handle (long now);
+
+} // abstract class GameAnimation
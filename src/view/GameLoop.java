@@ -0,0 +1,432 @@
+package view;
+
+import controller.audio.AudioCommandQueue;
+import javafx.animation.AnimationTimer;
+import view.perf.FrameStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GameLoop.java
+ *
+ * Purpose: Singleton that advances every running GameAnimation, one frame at
+ *      a time, from a single JavaFX pulse.
+ *
+ *      Game time is counted in frames of a fixed length rather than read from
+ *      the wall clock. Normally one frame is run per pulse. A frame source,
+ *      such as a session replay, is told before each frame so it can feed
+ *      input at the exact frame it was recorded on, and frames can also be
+ *      run back to back to replay a session faster than real time. Every
+ *      pulse is measured by FrameStats, and ends the frame in which the
+ *      AudioCommandQueue coalesces identical sounds.
+ *
+ *      The TimeScale plays the game faster by running several frames per
+ *      pulse, so that every animation is sped up by the same game logic. At
+ *      Instant, frames are run until every running animation is waiting for
+ *      the player.
+ *
+ *      When no animation is left running, such as when the idle animations
+ *      of a scene have parked, the pulse is stopped and game time stands
+ *      still, so an idle game costs nothing. Starting or resuming an
+ *      animation starts the pulse again. It keeps running while a frame
+ *      listener is set, since a replay feeds input on frames of its own.
+ *
+ *      The JavaFX pulse is only created when the first animation starts.
+ *      With a manual pulse, the loop never touches the JavaFX toolkit and
+ *      pulses are run by calling runPulse() instead, such as to replay a
+ *      session headless as fast as the machine allows.
+ */
+public final class GameLoop
+{
+    public static final long FRAME_NANOS = 1_000_000_000L / 60;
+    private static final int INSTANT_FRAMES_PER_PULSE = 600;    // ten seconds of game time
+
+    private static GameLoop instance = null;
+
+    private final List<GameAnimation> animations;
+
+    private AnimationTimer pulse;
+    private FrameListener frameListener;
+    private GameScene activeScene;
+    private boolean manualPulse;
+    private boolean pulsing;
+    private long frame;
+    private int framesPerPulse;
+    private TimeScale timeScale;
+
+
+    /**
+     * TimeScale
+     *
+     * Purpose: The speeds the game can be played at.
+     */
+    public enum TimeScale
+    {
+        Normal ("1x", 1),
+        Fast ("2x", 2),
+        Faster ("4x", 4),
+        Instant ("instant", INSTANT_FRAMES_PER_PULSE);
+
+
+        private final String label;
+        private final int framesPerPulse;
+
+        TimeScale (final String label, final int framesPerPulse)
+        {
+            this.label = label;
+            this.framesPerPulse = framesPerPulse;
+        }
+
+        /**
+         * getLabel()
+         *
+         * Purpose: Returns the name of the speed, such as 2x.
+         */
+        public String getLabel ()
+        {
+            return this.label;
+        } // getLabel()
+
+        /**
+         * next()
+         *
+         * Purpose: Returns the next faster speed, or Normal after Instant.
+         */
+        public TimeScale next ()
+        {
+            return values()[(this.ordinal() + 1) % values().length];
+        } // next()
+
+        /**
+         * fromLabel()
+         *
+         * Purpose: Returns the speed with the given name.
+         */
+        public static TimeScale fromLabel (final String label)
+        {
+            for (TimeScale scale : values())
+                if (scale.label.equalsIgnoreCase(label))
+                    return scale;
+            throw new IllegalArgumentException("Unknown time scale: " + label);
+        } // fromLabel()
+    } // enum TimeScale
+
+
+    /**
+     * GameLoop ()
+     *
+     * Purpose: Creates the loop. It starts pulsing with the first animation.
+     */
+    private GameLoop ()
+    {
+        this.animations = new ArrayList<>();
+        this.framesPerPulse = 1;
+        this.timeScale = TimeScale.Normal;
+    } // GameLoop ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of GameLoop.
+     */
+    public static GameLoop getInstance ()
+    {
+        if (instance == null)
+            instance = new GameLoop();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * getFrame()
+     *
+     * Purpose: Returns the number of frames run so far.
+     */
+    public long getFrame ()
+    {
+        return this.frame;
+    } // getFrame()
+
+
+    /**
+     * now()
+     *
+     * Purpose: Returns the game time, in nanoseconds.
+     */
+    public long now ()
+    {
+        return this.frame * FRAME_NANOS;
+    } // now()
+
+
+    /**
+     * setFramesPerPulse()
+     *
+     * Purpose: Sets how many frames are run on each JavaFX pulse. More than
+     *      one plays the game faster than real time.
+     */
+    public void setFramesPerPulse (final int frames)
+    {
+        if (frames < 1)
+            throw new IllegalArgumentException("At least one frame must run per pulse: " + frames);
+        this.framesPerPulse = frames;
+    } // setFramesPerPulse()
+
+
+    /**
+     * setTimeScale()
+     *
+     * Purpose: Sets the speed the game is played at.
+     */
+    public void setTimeScale (final TimeScale scale)
+    {
+        this.timeScale = scale;
+        this.framesPerPulse = scale.framesPerPulse;
+    } // setTimeScale()
+
+
+    /**
+     * getTimeScale()
+     *
+     * Purpose: Returns the speed the game is played at.
+     */
+    public TimeScale getTimeScale ()
+    {
+        return this.timeScale;
+    } // getTimeScale()
+
+
+    /**
+     * setFrameListener()
+     *
+     * Purpose: Sets the listener told before each frame, or clears it when
+     *      null is given.
+     */
+    public void setFrameListener (final FrameListener listener)
+    {
+        this.frameListener = listener;
+        if (listener != null)
+            this.startPulse();
+    } // setFrameListener()
+
+
+    /**
+     * setManualPulse()
+     *
+     * Purpose: Sets whether pulses are run by calling runPulse() instead of
+     *      on the JavaFX pulse, which needs the JavaFX toolkit. Must be set
+     *      before the first animation is started.
+     */
+    public void setManualPulse (final boolean manual)
+    {
+        if (this.pulse != null)
+            throw new IllegalStateException("The JavaFX pulse has already started");
+        this.manualPulse = manual;
+    } // setManualPulse()
+
+
+    /**
+     * runPulse()
+     *
+     * Purpose: Runs one pulse now, for a loop with a manual pulse.
+     */
+    public void runPulse ()
+    {
+        if (!this.manualPulse)
+            throw new IllegalStateException("Pulses are run by JavaFX");
+        this.handlePulse(System.nanoTime());
+    } // runPulse()
+
+
+    /**
+     * isPulsing()
+     *
+     * Purpose: Returns whether the loop is running frames on its pulse,
+     *      which it stops doing while no animation is running.
+     */
+    public boolean isPulsing ()
+    {
+        return this.pulsing;
+    } // isPulsing()
+
+
+    /**
+     * setActiveScene()
+     *
+     * Purpose: Sets the scene being shown. Animations started from now on
+     *      belong to it.
+     */
+    public void setActiveScene (final GameScene scene)
+    {
+        this.activeScene = scene;
+    } // setActiveScene()
+
+
+    /**
+     * getActiveScene()
+     *
+     * Purpose: Returns the scene being shown, or null before the first scene.
+     */
+    public GameScene getActiveScene ()
+    {
+        return this.activeScene;
+    } // getActiveScene()
+
+
+    /**
+     * runFrames()
+     *
+     * Purpose: Runs the given number of frames at once, on the JavaFX
+     *      application thread.
+     */
+    public void runFrames (final int frames)
+    {
+        for (int i = 0; i < frames; i++)
+            this.runFrame();
+    } // runFrames()
+
+
+    /**
+     * add()
+     *
+     * Purpose: Adds a started animation to the loop, unless it is already in
+     *      it, and starts the pulse if it was stopped. It is handled from the
+     *      next frame.
+     */
+    void add (final GameAnimation animation)
+    {
+        if (!this.animations.contains(animation))
+            this.animations.add(animation);
+        this.startPulse();
+    } // add()
+
+
+    private void startPulse ()
+    {
+        if (this.pulsing)
+            return;
+        this.pulsing = true;
+        if (this.manualPulse)
+            return;
+        if (this.pulse == null)
+            this.pulse = new AnimationTimer() {
+                @Override
+                public void handle (final long now)
+                {
+                    handlePulse(now);
+                }
+            };
+        this.pulse.start();
+    }
+
+
+    /**
+     * handlePulse()
+     *
+     * Purpose: Runs the frames of one pulse at the given time, measured by
+     *      FrameStats, and stops pulsing once no animation is left running.
+     */
+    private void handlePulse (final long now)
+    {
+        final FrameStats stats = FrameStats.getInstance();
+        stats.beginPulse(now);
+        for (int i = 0; i < this.framesPerPulse; i++)
+        {
+            this.runFrame();
+            if (this.timeScale == TimeScale.Instant && this.isWaiting())
+                break;
+        }
+        stats.endPulse();
+        AudioCommandQueue.getInstance().endFrame();
+        if (this.animations.isEmpty() && this.frameListener == null)
+        {
+            if (this.pulse != null)
+                this.pulse.stop();
+            this.pulsing = false;
+        }
+    } // handlePulse()
+
+
+    /**
+     * stopAnimations()
+     *
+     * Purpose: Stops every running animation of the given scene.
+     */
+    void stopAnimations (final GameScene scene)
+    {
+        for (int i = 0; i < this.animations.size(); i++)
+        {
+            final GameAnimation animation = this.animations.get(i);
+            if (animation.getGameScene() == scene)
+                animation.stop();
+        }
+    } // stopAnimations()
+
+
+    /**
+     * isWaiting()
+     *
+     * Purpose: Returns whether every running animation is waiting for the
+     *      player.
+     */
+    private boolean isWaiting ()
+    {
+        for (int i = 0; i < this.animations.size(); i++)
+        {
+            final GameAnimation animation = this.animations.get(i);
+            if (animation.isRunning() && !animation.isWaiting())
+                return false;
+        }
+        return true;
+    } // isWaiting()
+
+
+    /**
+     * runFrame()
+     *
+     * Purpose: Tells the frame listener, handles every animation that was
+     *      running at the start of the frame and drops stopped animations.
+     */
+    private void runFrame ()
+    {
+        if (this.frameListener != null)
+            this.frameListener.beforeFrame(this.frame);
+        this.frame++;
+
+        final long now = this.now();
+        final int count = this.animations.size();
+        for (int i = 0; i < count; i++)
+        {
+            final GameAnimation animation = this.animations.get(i);
+            if (animation.isRunning())
+                animation.handle(now);
+        }
+        int kept = 0;
+        for (int i = 0; i < this.animations.size(); i++)
+        {
+            final GameAnimation animation = this.animations.get(i);
+            if (animation.isRunning())
+                this.animations.set(kept++, animation);
+        }
+        this.animations.subList(kept, this.animations.size()).clear();
+    } // runFrame()
+
+
+    /**
+     * FrameListener
+     *
+     * Purpose: Told by the GameLoop before each frame is run.
+     */
+    public interface FrameListener
+    {
+        /**
+         * beforeFrame()
+         *
+         * Purpose: Called with the number of frames run so far.
+         */
+        void beforeFrame (long frame);
+    }
+
+} // final class GameLoop
@@ -1,16 +1,56 @@
 package view;
 
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.ColorAdjust;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import view.render.CanvasRenderer;
+import view.render.HeadlessRenderer;
+import view.render.Renderer;
+import view.render.TextCache;
 
 /**
  * GameScene.java
  *
- * Purpose: Represents a scene in the game.
+ * Purpose: Represents a scene in the game. A scene is made of three stacked
+ *      canvases that are repainted independently:
+ *          ground: the backdrop, such as map tiles or the battle background.
+ *          sprite: characters, Pokemon and thrown items.
+ *          HUD:    menus, battle boxes and text.
+ *      Scenes that do not need layers draw everything on the ground layer
+ *      through getPaintBrush().
+ *
+ *      Layers are drawn through a Renderer. Scenes draw on their canvases
+ *      unless another backend is chosen with setBackend() before they are
+ *      created, such as to render scenes without a display. Headless scenes
+ *      have no canvases at all and never snapshot a node, so they can run
+ *      without the JavaFX toolkit.
+ *
+ *      When another scene is opened on top of a scene, it is suspended: its
+ *      animations are stopped and it is hidden so JavaFX stops compositing
+ *      it. It is resumed when it is shown again. A scene that is closed is
+ *      disposed and should let go of everything it holds.
  */
-public abstract class GameScene extends Canvas
+public abstract class GameScene extends Pane
 {
-    protected GraphicsContext paintBrush;
+    private static final double DEFAULT_BRIGHTNESS = 0.0;
+
+    private static Backend backend = Backend.JavaFX;
+    private static boolean windowFocused = true;
+
+    protected Renderer paintBrush;
+
+    private final Canvas groundLayer;
+    private final Canvas spriteLayer;
+    private final Canvas hudLayer;
+    private final Renderer spriteBrush;
+    private final Renderer hudBrush;
+    private final ColorAdjust screenAdjust;
+
+    private WritableImage backdrop;
+    private IdleAnimation parkedAnimation;
 
 
     /**
@@ -20,10 +60,67 @@ public abstract class GameScene extends Canvas
      */
     protected GameScene ()
     {
-        this.paintBrush = this.getGraphicsContext2D();
+        this.groundLayer = backend.createLayer();
+        this.spriteLayer = backend.createLayer();
+        this.hudLayer = backend.createLayer();
+        if (this.hudLayer != null)
+            this.getChildren().addAll(this.groundLayer, this.spriteLayer, this.hudLayer);
+
+        this.screenAdjust = new ColorAdjust();
+        this.paintBrush = backend.create(this.groundLayer);
+        this.spriteBrush = backend.create(this.spriteLayer);
+        this.hudBrush = backend.create(this.hudLayer);
     }
 
 
+    /**
+     * Backend
+     *
+     * Purpose: What the layers of scenes are drawn with.
+     */
+    public enum Backend
+    {
+        JavaFX,             // the JavaFX canvases of the layers
+        Headless,           // a HeadlessRenderer that only counts draw calls
+        HeadlessRaster;     // a HeadlessRenderer that also draws into a buffer
+
+        private Canvas createLayer ()
+        {
+            return this == JavaFX ? new Canvas() : null;
+        }
+
+        private Renderer create (final Canvas layer)
+        {
+            if (this == JavaFX)
+                return new CanvasRenderer(layer);
+            return new HeadlessRenderer(0, 0, this == HeadlessRaster);
+        }
+    } // enum Backend
+
+
+    /**
+     * setBackend()
+     *
+     * Purpose: Sets what the layers of the scenes created afterwards are
+     *      drawn with.
+     */
+    public static void setBackend (final Backend backend)
+    {
+        GameScene.backend = backend;
+    } // setBackend()
+
+
+    /**
+     * getBackend()
+     *
+     * Purpose: Returns what the layers of new scenes are drawn with.
+     */
+    public static Backend getBackend ()
+    {
+        return backend;
+    } // getBackend()
+
+
     /**
      * start()
      *
@@ -33,21 +130,371 @@ public abstract class GameScene extends Canvas
 
 
     /**
-     * restart()
+     * onSuspend()
+     *
+     * Purpose: Called when another scene is opened on top of this one, after
+     *      the animations of this scene have been stopped.
+     */
+    protected void onSuspend () { /* Nothing */ }
+
+
+    /**
+     * onResume()
      *
-     * Purpose: Defines what will happen when this GameScene is restarted.
+     * Purpose: Called when the scene on top of this one is closed and this
+     *      one is shown again.
      */
-    public abstract void restart ();
+    protected void onResume () { /* Nothing */ }
+
+
+    /**
+     * onDispose()
+     *
+     * Purpose: Called when the scene is closed, after its animations have
+     *      been stopped. Scenes should drop their images and game objects.
+     */
+    protected void onDispose () { /* Nothing */ }
+
+
+    /**
+     * onWake()
+     *
+     * Purpose: Called when the player presses a key while the scene is
+     *      shown, for scenes that only poll the keyboard once a key is
+     *      pressed.
+     */
+    protected void onWake () { /* Nothing */ }
+
+
+    /**
+     * isOverlay()
+     *
+     * Purpose: Returns whether the scene below must stay visible when this
+     *      scene is opened, because this scene opens by drawing over it. Such
+     *      a scene hides the scene below once it covers it.
+     */
+    public boolean isOverlay ()
+    {
+        return false;
+    } // isOverlay()
+
+
+    /**
+     * isReusable()
+     *
+     * Purpose: Returns whether the scene is opened again after it is closed.
+     *      Such a scene keeps its layers and backdrop when it is disposed.
+     */
+    public boolean isReusable ()
+    {
+        return false;
+    } // isReusable()
+
+
+    /**
+     * suspend()
+     *
+     * Purpose: Stops the animations of the scene, hides it unless asked to
+     *      keep it visible, and calls onSuspend().
+     */
+    public final void suspend (final boolean hide)
+    {
+        GameLoop.getInstance().stopAnimations(this);
+        this.parkedAnimation = null;
+        if (hide)
+            this.setVisible(false);
+        this.onSuspend();
+    } // suspend()
+
+
+    /**
+     * resume()
+     *
+     * Purpose: Shows the scene again and calls onResume().
+     */
+    public final void resume ()
+    {
+        this.setVisible(true);
+        this.onResume();
+    } // resume()
+
+
+    /**
+     * dispose()
+     *
+     * Purpose: Stops the animations of the scene, calls onDispose() and frees
+     *      the memory of its layers, unless the scene is reusable.
+     */
+    public final void dispose ()
+    {
+        GameLoop.getInstance().stopAnimations(this);
+        this.parkedAnimation = null;
+        this.onDispose();
+        if (this.isReusable())
+            return;
+        this.backdrop = null;
+        this.setEffect(null);
+        this.resizeLayers(0, 0);
+    } // dispose()
+
+
+    /**
+     * setSize()
+     *
+     * Purpose: Sets the size of the scene and of all of its layers.
+     */
+    public void setSize (final double width, final double height)
+    {
+        this.setPrefSize(width, height);
+        this.resize(width, height);
+        this.resizeLayers(width, height);
+    } // setSize()
+
+
+    /**
+     * setGroundSize()
+     *
+     * Purpose: Sizes the ground layer apart from the rest of the scene, for
+     *      scenes whose ground is larger than the screen.
+     */
+    protected void setGroundSize (final double width, final double height)
+    {
+        resizeLayer(this.groundLayer, this.paintBrush, width, height);
+    } // setGroundSize()
+
+
+    private void resizeLayers (final double width, final double height)
+    {
+        resizeLayer(this.groundLayer, this.paintBrush, width, height);
+        resizeLayer(this.spriteLayer, this.spriteBrush, width, height);
+        resizeLayer(this.hudLayer, this.hudBrush, width, height);
+    }
+
+
+    private static void resizeLayer (final Canvas layer, final Renderer brush, final double width, final double height)
+    {
+        if (layer != null)
+        {
+            layer.setWidth(width);
+            layer.setHeight(height);
+        }
+        if (brush instanceof HeadlessRenderer)
+            ((HeadlessRenderer)brush).resize((int)width, (int)height);
+    }
 
 
     /**
      * getPaintBrush()
      *
-     * Purpose: Returns the GraphicsContext of the canvas to allow drawing.
+     * Purpose: Returns the Renderer of the ground layer to allow drawing.
      */
-    public GraphicsContext getPaintBrush ()
+    public Renderer getPaintBrush ()
     {
         return this.paintBrush;
     } // getPaintBrush()
 
+
+    /**
+     * getSpriteBrush()
+     *
+     * Purpose: Returns the Renderer of the sprite layer.
+     */
+    public Renderer getSpriteBrush ()
+    {
+        return this.spriteBrush;
+    } // getSpriteBrush()
+
+
+    /**
+     * getHudBrush()
+     *
+     * Purpose: Returns the Renderer of the HUD layer.
+     */
+    public Renderer getHudBrush ()
+    {
+        return this.hudBrush;
+    } // getHudBrush()
+
+
+    /**
+     * moveGroundLayer()
+     *
+     * Purpose: Moves the ground layer to the given offset from the scene
+     *      without repainting it.
+     */
+    protected void moveGroundLayer (final double x, final double y)
+    {
+        if (this.groundLayer == null)
+            return;
+        this.groundLayer.setTranslateX(x);
+        this.groundLayer.setTranslateY(y);
+    } // moveGroundLayer()
+
+
+    /**
+     * isHeadless()
+     *
+     * Purpose: Returns whether the scene is drawn without a display, in
+     *      which case it has no canvases.
+     */
+    protected boolean isHeadless ()
+    {
+        return this.hudLayer == null;
+    } // isHeadless()
+
+
+    /**
+     * getTextCache()
+     *
+     * Purpose: Returns the TextCache the scene measures and draws text with,
+     *      or null for a headless scene, whose text is only counted.
+     */
+    protected TextCache getTextCache ()
+    {
+        return this.isHeadless() ? null : TextCache.getInstance();
+    } // getTextCache()
+
+
+    /**
+     * clearLayer()
+     *
+     * Purpose: Clears everything drawn with the given brush.
+     */
+    protected void clearLayer (final Renderer brush)
+    {
+        brush.clearRect(0, 0, brush.getWidth(), brush.getHeight());
+    } // clearLayer()
+
+
+    /**
+     * setScreenBrightness()
+     *
+     * Purpose: Darkens or brightens the whole scene without repainting it.
+     *      The effect is removed at the default brightness so that an
+     *      unfaded scene is composited directly.
+     */
+    public void setScreenBrightness (final double brightness)
+    {
+        this.screenAdjust.setBrightness(brightness);
+        this.setEffect(brightness == DEFAULT_BRIGHTNESS ? null : this.screenAdjust);
+    } // setScreenBrightness()
+
+
+    /**
+     * setWindowFocused()
+     *
+     * Purpose: Records whether the game window has the focus. While it does
+     *      not, idle animations park themselves.
+     */
+    public static void setWindowFocused (final boolean focused)
+    {
+        windowFocused = focused;
+    } // setWindowFocused()
+
+
+    /**
+     * isWindowFocused()
+     *
+     * Purpose: Returns whether the game window has the focus, so that idle
+     *      animations keep drawing.
+     */
+    static boolean isWindowFocused ()
+    {
+        return windowFocused;
+    } // isWindowFocused()
+
+
+    /**
+     * unpark()
+     *
+     * Purpose: Resumes the idle animation that parked itself when the window
+     *      lost the focus, if any.
+     */
+    public void unpark ()
+    {
+        if (this.parkedAnimation != null)
+        {
+            final IdleAnimation animation = this.parkedAnimation;
+            this.parkedAnimation = null;
+            animation.resume();
+        }
+    } // unpark()
+
+
+    /**
+     * wake()
+     *
+     * Purpose: Records a key press. Resumes a parked idle animation, then
+     *      calls onWake().
+     */
+    public void wake ()
+    {
+        this.unpark();
+        this.onWake();
+    } // wake()
+
+
+    /**
+     * setParkedAnimation()
+     *
+     * Purpose: Remembers the animation to resume on the next wake(), or clears
+     *      it when null is given.
+     */
+    void setParkedAnimation (final IdleAnimation animation)
+    {
+        this.parkedAnimation = animation;
+    } // setParkedAnimation()
+
+
+    /**
+     * getParkedAnimation()
+     *
+     * Purpose: Returns the animation waiting to be resumed, if any.
+     */
+    IdleAnimation getParkedAnimation ()
+    {
+        return this.parkedAnimation;
+    } // getParkedAnimation()
+
+
+    /**
+     * saveBackdrop()
+     *
+     * Purpose: Copies the current contents of the HUD layer so that small
+     *      regions of it can be repainted later without redrawing the HUD.
+     */
+    void saveBackdrop ()
+    {
+        if (this.hudBrush instanceof HeadlessRenderer)
+        {
+            ((HeadlessRenderer)this.hudBrush).saveBackdrop();
+            return;
+        }
+        if (this.backdrop == null
+                || this.backdrop.getWidth() != (int)this.hudLayer.getWidth()
+                || this.backdrop.getHeight() != (int)this.hudLayer.getHeight())
+            this.backdrop = new WritableImage((int)this.hudLayer.getWidth(), (int)this.hudLayer.getHeight());
+        final SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        this.hudLayer.snapshot(parameters, this.backdrop);
+    } // saveBackdrop()
+
+
+    /**
+     * restoreBackdrop()
+     *
+     * Purpose: Repaints the given region of the HUD layer from the saved backdrop.
+     */
+    void restoreBackdrop (final double x, final double y, final double width, final double height)
+    {
+        if (this.hudBrush instanceof HeadlessRenderer)
+        {
+            ((HeadlessRenderer)this.hudBrush).restoreBackdrop(x, y, width, height);
+            return;
+        }
+        this.hudBrush.clearRect(x, y, width, height);
+        if (this.backdrop != null)
+            this.hudBrush.drawImage(this.backdrop, x, y, width, height, x, y, width, height);
+    } // restoreBackdrop()
+
 } // abstract class GameScene
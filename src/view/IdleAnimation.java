@@ -0,0 +1,188 @@
+package view;
+
+/**
+ * IdleAnimation.java
+ *
+ * Purpose: Animation for screens that sit still except for one small sprite
+ *      on the HUD layer, such as a bobbing arrow. The still part of the frame
+ *      is drawn once and the HUD is kept as a backdrop. Afterwards only the
+ *      sprite region of the HUD is repainted, and only when the sprite has
+ *      moved by at least a pixel. While the game window does not have the
+ *      focus the animation parks itself, so the screen costs no draw calls
+ *      until the window is focused again or the player presses a key.
+ *
+ *      A screen that waits for a key can poll the InputQueue in pollInput().
+ *      A key press wakes the scene, which resumes a parked animation, so the
+ *      key is still handled on the next frame.
+ */
+abstract class IdleAnimation extends GameAnimation
+{
+    private final GameScene scene;
+    private final double spriteSize;
+
+    private boolean backdropReady;
+    private double lastSpriteX;
+    private double lastSpriteY;
+
+
+    /**
+     * IdleAnimation (GameScene, double)
+     *
+     * Purpose: Creates an idle animation drawing on the given scene, with a
+     *      square sprite of the given size.
+     */
+    protected IdleAnimation (final GameScene scene, final double spriteSize)
+    {
+        this.scene = scene;
+        this.spriteSize = spriteSize;
+    } // IdleAnimation (GameScene, double)
+
+
+    /**
+     * update()
+     *
+     * Purpose: Advances the sprite by one frame.
+     */
+    protected abstract void update ();
+
+
+    /**
+     * pollInput()
+     *
+     * Purpose: Handles the keys pressed since the last frame, before the
+     *      sprite moves. The animation may stop itself here, in which case
+     *      the frame is not drawn. Does nothing unless overridden.
+     */
+    protected void pollInput ()
+    {
+    } // pollInput()
+
+
+    /**
+     * drawStill()
+     *
+     * Purpose: Draws everything in the frame except the sprite. Layers that
+     *      have not changed do not need to be redrawn.
+     */
+    protected abstract void drawStill ();
+
+
+    /**
+     * drawSprite()
+     *
+     * Purpose: Draws the sprite on the HUD layer at the given position.
+     */
+    protected abstract void drawSprite (double x, double y);
+
+
+    /**
+     * getSpriteX()
+     *
+     * Purpose: Returns the current x position of the sprite.
+     */
+    protected abstract double getSpriteX ();
+
+
+    /**
+     * getSpriteY()
+     *
+     * Purpose: Returns the current y position of the sprite.
+     */
+    protected abstract double getSpriteY ();
+
+
+    /**
+     * start()
+     *
+     * Purpose: Starts the animation, drawing the full frame on the next pulse.
+     */
+    @Override
+    public void start ()
+    {
+        this.backdropReady = false;
+        super.start();
+    } // start()
+
+
+    /**
+     * stop()
+     *
+     * Purpose: Stops the animation for good, so that it is not resumed by input.
+     */
+    @Override
+    public void stop ()
+    {
+        super.stop();
+        if (this.scene.getParkedAnimation() == this)
+            this.scene.setParkedAnimation(null);
+    } // stop()
+
+
+    /**
+     * resume()
+     *
+     * Purpose: Continues a parked animation without redrawing the still frame.
+     */
+    void resume ()
+    {
+        super.start();
+    } // resume()
+
+
+    /**
+     * isWaiting()
+     *
+     * Purpose: An idle animation plays until the player does something.
+     */
+    @Override
+    protected boolean isWaiting ()
+    {
+        return true;
+    } // isWaiting()
+
+
+    /**
+     * invalidate()
+     *
+     * Purpose: Requests a full redraw on the next pulse, for when the still
+     *      part of the frame has changed.
+     */
+    protected void invalidate ()
+    {
+        this.backdropReady = false;
+    } // invalidate()
+
+
+    @Override
+    public final void handle (final long now)
+    {
+        this.pollInput();
+        if (!this.isRunning())
+            return;
+        this.update();
+        final double spriteX = Math.round(this.getSpriteX());
+        final double spriteY = Math.round(this.getSpriteY());
+
+        if (!this.backdropReady)
+        {
+            this.drawStill();
+            this.scene.saveBackdrop();
+            this.drawSprite(spriteX, spriteY);
+            this.backdropReady = true;
+        }
+        else if (spriteX != this.lastSpriteX || spriteY != this.lastSpriteY)
+        {
+            this.scene.restoreBackdrop(this.lastSpriteX, this.lastSpriteY, this.spriteSize, this.spriteSize);
+            this.drawSprite(spriteX, spriteY);
+        }
+        this.lastSpriteX = spriteX;
+        this.lastSpriteY = spriteY;
+
+        if (!GameScene.isWindowFocused())
+        {
+            super.stop();
+            this.scene.setParkedAnimation(this);
+        }
+    } // handle()
+
+} // abstract class IdleAnimation
@@ -45,9 +45,6 @@ public final class NameEntryScene extends GameScene
         System.out.println(name);
     }
 
-    @Override
-    public void restart () { /* Nothing */ }
-
 
     /**
      *
@@ -1,23 +1,30 @@
 package view;
 
 import controller.PokemonSafari;
+import controller.SceneLoader;
+import controller.audio.MusicLibrary;
+import controller.audio.MusicPlayer;
 import controller.audio.SfxLibrary;
 import controller.audio.SfxPlayer;
-import javafx.animation.AnimationTimer;
-import javafx.event.EventHandler;
-import javafx.scene.effect.ColorAdjust;
+import controller.input.InputQueue;
+import controller.metrics.EncounterEvent;
+import controller.metrics.GameMetrics;
+import controller.telemetry.Telemetry;
+import controller.telemetry.TelemetryEvent;
 import javafx.scene.image.Image;
-import javafx.scene.input.KeyEvent;
+import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 import model.map.Map;
 import model.map.MapBuilder;
+import model.misc.GameRandom;
 import model.player.Player;
+import model.pokemon.Pokemon;
 import model.pokemon.PokemonFactory;
 import model.pokemon.Rarity;
+import view.render.ImageLoader;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Random;
 
@@ -40,9 +47,15 @@ public final class OverworldScene extends GameScene
     private static final double DEFAULT_BRIGHTNESS = 0.0;
     private static final double BLACK_SCREEN_BRIGHTNESS = -1.0;
     private static final double MOVEMENT_SPEED = 0.05;
+    private static final double MUSIC_FADE_SECONDS = 1.0;
+
+    private static final int ENTRANCE_X = 8;
+    private static final int ENTRANCE_Y = 6;
+    private static final int MENU_ITEMS = 3;     // See Collection, Save, Close
 
     private static final int ONE_HUNDRED_PERCENT = 100;
     private static final int WILD_ENCOUNTER_CHANCE = 15;
+    private static final int NO_ENCOUNTER = -1;
 
     private static final double TILE_SIZE = 80.0;
 
@@ -70,6 +83,11 @@ public final class OverworldScene extends GameScene
     private double playerY;
     private double arrowX;
 
+    private final ControlsAnimation controlsAnimation;
+    private final WalkAnimation walkAnimation;
+    private MenuArrowAnimation menuArrowAnimation;
+    private boolean menuOpen;
+
 
     /**
      * OverworldScene (Player)
@@ -77,30 +95,91 @@ public final class OverworldScene extends GameScene
      * Purpose: Initializes the OverworldScene. The given player is set on the map.
      */
     public OverworldScene (final Player player)
+    {
+        this(player, true);
+    } // OverworldScene (Player)
+
+
+    /**
+     * OverworldScene (Player, boolean)
+     *
+     * Purpose: Initializes the OverworldScene. The given player is set at the
+     *      entrance of the map, or kept where they are when resuming a saved
+     *      game.
+     */
+    public OverworldScene (final Player player, final boolean placeAtEntrance)
+    {
+        this(player, placeAtEntrance, new Assets());
+    } // OverworldScene (Player, boolean)
+
+
+    /**
+     * OverworldScene (Player, boolean, Assets)
+     *
+     * Purpose: Initializes the OverworldScene with a map and images that were
+     *      already loaded.
+     */
+    public OverworldScene (final Player player, final boolean placeAtEntrance, final Assets assets)
     {
         super();
-        this.map = MapBuilder.createMap();
+        this.map = assets.map;
 
         this.player = player;
-        this.player.getPosition().setX(8);
-        this.player.getPosition().setY(6);
+        if (placeAtEntrance)
+        {
+            this.player.getPosition().setX(ENTRANCE_X);
+            this.player.getPosition().setY(ENTRANCE_Y);
+        }
         this.playerX = 0;
         this.playerY = 2;
 
         this.cameraX = this.player.getPosition().getX()-PLAYER_X_OFFSET;
         this.cameraY = this.player.getPosition().getY()-PLAYER_Y_OFFSET;
 
-        getPaintBrush().setLineWidth(3);
-        getPaintBrush().setStroke(Color.BLACK);
+        getHudBrush().setLineWidth(3);
+        getHudBrush().setStroke(Color.BLACK);
 
-        try {
-            this.playerImages = new Image(new FileInputStream(PLAYER_IMAGE_FILENAME));
-            this.tileImages = new Image(new FileInputStream(TILE_IMAGE_FILENAME));
-            this.overworldImages = new Image(new FileInputStream(OVERWORLD_IMAGE_FILENAME));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    } // OverworldScene (Player)
+        this.controlsAnimation = new ControlsAnimation();
+        this.walkAnimation = new WalkAnimation();
+
+        this.playerImages = assets.playerImages;
+        this.tileImages = assets.tileImages;
+        this.overworldImages = assets.overworldImages;
+    } // OverworldScene (Player, boolean, Assets)
+
+
+    /**
+     * Assets
+     *
+     * Purpose: The map and images of an OverworldScene. They are not nodes,
+     *      so a SceneLoader can load them off the JavaFX application thread.
+     */
+    public static final class Assets
+    {
+        private final Map map;
+        private Image playerImages;
+        private Image tileImages;
+        private Image overworldImages;
+
+
+        /**
+         * Assets ()
+         *
+         * Purpose: Reads the map and decodes the images.
+         */
+        public Assets ()
+        {
+            this.map = MapBuilder.createMap();
+            try {
+                this.playerImages = ImageLoader.load(PLAYER_IMAGE_FILENAME);
+                this.tileImages = ImageLoader.load(TILE_IMAGE_FILENAME);
+                this.overworldImages = ImageLoader.load(OVERWORLD_IMAGE_FILENAME);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } // Assets ()
+
+    } // final class Assets
 
 
     /**
@@ -111,24 +190,61 @@ public final class OverworldScene extends GameScene
     @Override
     public void start ()
     {
+        MusicPlayer.getInstance().crossfadeTo(MusicLibrary.Wild_Area_1, 0.0);
+        BattleScene.prepare();
         drawFrame();
         overworldControls();
     } // start()
 
 
     /**
-     * restart()
+     * onResume()
      *
-     * Purpose: Defines how the OverworldScene restarts.
+     * Purpose: Fades the OverworldScene back in after a battle or the
+     *      collection.
      */
     @Override
-    public void restart ()
+    protected void onResume ()
     {
+        setScreenBrightness(BLACK_SCREEN_BRIGHTNESS);
         if (returningFromBattle)
+        {
+            MusicPlayer.getInstance().crossfadeTo(MusicLibrary.Wild_Area_1, MUSIC_FADE_SECONDS);
             new TransitionBackFromBattleAnimation().start();
+        }
         else
             new TransitionBackFromCollectionAnimation().start();
-    } // restart()
+    } // onResume()
+
+
+    /**
+     * onDispose()
+     *
+     * Purpose: Drops the images, the map and the player.
+     */
+    @Override
+    protected void onDispose ()
+    {
+        this.playerImages = null;
+        this.tileImages = null;
+        this.overworldImages = null;
+        this.map = null;
+        this.player = null;
+    } // onDispose()
+
+
+    /**
+     * setSize()
+     *
+     * Purpose: Sizes the scene. The ground layer is one tile larger than the
+     *      screen on every side, so that a walk step only has to move it.
+     */
+    @Override
+    public void setSize (final double width, final double height)
+    {
+        super.setSize(width, height);
+        setGroundSize(width + 2*TILE_SIZE, height + 2*TILE_SIZE);
+    } // setSize()
 
 
     /**
@@ -138,21 +254,51 @@ public final class OverworldScene extends GameScene
      */
     private void drawFrame ()
     {
-        for (int y = 0; y < CAMERA_Y_RANGE; y++)
+        drawGround();
+        drawPlayer();
+    } // drawFrame()
+
+
+    /**
+     * drawGround()
+     *
+     * Purpose: Draws the tiles around the camera onto the ground layer, including
+     *      a one tile margin, and centres the layer on the screen.
+     */
+    private void drawGround ()
+    {
+        clearLayer(getPaintBrush());
+        for (int y = -1; y <= CAMERA_Y_RANGE; y++)
         {
-            for (int x = 0; x < CAMERA_X_RANGE; x++)
+            for (int x = -1; x <= CAMERA_X_RANGE; x++)
             {
+                final int row = y+cameraY;
+                final int column = x+cameraX;
+                if (row < 0 || column < 0 || row >= map.getSize() || column >= map.getSize())
+                    continue;
                 getPaintBrush().drawImage(tileImages,
-                        (double)(map.getTile(y+cameraY, x+cameraX).getID()%3)*64.0,
-                        (double)(map.getTile(y+cameraY, x+cameraX).getID()/3)*64.0,
-                        32.0, 32.0, x*TILE_SIZE, y*TILE_SIZE, TILE_SIZE+1, TILE_SIZE+1);
+                        (double)(map.getTile(row, column).getID()%3)*64.0,
+                        (double)(map.getTile(row, column).getID()/3)*64.0,
+                        32.0, 32.0, (x+1)*TILE_SIZE, (y+1)*TILE_SIZE, TILE_SIZE+1, TILE_SIZE+1);
             }
         }
-        getPaintBrush().drawImage(playerImages,
+        moveGroundLayer(-TILE_SIZE, -TILE_SIZE);
+    } // drawGround()
+
+
+    /**
+     * drawPlayer()
+     *
+     * Purpose: Draws the player onto the sprite layer.
+     */
+    private void drawPlayer ()
+    {
+        getSpriteBrush().clearRect(PLAYER_X_OFFSET*TILE_SIZE, PLAYER_Y_OFFSET*TILE_SIZE, TILE_SIZE, TILE_SIZE);
+        getSpriteBrush().drawImage(playerImages,
                 this.playerX*32, this.playerY*32,
                 32,32, PLAYER_X_OFFSET*TILE_SIZE, PLAYER_Y_OFFSET*TILE_SIZE,
                 TILE_SIZE, TILE_SIZE);
-    } // drawFrame()
+    } // drawPlayer()
 
 
     /**
@@ -160,10 +306,8 @@ public final class OverworldScene extends GameScene
      *
      * Purpose: Animation class for returning to the Overworld from Battle.
      */
-    private final class TransitionBackFromBattleAnimation extends AnimationTimer
+    private final class TransitionBackFromBattleAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
         private double screenBrightness;
 
         private TransitionBackFromBattleAnimation ()
@@ -178,12 +322,11 @@ public final class OverworldScene extends GameScene
             if (this.screenBrightness < DEFAULT_BRIGHTNESS)
             {
                 this.screenBrightness += 0.04;
-                this.colorAdjust.setBrightness(this.screenBrightness);
-                getPaintBrush().setEffect(this.colorAdjust);
-                drawFrame();
+                setScreenBrightness(Math.min(this.screenBrightness, DEFAULT_BRIGHTNESS));
             }
             else {
                 this.stop();
+                setScreenBrightness(DEFAULT_BRIGHTNESS);
                 returningFromBattle = false;
                 overworldControls();
             }
@@ -196,10 +339,8 @@ public final class OverworldScene extends GameScene
      *
      * Purpose: Animation class for returning to the Overworld from Collection.
      */
-    private final class TransitionBackFromCollectionAnimation extends AnimationTimer
+    private final class TransitionBackFromCollectionAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
         private double screenBrightness;
 
         private TransitionBackFromCollectionAnimation ()
@@ -214,13 +355,11 @@ public final class OverworldScene extends GameScene
             if (this.screenBrightness < DEFAULT_BRIGHTNESS)
             {
                 this.screenBrightness += 0.04;
-                this.colorAdjust.setBrightness(this.screenBrightness);
-                getPaintBrush().setEffect(this.colorAdjust);
-                drawFrame();
-                drawMenu();
+                setScreenBrightness(Math.min(this.screenBrightness, DEFAULT_BRIGHTNESS));
             }
             else {
                 this.stop();
+                setScreenBrightness(DEFAULT_BRIGHTNESS);
                 menuControls();
             }
         }
@@ -234,48 +373,11 @@ public final class OverworldScene extends GameScene
      */
     private void overworldControls ()
     {
-        this.getScene().setOnKeyPressed(new EventHandler<KeyEvent>() {
-            @Override
-            public void handle(final KeyEvent event)
-            {
-                switch (event.getCode())
-                {
-                    case W:
-                        playerX = 0;
-                        playerY = 0;
-                        if (map.getTile(player.getPosition().getY()-1, player.getPosition().getX()).isWalkable())
-                            new WalkNorthAnimation().start();
-                        drawFrame();
-                        break;
-                    case A:
-                        playerX = 0;
-                        playerY = 1;
-                        if (map.getTile(player.getPosition().getY(), player.getPosition().getX()-1).isWalkable())
-                            new WalkWestAnimation().start();
-                        drawFrame();
-                        break;
-                    case S:
-                        playerX = 0;
-                        playerY = 2;
-                        if (map.getTile(player.getPosition().getY()+1, player.getPosition().getX()).isWalkable())
-                            new WalkSouthAnimation().start();
-                        drawFrame();
-                        break;
-                    case D:
-                        playerX = 0;
-                        playerY = 3;
-                        if (map.getTile(player.getPosition().getY(), player.getPosition().getX()+1).isWalkable())
-                            new WalkEastAnimation().start();
-                        drawFrame();
-                        break;
-                    case ENTER:
-                        SfxPlayer.getInstance().play(SfxLibrary.Menu.name());
-                        menuControls();
-                        break;
-                }
-            }
-        });
+        this.menuOpen = false;
+        this.controlsAnimation.start();
         checkEndCondition();
+        if (this.controlsAnimation.isRunning())
+            pollControls();
     } // overworldControls()
 
 
@@ -286,351 +388,321 @@ public final class OverworldScene extends GameScene
      */
     private void menuControls ()
     {
-        final MenuArrowAnimation menuArrowAnimation = new MenuArrowAnimation();
-        menuArrowAnimation.start();
+        this.menuArrowAnimation = new MenuArrowAnimation();
+        this.menuArrowAnimation.start();
         this.menuItemID = 0;
-        this.getScene().setOnKeyPressed(new EventHandler<KeyEvent>() {
-            @Override
-            public void handle(final KeyEvent event)
-            {
-                switch (event.getCode())
-                {
-                    case W:
-                        if (menuItemID == 1) {
-                            menuItemID = 0;
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                        }
-                        break;
-                    case S:
-                        if (menuItemID == 0) {
-                            menuItemID = 1;
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                        }
-                        break;
-                    case SPACE:
-                        if (menuItemID == 0)
-                        {
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                            getScene().setOnKeyPressed(null);
-                            menuArrowAnimation.stop();
-                            new TransitionToCollectionAnimation().start();
-                        }
-                        else if (menuItemID == 1)
-                        {
-                            SfxPlayer.getInstance().play(SfxLibrary.Select.name());
-                            drawFrame();
-                            menuArrowAnimation.stop();
-                            overworldControls();
-                        }
-                        break;
-                    case ENTER:
-                        SfxPlayer.getInstance().play(SfxLibrary.Menu.name());
-                        drawFrame();
-                        menuArrowAnimation.stop();
-                        overworldControls();
-                        break;
-                }
-            }
-        });
+        this.menuOpen = true;
+        this.controlsAnimation.start();
     } // menuControls()
 
 
     /**
-     * checkForWildEncounter()
+     * ControlsAnimation
      *
-     * Purpose: Checks if a wild encounter can take place at the current tile.
-     *      If so, the BattleScene is entered.
+     * Purpose: Polls the keyboard every frame while the player can walk or
+     *      use the menu.
      */
-    private void checkForWildEncounter ()
+    private final class ControlsAnimation extends GameAnimation
     {
-        if (this.map.getTile(player.getPosition().getY(), player.getPosition().getX()).canEncounterPokemon())
+        @Override
+        public void handle (final long now)
         {
-            final Random random = new Random();
-            final int encounterChance = random.nextInt(ONE_HUNDRED_PERCENT);
-            if (encounterChance < WILD_ENCOUNTER_CHANCE)
-            {
-                this.getScene().setOnKeyPressed(null);
-                final int rarityChance = random.nextInt(ONE_HUNDRED_PERCENT);
-                Rarity selectedRarity;
-                if (rarityChance < 70)
-                    selectedRarity = Rarity.Common;
-                else if (rarityChance < 95)
-                    selectedRarity = Rarity.Uncommon;
-                else
-                    selectedRarity = Rarity.Rare;
-                returningFromBattle = true;
-                PokemonSafari.goToNextScene(new BattleScene(this.player, PokemonFactory.getPokemon(selectedRarity)));
-            }
-            else
-                overworldControls();
+            pollControls();
         }
-        else
-            overworldControls();
-    } // checkForWildEncounter()
+
+        @Override
+        protected boolean isWaiting ()
+        {
+            return true;
+        }
+    } // final class ControlsAnimation
 
 
     /**
-     * WalkNorthAnimation
+     * pollControls()
      *
-     * Purpose: Animation class for walking North.
+     * Purpose: Handles the keys pressed since the last poll, in order. When
+     *      the player is walking and no key was pressed, a direction key that
+     *      is held down takes another step, so holding a key walks without
+     *      stopping between tiles.
      */
-    private final class WalkNorthAnimation extends AnimationTimer
+    private void pollControls ()
     {
-        private double yChange;
-
-        private int frames;
-        private int cameraXSnapshot;
-        private int cameraYSnapshot;
-
-
-        private WalkNorthAnimation ()
+        final InputQueue input = InputQueue.getInstance();
+        KeyCode key;
+        while (this.controlsAnimation.isRunning() && (key = input.poll()) != null)
         {
-            getScene().setOnKeyPressed(null);
-            this.frames = 0;
-            this.yChange = 0.0;
-            this.cameraXSnapshot = cameraX;
-            this.cameraYSnapshot = cameraY;
+            if (this.menuOpen)
+                pressMenuKey(key);
+            else if (pressWalkKey(key))
+                return;
         }
+        if (!this.controlsAnimation.isRunning() || this.menuOpen)
+            return;
+        if (input.isDown(KeyCode.W))
+            walk(0, 0, -1);
+        else if (input.isDown(KeyCode.A))
+            walk(1, -1, 0);
+        else if (input.isDown(KeyCode.S))
+            walk(2, 0, 1);
+        else if (input.isDown(KeyCode.D))
+            walk(3, 1, 0);
+    } // pollControls()
 
 
-        @Override
-        public void handle (final long now)
+    /**
+     * pressWalkKey()
+     *
+     * Purpose: Handles a key pressed while the player can walk. Returns
+     *      whether the player started walking or opened the menu.
+     */
+    private boolean pressWalkKey (final KeyCode key)
+    {
+        switch (key)
         {
-            this.frames++;
-            if (this.yChange < 1.0)
-                this.yChange += MOVEMENT_SPEED;
-            else
-            {
-                this.stop();
-                cameraY--;
-                player.getPosition().setY(player.getPosition().getY()-1);
-                player.setStepsRemaining(player.getStepsRemaining()-1);
-                checkForWildEncounter();
-            }
-            for (int y = -1; y < CAMERA_Y_RANGE; y++)
-            {
-                for (int x = 0; x < CAMERA_X_RANGE; x++)
-                {
-                    getPaintBrush().drawImage(tileImages,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()%3)*64,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()/3)*64,
-                            32, 32,
-                            x*TILE_SIZE, (y*TILE_SIZE)+(yChange*TILE_SIZE), TILE_SIZE+1, TILE_SIZE+1);
-                }
-            }
-
-            playerX = this.frames < 11 ? 1 : this.frames < 21 ? 2 : 0;
-            getPaintBrush().drawImage(playerImages,
-                    playerX*32, playerY*32,
-                    32,32, PLAYER_X_OFFSET*TILE_SIZE, PLAYER_Y_OFFSET*TILE_SIZE,
-                    TILE_SIZE, TILE_SIZE);
+            case W:
+                return walk(0, 0, -1);
+            case A:
+                return walk(1, -1, 0);
+            case S:
+                return walk(2, 0, 1);
+            case D:
+                return walk(3, 1, 0);
+            case ENTER:
+                SfxPlayer.getInstance().play(SfxLibrary.Menu.name());
+                menuControls();
+                return true;
+            default:
+                return false;
         }
-    } // final class WalkNorthAnimation
+    } // pressWalkKey()
 
 
     /**
-     * WalkEastAnimation
+     * walk()
      *
-     * Purpose: Animation class for walking East.
+     * Purpose: Turns the player to the given facing and walks one tile in
+     *      the given direction if it can be walked on. Returns whether the
+     *      player started walking.
      */
-    private final class WalkEastAnimation extends AnimationTimer
+    private boolean walk (final int facing, final int xDirection, final int yDirection)
     {
-        private double xChange;
-
-        private int frames;
-        private int cameraXSnapshot;
-        private int cameraYSnapshot;
-
-
-        private WalkEastAnimation ()
+        if (this.playerX != 0 || this.playerY != facing)
         {
-            getScene().setOnKeyPressed(null);
-            this.frames = 0;
-            this.xChange = 0.0;
-            this.cameraXSnapshot = cameraX;
-            this.cameraYSnapshot = cameraY;
+            this.playerX = 0;
+            this.playerY = facing;
+            drawPlayer();
         }
+        if (!map.getTile(player.getPosition().getY()+yDirection, player.getPosition().getX()+xDirection).isWalkable())
+            return false;
+        this.controlsAnimation.stop();
+        this.walkAnimation.start(xDirection, yDirection);
+        return true;
+    } // walk()
 
 
-        @Override
-        public void handle (final long now)
+    /**
+     * pressMenuKey()
+     *
+     * Purpose: Handles a key pressed while the menu is open.
+     */
+    private void pressMenuKey (final KeyCode key)
+    {
+        switch (key)
         {
-            this.frames++;
-            if (this.xChange < 1.0)
-                this.xChange += MOVEMENT_SPEED;
-            else
-            {
-                this.stop();
-                cameraX++;
-                player.getPosition().setX(player.getPosition().getX()+1);
-                player.setStepsRemaining(player.getStepsRemaining()-1);
-                checkForWildEncounter();
-            }
-            for (int y = 0; y < CAMERA_Y_RANGE; y++)
-            {
-                for (int x = 0; x < CAMERA_X_RANGE+1; x++)
+            case W:
+                if (menuItemID > 0) {
+                    menuItemID--;
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                }
+                break;
+            case S:
+                if (menuItemID < MENU_ITEMS - 1) {
+                    menuItemID++;
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                }
+                break;
+            case SPACE:
+                if (menuItemID == 0)
                 {
-                    getPaintBrush().drawImage(tileImages,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()%3)*64,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()/3)*64,
-                            32, 32,
-                            (x*TILE_SIZE)-(xChange*TILE_SIZE), y*TILE_SIZE, TILE_SIZE+1, TILE_SIZE+1);
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                    this.controlsAnimation.stop();
+                    menuArrowAnimation.stop();
+                    new TransitionToCollectionAnimation().start();
                 }
-            }
-            playerX = this.frames < 11 ? 1 : this.frames < 21 ? 2 : 0;
-            getPaintBrush().drawImage(playerImages,
-                    playerX*32, playerY*32,
-                    32,32, PLAYER_X_OFFSET*TILE_SIZE, PLAYER_Y_OFFSET*TILE_SIZE,
-                    TILE_SIZE, TILE_SIZE);
+                else if (menuItemID == 1)
+                {
+                    PokemonSafari.saveGame();
+                    SfxPlayer.getInstance().play(SfxLibrary.Save.name());
+                    clearLayer(getHudBrush());
+                    menuArrowAnimation.stop();
+                    overworldControls();
+                }
+                else if (menuItemID == 2)
+                {
+                    SfxPlayer.getInstance().play(SfxLibrary.Select.name());
+                    clearLayer(getHudBrush());
+                    menuArrowAnimation.stop();
+                    overworldControls();
+                }
+                break;
+            case ENTER:
+                SfxPlayer.getInstance().play(SfxLibrary.Menu.name());
+                clearLayer(getHudBrush());
+                menuArrowAnimation.stop();
+                overworldControls();
+                break;
         }
-    } // final class WalkEastAnimation
+    } // pressMenuKey()
 
 
     /**
-     * WalkSouthAnimation
+     * checkForWildEncounter()
      *
-     * Purpose: Animation class for walking South.
+     * Purpose: Checks if a wild encounter can take place at the current tile.
+     *      If so, the BattleScene is entered.
      */
-    private final class WalkSouthAnimation extends AnimationTimer
+    private void checkForWildEncounter ()
     {
-        private double yChange;
-
-        private int frames;
-        private int cameraXSnapshot;
-        private int cameraYSnapshot;
-
-
-        private WalkSouthAnimation ()
-        {
-            getScene().setOnKeyPressed(null);
-            this.frames = 0;
-            this.yChange = 0.0;
-            this.cameraXSnapshot = cameraX;
-            this.cameraYSnapshot = cameraY;
-        }
-
-
-        @Override
-        public void handle (final long now)
+        if (this.map.getTile(player.getPosition().getY(), player.getPosition().getX()).canEncounterPokemon())
         {
-            this.frames++;
-            if (this.yChange < 1.0)
-                this.yChange += MOVEMENT_SPEED;
-            else
-            {
-                this.stop();
-                cameraY++;
-                player.getPosition().setY(player.getPosition().getY()+1);
-                player.setStepsRemaining(player.getStepsRemaining()-1);
-                checkForWildEncounter();
-            }
-            for (int y = 0; y < CAMERA_Y_RANGE+1; y++)
+            final Random random = GameRandom.get();
+            final int encounterChance = random.nextInt(ONE_HUNDRED_PERCENT);
+            if (encounterChance < WILD_ENCOUNTER_CHANCE)
             {
-                for (int x = 0; x < CAMERA_X_RANGE; x++)
+                final EncounterEvent encounter = new EncounterEvent();
+                encounter.begin();
+                final int rarityChance = random.nextInt(ONE_HUNDRED_PERCENT);
+                Rarity selectedRarity;
+                if (rarityChance < 70)
+                    selectedRarity = Rarity.Common;
+                else if (rarityChance < 95)
+                    selectedRarity = Rarity.Uncommon;
+                else
+                    selectedRarity = Rarity.Rare;
+                final Pokemon wildPokemon = PokemonFactory.getPokemon(selectedRarity);
+                GameMetrics.getInstance().countEncounter();
+                if (encounter.shouldCommit())
                 {
-                    getPaintBrush().drawImage(tileImages,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()%3)*64,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()/3)*64,
-                            32, 32,
-                            x*TILE_SIZE, (y*TILE_SIZE)-(yChange*TILE_SIZE), TILE_SIZE+1, TILE_SIZE+1);
+                    encounter.x = player.getPosition().getX();
+                    encounter.y = player.getPosition().getY();
+                    encounter.species = wildPokemon.getID();
+                    encounter.rarity = selectedRarity.name();
+                    encounter.commit();
                 }
+                Telemetry.getInstance().emit(TelemetryEvent.EncounterCheck, player.getPosition().getX(),
+                        player.getPosition().getY(), wildPokemon.getID());
+                returningFromBattle = true;
+                PokemonSafari.goToNextScene(BattleScene.obtain(this.player, wildPokemon));
+            }
+            else
+            {
+                Telemetry.getInstance().emit(TelemetryEvent.EncounterCheck, player.getPosition().getX(),
+                        player.getPosition().getY(), NO_ENCOUNTER);
+                overworldControls();
             }
-            playerX = this.frames < 11 ? 1 : this.frames < 21 ? 2 : 0;
-            getPaintBrush().drawImage(playerImages,
-                    playerX*32, playerY*32,
-                    32,32, PLAYER_X_OFFSET*TILE_SIZE, PLAYER_Y_OFFSET*TILE_SIZE,
-                    TILE_SIZE, TILE_SIZE);
         }
-    } // final class WalkSouthAnimation
+        else
+            overworldControls();
+    } // checkForWildEncounter()
 
 
     /**
-     * WalkWestAnimation
+     * WalkAnimation
      *
-     * Purpose: Animation class for walking West.
+     * Purpose: Animation class for walking one tile in the given direction.
+     *      The ground layer is only moved during the step and is redrawn once
+     *      the step is complete. The player sprite is only redrawn when its
+     *      walking frame changes. The step completes on the frame the ground
+     *      reaches the next tile, so that the next step of a held key follows
+     *      on the very next frame.
      */
-    private final class WalkWestAnimation extends AnimationTimer
+    private final class WalkAnimation extends GameAnimation
     {
-        private double xChange;
+        private int xDirection;
+        private int yDirection;
 
+        private double change;
         private int frames;
-        private int cameraXSnapshot;
-        private int cameraYSnapshot;
 
 
-        private WalkWestAnimation ()
+        private void start (final int xDirection, final int yDirection)
         {
-            getScene().setOnKeyPressed(null);
+            this.xDirection = xDirection;
+            this.yDirection = yDirection;
             this.frames = 0;
-            this.xChange = 0.0;
-            this.cameraXSnapshot = cameraX;
-            this.cameraYSnapshot = cameraY;
+            this.change = 0.0;
+            this.start();
         }
 
 
         @Override
-        public void handle (long now)
+        public void handle (final long now)
         {
             this.frames++;
-            if (this.xChange < 1.0)
-                this.xChange += MOVEMENT_SPEED;
-            else
+            this.change += MOVEMENT_SPEED;
+            if (this.change >= 1.0)
             {
                 this.stop();
-                cameraX--;
-                player.getPosition().setX(player.getPosition().getX()-1);
+                cameraX += this.xDirection;
+                cameraY += this.yDirection;
+                player.getPosition().setX(player.getPosition().getX()+this.xDirection);
+                player.getPosition().setY(player.getPosition().getY()+this.yDirection);
                 player.setStepsRemaining(player.getStepsRemaining()-1);
+                PokemonSafari.getJournal().recordStep(player);
+                drawGround();
+                setWalkingFrame(0);
                 checkForWildEncounter();
+                return;
             }
-            for (int y = 0; y < CAMERA_Y_RANGE; y++)
+            moveGroundLayer(-TILE_SIZE - (this.xDirection*this.change*TILE_SIZE),
+                    -TILE_SIZE - (this.yDirection*this.change*TILE_SIZE));
+            setWalkingFrame(this.frames < 11 ? 1 : this.frames < 21 ? 2 : 0);
+        }
+
+
+        private void setWalkingFrame (final double walkingFrame)
+        {
+            if (playerX != walkingFrame)
             {
-                for (int x = -1; x < CAMERA_X_RANGE; x++)
-                {
-                    getPaintBrush().drawImage(tileImages,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()%3)*64,
-                            (map.getTile(cameraYSnapshot+y, cameraXSnapshot+x).getID()/3)*64,
-                            32, 32,
-                            (x*TILE_SIZE)+(xChange*TILE_SIZE), y*TILE_SIZE, TILE_SIZE+1, TILE_SIZE+1);
-                }
+                playerX = walkingFrame;
+                drawPlayer();
             }
-            playerX = this.frames < 11 ? 1 : this.frames < 21 ? 2 : 0;
-            getPaintBrush().drawImage(playerImages,
-                    playerX*32, playerY*32,
-                    32,32, PLAYER_X_OFFSET*TILE_SIZE, PLAYER_Y_OFFSET*TILE_SIZE,
-                    TILE_SIZE, TILE_SIZE);
         }
-    } // final class WalkWestAnimation
+    } // final class WalkAnimation
 
 
     /**
      * drawMenu()
      *
-     * Purpose: Draws a single frame of the menu.
+     * Purpose: Draws a single frame of the menu onto the HUD layer.
      */
     private void drawMenu ()
     {
-        getPaintBrush().setFill(Color.WHITE);
-        getPaintBrush().fillRect(550, 20, 300, 80);
-        getPaintBrush().strokeRect(550, 20, 300, 80);
-        getPaintBrush().setFill(Color.BLACK);
-        getPaintBrush().setFont(SMALL_FONT);
-        getPaintBrush().setTextAlign(TextAlignment.LEFT);
-        getPaintBrush().fillText("Steps Remaining", 560, 40);
-        getPaintBrush().setFont(BIG_FONT);
-        getPaintBrush().setTextAlign(TextAlignment.CENTER);
-        getPaintBrush().fillText(""+this.player.getStepsRemaining(), 700, 80);
-
-        getPaintBrush().setTextAlign(TextAlignment.LEFT);
-        getPaintBrush().setFill(Color.WHITE);
-        getPaintBrush().fillRect(550, 120, 300, 120);
-        getPaintBrush().strokeRect(550, 120, 300, 120);
-        getPaintBrush().setFill(Color.BLACK);
-        getPaintBrush().setFont(SMALL_FONT);
-        getPaintBrush().fillText("Menu", 560, 140);
-
-        getPaintBrush().setFont(MEDIUM_FONT);
-        getPaintBrush().fillText("See Collection", 610, 180);
-        getPaintBrush().fillText("Close", 610, 220);
+        clearLayer(getHudBrush());
+        getHudBrush().setFill(Color.WHITE);
+        getHudBrush().fillRect(550, 20, 300, 80);
+        getHudBrush().strokeRect(550, 20, 300, 80);
+        getHudBrush().setFill(Color.BLACK);
+        getHudBrush().setFont(SMALL_FONT);
+        getHudBrush().setTextAlign(TextAlignment.LEFT);
+        getHudBrush().fillCachedText("Steps Remaining", 560, 40);
+        getHudBrush().setFont(BIG_FONT);
+        getHudBrush().setTextAlign(TextAlignment.CENTER);
+        getHudBrush().fillCachedText(""+this.player.getStepsRemaining(), 700, 80);
+
+        getHudBrush().setTextAlign(TextAlignment.LEFT);
+        getHudBrush().setFill(Color.WHITE);
+        getHudBrush().fillRect(550, 120, 300, 160);
+        getHudBrush().strokeRect(550, 120, 300, 160);
+        getHudBrush().setFill(Color.BLACK);
+        getHudBrush().setFont(SMALL_FONT);
+        getHudBrush().fillCachedText("Menu", 560, 140);
+
+        getHudBrush().setFont(MEDIUM_FONT);
+        getHudBrush().fillCachedText("See Collection", 610, 180);
+        getHudBrush().fillCachedText("Save", 610, 220);
+        getHudBrush().fillCachedText("Close", 610, 260);
     } // drawMenu()
 
 
@@ -639,17 +711,21 @@ public final class OverworldScene extends GameScene
      *
      * Purpose: Animation class for the menu arrow while in the menu.
      */
-    private final class MenuArrowAnimation extends AnimationTimer
+    private final class MenuArrowAnimation extends IdleAnimation
     {
         private double arrowXPush = 0;
         private boolean arrowGoingRight;
 
 
+        private MenuArrowAnimation ()
+        {
+            super(OverworldScene.this, 32);
+        }
+
+
         @Override
-        public void handle (final long now)
+        protected void update ()
         {
-            drawFrame();
-            drawMenu();
             if (this.arrowXPush > 10)
                 this.arrowGoingRight = false;
             else if (this.arrowXPush < 0)
@@ -659,8 +735,34 @@ public final class OverworldScene extends GameScene
             else
                 this.arrowXPush -= 0.4;
             arrowX = 560 + this.arrowXPush;
-            getPaintBrush().drawImage(overworldImages, 0, 0, 32, 32,
-                    arrowX, 155+(menuItemID*40), 32, 32);
+        }
+
+
+        @Override
+        protected void drawStill ()
+        {
+            drawMenu();
+        }
+
+
+        @Override
+        protected double getSpriteX ()
+        {
+            return arrowX;
+        }
+
+
+        @Override
+        protected double getSpriteY ()
+        {
+            return 155+(menuItemID*40);
+        }
+
+
+        @Override
+        protected void drawSprite (final double x, final double y)
+        {
+            getHudBrush().drawImage(overworldImages, 0, 0, 32, 32, x, y, 32, 32);
         }
     } // final class MenuArrowAnimation
 
@@ -669,31 +771,42 @@ public final class OverworldScene extends GameScene
      * TransitionToCollectionAnimation
      *
      * Purpose: Animation class for the transition to the CollectionScene.
+     *      The images of the CollectionScene are loaded in the background
+     *      while the screen fades out.
      */
-    private final class TransitionToCollectionAnimation extends AnimationTimer
+    private final class TransitionToCollectionAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
         private double screenBrightness = DEFAULT_BRIGHTNESS;
+        private final SceneLoader<CollectionScene.Assets> collection;
+
 
+        private TransitionToCollectionAnimation ()
+        {
+            this.collection = SceneLoader.start(new SceneLoader.Builder<CollectionScene.Assets>() {
+                @Override
+                public CollectionScene.Assets load() {
+                    return new CollectionScene.Assets();
+                }
+
+                @Override
+                public GameScene build(final CollectionScene.Assets assets) {
+                    return new CollectionScene(player.getPokemonCaught(), assets);
+                }
+            });
+        }
 
         @Override
         public void handle (final long now)
         {
             if (this.screenBrightness > BLACK_SCREEN_BRIGHTNESS) {
                 this.screenBrightness -= 0.04;
-                this.colorAdjust.setBrightness(this.screenBrightness);
-                getPaintBrush().setEffect(this.colorAdjust);
+                setScreenBrightness(this.screenBrightness);
             }
             else
             {
                 this.stop();
-                PokemonSafari.goToNextScene(new CollectionScene(player.getPokemonCaught()));
+                PokemonSafari.goToNextScene(this.collection);
             }
-            drawFrame();
-            drawMenu();
-            getPaintBrush().drawImage(overworldImages, 0, 0, 32, 32,
-                    arrowX, 155+(menuItemID*40), 32, 32);
         }
     } // final class TransitionToCollectionAnimation
 
@@ -701,14 +814,15 @@ public final class OverworldScene extends GameScene
     /**
      * checkEndCondition()
      *
-     * Purpose: Checks if the player ran out of steps, and if so, the game
-     *      proceeds to the EndGameScene.
+     * Purpose: Checks if the player ran out of steps, and if so, the save is
+     *      deleted and the game proceeds to the EndGameScene.
      */
     private void checkEndCondition ()
     {
         if (this.player.getStepsRemaining() == 0)
         {
-            this.getScene().setOnKeyPressed(null);
+            PokemonSafari.getJournal().finish();
+            this.controlsAnimation.stop();
             new TransitionToEndAnimation().start();
         }
     } // checkEndCondition()
@@ -719,10 +833,8 @@ public final class OverworldScene extends GameScene
      *
      * Purpose: Animation class to transition to the EndGameScene.
      */
-    private final class TransitionToEndAnimation extends AnimationTimer
+    private final class TransitionToEndAnimation extends GameAnimation
     {
-        private final ColorAdjust colorAdjust = new ColorAdjust();
-
         private double screenBrightness = DEFAULT_BRIGHTNESS;
 
 
@@ -731,15 +843,13 @@ public final class OverworldScene extends GameScene
         {
             if (this.screenBrightness > BLACK_SCREEN_BRIGHTNESS) {
                 this.screenBrightness -= 0.04;
-                this.colorAdjust.setBrightness(this.screenBrightness);
-                getPaintBrush().setEffect(this.colorAdjust);
+                setScreenBrightness(this.screenBrightness);
             }
             else
             {
                 this.stop();
                 PokemonSafari.goToNextScene(new EndGameScene());
             }
-            drawFrame();
         }
     } // final class TransitionToEndAnimation
 
@@ -0,0 +1,105 @@
+package view.perf;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DrawCallBudget.java
+ *
+ * Purpose: The number of draw calls each kind of scene may make in a pulse,
+ *      to hold the draw calls counted by FrameStats to, such as after a
+ *      headless replay of a session. Each line of a budget file is
+ *
+ *          <scene> <p99> <max>
+ *
+ *      where the scene is named by its class, and the 99th percentile and
+ *      the largest number of draw calls in a pulse of that scene must not
+ *      exceed the given numbers. Blank lines and lines starting with # are
+ *      ignored. Scenes without a budget are reported but not checked.
+ */
+public final class DrawCallBudget
+{
+    private static final double PERCENTILE = 99;
+
+    private final Map<String, long[]> budgets;
+
+
+    /**
+     * DrawCallBudget ()
+     *
+     * Purpose: Creates a budget from the given limits by scene.
+     */
+    private DrawCallBudget (final Map<String, long[]> budgets)
+    {
+        this.budgets = budgets;
+    } // DrawCallBudget ()
+
+
+    /**
+     * load()
+     *
+     * Purpose: Reads the budget of every scene in the given file. Throws an
+     *      IOException if the file cannot be read or a line is malformed.
+     */
+    public static DrawCallBudget load (final String filename) throws IOException
+    {
+        final Map<String, long[]> budgets = new LinkedHashMap<>();
+        try (BufferedReader bf = new BufferedReader(new FileReader(filename)))
+        {
+            String line;
+            int lineNumber = 0;
+            while ((line = bf.readLine()) != null)
+            {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                final String[] tokens = line.split("\\s+");
+                try {
+                    if (tokens.length != 3)
+                        throw new IllegalArgumentException("expected <scene> <p99> <max>");
+                    final long percentile = Long.parseLong(tokens[1]);
+                    final long max = Long.parseLong(tokens[2]);
+                    if (percentile < 0 || max < percentile)
+                        throw new IllegalArgumentException("budgets must be at least 0, and max at least p99");
+                    budgets.put(tokens[0], new long[] { percentile, max });
+                } catch (RuntimeException e) {
+                    throw new IOException("Budget file is damaged: " + filename + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return new DrawCallBudget(budgets);
+    } // load()
+
+
+    /**
+     * check()
+     *
+     * Purpose: Prints the draw calls of every scene shown so far against its
+     *      budget, and returns whether every scene kept to its budget.
+     */
+    public boolean check (final FrameStats stats, final PrintStream out)
+    {
+        boolean withinBudget = true;
+        out.printf("%-18s %10s %10s %10s %10s %10s  %s%n", "scene", "pulses", "p99", "budget", "max", "budget", "result");
+        for (String scene : stats.getSceneNames())
+        {
+            final FrameHistogram histogram = stats.getHistogram(scene, FrameStats.Metric.DrawCalls);
+            final long[] budget = this.budgets.get(scene);
+            final long percentile = histogram.getPercentile(PERCENTILE);
+            final long max = histogram.getMax();
+            final boolean over = budget != null && (percentile > budget[0] || max > budget[1]);
+            withinBudget &= !over;
+            out.printf("%-18s %10d %10d %10s %10d %10s  %s%n", scene, histogram.getCount(),
+                    percentile, budget == null ? "-" : Long.toString(budget[0]),
+                    max, budget == null ? "-" : Long.toString(budget[1]),
+                    budget == null ? "no budget" : over ? "OVER BUDGET" : "ok");
+        }
+        return withinBudget;
+    } // check()
+
+} // final class DrawCallBudget
@@ -0,0 +1,133 @@
+package view.perf;
+
+/**
+ * FrameHistogram.java
+ *
+ * Purpose: A histogram of non-negative values, such as frame times in
+ *      nanoseconds or draw call counts, that takes constant time and no
+ *      allocation to record a value.
+ *
+ *      Values are counted in buckets whose width grows with the value, as in
+ *      an HDR histogram: every power of two is split into 64 buckets, so a
+ *      percentile is within about 2% of the real value whatever its size.
+ *      Values too large for the last bucket are counted in it.
+ *
+ *      Values are recorded by a single thread without locking. Other
+ *      threads may read at any time and see a recent, possibly slightly
+ *      inconsistent, state.
+ */
+public final class FrameHistogram
+{
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_BITS = 36;                 // about a minute in nanoseconds
+    private static final int BUCKETS = (MAX_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long total;
+    private long max;
+
+
+    /**
+     * FrameHistogram ()
+     *
+     * Purpose: Creates an empty histogram.
+     */
+    public FrameHistogram ()
+    {
+        this.counts = new long[BUCKETS];
+    } // FrameHistogram ()
+
+
+    /**
+     * record()
+     *
+     * Purpose: Counts the given value. Negative values are counted as zero.
+     */
+    public void record (final long value)
+    {
+        final long clamped = Math.max(value, 0);
+        this.counts[Math.min(indexOf(clamped), BUCKETS - 1)]++;
+        if (clamped > this.max)
+            this.max = clamped;
+        this.total++;
+    } // record()
+
+
+    /**
+     * getCount()
+     *
+     * Purpose: Returns the number of values recorded.
+     */
+    public long getCount ()
+    {
+        return this.total;
+    } // getCount()
+
+
+    /**
+     * getMax()
+     *
+     * Purpose: Returns the largest value recorded, exactly.
+     */
+    public long getMax ()
+    {
+        return this.max;
+    } // getMax()
+
+
+    /**
+     * getPercentile()
+     *
+     * Purpose: Returns the value below which the given percentage of the
+     *      recorded values fall, or 0 if nothing was recorded.
+     */
+    public long getPercentile (final double percent)
+    {
+        if (percent < 0 || percent > 100)
+            throw new IllegalArgumentException("Percentile out of range: " + percent);
+        final long total = this.total;
+        if (total == 0)
+            return 0;
+        final long rank = Math.max(1, (long)Math.ceil(total * percent / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += this.counts[i];
+            if (seen >= rank)
+                return Math.min(highestValueOf(i), this.max);
+        }
+        return this.max;
+    } // getPercentile()
+
+
+    /**
+     * indexOf()
+     *
+     * Purpose: Returns the bucket that counts the given value.
+     */
+    private static int indexOf (final long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int)value;
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int)(value >>> shift) - SUB_BUCKETS;
+    } // indexOf()
+
+
+    /**
+     * highestValueOf()
+     *
+     * Purpose: Returns the largest value counted by the given bucket.
+     */
+    private static long highestValueOf (final int index)
+    {
+        final int bucket = index / SUB_BUCKETS;
+        final int subBucket = index % SUB_BUCKETS;
+        if (bucket == 0)
+            return subBucket;
+        final int shift = bucket - 1;
+        return ((long)(SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    } // highestValueOf()
+
+} // final class FrameHistogram
@@ -0,0 +1,307 @@
+package view.perf;
+
+import view.GameScene;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FrameStats.java
+ *
+ * Purpose: Singleton that measures every JavaFX pulse of the GameLoop and
+ *      keeps histograms of the measurements for each kind of GameScene.
+ *
+ *      For each pulse it records the time since the previous pulse (the frame
+ *      time), how much that differs from the previous frame time (the
+ *      jitter), the time spent updating animations, the time spent replaying
+ *      buffered draw commands to the canvas (the render time), and the number
+ *      of draw calls made through a Renderer, buffered or not. Drawing that
+ *      scenes do straight on a canvas is part of the update time. The time
+ *      JavaFX itself takes to paint the window is part of the frame time.
+ *
+ *      A probe is a couple of System.nanoTime() calls and a few array
+ *      increments, so the statistics are always kept. They are written to a
+ *      file when the game exits.
+ */
+public final class FrameStats
+{
+    private static final Path FOLDER = Paths.get("perf");
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private static FrameStats instance = null;
+
+    private final Map<String, FrameHistogram[]> scenes;
+
+    private FrameHistogram[] current;
+    private String currentScene;
+    private PerformanceHud hud;
+
+    private long lastPulseTime;
+    private long lastFrameTime;
+    private long pulseStart;
+    private long renderNanos;
+    private int drawCalls;
+
+
+    /**
+     * Metric
+     *
+     * Purpose: The measurements kept for each scene.
+     */
+    public enum Metric
+    {
+        Frame ("frame ms", true),
+        Jitter ("jitter ms", true),
+        Update ("update ms", true),
+        Render ("render ms", true),
+        DrawCalls ("draw calls", false);
+
+
+        private String label;
+        private boolean isTime;
+
+        Metric (String label, boolean isTime)
+        {
+            this.label = label;
+            this.isTime = isTime;
+        }
+
+        /**
+         * getLabel()
+         *
+         * Purpose: Returns the name of the metric, with its unit.
+         */
+        public String getLabel ()
+        {
+            return this.label;
+        } // getLabel()
+
+        /**
+         * format()
+         *
+         * Purpose: Formats a recorded value of the metric in its unit.
+         */
+        public String format (final long value)
+        {
+            return this.isTime ? String.format("%.2f", value / NANOS_PER_MILLI) : Long.toString(value);
+        } // format()
+    }
+
+
+    /**
+     * FrameStats ()
+     *
+     * Purpose: Creates the statistics and writes them to a file on exit.
+     */
+    private FrameStats ()
+    {
+        this.scenes = new ConcurrentHashMap<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                export();
+            }
+        }, "frame-stats-export"));
+    } // FrameStats ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the only instance of FrameStats.
+     */
+    public static FrameStats getInstance ()
+    {
+        if (instance == null)
+            instance = new FrameStats();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * setScene()
+     *
+     * Purpose: Sets the scene being shown. Pulses are counted for its kind of
+     *      scene from now on.
+     */
+    public void setScene (final GameScene scene)
+    {
+        this.currentScene = scene.getClass().getSimpleName();
+        FrameHistogram[] histograms = this.scenes.get(this.currentScene);
+        if (histograms == null)
+        {
+            histograms = new FrameHistogram[Metric.values().length];
+            for (int i = 0; i < histograms.length; i++)
+                histograms[i] = new FrameHistogram();
+            this.scenes.put(this.currentScene, histograms);
+        }
+        this.current = histograms;
+    } // setScene()
+
+
+    /**
+     * getScene()
+     *
+     * Purpose: Returns the name of the kind of scene being shown, or null
+     *      before the first scene.
+     */
+    public String getScene ()
+    {
+        return this.currentScene;
+    } // getScene()
+
+
+    /**
+     * getHistogram()
+     *
+     * Purpose: Returns the histogram of the given metric for the kind of
+     *      scene being shown, or null before the first scene.
+     */
+    public FrameHistogram getHistogram (final Metric metric)
+    {
+        return this.current == null ? null : this.current[metric.ordinal()];
+    } // getHistogram()
+
+
+    /**
+     * getSceneNames()
+     *
+     * Purpose: Returns the names of the kinds of scenes shown so far, in
+     *      alphabetical order.
+     */
+    public Set<String> getSceneNames ()
+    {
+        return new TreeSet<>(this.scenes.keySet());
+    } // getSceneNames()
+
+
+    /**
+     * getHistogram (String, Metric)
+     *
+     * Purpose: Returns the histogram of the given metric for the given kind
+     *      of scene, or null if it was never shown.
+     */
+    public FrameHistogram getHistogram (final String scene, final Metric metric)
+    {
+        final FrameHistogram[] histograms = this.scenes.get(scene);
+        return histograms == null ? null : histograms[metric.ordinal()];
+    } // getHistogram (String, Metric)
+
+
+    /**
+     * beginPulse()
+     *
+     * Purpose: Called at the start of a pulse with its JavaFX time. Records
+     *      the frame time and jitter since the previous pulse.
+     */
+    public void beginPulse (final long pulseTime)
+    {
+        if (this.current != null && this.lastPulseTime != 0)
+        {
+            final long frameTime = pulseTime - this.lastPulseTime;
+            this.current[Metric.Frame.ordinal()].record(frameTime);
+            if (this.lastFrameTime != 0)
+                this.current[Metric.Jitter.ordinal()].record(Math.abs(frameTime - this.lastFrameTime));
+            this.lastFrameTime = frameTime;
+        }
+        this.lastPulseTime = pulseTime;
+        this.renderNanos = 0;
+        this.drawCalls = 0;
+        this.pulseStart = System.nanoTime();
+    } // beginPulse()
+
+
+    /**
+     * recordRender()
+     *
+     * Purpose: Adds the time of a replay of buffered draw commands to the
+     *      current pulse. Its draw calls are counted by the Renderer.
+     */
+    public void recordRender (final long nanos)
+    {
+        this.renderNanos += nanos;
+    } // recordRender()
+
+
+    /**
+     * countDrawCall()
+     *
+     * Purpose: Adds a draw call made through a Renderer to the current pulse.
+     */
+    public void countDrawCall ()
+    {
+        this.drawCalls++;
+    } // countDrawCall()
+
+
+    /**
+     * endPulse()
+     *
+     * Purpose: Called at the end of a pulse. Records its update time, render
+     *      time and draw calls, then refreshes the overlay if it is shown.
+     */
+    public void endPulse ()
+    {
+        if (this.current != null)
+        {
+            final long elapsed = System.nanoTime() - this.pulseStart;
+            this.current[Metric.Update.ordinal()].record(elapsed - this.renderNanos);
+            this.current[Metric.Render.ordinal()].record(this.renderNanos);
+            this.current[Metric.DrawCalls.ordinal()].record(this.drawCalls);
+        }
+        if (this.hud != null)
+            this.hud.afterPulse();
+    } // endPulse()
+
+
+    /**
+     * setHud()
+     *
+     * Purpose: Sets the overlay refreshed after every pulse.
+     */
+    void setHud (final PerformanceHud hud)
+    {
+        this.hud = hud;
+    } // setHud()
+
+
+    /**
+     * export()
+     *
+     * Purpose: Writes the percentiles of every metric of every kind of scene
+     *      to a new file in the perf folder.
+     */
+    public void export ()
+    {
+        if (this.scenes.isEmpty())
+            return;
+        final Path file = FOLDER.resolve("frames-" + System.currentTimeMillis() + ".txt");
+        try {
+            Files.createDirectories(FOLDER);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8)))
+            {
+                out.printf("%-18s %-12s %10s %10s %10s %10s %10s%n", "scene", "metric", "count", "p50", "p90", "p99", "max");
+                for (Map.Entry<String, FrameHistogram[]> scene : this.scenes.entrySet())
+                    for (Metric metric : Metric.values())
+                    {
+                        final FrameHistogram histogram = scene.getValue()[metric.ordinal()];
+                        out.printf("%-18s %-12s %10d %10s %10s %10s %10s%n", scene.getKey(), metric.getLabel(),
+                                histogram.getCount(), metric.format(histogram.getPercentile(50)),
+                                metric.format(histogram.getPercentile(90)), metric.format(histogram.getPercentile(99)),
+                                metric.format(histogram.getMax()));
+                    }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    } // export()
+
+} // final class FrameStats
@@ -0,0 +1,99 @@
+package view.perf;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * PerformanceHud.java
+ *
+ * Purpose: An overlay in the corner of the window that shows the median and
+ *      99th percentile of the FrameStats of the scene being shown. It is
+ *      hidden until toggled and is only redrawn twice a second while shown,
+ *      so it costs nothing when hidden and barely shows up in its own numbers
+ *      when shown.
+ */
+public final class PerformanceHud extends Canvas
+{
+    private static final double WIDTH = 360.0;
+    private static final double LINE_HEIGHT = 18.0;
+    private static final double MARGIN = 8.0;
+    private static final int PULSES_PER_REFRESH = 30;
+    private static final Font FONT = Font.font("Monospaced", 14);
+    private static final Color BACKGROUND = Color.rgb(0, 0, 0, 0.6);
+
+    private int pulses;
+
+
+    /**
+     * PerformanceHud ()
+     *
+     * Purpose: Creates the hidden overlay and has FrameStats refresh it.
+     */
+    public PerformanceHud ()
+    {
+        super(WIDTH, MARGIN * 2 + LINE_HEIGHT * (FrameStats.Metric.values().length + 1));
+        this.setMouseTransparent(true);
+        this.setVisible(false);
+        FrameStats.getInstance().setHud(this);
+    } // PerformanceHud ()
+
+
+    /**
+     * toggle()
+     *
+     * Purpose: Shows the overlay if it is hidden and hides it if it is shown.
+     */
+    public void toggle ()
+    {
+        this.setVisible(!this.isVisible());
+        this.pulses = 0;
+        if (this.isVisible())
+            this.redraw();
+    } // toggle()
+
+
+    /**
+     * afterPulse()
+     *
+     * Purpose: Redraws the overlay every few pulses while it is shown.
+     */
+    void afterPulse ()
+    {
+        if (!this.isVisible() || ++this.pulses < PULSES_PER_REFRESH)
+            return;
+        this.pulses = 0;
+        this.redraw();
+    } // afterPulse()
+
+
+    /**
+     * redraw()
+     *
+     * Purpose: Draws the statistics of the scene being shown.
+     */
+    private void redraw ()
+    {
+        final GraphicsContext brush = this.getGraphicsContext2D();
+        final FrameStats stats = FrameStats.getInstance();
+        brush.clearRect(0, 0, this.getWidth(), this.getHeight());
+        brush.setFill(BACKGROUND);
+        brush.fillRect(0, 0, this.getWidth(), this.getHeight());
+        brush.setFont(FONT);
+        brush.setFill(Color.WHITE);
+
+        double y = MARGIN + LINE_HEIGHT - 4;
+        brush.fillText(String.format("%-12s %8s %8s", stats.getScene() == null ? "" : stats.getScene(), "p50", "p99"), MARGIN, y);
+        for (FrameStats.Metric metric : FrameStats.Metric.values())
+        {
+            y += LINE_HEIGHT;
+            final FrameHistogram histogram = stats.getHistogram(metric);
+            if (histogram == null)
+                continue;
+            brush.fillText(String.format("%-12s %8s %8s", metric.getLabel(), metric.format(histogram.getPercentile(50)),
+                    metric.format(histogram.getPercentile(99))), MARGIN, y);
+        }
+    } // redraw()
+
+} // final class PerformanceHud
@@ -0,0 +1,206 @@
+package view.render;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.Effect;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import view.perf.FrameStats;
+
+/**
+ * CanvasRenderer.java
+ *
+ * Purpose: Renderer that draws on a JavaFX canvas through its
+ *      GraphicsContext. Cached text is drawn from the shared TextCache.
+ *      Every draw call is counted by FrameStats.
+ */
+public final class CanvasRenderer implements Renderer
+{
+    private final Canvas canvas;
+    private final GraphicsContext brush;
+    private final FrameStats stats;
+
+
+    /**
+     * CanvasRenderer ()
+     *
+     * Purpose: Creates a renderer that draws on the given canvas.
+     */
+    public CanvasRenderer (final Canvas canvas)
+    {
+        this.canvas = canvas;
+        this.brush = canvas.getGraphicsContext2D();
+        this.stats = FrameStats.getInstance();
+    } // CanvasRenderer ()
+
+
+    @Override
+    public double getWidth ()
+    {
+        return this.canvas.getWidth();
+    }
+
+    @Override
+    public double getHeight ()
+    {
+        return this.canvas.getHeight();
+    }
+
+    @Override
+    public void setFill (final Paint fill)
+    {
+        this.brush.setFill(fill);
+    }
+
+    @Override
+    public Paint getFill ()
+    {
+        return this.brush.getFill();
+    }
+
+    @Override
+    public void setStroke (final Paint stroke)
+    {
+        this.brush.setStroke(stroke);
+    }
+
+    @Override
+    public void setLineWidth (final double lineWidth)
+    {
+        this.brush.setLineWidth(lineWidth);
+    }
+
+    @Override
+    public void setFont (final Font font)
+    {
+        this.brush.setFont(font);
+    }
+
+    @Override
+    public Font getFont ()
+    {
+        return this.brush.getFont();
+    }
+
+    @Override
+    public void setTextAlign (final TextAlignment align)
+    {
+        this.brush.setTextAlign(align);
+    }
+
+    @Override
+    public TextAlignment getTextAlign ()
+    {
+        return this.brush.getTextAlign();
+    }
+
+    @Override
+    public void setEffect (final Effect effect)
+    {
+        this.brush.setEffect(effect);
+    }
+
+    @Override
+    public void save ()
+    {
+        this.brush.save();
+    }
+
+    @Override
+    public void restore ()
+    {
+        this.brush.restore();
+    }
+
+    @Override
+    public void clipRect (final double x, final double y, final double width, final double height)
+    {
+        this.brush.beginPath();
+        this.brush.rect(x, y, width, height);
+        this.brush.clip();
+    }
+
+    @Override
+    public void clearRect (final double x, final double y, final double width, final double height)
+    {
+        this.stats.countDrawCall();
+        this.brush.clearRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillRect (final double x, final double y, final double width, final double height)
+    {
+        this.stats.countDrawCall();
+        this.brush.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeRect (final double x, final double y, final double width, final double height)
+    {
+        this.stats.countDrawCall();
+        this.brush.strokeRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeLine (final double x1, final double y1, final double x2, final double y2)
+    {
+        this.stats.countDrawCall();
+        this.brush.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void fillArc (final double x, final double y, final double width, final double height,
+                         final double startAngle, final double arcExtent, final ArcType closure)
+    {
+        this.stats.countDrawCall();
+        this.brush.fillArc(x, y, width, height, startAngle, arcExtent, closure);
+    }
+
+    @Override
+    public void fillText (final String text, final double x, final double y)
+    {
+        this.stats.countDrawCall();
+        this.brush.fillText(text, x, y);
+    }
+
+    @Override
+    public void fillCachedText (final String text, final double x, final double y)
+    {
+        this.stats.countDrawCall();
+        TextCache.getInstance().fillText(this.brush, text, x, y);
+    }
+
+    @Override
+    public void fillCachedText (final String text, final Font font, final Paint fill, final TextAlignment align,
+                                final double x, final double y)
+    {
+        this.stats.countDrawCall();
+        TextCache.getInstance().fillText(this.brush, text, font, fill, align, x, y);
+    }
+
+    @Override
+    public void drawImage (final Image image, final double x, final double y)
+    {
+        this.stats.countDrawCall();
+        this.brush.drawImage(image, x, y);
+    }
+
+    @Override
+    public void drawImage (final Image image, final double x, final double y, final double width, final double height)
+    {
+        this.stats.countDrawCall();
+        this.brush.drawImage(image, x, y, width, height);
+    }
+
+    @Override
+    public void drawImage (final Image image, final double srcX, final double srcY, final double srcWidth, final double srcHeight,
+                           final double destX, final double destY, final double destWidth, final double destHeight)
+    {
+        this.stats.countDrawCall();
+        this.brush.drawImage(image, srcX, srcY, srcWidth, srcHeight, destX, destY, destWidth, destHeight);
+    }
+
+} // final class CanvasRenderer
@@ -0,0 +1,576 @@
+package view.render;
+
+import javafx.scene.effect.Effect;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import view.perf.FrameStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DrawCommandBuffer.java
+ *
+ * Purpose: Records drawing commands for a frame and replays them to a
+ *      Renderer with as few state changes as possible.
+ *
+ *      Commands are grouped by the state they depend on (paint, font, text
+ *      alignment, effect and image atlas). A command is only moved past
+ *      another one when their bounds do not overlap, so the visible result is
+ *      the same as drawing in recorded order. During replay a state is only
+ *      set when it differs from the one already on the Renderer.
+ *
+ *      The buffer is reused between frames and does not allocate once its
+ *      arrays have grown to the size of a frame. Recorded state is forgotten
+ *      after every flush(), so a frame must set all the state it relies on;
+ *      state that is never set is left as it is on the Renderer.
+ *      State objects such as effects must not be changed between recording
+ *      and flush().
+ */
+public final class DrawCommandBuffer
+{
+    private static final int FILL_RECT = 0;
+    private static final int STROKE_RECT = 1;
+    private static final int FILL_TEXT = 2;
+    private static final int DRAW_IMAGE = 3;
+
+    private static final int ARGS = 8;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double TEXT_WIDTH_PER_SIZE = 0.75;  // conservative width of a glyph
+    private static final double TEXT_DESCENT_PER_SIZE = 0.3;
+    private static final int UNSET = -1;
+    private static final double UNSET_LINE_WIDTH_BOUNDS = 10.0;
+
+    private final List<Object> states;
+    private final TextCache textCache;
+
+    private int count;
+    private int[] ops;
+    private int[] fills;
+    private int[] strokes;
+    private int[] fonts;
+    private int[] aligns;
+    private int[] effects;
+    private int[] images;
+    private int[] depths;
+    private int[] order;
+    private double[] lineWidths;
+    private double[] args;
+    private double[] bounds;
+    private String[] texts;
+
+    private int currentFill;
+    private int currentStroke;
+    private int currentFont;
+    private int currentAlign;
+    private int currentEffect;
+    private double currentLineWidth;
+
+    private int recordedStateChanges;
+    private int lastCommandCount;
+    private int lastStateChanges;
+    private int lastRecordedStateChanges;
+
+
+    /**
+     * DrawCommandBuffer ()
+     *
+     * Purpose: Creates an empty buffer that estimates text bounds from the
+     *      font size.
+     */
+    public DrawCommandBuffer ()
+    {
+        this(null);
+    } // DrawCommandBuffer ()
+
+
+    /**
+     * DrawCommandBuffer (TextCache)
+     *
+     * Purpose: Creates an empty buffer that measures text exactly and draws it
+     *      as cached text of the Renderer. A null cache falls back to
+     *      estimated bounds and Renderer.fillText().
+     */
+    public DrawCommandBuffer (final TextCache textCache)
+    {
+        this.textCache = textCache;
+        this.states = new ArrayList<>();
+        this.allocate(INITIAL_CAPACITY);
+        this.reset();
+    } // DrawCommandBuffer (TextCache)
+
+
+    /**
+     * setFill()
+     *
+     * Purpose: Sets the fill paint for the following commands.
+     */
+    public void setFill (final Paint fill)
+    {
+        this.currentFill = this.track(this.currentFill, fill);
+    } // setFill()
+
+
+    /**
+     * setStroke()
+     *
+     * Purpose: Sets the stroke paint for the following commands.
+     */
+    public void setStroke (final Paint stroke)
+    {
+        this.currentStroke = this.track(this.currentStroke, stroke);
+    } // setStroke()
+
+
+    /**
+     * setFont()
+     *
+     * Purpose: Sets the font for the following commands.
+     */
+    public void setFont (final Font font)
+    {
+        this.currentFont = this.track(this.currentFont, font);
+    } // setFont()
+
+
+    /**
+     * setTextAlign()
+     *
+     * Purpose: Sets the text alignment for the following commands.
+     */
+    public void setTextAlign (final TextAlignment align)
+    {
+        this.currentAlign = this.track(this.currentAlign, align);
+    } // setTextAlign()
+
+
+    /**
+     * setEffect()
+     *
+     * Purpose: Sets the effect for the following commands. If no effect is
+     *      ever set, the effect on the Renderer is left untouched.
+     */
+    public void setEffect (final Effect effect)
+    {
+        this.currentEffect = this.track(this.currentEffect, effect);
+    } // setEffect()
+
+
+    /**
+     * setLineWidth()
+     *
+     * Purpose: Sets the stroke line width for the following commands.
+     */
+    public void setLineWidth (final double lineWidth)
+    {
+        if (lineWidth != this.currentLineWidth)
+            this.recordedStateChanges++;
+        this.currentLineWidth = lineWidth;
+    } // setLineWidth()
+
+
+    /**
+     * fillRect()
+     *
+     * Purpose: Records a filled rectangle.
+     */
+    public void fillRect (final double x, final double y, final double width, final double height)
+    {
+        final int i = this.add(FILL_RECT);
+        this.setArgs(i, x, y, width, height, 0, 0, 0, 0);
+        this.setBounds(i, x, y, width, height);
+    } // fillRect()
+
+
+    /**
+     * strokeRect()
+     *
+     * Purpose: Records an outlined rectangle.
+     */
+    public void strokeRect (final double x, final double y, final double width, final double height)
+    {
+        final int i = this.add(STROKE_RECT);
+        final double halfLine = (Double.isNaN(this.currentLineWidth) ? UNSET_LINE_WIDTH_BOUNDS : this.currentLineWidth) / 2;
+        this.setArgs(i, x, y, width, height, 0, 0, 0, 0);
+        this.setBounds(i, x-halfLine, y-halfLine, width+2*halfLine, height+2*halfLine);
+    } // strokeRect()
+
+
+    /**
+     * fillText()
+     *
+     * Purpose: Records a line of filled text.
+     */
+    public void fillText (final String text, final double x, final double y)
+    {
+        final int i = this.add(FILL_TEXT);
+        final Font font = this.currentFont == UNSET ? null : (Font)this.states.get(this.currentFont);
+        final double size = font == null ? 12 : font.getSize();
+        final double width = this.measure(text, font);
+        final TextAlignment align = this.currentAlign == UNSET ? TextAlignment.LEFT : (TextAlignment)this.states.get(this.currentAlign);
+        final double left = align == TextAlignment.CENTER ? x - width/2 : align == TextAlignment.RIGHT ? x - width : x;
+
+        this.texts[i] = text;
+        this.setArgs(i, x, y, 0, 0, 0, 0, 0, 0);
+        this.setBounds(i, left, y - size, width, size * (1 + TEXT_DESCENT_PER_SIZE));
+    } // fillText()
+
+
+    /**
+     * measure()
+     *
+     * Purpose: Returns the width of the given text in the given font, exact
+     *      with a TextCache and estimated from the font size without one.
+     */
+    public double measure (final String text, final Font font)
+    {
+        if (this.textCache != null && font != null)
+            return this.textCache.measure(text, font);
+        return text.length() * (font == null ? 12 : font.getSize()) * TEXT_WIDTH_PER_SIZE;
+    } // measure()
+
+
+    /**
+     * drawImage()
+     *
+     * Purpose: Records an image drawn at the given position and size.
+     */
+    public void drawImage (final Image image, final double x, final double y, final double width, final double height)
+    {
+        this.drawImage(image, 0, 0, image.getWidth(), image.getHeight(), x, y, width, height);
+    } // drawImage()
+
+
+    /**
+     * drawImage()
+     *
+     * Purpose: Records a region of an image drawn at the given position and size.
+     */
+    public void drawImage (final Image image, final double srcX, final double srcY, final double srcWidth, final double srcHeight,
+                           final double destX, final double destY, final double destWidth, final double destHeight)
+    {
+        final int i = this.add(DRAW_IMAGE);
+        this.images[i] = this.idOf(image);
+        this.setArgs(i, srcX, srcY, srcWidth, srcHeight, destX, destY, destWidth, destHeight);
+        this.setBounds(i, destX, destY, destWidth, destHeight);
+    } // drawImage()
+
+
+    /**
+     * flush()
+     *
+     * Purpose: Replays all recorded commands to the given Renderer and
+     *      empties the buffer for the next frame.
+     */
+    public void flush (final Renderer brush)
+    {
+        final long start = System.nanoTime();
+        this.assignDepths();
+        this.sortCommands();
+
+        int fill = UNSET, stroke = UNSET, font = UNSET, align = UNSET, effect = UNSET;
+        double lineWidth = Double.NaN;
+        int stateChanges = 0;
+
+        for (int n = 0; n < this.count; n++)
+        {
+            final int i = this.order[n];
+            final int a = i * ARGS;
+
+            if (this.effects[i] != UNSET && this.effects[i] != effect)
+            {
+                effect = this.effects[i];
+                brush.setEffect((Effect)this.states.get(effect));
+                stateChanges++;
+            }
+            switch (this.ops[i])
+            {
+                case FILL_RECT:
+                    if (this.fills[i] != UNSET && this.fills[i] != fill) { fill = this.fills[i]; brush.setFill((Paint)this.states.get(fill)); stateChanges++; }
+                    brush.fillRect(this.args[a], this.args[a+1], this.args[a+2], this.args[a+3]);
+                    break;
+                case STROKE_RECT:
+                    if (this.strokes[i] != UNSET && this.strokes[i] != stroke) { stroke = this.strokes[i]; brush.setStroke((Paint)this.states.get(stroke)); stateChanges++; }
+                    if (!Double.isNaN(this.lineWidths[i]) && this.lineWidths[i] != lineWidth) { lineWidth = this.lineWidths[i]; brush.setLineWidth(lineWidth); stateChanges++; }
+                    brush.strokeRect(this.args[a], this.args[a+1], this.args[a+2], this.args[a+3]);
+                    break;
+                case FILL_TEXT:
+                    if (this.textCache != null && this.fills[i] != UNSET && this.fonts[i] != UNSET)
+                    {
+                        brush.fillCachedText(this.texts[i], (Font)this.states.get(this.fonts[i]), (Paint)this.states.get(this.fills[i]),
+                                this.aligns[i] == UNSET ? TextAlignment.LEFT : (TextAlignment)this.states.get(this.aligns[i]),
+                                this.args[a], this.args[a+1]);
+                        break;
+                    }
+                    if (this.fills[i] != UNSET && this.fills[i] != fill) { fill = this.fills[i]; brush.setFill((Paint)this.states.get(fill)); stateChanges++; }
+                    if (this.fonts[i] != UNSET && this.fonts[i] != font) { font = this.fonts[i]; brush.setFont((Font)this.states.get(font)); stateChanges++; }
+                    if (this.aligns[i] != UNSET && this.aligns[i] != align) { align = this.aligns[i]; brush.setTextAlign((TextAlignment)this.states.get(align)); stateChanges++; }
+                    brush.fillText(this.texts[i], this.args[a], this.args[a+1]);
+                    break;
+                case DRAW_IMAGE:
+                    brush.drawImage((Image)this.states.get(this.images[i]),
+                            this.args[a], this.args[a+1], this.args[a+2], this.args[a+3],
+                            this.args[a+4], this.args[a+5], this.args[a+6], this.args[a+7]);
+                    break;
+            }
+        }
+
+        this.lastCommandCount = this.count;
+        this.lastStateChanges = stateChanges;
+        this.lastRecordedStateChanges = this.recordedStateChanges;
+        this.reset();
+        FrameStats.getInstance().recordRender(System.nanoTime() - start);
+    } // flush()
+
+
+    /**
+     * getCommandCount()
+     *
+     * Purpose: Returns the number of commands replayed by the last flush().
+     */
+    public int getCommandCount ()
+    {
+        return this.lastCommandCount;
+    } // getCommandCount()
+
+
+    /**
+     * getStateChangeCount()
+     *
+     * Purpose: Returns the number of state changes made by the last flush().
+     */
+    public int getStateChangeCount ()
+    {
+        return this.lastStateChanges;
+    } // getStateChangeCount()
+
+
+    /**
+     * getRecordedStateChangeCount()
+     *
+     * Purpose: Returns the number of state changes the last frame would have
+     *      made if it had been drawn directly in recorded order.
+     */
+    public int getRecordedStateChangeCount ()
+    {
+        return this.lastRecordedStateChanges;
+    } // getRecordedStateChangeCount()
+
+
+    /**
+     * reset()
+     *
+     * Purpose: Empties the buffer. Recorded state is forgotten, so every frame
+     *      must set the state it relies on.
+     */
+    private void reset ()
+    {
+        for (int i = 0; i < this.count; i++)
+            this.texts[i] = null;
+        this.count = 0;
+        this.states.clear();
+        this.currentFill = UNSET;
+        this.currentStroke = UNSET;
+        this.currentFont = UNSET;
+        this.currentAlign = UNSET;
+        this.currentEffect = UNSET;
+        this.currentLineWidth = Double.NaN;
+        this.recordedStateChanges = 0;
+    } // reset()
+
+
+    /**
+     * track()
+     *
+     * Purpose: Returns the id of the given state, counting a state change when
+     *      it differs from the current one.
+     */
+    private int track (final int current, final Object state)
+    {
+        final int id = this.idOf(state);
+        if (id != current)
+            this.recordedStateChanges++;
+        return id;
+    } // track()
+
+
+    /**
+     * idOf()
+     *
+     * Purpose: Returns a small id for the given state object. Equal objects get
+     *      the same id for the whole frame.
+     */
+    private int idOf (final Object state)
+    {
+        for (int id = 0; id < this.states.size(); id++)
+            if (this.states.get(id) == state || (state != null && state.equals(this.states.get(id))))
+                return id;
+        this.states.add(state);
+        return this.states.size()-1;
+    } // idOf()
+
+
+    /**
+     * add()
+     *
+     * Purpose: Adds a command of the given type with the current state, and
+     *      returns its index.
+     */
+    private int add (final int op)
+    {
+        if (this.count == this.ops.length)
+            this.allocate(this.ops.length * 2);
+        final int i = this.count++;
+        this.ops[i] = op;
+        this.fills[i] = op == FILL_RECT || op == FILL_TEXT ? this.currentFill : UNSET;
+        this.strokes[i] = op == STROKE_RECT ? this.currentStroke : UNSET;
+        this.lineWidths[i] = op == STROKE_RECT ? this.currentLineWidth : 0;
+        this.fonts[i] = op == FILL_TEXT ? this.currentFont : UNSET;
+        this.aligns[i] = op == FILL_TEXT ? this.currentAlign : UNSET;
+        this.effects[i] = this.currentEffect;
+        this.images[i] = UNSET;
+        return i;
+    } // add()
+
+
+    private void setArgs (final int i, final double a0, final double a1, final double a2, final double a3,
+                          final double a4, final double a5, final double a6, final double a7)
+    {
+        final int a = i * ARGS;
+        this.args[a] = a0;   this.args[a+1] = a1; this.args[a+2] = a2; this.args[a+3] = a3;
+        this.args[a+4] = a4; this.args[a+5] = a5; this.args[a+6] = a6; this.args[a+7] = a7;
+    }
+
+
+    private void setBounds (final int i, final double x, final double y, final double width, final double height)
+    {
+        this.bounds[i*4] = x;
+        this.bounds[i*4+1] = y;
+        this.bounds[i*4+2] = x + width;
+        this.bounds[i*4+3] = y + height;
+    }
+
+
+    /**
+     * assignDepths()
+     *
+     * Purpose: Gives every command a depth. A command is deeper than every
+     *      earlier command it overlaps that uses a different state, so sorting
+     *      by depth keeps the visible stacking order.
+     */
+    private void assignDepths ()
+    {
+        for (int i = 0; i < this.count; i++)
+        {
+            int depth = 0;
+            for (int j = 0; j < i; j++)
+            {
+                if (!this.overlaps(i, j))
+                    continue;
+                final int needed = this.compareState(i, j) == 0 ? this.depths[j] : this.depths[j] + 1;
+                if (needed > depth)
+                    depth = needed;
+            }
+            this.depths[i] = depth;
+        }
+    } // assignDepths()
+
+
+    /**
+     * sortCommands()
+     *
+     * Purpose: Sorts the replay order by depth, then state, then recorded order.
+     *      Frames are small and mostly sorted, so an insertion sort is used.
+     */
+    private void sortCommands ()
+    {
+        for (int i = 0; i < this.count; i++)
+            this.order[i] = i;
+        for (int i = 1; i < this.count; i++)
+        {
+            final int command = this.order[i];
+            int j = i - 1;
+            while (j >= 0 && this.compareCommands(this.order[j], command) > 0)
+            {
+                this.order[j+1] = this.order[j];
+                j--;
+            }
+            this.order[j+1] = command;
+        }
+    } // sortCommands()
+
+
+    private int compareCommands (final int a, final int b)
+    {
+        if (this.depths[a] != this.depths[b])
+            return Integer.compare(this.depths[a], this.depths[b]);
+        final int state = this.compareState(a, b);
+        return state != 0 ? state : Integer.compare(a, b);
+    }
+
+
+    private int compareState (final int a, final int b)
+    {
+        if (this.effects[a] != this.effects[b]) return Integer.compare(this.effects[a], this.effects[b]);
+        if (this.images[a] != this.images[b])   return Integer.compare(this.images[a], this.images[b]);
+        if (this.fonts[a] != this.fonts[b])     return Integer.compare(this.fonts[a], this.fonts[b]);
+        if (this.fills[a] != this.fills[b])     return Integer.compare(this.fills[a], this.fills[b]);
+        if (this.aligns[a] != this.aligns[b])   return Integer.compare(this.aligns[a], this.aligns[b]);
+        if (this.strokes[a] != this.strokes[b]) return Integer.compare(this.strokes[a], this.strokes[b]);
+        return Double.compare(this.lineWidths[a], this.lineWidths[b]);
+    }
+
+
+    private boolean overlaps (final int a, final int b)
+    {
+        return this.bounds[a*4] < this.bounds[b*4+2] && this.bounds[b*4] < this.bounds[a*4+2]
+                && this.bounds[a*4+1] < this.bounds[b*4+3] && this.bounds[b*4+1] < this.bounds[a*4+3];
+    }
+
+
+    /**
+     * allocate()
+     *
+     * Purpose: Grows the command arrays to the given capacity.
+     */
+    private void allocate (final int capacity)
+    {
+        this.ops = grow(this.ops, capacity);
+        this.fills = grow(this.fills, capacity);
+        this.strokes = grow(this.strokes, capacity);
+        this.fonts = grow(this.fonts, capacity);
+        this.aligns = grow(this.aligns, capacity);
+        this.effects = grow(this.effects, capacity);
+        this.images = grow(this.images, capacity);
+        this.depths = grow(this.depths, capacity);
+        this.order = grow(this.order, capacity);
+        this.lineWidths = grow(this.lineWidths, capacity);
+        this.args = grow(this.args, capacity * ARGS);
+        this.bounds = grow(this.bounds, capacity * 4);
+        final String[] newTexts = new String[capacity];
+        if (this.texts != null)
+            System.arraycopy(this.texts, 0, newTexts, 0, this.texts.length);
+        this.texts = newTexts;
+    } // allocate()
+
+
+    private static int[] grow (final int[] array, final int capacity)
+    {
+        final int[] grown = new int[capacity];
+        if (array != null)
+            System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+
+    private static double[] grow (final double[] array, final int capacity)
+    {
+        final double[] grown = new double[capacity];
+        if (array != null)
+            System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+} // final class DrawCommandBuffer
@@ -0,0 +1,605 @@
+package view.render;
+
+import javafx.scene.effect.Effect;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import view.perf.FrameStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * HeadlessRenderer.java
+ *
+ * Purpose: Renderer that needs no display, for benchmarking and checking
+ *      the drawing of scenes. It counts every draw call by kind and every
+ *      change of state, so that the draw calls of a scene can be held to a
+ *      budget.
+ *
+ *      When created with a raster, it also draws into an ARGB int[] buffer
+ *      of the size of the layer, blending with source-over like a canvas.
+ *      Rectangles, lines and arcs are drawn with solid colors, and images
+ *      are sampled from their pixel reader with the nearest pixel. Text has
+ *      no glyphs to draw, so it is only counted, as are null images, images
+ *      without a pixel reader, paints other than colors and effects. Arcs
+ *      are always filled as a pie, whatever their closure.
+ *
+ *      Without a raster it only counts, which costs a few increments per
+ *      draw call. Draw calls are also counted by FrameStats, like those of a
+ *      CanvasRenderer.
+ */
+public final class HeadlessRenderer implements Renderer
+{
+    private final boolean raster;
+    private final long[] counts;
+    private final FrameStats stats;
+    private final List<State> savedStates;
+
+    private int width;
+    private int height;
+    private int[] pixels;
+    private int[] backdrop;
+    private long stateChanges;
+
+    private Paint fill;
+    private Paint stroke;
+    private double lineWidth;
+    private Font font;
+    private TextAlignment align;
+    private Effect effect;
+    private int clipX0;
+    private int clipY0;
+    private int clipX1;
+    private int clipY1;
+
+
+    /**
+     * Call
+     *
+     * Purpose: The kinds of draw calls that are counted.
+     */
+    public enum Call
+    {
+        ClearRect,
+        FillRect,
+        StrokeRect,
+        StrokeLine,
+        FillArc,
+        FillText,
+        DrawImage
+    } // enum Call
+
+
+    /**
+     * HeadlessRenderer ()
+     *
+     * Purpose: Creates a renderer for a layer of the given size, that draws
+     *      into a buffer if raster is true and only counts otherwise.
+     */
+    public HeadlessRenderer (final int width, final int height, final boolean raster)
+    {
+        this.raster = raster;
+        this.counts = new long[Call.values().length];
+        this.stats = FrameStats.getInstance();
+        this.savedStates = new ArrayList<>();
+        this.fill = Color.BLACK;
+        this.stroke = Color.BLACK;
+        this.lineWidth = 1.0;
+        this.align = TextAlignment.LEFT;
+        this.resize(width, height);
+    } // HeadlessRenderer ()
+
+
+    /**
+     * resize()
+     *
+     * Purpose: Changes the size of the layer. The buffer is cleared and the
+     *      clip is reset.
+     */
+    public void resize (final int width, final int height)
+    {
+        if (width < 0 || height < 0)
+            throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+        this.pixels = this.raster ? new int[width * height] : null;
+        this.backdrop = null;
+        this.savedStates.clear();
+        this.resetClip();
+    } // resize()
+
+
+    /**
+     * getPixels()
+     *
+     * Purpose: Returns the ARGB buffer, row by row, or null if the renderer
+     *      only counts. The buffer is replaced when the layer is resized.
+     */
+    public int[] getPixels ()
+    {
+        return this.pixels;
+    } // getPixels()
+
+
+    /**
+     * saveBackdrop()
+     *
+     * Purpose: Keeps a copy of the buffer, like GameScene keeps a snapshot of
+     *      its HUD layer.
+     */
+    public void saveBackdrop ()
+    {
+        if (this.pixels == null)
+            return;
+        if (this.backdrop == null || this.backdrop.length != this.pixels.length)
+            this.backdrop = new int[this.pixels.length];
+        System.arraycopy(this.pixels, 0, this.backdrop, 0, this.pixels.length);
+    } // saveBackdrop()
+
+
+    /**
+     * restoreBackdrop()
+     *
+     * Purpose: Clears the given region and copies it back from the saved
+     *      backdrop, counted as the clear and the image draw a canvas takes.
+     */
+    public void restoreBackdrop (final double x, final double y, final double width, final double height)
+    {
+        this.clearRect(x, y, width, height);
+        this.count(Call.DrawImage);
+        if (this.pixels == null || this.backdrop == null)
+            return;
+        final int x0 = Math.max(this.clipX0, firstPixel(x)), x1 = Math.min(this.clipX1, firstPixel(x + width));
+        final int y0 = Math.max(this.clipY0, firstPixel(y)), y1 = Math.min(this.clipY1, firstPixel(y + height));
+        for (int py = y0; py < y1; py++)
+            if (x1 > x0)
+                System.arraycopy(this.backdrop, py * this.width + x0, this.pixels, py * this.width + x0, x1 - x0);
+    } // restoreBackdrop()
+
+
+    private void count (final Call call)
+    {
+        this.counts[call.ordinal()]++;
+        this.stats.countDrawCall();
+    }
+
+
+    /**
+     * getCount()
+     *
+     * Purpose: Returns the number of draw calls of the given kind since the
+     *      counts were last reset.
+     */
+    public long getCount (final Call call)
+    {
+        return this.counts[call.ordinal()];
+    } // getCount()
+
+
+    /**
+     * getDrawCalls()
+     *
+     * Purpose: Returns the number of draw calls of every kind since the
+     *      counts were last reset.
+     */
+    public long getDrawCalls ()
+    {
+        long drawCalls = 0;
+        for (long count : this.counts)
+            drawCalls += count;
+        return drawCalls;
+    } // getDrawCalls()
+
+
+    /**
+     * getStateChanges()
+     *
+     * Purpose: Returns the number of times the fill, stroke, line width,
+     *      font, text alignment or effect was changed to a different value
+     *      since the counts were last reset.
+     */
+    public long getStateChanges ()
+    {
+        return this.stateChanges;
+    } // getStateChanges()
+
+
+    /**
+     * resetCounts()
+     *
+     * Purpose: Sets every count back to zero, such as at the start of a frame.
+     */
+    public void resetCounts ()
+    {
+        for (int i = 0; i < this.counts.length; i++)
+            this.counts[i] = 0;
+        this.stateChanges = 0;
+    } // resetCounts()
+
+
+    @Override
+    public double getWidth ()
+    {
+        return this.width;
+    }
+
+    @Override
+    public double getHeight ()
+    {
+        return this.height;
+    }
+
+    @Override
+    public void setFill (final Paint fill)
+    {
+        this.fill = this.track(this.fill, fill);
+    }
+
+    @Override
+    public Paint getFill ()
+    {
+        return this.fill;
+    }
+
+    @Override
+    public void setStroke (final Paint stroke)
+    {
+        this.stroke = this.track(this.stroke, stroke);
+    }
+
+    @Override
+    public void setLineWidth (final double lineWidth)
+    {
+        if (lineWidth != this.lineWidth)
+            this.stateChanges++;
+        this.lineWidth = lineWidth;
+    }
+
+    @Override
+    public void setFont (final Font font)
+    {
+        this.font = this.track(this.font, font);
+    }
+
+    @Override
+    public Font getFont ()
+    {
+        return this.font;
+    }
+
+    @Override
+    public void setTextAlign (final TextAlignment align)
+    {
+        this.align = this.track(this.align, align);
+    }
+
+    @Override
+    public TextAlignment getTextAlign ()
+    {
+        return this.align;
+    }
+
+    @Override
+    public void setEffect (final Effect effect)
+    {
+        this.effect = this.track(this.effect, effect);
+    }
+
+    @Override
+    public void save ()
+    {
+        this.savedStates.add(new State(this));
+    }
+
+    @Override
+    public void restore ()
+    {
+        if (!this.savedStates.isEmpty())
+            this.savedStates.remove(this.savedStates.size()-1).restore(this);
+    }
+
+    @Override
+    public void clipRect (final double x, final double y, final double width, final double height)
+    {
+        this.clipX0 = Math.max(this.clipX0, firstPixel(x));
+        this.clipY0 = Math.max(this.clipY0, firstPixel(y));
+        this.clipX1 = Math.min(this.clipX1, firstPixel(x + width));
+        this.clipY1 = Math.min(this.clipY1, firstPixel(y + height));
+    }
+
+    @Override
+    public void clearRect (final double x, final double y, final double width, final double height)
+    {
+        this.count(Call.ClearRect);
+        if (this.pixels == null)
+            return;
+        final int x0 = Math.max(this.clipX0, firstPixel(x)), x1 = Math.min(this.clipX1, firstPixel(x + width));
+        final int y0 = Math.max(this.clipY0, firstPixel(y)), y1 = Math.min(this.clipY1, firstPixel(y + height));
+        for (int py = y0; py < y1; py++)
+            for (int px = x0; px < x1; px++)
+                this.pixels[py * this.width + px] = 0;
+    }
+
+    @Override
+    public void fillRect (final double x, final double y, final double width, final double height)
+    {
+        this.count(Call.FillRect);
+        this.fillBox(x, y, width, height, argbOf(this.fill));
+    }
+
+    @Override
+    public void strokeRect (final double x, final double y, final double width, final double height)
+    {
+        this.count(Call.StrokeRect);
+        final int argb = argbOf(this.stroke);
+        final double half = this.lineWidth / 2;
+        this.fillBox(x - half, y - half, width + this.lineWidth, this.lineWidth, argb);
+        this.fillBox(x - half, y + height - half, width + this.lineWidth, this.lineWidth, argb);
+        this.fillBox(x - half, y + half, this.lineWidth, height - this.lineWidth, argb);
+        this.fillBox(x + width - half, y + half, this.lineWidth, height - this.lineWidth, argb);
+    }
+
+    @Override
+    public void strokeLine (final double x1, final double y1, final double x2, final double y2)
+    {
+        this.count(Call.StrokeLine);
+        final int argb = argbOf(this.stroke);
+        if (this.pixels == null || argb == 0)
+            return;
+        final double half = this.lineWidth / 2;
+        final double dx = x2 - x1, dy = y2 - y1;
+        final double lengthSquared = dx*dx + dy*dy;
+        final int x0 = Math.max(this.clipX0, firstPixel(Math.min(x1, x2) - half));
+        final int xEnd = Math.min(this.clipX1, firstPixel(Math.max(x1, x2) + half));
+        final int y0 = Math.max(this.clipY0, firstPixel(Math.min(y1, y2) - half));
+        final int yEnd = Math.min(this.clipY1, firstPixel(Math.max(y1, y2) + half));
+        for (int py = y0; py < yEnd; py++)
+            for (int px = x0; px < xEnd; px++)
+            {
+                final double cx = px + 0.5 - x1, cy = py + 0.5 - y1;
+                final double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (cx*dx + cy*dy) / lengthSquared));
+                final double ox = cx - t*dx, oy = cy - t*dy;
+                if (ox*ox + oy*oy <= half*half)
+                    this.blend(px, py, argb);
+            }
+    }
+
+    @Override
+    public void fillArc (final double x, final double y, final double width, final double height,
+                         final double startAngle, final double arcExtent, final ArcType closure)
+    {
+        this.count(Call.FillArc);
+        final int argb = argbOf(this.fill);
+        if (this.pixels == null || argb == 0 || width <= 0 || height <= 0)
+            return;
+        final double radiusX = width / 2, radiusY = height / 2;
+        final double centerX = x + radiusX, centerY = y + radiusY;
+        final double extent = Math.min(360, Math.abs(arcExtent));
+        final int x0 = Math.max(this.clipX0, firstPixel(x)), x1 = Math.min(this.clipX1, firstPixel(x + width));
+        final int y0 = Math.max(this.clipY0, firstPixel(y)), y1 = Math.min(this.clipY1, firstPixel(y + height));
+        for (int py = y0; py < y1; py++)
+            for (int px = x0; px < x1; px++)
+            {
+                final double ux = (px + 0.5 - centerX) / radiusX, uy = (py + 0.5 - centerY) / radiusY;
+                if (ux*ux + uy*uy > 1)
+                    continue;
+                // Angles go counterclockwise from three o'clock, with y pointing down on the layer
+                final double angle = Math.toDegrees(Math.atan2(-uy, ux));
+                final double swept = arcExtent >= 0 ? angle - startAngle : startAngle - angle;
+                if (extent == 360 || ((swept % 360) + 360) % 360 <= extent)
+                    this.blend(px, py, argb);
+            }
+    }
+
+    @Override
+    public void fillText (final String text, final double x, final double y)
+    {
+        this.count(Call.FillText);
+    }
+
+    @Override
+    public void fillCachedText (final String text, final double x, final double y)
+    {
+        this.count(Call.FillText);
+    }
+
+    @Override
+    public void fillCachedText (final String text, final Font font, final Paint fill, final TextAlignment align,
+                                final double x, final double y)
+    {
+        this.count(Call.FillText);
+    }
+
+    @Override
+    public void drawImage (final Image image, final double x, final double y)
+    {
+        if (image == null)
+            this.count(Call.DrawImage);
+        else
+            this.drawImage(image, 0, 0, image.getWidth(), image.getHeight(), x, y, image.getWidth(), image.getHeight());
+    }
+
+    @Override
+    public void drawImage (final Image image, final double x, final double y, final double width, final double height)
+    {
+        if (image == null)
+            this.count(Call.DrawImage);
+        else
+            this.drawImage(image, 0, 0, image.getWidth(), image.getHeight(), x, y, width, height);
+    }
+
+    @Override
+    public void drawImage (final Image image, final double srcX, final double srcY, final double srcWidth, final double srcHeight,
+                           final double destX, final double destY, final double destWidth, final double destHeight)
+    {
+        this.count(Call.DrawImage);
+        final PixelReader reader = this.pixels == null || image == null ? null : image.getPixelReader();
+        if (reader == null || destWidth <= 0 || destHeight <= 0)
+            return;
+        final int imageWidth = (int)image.getWidth(), imageHeight = (int)image.getHeight();
+        final double scaleX = srcWidth / destWidth, scaleY = srcHeight / destHeight;
+        final int x0 = Math.max(this.clipX0, firstPixel(destX)), x1 = Math.min(this.clipX1, firstPixel(destX + destWidth));
+        final int y0 = Math.max(this.clipY0, firstPixel(destY)), y1 = Math.min(this.clipY1, firstPixel(destY + destHeight));
+        for (int py = y0; py < y1; py++)
+        {
+            final int sy = (int)Math.floor(srcY + (py + 0.5 - destY) * scaleY);
+            if (sy < 0 || sy >= imageHeight)
+                continue;
+            for (int px = x0; px < x1; px++)
+            {
+                final int sx = (int)Math.floor(srcX + (px + 0.5 - destX) * scaleX);
+                if (sx >= 0 && sx < imageWidth)
+                    this.blend(px, py, reader.getArgb(sx, sy));
+            }
+        }
+    }
+
+
+    private <T> T track (final T current, final T state)
+    {
+        if (!Objects.equals(current, state))
+            this.stateChanges++;
+        return state;
+    }
+
+
+    private void resetClip ()
+    {
+        this.clipX0 = 0;
+        this.clipY0 = 0;
+        this.clipX1 = this.width;
+        this.clipY1 = this.height;
+    }
+
+
+    /**
+     * fillBox()
+     *
+     * Purpose: Blends the given color over the pixels whose centers are in
+     *      the given rectangle and the clip.
+     */
+    private void fillBox (final double x, final double y, final double width, final double height, final int argb)
+    {
+        if (this.pixels == null || argb == 0)
+            return;
+        final int x0 = Math.max(this.clipX0, firstPixel(x)), x1 = Math.min(this.clipX1, firstPixel(x + width));
+        final int y0 = Math.max(this.clipY0, firstPixel(y)), y1 = Math.min(this.clipY1, firstPixel(y + height));
+        for (int py = y0; py < y1; py++)
+            for (int px = x0; px < x1; px++)
+                this.blend(px, py, argb);
+    }
+
+
+    /**
+     * blend()
+     *
+     * Purpose: Draws the given ARGB color over the given pixel.
+     */
+    private void blend (final int x, final int y, final int argb)
+    {
+        final int alpha = argb >>> 24;
+        if (alpha == 0)
+            return;
+        final int i = y * this.width + x;
+        if (alpha == 255)
+        {
+            this.pixels[i] = argb;
+            return;
+        }
+        final int under = this.pixels[i];
+        final int underAlpha = (under >>> 24) * (255 - alpha) / 255;
+        final int outAlpha = alpha + underAlpha;
+        int out = outAlpha << 24;
+        for (int shift = 0; shift < 24; shift += 8)
+        {
+            final int channel = (((argb >> shift) & 0xFF) * alpha + ((under >> shift) & 0xFF) * underAlpha) / outAlpha;
+            out |= channel << shift;
+        }
+        this.pixels[i] = out;
+    }
+
+
+    /**
+     * firstPixel()
+     *
+     * Purpose: Returns the first pixel whose center is at or after the given
+     *      coordinate.
+     */
+    private static int firstPixel (final double coordinate)
+    {
+        return (int)Math.ceil(coordinate - 0.5);
+    }
+
+
+    /**
+     * argbOf()
+     *
+     * Purpose: Returns the given paint as an ARGB color, or 0 if it is not
+     *      a color and cannot be drawn.
+     */
+    private static int argbOf (final Paint paint)
+    {
+        if (!(paint instanceof Color))
+            return 0;
+        final Color color = (Color)paint;
+        return (int)Math.round(color.getOpacity() * 255) << 24
+                | (int)Math.round(color.getRed() * 255) << 16
+                | (int)Math.round(color.getGreen() * 255) << 8
+                | (int)Math.round(color.getBlue() * 255);
+    }
+
+
+    /**
+     * State
+     *
+     * Purpose: The state saved by save().
+     */
+    private static final class State
+    {
+        private final Paint fill;
+        private final Paint stroke;
+        private final double lineWidth;
+        private final Font font;
+        private final TextAlignment align;
+        private final Effect effect;
+        private final int clipX0;
+        private final int clipY0;
+        private final int clipX1;
+        private final int clipY1;
+
+        private State (final HeadlessRenderer renderer)
+        {
+            this.fill = renderer.fill;
+            this.stroke = renderer.stroke;
+            this.lineWidth = renderer.lineWidth;
+            this.font = renderer.font;
+            this.align = renderer.align;
+            this.effect = renderer.effect;
+            this.clipX0 = renderer.clipX0;
+            this.clipY0 = renderer.clipY0;
+            this.clipX1 = renderer.clipX1;
+            this.clipY1 = renderer.clipY1;
+        }
+
+        private void restore (final HeadlessRenderer renderer)
+        {
+            renderer.fill = this.fill;
+            renderer.stroke = this.stroke;
+            renderer.lineWidth = this.lineWidth;
+            renderer.font = this.font;
+            renderer.align = this.align;
+            renderer.effect = this.effect;
+            renderer.clipX0 = this.clipX0;
+            renderer.clipY0 = this.clipY0;
+            renderer.clipX1 = this.clipX1;
+            renderer.clipY1 = this.clipY1;
+        }
+    } // final class State
+
+} // final class HeadlessRenderer
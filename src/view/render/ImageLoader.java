@@ -0,0 +1,48 @@
+package view.render;
+
+import controller.metrics.AssetLoadEvent;
+import controller.metrics.GameMetrics;
+import javafx.scene.image.Image;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ImageLoader.java
+ *
+ * Purpose: Reads and decodes image files, counting them in the GameMetrics
+ *      and reporting each load to the flight recorder.
+ */
+public final class ImageLoader
+{
+    private ImageLoader () { /* Not instantiable */ }
+
+
+    /**
+     * load()
+     *
+     * Purpose: Reads and decodes the given image file.
+     */
+    public static Image load (final String filename) throws IOException
+    {
+        final AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        final Image image;
+        try (InputStream in = new FileInputStream(filename))
+        {
+            image = new Image(in);
+        }
+        final long pixels = (long)image.getWidth() * (long)image.getHeight();
+        GameMetrics.getInstance().countImage(pixels);
+        if (event.shouldCommit())
+        {
+            event.kind = AssetLoadEvent.IMAGE;
+            event.file = filename;
+            event.bytes = pixels * 4;
+            event.commit();
+        }
+        return image;
+    } // load()
+
+} // final class ImageLoader
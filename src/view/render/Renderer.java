@@ -0,0 +1,230 @@
+package view.render;
+
+import javafx.scene.effect.Effect;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.ArcType;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Renderer.java
+ *
+ * Purpose: What a GameScene draws its layers through. The drawing methods
+ *      behave like those of the same name on a JavaFX GraphicsContext, and
+ *      state such as the fill and the font stays set until it is changed.
+ *
+ *      CanvasRenderer draws on a JavaFX canvas. HeadlessRenderer counts the
+ *      draw calls and can draw into an in-memory buffer, so that scenes can
+ *      be rendered without a display.
+ */
+public interface Renderer
+{
+    /**
+     * getWidth()
+     *
+     * Purpose: Returns the width of the layer drawn on.
+     */
+    double getWidth ();
+
+
+    /**
+     * getHeight()
+     *
+     * Purpose: Returns the height of the layer drawn on.
+     */
+    double getHeight ();
+
+
+    /**
+     * setFill()
+     *
+     * Purpose: Sets the paint of the following fills and text.
+     */
+    void setFill (Paint fill);
+
+
+    /**
+     * getFill()
+     *
+     * Purpose: Returns the paint of fills and text.
+     */
+    Paint getFill ();
+
+
+    /**
+     * setStroke()
+     *
+     * Purpose: Sets the paint of the following outlines and lines.
+     */
+    void setStroke (Paint stroke);
+
+
+    /**
+     * setLineWidth()
+     *
+     * Purpose: Sets the width of the following outlines and lines.
+     */
+    void setLineWidth (double lineWidth);
+
+
+    /**
+     * setFont()
+     *
+     * Purpose: Sets the font of the following text.
+     */
+    void setFont (Font font);
+
+
+    /**
+     * getFont()
+     *
+     * Purpose: Returns the font of text.
+     */
+    Font getFont ();
+
+
+    /**
+     * setTextAlign()
+     *
+     * Purpose: Sets how the following text is aligned on its x coordinate.
+     */
+    void setTextAlign (TextAlignment align);
+
+
+    /**
+     * getTextAlign()
+     *
+     * Purpose: Returns how text is aligned on its x coordinate.
+     */
+    TextAlignment getTextAlign ();
+
+
+    /**
+     * setEffect()
+     *
+     * Purpose: Sets the effect applied to the following draws, or removes it
+     *      when null is given.
+     */
+    void setEffect (Effect effect);
+
+
+    /**
+     * save()
+     *
+     * Purpose: Saves the current state, including the clip, to be restored
+     *      by the matching restore().
+     */
+    void save ();
+
+
+    /**
+     * restore()
+     *
+     * Purpose: Restores the state saved by the last save().
+     */
+    void restore ();
+
+
+    /**
+     * clipRect()
+     *
+     * Purpose: Limits the following draws to the given rectangle, until the
+     *      state is restored.
+     */
+    void clipRect (double x, double y, double width, double height);
+
+
+    /**
+     * clearRect()
+     *
+     * Purpose: Makes the given rectangle transparent.
+     */
+    void clearRect (double x, double y, double width, double height);
+
+
+    /**
+     * fillRect()
+     *
+     * Purpose: Fills the given rectangle.
+     */
+    void fillRect (double x, double y, double width, double height);
+
+
+    /**
+     * strokeRect()
+     *
+     * Purpose: Outlines the given rectangle.
+     */
+    void strokeRect (double x, double y, double width, double height);
+
+
+    /**
+     * strokeLine()
+     *
+     * Purpose: Draws a line between the given points.
+     */
+    void strokeLine (double x1, double y1, double x2, double y2);
+
+
+    /**
+     * fillArc()
+     *
+     * Purpose: Fills an arc of the ellipse bounded by the given rectangle,
+     *      with angles in degrees.
+     */
+    void fillArc (double x, double y, double width, double height, double startAngle, double arcExtent, ArcType closure);
+
+
+    /**
+     * fillText()
+     *
+     * Purpose: Draws a line of text with y as the baseline.
+     */
+    void fillText (String text, double x, double y);
+
+
+    /**
+     * fillCachedText()
+     *
+     * Purpose: Draws a line of text like fillText(), for text that is drawn
+     *      again and again, such as menus and messages. A renderer may keep
+     *      such text rasterized, as the TextCache does.
+     */
+    void fillCachedText (String text, double x, double y);
+
+
+    /**
+     * fillCachedText()
+     *
+     * Purpose: Draws a line of text like fillCachedText(), with the given
+     *      font, paint and alignment instead of the current ones.
+     */
+    void fillCachedText (String text, Font font, Paint fill, TextAlignment align, double x, double y);
+
+
+    /**
+     * drawImage()
+     *
+     * Purpose: Draws the given image at its own size.
+     */
+    void drawImage (Image image, double x, double y);
+
+
+    /**
+     * drawImage()
+     *
+     * Purpose: Draws the given image at the given position and size.
+     */
+    void drawImage (Image image, double x, double y, double width, double height);
+
+
+    /**
+     * drawImage()
+     *
+     * Purpose: Draws a region of the given image at the given position and size.
+     */
+    void drawImage (Image image, double srcX, double srcY, double srcWidth, double srcHeight,
+                    double destX, double destY, double destWidth, double destHeight);
+
+} // interface Renderer
@@ -0,0 +1,271 @@
+package view.render;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * TextCache.java
+ *
+ * Purpose: Measures and rasterizes lines of text once, so that text drawn
+ *      every frame becomes a single image blit.
+ *
+ *      Every (text, font, paint) combination is laid out by a Text node and
+ *      snapshotted into a tile the first time it is drawn. Widths are cached
+ *      separately per (text, font), so layout code can use the exact width
+ *      instead of an estimate. Both caches drop their least recently used
+ *      entries once they are full, so changing strings such as counters do
+ *      not grow them without bound.
+ *
+ *      Must only be used from the JavaFX application thread.
+ */
+public final class TextCache
+{
+    private static final int MAX_TILES = 256;
+    private static final int MAX_WIDTHS = 1024;
+
+    private static TextCache instance;
+
+    private final Text layout;
+    private final SnapshotParameters snapshotParameters;
+    private final Map<Key, Tile> tiles;
+    private final Map<Key, Double> widths;
+
+    private int hits;
+    private int misses;
+
+
+    /**
+     * TextCache ()
+     *
+     * Purpose: Creates an empty cache.
+     */
+    private TextCache ()
+    {
+        this.layout = new Text();
+        this.layout.setTextOrigin(VPos.BASELINE);
+        this.snapshotParameters = new SnapshotParameters();
+        this.snapshotParameters.setFill(Color.TRANSPARENT);
+        this.tiles = new BoundedMap<>(MAX_TILES);
+        this.widths = new BoundedMap<>(MAX_WIDTHS);
+    } // TextCache ()
+
+
+    /**
+     * getInstance()
+     *
+     * Purpose: Returns the shared text cache.
+     */
+    public static TextCache getInstance ()
+    {
+        if (instance == null)
+            instance = new TextCache();
+        return instance;
+    } // getInstance()
+
+
+    /**
+     * measure()
+     *
+     * Purpose: Returns the width of the given text in the given font.
+     */
+    public double measure (final String text, final Font font)
+    {
+        final Key key = new Key(text, font, null);
+        Double width = this.widths.get(key);
+        if (width == null)
+        {
+            width = this.layOut(text, font).getWidth();
+            this.widths.put(key, width);
+        }
+        return width;
+    } // measure()
+
+
+    /**
+     * fillText()
+     *
+     * Purpose: Draws the given text like GraphicsContext.fillText(), using the
+     *      font, fill and text alignment currently set on the brush.
+     */
+    public void fillText (final GraphicsContext brush, final String text, final double x, final double y)
+    {
+        this.fillText(brush, text, brush.getFont(), brush.getFill(), brush.getTextAlign(), x, y);
+    } // fillText()
+
+
+    /**
+     * fillText()
+     *
+     * Purpose: Draws the given text with the given font, paint and alignment,
+     *      with y as the baseline.
+     */
+    public void fillText (final GraphicsContext brush, final String text, final Font font, final Paint fill,
+                          final TextAlignment align, final double x, final double y)
+    {
+        final Tile tile = this.getTile(text, font, fill);
+        final double left = align == TextAlignment.CENTER ? x - tile.width/2 : align == TextAlignment.RIGHT ? x - tile.width : x;
+        brush.drawImage(tile.image, left + tile.offsetX, y + tile.offsetY);
+    } // fillText()
+
+
+    /**
+     * getHitCount()
+     *
+     * Purpose: Returns the number of draws served from a cached tile.
+     */
+    public int getHitCount ()
+    {
+        return this.hits;
+    } // getHitCount()
+
+
+    /**
+     * getMissCount()
+     *
+     * Purpose: Returns the number of draws that had to rasterize a new tile.
+     */
+    public int getMissCount ()
+    {
+        return this.misses;
+    } // getMissCount()
+
+
+    /**
+     * getTile()
+     *
+     * Purpose: Returns the cached tile for the given text, rasterizing it on
+     *      first use.
+     */
+    private Tile getTile (final String text, final Font font, final Paint fill)
+    {
+        final Key key = new Key(text, font, fill);
+        Tile tile = this.tiles.get(key);
+        if (tile != null)
+        {
+            this.hits++;
+            return tile;
+        }
+
+        this.misses++;
+        this.layout.setFill(fill);
+        final Bounds bounds = this.layOut(text, font);
+        final int width = Math.max(1, (int)Math.ceil(bounds.getWidth()));
+        final int height = Math.max(1, (int)Math.ceil(bounds.getHeight()));
+        this.snapshotParameters.setViewport(new Rectangle2D(bounds.getMinX(), bounds.getMinY(), width, height));
+
+        tile = new Tile(this.layout.snapshot(this.snapshotParameters, new WritableImage(width, height)),
+                bounds.getWidth(), bounds.getMinX(), bounds.getMinY());
+        this.tiles.put(key, tile);
+        this.widths.put(new Key(text, font, null), bounds.getWidth());
+        return tile;
+    } // getTile()
+
+
+    private Bounds layOut (final String text, final Font font)
+    {
+        this.layout.setText(text);
+        this.layout.setFont(font);
+        return this.layout.getLayoutBounds();
+    }
+
+
+    /**
+     * Tile
+     *
+     * Purpose: A rasterized line of text. The offsets place the image relative
+     *      to the left end of the baseline.
+     */
+    private static final class Tile
+    {
+        private final WritableImage image;
+        private final double width;
+        private final double offsetX;
+        private final double offsetY;
+
+        private Tile (final WritableImage image, final double width, final double offsetX, final double offsetY)
+        {
+            this.image = image;
+            this.width = width;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+
+    } // final class Tile
+
+
+    /**
+     * Key
+     *
+     * Purpose: Identifies a line of text by its string, font and paint.
+     */
+    private static final class Key
+    {
+        private final String text;
+        private final Font font;
+        private final Paint fill;
+
+        private Key (final String text, final Font font, final Paint fill)
+        {
+            this.text = text;
+            this.font = font;
+            this.fill = fill;
+        }
+
+        @Override
+        public boolean equals (final Object other)
+        {
+            if (!(other instanceof Key))
+                return false;
+            final Key key = (Key)other;
+            return this.text.equals(key.text) && Objects.equals(this.font, key.font) && Objects.equals(this.fill, key.fill);
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            return Objects.hash(this.text, this.font, this.fill);
+        }
+
+    } // final class Key
+
+
+    /**
+     * BoundedMap
+     *
+     * Purpose: A map that keeps its entries in access order and drops the
+     *      least recently used one when it grows past its capacity.
+     */
+    private static final class BoundedMap<K, V> extends LinkedHashMap<K, V>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private BoundedMap (final int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry (final Map.Entry<K, V> eldest)
+        {
+            return this.size() > this.capacity;
+        }
+
+    } // final class BoundedMap
+
+} // final class TextCache
@@ -0,0 +1,132 @@
+package view.timeline;
+
+/**
+ * Timeline.java
+ *
+ * Purpose: An animation described as data, read from a timeline file by the
+ *      TimelineLoader and played by a TimelinePlayer.
+ *
+ *      A timeline lasts a number of frames, counted from 1. Its sprites are
+ *      regions of sprite sheets drawn from one frame to another, inclusive,
+ *      in the order they are listed. A sprite can move, resize and change
+ *      brightness from its first frame to its last, in a straight line or
+ *      along an arc that rises above it, such as a thrown item, and evenly
+ *      or eased in or out, such as a falling item. A sprite can also step
+ *      through a row of cells of its sheet, one per frame, such as a
+ *      spinning ball. Cues play a sound effect or tell the scene that a
+ *      frame was reached.
+ *
+ *      The keyframes are kept in flat arrays, and the frames on which the
+ *      sprites must be redrawn are worked out once, when the timeline is
+ *      loaded.
+ */
+public final class Timeline
+{
+    static final int SOUND = 0;         // the cue plays a sound effect
+    static final int SCENE = 1;         // the cue is passed to the scene
+
+    static final int EASE_NONE = 0;     // the sprite changes evenly
+    static final int EASE_IN = 1;       // the sprite starts slowly and speeds up
+    static final int EASE_OUT = 2;      // the sprite starts quickly and slows down
+
+    private final String name;
+    private final int length;
+
+    final int[] spriteFrom;
+    final int[] spriteTo;
+    final int[] spriteSheet;
+    final double[] spriteSource;        // x, y, width, height in the sheet
+    final double[] spriteStart;         // x, y, width, height on the first frame
+    final double[] spriteEnd;           // x, y, width, height on the last frame
+    final double[] spriteBrightness;    // on the first frame, on the last frame
+    final double[] spriteArc;           // height of the arc above the straight line
+    final int[] spriteEase;
+    final int[] spriteCells;            // cells stepped through, 1 for a still sprite
+
+    final int[] cueFrame;
+    final int[] cueKind;
+    final String[] cueName;
+
+    final boolean[] redraw;             // whether the sprites change on a frame
+
+
+    /**
+     * Timeline ()
+     *
+     * Purpose: Creates a timeline from the given keyframes.
+     */
+    Timeline (final String name, final int length, final int[] spriteFrom, final int[] spriteTo,
+              final int[] spriteSheet, final double[] spriteSource, final double[] spriteStart,
+              final double[] spriteEnd, final double[] spriteBrightness, final double[] spriteArc,
+              final int[] spriteEase, final int[] spriteCells, final int[] cueFrame, final int[] cueKind,
+              final String[] cueName)
+    {
+        this.name = name;
+        this.length = length;
+        this.spriteFrom = spriteFrom;
+        this.spriteTo = spriteTo;
+        this.spriteSheet = spriteSheet;
+        this.spriteSource = spriteSource;
+        this.spriteStart = spriteStart;
+        this.spriteEnd = spriteEnd;
+        this.spriteBrightness = spriteBrightness;
+        this.spriteArc = spriteArc;
+        this.spriteEase = spriteEase;
+        this.spriteCells = spriteCells;
+        this.cueFrame = cueFrame;
+        this.cueKind = cueKind;
+        this.cueName = cueName;
+
+        this.redraw = new boolean[length + 1];
+        this.redraw[1] = true;
+        for (int sprite = 0; sprite < spriteFrom.length; sprite++)
+        {
+            this.redraw[spriteFrom[sprite]] = true;
+            if (spriteTo[sprite] < length)
+                this.redraw[spriteTo[sprite] + 1] = true;
+            if (this.isTweened(sprite))
+                for (int frame = spriteFrom[sprite]; frame <= spriteTo[sprite]; frame++)
+                    this.redraw[frame] = true;
+        }
+    } // Timeline ()
+
+
+    /**
+     * getName()
+     *
+     * Purpose: Returns the name of the timeline.
+     */
+    public String getName ()
+    {
+        return this.name;
+    } // getName()
+
+
+    /**
+     * getLength()
+     *
+     * Purpose: Returns the number of frames the timeline lasts.
+     */
+    public int getLength ()
+    {
+        return this.length;
+    } // getLength()
+
+
+    /**
+     * isTweened()
+     *
+     * Purpose: Returns whether the given sprite changes between its first
+     *      and last frame.
+     */
+    private boolean isTweened (final int sprite)
+    {
+        if (this.spriteArc[sprite] != 0.0 || this.spriteCells[sprite] > 1)
+            return true;
+        for (int i = sprite * 4; i < sprite * 4 + 4; i++)
+            if (this.spriteStart[i] != this.spriteEnd[i])
+                return true;
+        return this.spriteBrightness[sprite * 2] != this.spriteBrightness[sprite * 2 + 1];
+    } // isTweened()
+
+} // final class Timeline
@@ -0,0 +1,245 @@
+package view.timeline;
+
+import controller.audio.SfxLibrary;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TimelineLoader.java
+ *
+ * Purpose: Reads Timelines from a timeline file. Each line of the file is
+ *      one of the following, where blank lines and lines starting with # are
+ *      ignored, and every line after a timeline line belongs to it:
+ *
+ *          timeline <name> <frames>
+ *          sprite <from> <to> <sheet> <sx> <sy> <sw> <sh> <x> <y> <w> <h>
+ *                 [-> <x> <y> <w> <h>] [arc <height>] [ease in|out]
+ *                 [bright <b> [-> <b>]] [cells <n>]
+ *          sound <frame> <sound effect>
+ *          cue <frame> <name>
+ *
+ *      Sheets are named by the scene that loads the file. Sound effects are
+ *      named as in SfxLibrary.
+ */
+public final class TimelineLoader
+{
+    private TimelineLoader () { /* Not instantiable */ }
+
+
+    /**
+     * load()
+     *
+     * Purpose: Reads every timeline of the given file, by name. The given
+     *      sheet names are the sheets the sprites can be drawn from, and a
+     *      sprite keeps the index of its sheet in that array.
+     */
+    public static Map<String, Timeline> load (final String filename, final String[] sheets) throws IOException
+    {
+        final Map<String, Timeline> timelines = new HashMap<>();
+        Builder builder = null;
+        try (BufferedReader bf = new BufferedReader(new FileReader(filename)))
+        {
+            String line;
+            int lineNumber = 0;
+            while ((line = bf.readLine()) != null)
+            {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                final String[] tokens = line.split("\\s+");
+                try {
+                    if (tokens[0].equals("timeline"))
+                    {
+                        if (builder != null)
+                            timelines.put(builder.name, builder.build());
+                        builder = new Builder(tokens[1], Integer.parseInt(tokens[2]));
+                    }
+                    else if (builder == null)
+                        throw new IllegalArgumentException("no timeline was started");
+                    else if (tokens[0].equals("sprite"))
+                        builder.addSprite(tokens, sheets);
+                    else if (tokens[0].equals("sound"))
+                        builder.addCue(tokens, Timeline.SOUND, SfxLibrary.valueOf(tokens[2]).name());
+                    else if (tokens[0].equals("cue"))
+                        builder.addCue(tokens, Timeline.SCENE, tokens[2].intern());
+                    else
+                        throw new IllegalArgumentException("unknown line " + tokens[0]);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException(filename + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        if (builder != null)
+            timelines.put(builder.name, builder.build());
+        return timelines;
+    } // load()
+
+
+    /**
+     * Builder
+     *
+     * Purpose: Collects the keyframes of the timeline being read.
+     */
+    private static final class Builder
+    {
+        private final String name;
+        private final int length;
+
+        private final List<int[]> spriteFrames = new ArrayList<>();
+        private final List<Integer> spriteSheets = new ArrayList<>();
+        private final List<double[]> spriteValues = new ArrayList<>();
+        private final List<Integer> spriteEases = new ArrayList<>();
+        private final List<Integer> spriteCells = new ArrayList<>();
+        private final List<Integer> cueFrames = new ArrayList<>();
+        private final List<Integer> cueKinds = new ArrayList<>();
+        private final List<String> cueNames = new ArrayList<>();
+
+
+        private Builder (final String name, final int length)
+        {
+            if (length < 1)
+                throw new IllegalArgumentException("a timeline must last at least one frame");
+            this.name = name;
+            this.length = length;
+        }
+
+
+        private void addSprite (final String[] tokens, final String[] sheets)
+        {
+            final int from = this.parseFrame(tokens[1]);
+            final int to = this.parseFrame(tokens[2]);
+            if (to < from)
+                throw new IllegalArgumentException("a sprite must end after it starts");
+            final int sheet = Arrays.asList(sheets).indexOf(tokens[3]);
+            if (sheet < 0)
+                throw new IllegalArgumentException("unknown sheet " + tokens[3]);
+
+            // source (4), start (4), end (4), brightness (2), arc (1)
+            final double[] values = new double[15];
+            for (int i = 0; i < 8; i++)
+                values[i] = Double.parseDouble(tokens[4 + i]);
+            System.arraycopy(values, 4, values, 8, 4);
+            int next = 12;
+            if (next < tokens.length && tokens[next].equals("->"))
+            {
+                for (int i = 0; i < 4; i++)
+                    values[8 + i] = Double.parseDouble(tokens[next + 1 + i]);
+                next += 5;
+            }
+            if (next < tokens.length && tokens[next].equals("arc"))
+            {
+                values[14] = Double.parseDouble(tokens[next + 1]);
+                next += 2;
+            }
+            int ease = Timeline.EASE_NONE;
+            if (next < tokens.length && tokens[next].equals("ease"))
+            {
+                if (tokens[next + 1].equals("in"))
+                    ease = Timeline.EASE_IN;
+                else if (tokens[next + 1].equals("out"))
+                    ease = Timeline.EASE_OUT;
+                else
+                    throw new IllegalArgumentException("unknown ease " + tokens[next + 1]);
+                next += 2;
+            }
+            if (next < tokens.length && tokens[next].equals("bright"))
+            {
+                values[12] = Double.parseDouble(tokens[next + 1]);
+                values[13] = values[12];
+                next += 2;
+                if (next < tokens.length && tokens[next].equals("->"))
+                {
+                    values[13] = Double.parseDouble(tokens[next + 1]);
+                    next += 2;
+                }
+            }
+            int cells = 1;
+            if (next < tokens.length && tokens[next].equals("cells"))
+            {
+                cells = Integer.parseInt(tokens[next + 1]);
+                if (cells < 1)
+                    throw new IllegalArgumentException("a sprite must have at least one cell");
+                next += 2;
+            }
+            if (next != tokens.length)
+                throw new IllegalArgumentException("unexpected " + tokens[next]);
+
+            this.spriteFrames.add(new int[] { from, to });
+            this.spriteSheets.add(sheet);
+            this.spriteValues.add(values);
+            this.spriteEases.add(ease);
+            this.spriteCells.add(cells);
+        }
+
+
+        private void addCue (final String[] tokens, final int kind, final String cue)
+        {
+            if (tokens.length != 3)
+                throw new IllegalArgumentException("a cue takes a frame and a name");
+            this.cueFrames.add(this.parseFrame(tokens[1]));
+            this.cueKinds.add(kind);
+            this.cueNames.add(cue);
+        }
+
+
+        private int parseFrame (final String token)
+        {
+            final int frame = Integer.parseInt(token);
+            if (frame < 1 || frame > this.length)
+                throw new IllegalArgumentException("frame " + frame + " is outside 1 to " + this.length);
+            return frame;
+        }
+
+
+        private Timeline build ()
+        {
+            final int sprites = this.spriteFrames.size();
+            final int[] from = new int[sprites];
+            final int[] to = new int[sprites];
+            final int[] sheet = new int[sprites];
+            final double[] source = new double[sprites * 4];
+            final double[] start = new double[sprites * 4];
+            final double[] end = new double[sprites * 4];
+            final double[] brightness = new double[sprites * 2];
+            final double[] arc = new double[sprites];
+            final int[] ease = new int[sprites];
+            final int[] cells = new int[sprites];
+            for (int i = 0; i < sprites; i++)
+            {
+                from[i] = this.spriteFrames.get(i)[0];
+                to[i] = this.spriteFrames.get(i)[1];
+                sheet[i] = this.spriteSheets.get(i);
+                final double[] values = this.spriteValues.get(i);
+                System.arraycopy(values, 0, source, i * 4, 4);
+                System.arraycopy(values, 4, start, i * 4, 4);
+                System.arraycopy(values, 8, end, i * 4, 4);
+                System.arraycopy(values, 12, brightness, i * 2, 2);
+                arc[i] = values[14];
+                ease[i] = this.spriteEases.get(i);
+                cells[i] = this.spriteCells.get(i);
+            }
+
+            final int cues = this.cueFrames.size();
+            final int[] cueFrame = new int[cues];
+            final int[] cueKind = new int[cues];
+            final String[] cueName = new String[cues];
+            for (int i = 0; i < cues; i++)
+            {
+                cueFrame[i] = this.cueFrames.get(i);
+                cueKind[i] = this.cueKinds.get(i);
+                cueName[i] = this.cueNames.get(i);
+            }
+            return new Timeline(this.name, this.length, from, to, sheet, source, start, end, brightness, arc,
+                    ease, cells, cueFrame, cueKind, cueName);
+        }
+    } // final class Builder
+
+} // final class TimelineLoader
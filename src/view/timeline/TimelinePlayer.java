@@ -0,0 +1,138 @@
+package view.timeline;
+
+import controller.audio.SfxPlayer;
+import javafx.scene.effect.ColorAdjust;
+import view.GameAnimation;
+import view.render.Renderer;
+
+/**
+ * TimelinePlayer.java
+ *
+ * Purpose: Plays Timelines onto a layer of a scene, one frame per game
+ *      frame. A single player can play any number of timelines one after
+ *      the other, and playing one allocates nothing.
+ *
+ *      On a frame where the sprites change, the layer is cleared and every
+ *      sprite of the frame is drawn. The cues of the frame are then played.
+ *      A cue may start another timeline on the same player, which is then
+ *      played from the next frame. The player stops after the last frame.
+ */
+public final class TimelinePlayer extends GameAnimation
+{
+    private final TimelineStage stage;
+    private final Renderer brush;
+    private final ColorAdjust colorAdjust;
+
+    private Timeline timeline;
+    private int frame;
+    private int plays;
+
+
+    /**
+     * TimelinePlayer ()
+     *
+     * Purpose: Creates a player for the given scene that draws with the
+     *      given brush.
+     */
+    public TimelinePlayer (final TimelineStage stage, final Renderer brush)
+    {
+        this.stage = stage;
+        this.brush = brush;
+        this.colorAdjust = new ColorAdjust();
+    } // TimelinePlayer ()
+
+
+    /**
+     * start()
+     *
+     * Purpose: Plays the given timeline.
+     */
+    public void start (final Timeline timeline)
+    {
+        this.timeline = timeline;
+        this.frame = 0;
+        this.plays++;
+        this.start();
+    } // start()
+
+
+    @Override
+    public void handle (final long now)
+    {
+        final Timeline timeline = this.timeline;
+        final int frame = ++this.frame;
+        if (timeline.redraw[frame])
+            this.draw(timeline, frame);
+
+        final int plays = this.plays;
+        for (int cue = 0; cue < timeline.cueFrame.length; cue++)
+        {
+            if (timeline.cueFrame[cue] != frame)
+                continue;
+            if (timeline.cueKind[cue] == Timeline.SOUND)
+                SfxPlayer.getInstance().play(timeline.cueName[cue]);
+            else
+                this.stage.onCue(timeline.cueName[cue]);
+            if (this.plays != plays || !this.isRunning())
+                return;     // the cue started another timeline or stopped this one
+        }
+        if (frame == timeline.getLength())
+            this.stop();
+    } // handle()
+
+
+    /**
+     * draw()
+     *
+     * Purpose: Clears the layer and draws the sprites of the given frame.
+     */
+    private void draw (final Timeline timeline, final int frame)
+    {
+        this.brush.clearRect(0, 0, this.brush.getWidth(), this.brush.getHeight());
+        for (int sprite = 0; sprite < timeline.spriteFrom.length; sprite++)
+        {
+            final int from = timeline.spriteFrom[sprite];
+            final int to = timeline.spriteTo[sprite];
+            if (frame < from || frame > to)
+                continue;
+            final double t = ease(timeline.spriteEase[sprite], to == from ? 0.0 : (double)(frame - from) / (to - from));
+            final int i = sprite * 4;
+            final double x = tween(timeline.spriteStart[i], timeline.spriteEnd[i], t);
+            final double y = tween(timeline.spriteStart[i+1], timeline.spriteEnd[i+1], t) - 4 * timeline.spriteArc[sprite] * t * (1 - t);
+            final int cell = (frame - from) % timeline.spriteCells[sprite];
+            final double brightness = tween(timeline.spriteBrightness[sprite*2], timeline.spriteBrightness[sprite*2+1], t);
+            if (brightness != 0.0)
+            {
+                this.colorAdjust.setBrightness(brightness);
+                this.brush.setEffect(this.colorAdjust);
+            }
+            final int sheet = timeline.spriteSheet[sprite];
+            this.brush.drawImage(this.stage.getSheet(sheet),
+                    this.stage.getSheetX(sheet) + timeline.spriteSource[i] + cell * timeline.spriteSource[i+2],
+                    this.stage.getSheetY(sheet) + timeline.spriteSource[i+1],
+                    timeline.spriteSource[i+2], timeline.spriteSource[i+3],
+                    x, y, tween(timeline.spriteStart[i+2], timeline.spriteEnd[i+2], t),
+                    tween(timeline.spriteStart[i+3], timeline.spriteEnd[i+3], t));
+            if (brightness != 0.0)
+                this.brush.setEffect(null);
+        }
+    } // draw()
+
+
+    private static double tween (final double start, final double end, final double t)
+    {
+        return start + (end - start) * t;
+    }
+
+
+    private static double ease (final int ease, final double t)
+    {
+        switch (ease)
+        {
+            case Timeline.EASE_IN:  return t * t;
+            case Timeline.EASE_OUT: return t * (2 - t);
+            default:                return t;
+        }
+    }
+
+} // final class TimelinePlayer
@@ -0,0 +1,47 @@
+package view.timeline;
+
+import javafx.scene.image.Image;
+
+/**
+ * TimelineStage.java
+ *
+ * Purpose: The scene a TimelinePlayer plays in. It provides the sprite
+ *      sheets the timelines draw from and is told about their cues.
+ */
+public interface TimelineStage
+{
+    /**
+     * getSheet()
+     *
+     * Purpose: Returns the image of the sheet with the given index.
+     */
+    Image getSheet (int sheet);
+
+
+    /**
+     * getSheetX()
+     *
+     * Purpose: Returns where the sprites of the given sheet start in its
+     *      image, such as the region of the Pokemon being battled.
+     */
+    double getSheetX (int sheet);
+
+
+    /**
+     * getSheetY()
+     *
+     * Purpose: Returns where the sprites of the given sheet start in its
+     *      image.
+     */
+    double getSheetY (int sheet);
+
+
+    /**
+     * onCue()
+     *
+     * Purpose: Called when a timeline reaches one of its scene cues, after
+     *      the sprites of the frame are drawn.
+     */
+    void onCue (String cue);
+
+} // interface TimelineStage